@@ -18,23 +18,101 @@ package arcus.analytics;
 import arcus.analytics.tag.CustomTag;
 import arcus.analytics.tag.ArcusTag;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A facade for tagging interesting application events.
+ *
+ * Tagging only adds the tag to a queue, so it's safe (and cheap) to call from any thread.  A single
+ * background thread takes the queued tags in batches, evaluates the global attributes once per
+ * batch and hands each route's matching tags to its endpoints together.  When a spool file has been
+ * set each batch is written to it, with its global attributes, before being routed, so a batch
+ * interrupted by the process dying is delivered the next time the spool is set.
  */
 public class ArcusAnalytics {
-    private static final List<TagRoute> routeList = new ArrayList<>();
+    static final int MAX_BATCH_SIZE = 100;
+    static final long BATCH_DELAY_MS = 250;
+
+    private static final List<TagRoute> routeList = new CopyOnWriteArrayList<>();
+    private static final Queue<ArcusTag> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "analytics");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+    private static final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    // Only touched on the executor
+    private static TagSpool spool;
 
     public static void tag(String name, Map<String,Object> attributes) {
         tag(new CustomTag(name, attributes));
     }
 
     public static void tag(ArcusTag tag) {
-        for (TagRoute thisRoute : routeList) {
-            thisRoute.route(tag, GlobalTagAttributes.getInstance());
+        pending.offer(tag);
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.schedule(drain, BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Spools batches to {@code file} from now on, first delivering any batches left in it from a
+     * previous run.
+     */
+    public static void setSpoolFile(final File file) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                spool = new TagSpool(file);
+                for (TagSpool.Batch batch : spool.recover()) {
+                    dispatch(batch.tags, batch.globalAttributes);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits (up to {@code timeoutMs}) for the tags queued before this call to be delivered.
+     *
+     * @return false if they weren't delivered in time
+     */
+    public static boolean flush(long timeoutMs) {
+        try {
+            executor.submit(drain).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (ExecutionException | TimeoutException ex) {
+            return false;
         }
     }
 
@@ -49,4 +127,62 @@ public class ArcusAnalytics {
     public static void deleteAllRoutes() {
         routeList.clear();
     }
+
+    private static void drain() {
+        // Cleared first so a tag queued while draining schedules another pass
+        drainScheduled.set(false);
+
+        List<ArcusTag> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        ArcusTag next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                spoolAndDispatch(batch);
+                batch = new ArrayList<>(MAX_BATCH_SIZE);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            spoolAndDispatch(batch);
+        }
+    }
+
+    private static void spoolAndDispatch(List<ArcusTag> batch) {
+        if (spool == null && routeList.isEmpty()) {
+            return;
+        }
+
+        Map<String,Object> globalAttributes = GlobalTagAttributes.getInstance().get();
+        long id = -1;
+        if (spool != null) {
+            try {
+                id = spool.append(batch, globalAttributes);
+            }
+            catch (IOException ignored) {
+                // Still deliver it, it just won't survive the process dying
+            }
+        }
+
+        dispatch(batch, globalAttributes);
+
+        if (id != -1) {
+            try {
+                spool.commit(id);
+            }
+            catch (IOException ignored) {
+                // Redelivered on the next start
+            }
+        }
+    }
+
+    private static void dispatch(List<ArcusTag> batch, Map<String,Object> globalAttributes) {
+        if (routeList.isEmpty()) {
+            return;
+        }
+
+        Map<ArcusTag, ArcusTag> merged = new IdentityHashMap<>(batch.size() * 2);
+        for (TagRoute thisRoute : routeList) {
+            thisRoute.route(batch, globalAttributes, merged);
+        }
+    }
 }
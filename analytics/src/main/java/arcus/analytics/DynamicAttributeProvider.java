@@ -16,8 +16,8 @@
 package arcus.analytics;
 
 /**
- * A provider of dynamic attribute values. This provider will be invoked to evaluate the value for
- * an attribute, each time the attribute is rendered to an endpoint.
+ * A provider of dynamic attribute values. This provider will be invoked on the analytics thread to
+ * evaluate the value for an attribute, once for each batch of tags rendered to the endpoints.
  */
 public interface DynamicAttributeProvider {
     Object getValueForAttribute (String attribute);
@@ -17,6 +17,7 @@ package arcus.analytics;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A set of tag attributes that should be applied to each and every tag. This class eliminates the
@@ -27,15 +28,17 @@ import java.util.Map;
  * 1. Static attributes whose value remains constant (useful for things for device identifiers, app
  * versions, etc).
  *
- * 2. Dynamic attributes whose value is evaluated each time the tag is committed to an endpoint.
- * Useful for runtime contextual values (timestamps, memory use, etc.)
+ * 2. Dynamic attributes whose value is evaluated once for each batch of tags delivered to the
+ * endpoints. Useful for runtime contextual values (timestamps, memory use, etc.)
+ *
+ * Attributes may be put from any thread.
  */
 public class GlobalTagAttributes {
 
     private final static GlobalTagAttributes instance = new GlobalTagAttributes();
 
-    private final Map<String,Object> staticAttributes = new HashMap<>();
-    private final Map<String,DynamicAttributeProvider> dynamicAttributes = new HashMap<>();
+    private final Map<String,Object> staticAttributes = new ConcurrentHashMap<>();
+    private final Map<String,DynamicAttributeProvider> dynamicAttributes = new ConcurrentHashMap<>();
 
     private GlobalTagAttributes() {}
 
@@ -46,22 +49,28 @@ public class GlobalTagAttributes {
     public Map<String,Object> get() {
         Map<String,Object> globalAttributes = new HashMap<>();
 
-        for (String thisStaticAttribute : staticAttributes.keySet()) {
-            globalAttributes.put(thisStaticAttribute, staticAttributes.get(thisStaticAttribute));
-        }
+        globalAttributes.putAll(staticAttributes);
 
-        for (String thisDynamicAttribute : dynamicAttributes.keySet()) {
-            globalAttributes.put(thisDynamicAttribute, dynamicAttributes.get(thisDynamicAttribute).getValueForAttribute(thisDynamicAttribute));
+        for (Map.Entry<String,DynamicAttributeProvider> thisDynamicAttribute : dynamicAttributes.entrySet()) {
+            globalAttributes.put(thisDynamicAttribute.getKey(), thisDynamicAttribute.getValue().getValueForAttribute(thisDynamicAttribute.getKey()));
         }
 
         return globalAttributes;
     }
 
     public void put (String attribute, Object withValue) {
-        staticAttributes.put(attribute, withValue);
+        if (withValue == null) {
+            staticAttributes.remove(attribute);
+        } else {
+            staticAttributes.put(attribute, withValue);
+        }
     }
 
     public void put (String attribute, DynamicAttributeProvider provider) {
-        dynamicAttributes.put(attribute, provider);
+        if (provider == null) {
+            dynamicAttributes.remove(attribute);
+        } else {
+            dynamicAttributes.put(attribute, provider);
+        }
     }
 }
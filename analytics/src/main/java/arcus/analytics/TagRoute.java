@@ -17,7 +17,10 @@ package arcus.analytics;
 
 import arcus.analytics.endpoint.AnalyticsEndpoint;
 import arcus.analytics.tag.ArcusTag;
+import arcus.analytics.tag.CustomTag;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,10 +40,31 @@ public class TagRoute implements Predicate<ArcusTag> {
         this.destinations = destinations;
     }
 
-    void route(ArcusTag tag, GlobalTagAttributes globalTagAttributes) {
-        if (apply(tag)) {
-            for (AnalyticsEndpoint thisEndpoint : destinations) {
-                thisEndpoint.commitTag(tag.getName(), mergeAttributes(tag.getAttributes(), globalTagAttributes));
+    /**
+     * Hands the tags in the batch matching this route to each of its endpoints, with the global
+     * attributes merged in.  Merged tags are shared through {@code merged} so a tag matching
+     * several routes is only merged once.
+     */
+    void route(List<ArcusTag> batch, Map<String,Object> globalAttributes, Map<ArcusTag, ArcusTag> merged) {
+        List<ArcusTag> matching = null;
+        for (ArcusTag thisTag : batch) {
+            if (apply(thisTag)) {
+                if (matching == null) {
+                    matching = new ArrayList<>(batch.size());
+                }
+                matching.add(mergeAttributes(thisTag, globalAttributes, merged));
+            }
+        }
+
+        if (matching == null) {
+            return;
+        }
+
+        for (AnalyticsEndpoint thisEndpoint : destinations) {
+            try {
+                thisEndpoint.commitTags(matching);
+            } catch (RuntimeException ignored) {
+                // One endpoint failing shouldn't keep the tags from the others
             }
         }
     }
@@ -51,27 +75,31 @@ public class TagRoute implements Predicate<ArcusTag> {
      */
     @Override
     public boolean apply(ArcusTag arcusTag) {
+        if (conditions.isEmpty()) {
+            return matchAll;
+        }
 
-        boolean matchesAny = false;
-        boolean matchesAll = true;
-
+        // Stop at the first condition that decides it
         for (RoutePredicate thisCondition : conditions) {
-            if (thisCondition.apply(arcusTag)) {
-                matchesAny = true;
-            } else {
-                matchesAll = false;
+            if (thisCondition.apply(arcusTag) != matchAll) {
+                return !matchAll;
             }
         }
 
-        return matchAll ? matchesAll : matchesAny;
+        return matchAll;
     }
 
-    private Map<String,Object> mergeAttributes(Map<String,Object> localAttributes, GlobalTagAttributes globalTagAttributes) {
-        Map<String,Object> mergedAttributes = new HashMap<>();
+    private ArcusTag mergeAttributes(ArcusTag tag, Map<String,Object> globalAttributes, Map<ArcusTag, ArcusTag> merged) {
+        ArcusTag mergedTag = merged.get(tag);
+        if (mergedTag == null) {
+            Map<String,Object> mergedAttributes = new HashMap<>((globalAttributes.size() + tag.getAttributes().size()) * 2);
+            mergedAttributes.putAll(globalAttributes);
+            mergedAttributes.putAll(tag.getAttributes());
 
-        mergedAttributes.putAll(globalTagAttributes.get());
-        mergedAttributes.putAll(localAttributes);
+            mergedTag = new CustomTag(tag.getName(), Collections.unmodifiableMap(mergedAttributes));
+            merged.put(tag, mergedTag);
+        }
 
-        return mergedAttributes;
+        return mergedTag;
     }
 }
@@ -0,0 +1,264 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.analytics;
+
+import arcus.analytics.tag.ArcusTag;
+import arcus.analytics.tag.CustomTag;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append only log of the batches of tags that have been taken off the queue but not yet
+ * delivered, so a batch that was in progress when the process died is delivered on the next start.
+ *
+ * Each batch is written (and flushed) before it is routed and a commit record is written once it
+ * has been, batches without a commit are returned by {@link #recover()}.  The log is emptied
+ * whenever it grows past {@link #COMPACT_BYTES} and nothing is outstanding.  Each record is
+ * serialized first and written to the file in one call, so a failure part way through a batch
+ * never leaves half of it in the log; after a failed write the file is reopened for the next one.
+ *
+ * A batch is stored with the global attributes it was routed with, so a recovered batch is
+ * delivered with the app version, time and so on of the run that tagged it rather than the
+ * current one.
+ *
+ * Attribute values are stored as strings, numbers, booleans or null; anything else is stored as
+ * its {@code String.valueOf}.  Not thread safe, only used from the analytics thread.
+ */
+class TagSpool {
+    static final long COMPACT_BYTES = 64 * 1024;
+    private static final byte BATCH = 1;
+    private static final byte COMMIT = 2;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+
+    // writeUTF is limited to 64k bytes
+    private static final int MAX_STRING_LENGTH = 16 * 1024;
+
+    private final File file;
+    private OutputStream out;
+    private long nextBatchId = 0;
+    private int outstanding = 0;
+
+    TagSpool(File file) {
+        this.file = file;
+    }
+
+    /**
+     * A batch of tags and the global attributes to deliver them with.
+     */
+    static final class Batch {
+        final List<ArcusTag> tags;
+        final Map<String, Object> globalAttributes;
+
+        Batch(List<ArcusTag> tags, Map<String, Object> globalAttributes) {
+            this.tags = tags;
+            this.globalAttributes = globalAttributes;
+        }
+    }
+
+    /**
+     * Reads the batches that were never committed and empties the log.
+     */
+    List<Batch> recover() {
+        Map<Long, Batch> batches = new LinkedHashMap<>();
+        if (file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    byte type = in.readByte();
+                    long id = in.readLong();
+                    nextBatchId = Math.max(nextBatchId, id + 1);
+                    if (type == BATCH) {
+                        batches.put(id, readBatch(in));
+                    }
+                    else if (type == COMMIT) {
+                        batches.remove(id);
+                    }
+                    else {
+                        break; // Corrupt, keep what was read so far
+                    }
+                }
+            }
+            catch (EOFException ignored) {
+                // End of the log, or a record cut off part way through writing
+            }
+            catch (IOException ignored) {
+                // Unreadable, deliver what was read
+            }
+        }
+
+        truncate();
+        return new ArrayList<>(batches.values());
+    }
+
+    /**
+     * @return the id to {@link #commit(long)} once the batch has been delivered
+     */
+    long append(List<ArcusTag> batch, Map<String, Object> globalAttributes) throws IOException {
+        long id = nextBatchId++;
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(record);
+        stream.writeByte(BATCH);
+        stream.writeLong(id);
+        writeAttributes(stream, globalAttributes);
+        stream.writeInt(batch.size());
+        for (ArcusTag tag : batch) {
+            writeString(stream, tag.getName());
+            writeAttributes(stream, tag.getAttributes());
+        }
+        write(record);
+        outstanding++;
+        return id;
+    }
+
+    void commit(long id) throws IOException {
+        outstanding = Math.max(0, outstanding - 1);
+        if (outstanding == 0 && file.length() > COMPACT_BYTES) {
+            truncate();
+            return;
+        }
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(9);
+        DataOutputStream stream = new DataOutputStream(record);
+        stream.writeByte(COMMIT);
+        stream.writeLong(id);
+        write(record);
+    }
+
+    private void write(ByteArrayOutputStream record) throws IOException {
+        try {
+            if (out == null) {
+                out = new FileOutputStream(file, true);
+            }
+            record.writeTo(out);
+        }
+        catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void close() {
+        if (out != null) {
+            try {
+                out.close();
+            }
+            catch (IOException ignored) {}
+            out = null;
+        }
+    }
+
+    private void truncate() {
+        close();
+        file.delete();
+    }
+
+    private static Batch readBatch(DataInputStream in) throws IOException {
+        Map<String, Object> globalAttributes = readAttributes(in);
+        int count = in.readInt();
+        List<ArcusTag> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            tags.add(new CustomTag(name, readAttributes(in)));
+        }
+        return new Batch(tags, globalAttributes);
+    }
+
+    private static void writeAttributes(DataOutputStream out, Map<String, Object> attributes) throws IOException {
+        out.writeInt(attributes.size());
+        for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            writeString(out, attribute.getKey());
+            writeValue(out, attribute.getValue());
+        }
+    }
+
+    private static Map<String, Object> readAttributes(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Object> attributes = count == 0 ? Collections.<String, Object>emptyMap() : new HashMap<String, Object>(count * 2);
+        for (int i = 0; i < count; i++) {
+            attributes.put(in.readUTF(), readValue(in));
+        }
+        return attributes;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeUTF(value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        }
+        else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        }
+        else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+        else {
+            out.writeByte(STRING);
+            writeString(out, String.valueOf(value));
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case NULL:    return null;
+            case LONG:    return in.readLong();
+            case INTEGER: return in.readInt();
+            case DOUBLE:  return in.readDouble();
+            case FLOAT:   return in.readFloat();
+            case BOOLEAN: return in.readBoolean();
+            case STRING:  return in.readUTF();
+            default:      throw new IOException("Unknown value type " + kind);
+        }
+    }
+}
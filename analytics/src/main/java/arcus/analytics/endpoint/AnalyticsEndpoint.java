@@ -15,7 +15,10 @@
  */
 package arcus.analytics.endpoint;
 
+import arcus.analytics.tag.ArcusTag;
+
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +34,18 @@ public abstract class AnalyticsEndpoint {
      */
     public abstract void commitTag(String name, Map<String,Object> attributes);
 
+    /**
+     * Commit a batch of tags to this endpoint, called on the analytics thread. This implementation
+     * commits each tag in turn; endpoints able to send several tags at once should override it.
+     *
+     * @param tags The tags, in the order they were tagged, with global attributes already merged
+     */
+    public void commitTags(List<ArcusTag> tags) {
+        for (ArcusTag thisTag : tags) {
+            commitTag(thisTag.getName(), thisTag.getAttributes());
+        }
+    }
+
 
     /**
      * Renders a map of String->Object values into a map of String->String values. The intent of
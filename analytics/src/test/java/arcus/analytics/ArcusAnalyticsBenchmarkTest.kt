@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.analytics
+
+import arcus.analytics.ArcusAnalyticsTest.Companion.FLUSH_TIMEOUT_MS
+import arcus.analytics.tag.ArcusTag
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import com.google.common.truth.Truth.assertWithMessage
+
+/**
+ * Measures what [ArcusAnalytics.tag] costs the calling thread against routing each tag on the
+ * calling thread, one endpoint at a time, the way tagging used to work.
+ */
+class ArcusAnalyticsBenchmarkTest {
+    private val routing = InlineRouting()
+
+    @Before
+    fun setUp() {
+        routing.install()
+    }
+
+    @After
+    fun tearDown() {
+        routing.uninstall()
+    }
+
+    @Test
+    fun taggingIsCheaperForTheCallerThanRoutingInline() {
+        val tags = routing.tags(TAGS)
+
+        val inlineNs = timePerTag(tags) { tag -> routing.routeInline(tag) }
+        val queuedNs = timePerTag(tags) { tag -> ArcusAnalytics.tag(tag) }
+        assertThat(ArcusAnalytics.flush(FLUSH_TIMEOUT_MS)).isTrue()
+
+        assertWithMessage("Per tag on the calling thread, inline: ${inlineNs}ns, queued: ${queuedNs}ns")
+                .that(queuedNs)
+                .isLessThan(inlineNs)
+    }
+
+    private fun timePerTag(tags: List<ArcusTag>, block: (ArcusTag) -> Unit): Long {
+        tags.take(WARM_UP).forEach(block)
+        ArcusAnalytics.flush(FLUSH_TIMEOUT_MS)
+        routing.committed.set(0)
+
+        val start = System.nanoTime()
+        tags.forEach(block)
+        return (System.nanoTime() - start) / tags.size
+    }
+
+    companion object {
+        private const val TAGS = 20_000
+        private const val WARM_UP = 2_000
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.analytics
+
+import arcus.analytics.endpoint.AnalyticsEndpoint
+import arcus.analytics.tag.ArcusTag
+import arcus.analytics.tag.CustomTag
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.atomic.AtomicInteger
+
+class ArcusAnalyticsTest {
+    private val routing = InlineRouting()
+
+    @Before
+    fun setUp() {
+        routing.install()
+    }
+
+    @After
+    fun tearDown() {
+        routing.uninstall()
+    }
+
+    @Test
+    fun queuedTagsReachTheSameEndpointsAsInlineRouting() {
+        val tags = routing.tags(TAGS)
+
+        tags.forEach { routing.routeInline(it) }
+        val inlineCommits = routing.committed.getAndSet(0)
+
+        tags.forEach { ArcusAnalytics.tag(it) }
+        assertThat(ArcusAnalytics.flush(FLUSH_TIMEOUT_MS)).isTrue()
+
+        assertThat(inlineCommits).isGreaterThan(0)
+        assertThat(routing.committed.get()).isEqualTo(inlineCommits)
+    }
+
+    companion object {
+        private const val TAGS = 2_000
+        internal const val FLUSH_TIMEOUT_MS = 30_000L
+    }
+}
+
+/**
+ * Routes that mostly don't match, installed on [ArcusAnalytics], and [routeInline] to route a tag
+ * through them on the calling thread, one endpoint at a time, the way tagging used to work.
+ */
+internal class InlineRouting {
+    val committed = AtomicInteger()
+    private val endpoint = object : AnalyticsEndpoint() {
+        override fun commitTag(name: String, attributes: Map<String, Any>) {
+            if (renderAttributeValues(attributes).isNotEmpty()) {
+                committed.incrementAndGet()
+            }
+        }
+    }
+    private val routes = (0 until ROUTES).map { index ->
+        TagRouteBuilder.routeTagsMatchingAny(endpoint, endpoint)
+                .whereNameEquals("missing $index")
+                .whereContainsAttribute("missing")
+                .whereNameEquals("tag ${index % NAMES}")
+                .build()
+    }
+
+    fun install() {
+        GlobalTagAttributes.getInstance().put("app.version", "2.0.0")
+        GlobalTagAttributes.getInstance().put("device", "bench")
+        GlobalTagAttributes.getInstance().put("timestamp", DynamicAttributeProvider { System.currentTimeMillis() })
+        GlobalTagAttributes.getInstance().put("free.memory", DynamicAttributeProvider { Runtime.getRuntime().freeMemory() })
+        routes.forEach { ArcusAnalytics.addRoute(it) }
+    }
+
+    fun uninstall() {
+        ArcusAnalytics.flush(ArcusAnalyticsTest.FLUSH_TIMEOUT_MS)
+        ArcusAnalytics.deleteAllRoutes()
+    }
+
+    fun tags(count: Int) = (0 until count).map { CustomTag("tag ${it % NAMES}", mapOf("index" to it, "screen" to "dashboard")) }
+
+    fun routeInline(tag: ArcusTag) {
+        for (route in routes) {
+            if (route.apply(tag)) {
+                repeat(2) {
+                    val merged = HashMap<String, Any?>()
+                    merged.putAll(GlobalTagAttributes.getInstance().get())
+                    merged.putAll(tag.attributes)
+                    @Suppress("UNCHECKED_CAST")
+                    endpoint.commitTag(tag.name, merged as Map<String, Any>)
+                }
+            }
+        }
+    }
+
+    private companion object {
+        const val ROUTES = 8
+        const val NAMES = 4
+    }
+}
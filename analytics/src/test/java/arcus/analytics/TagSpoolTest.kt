@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.analytics
+
+import arcus.analytics.tag.CustomTag
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.google.common.truth.Truth.assertThat
+
+class TagSpoolTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun undeliveredBatchesAreRecovered() {
+        val file = folder.newFile("analytics.spool")
+        val interrupted = TagSpool(file)
+        interrupted.recover()
+        val delivered = interrupted.append(listOf(CustomTag("delivered")), emptyMap())
+        interrupted.commit(delivered)
+        interrupted.append(
+                listOf(CustomTag("tag 0", mapOf("count" to 3, "ratio" to 0.5, "flag" to true, "missing" to null))),
+                mapOf("app.version" to "2.0.0", "timestamp" to 1_500_000_000_000L)
+        )
+
+        val recovered = TagSpool(file).recover()
+
+        assertThat(recovered).hasSize(1)
+        val tag = recovered[0].tags.single()
+        assertThat(tag.name).isEqualTo("tag 0")
+        assertThat(tag.attributes).containsExactly("count", 3, "ratio", 0.5, "flag", true, "missing", null)
+        assertThat(recovered[0].globalAttributes).containsExactly("app.version", "2.0.0", "timestamp", 1_500_000_000_000L)
+        assertThat(TagSpool(file).recover()).isEmpty()
+    }
+
+    @Test
+    fun aBatchCutOffWhileWritingIsDropped() {
+        val file = folder.newFile("analytics.spool")
+        val spool = TagSpool(file)
+        spool.append(listOf(CustomTag("first")), mapOf("app.version" to "2.0.0"))
+        spool.append(listOf(CustomTag("second")), mapOf("app.version" to "2.0.0"))
+        file.writeBytes(file.readBytes().let { it.copyOf(it.size - 3) })
+
+        val recovered = TagSpool(file).recover()
+
+        assertThat(recovered.map { batch -> batch.tags.single().name }).containsExactly("first")
+    }
+
+    @Test
+    fun aFailedAppendDoesNotStopTheNextOne() {
+        val directory = folder.root.resolve("spool")
+        val file = directory.resolve("analytics.spool")
+        val spool = TagSpool(file)
+        val failed = runCatching { spool.append(listOf(CustomTag("failed")), emptyMap()) }
+        directory.mkdir()
+        spool.append(listOf(CustomTag("next")), emptyMap())
+
+        val recovered = TagSpool(file).recover()
+
+        assertThat(failed.isFailure).isTrue()
+        assertThat(recovered.map { batch -> batch.tags.single().name }).containsExactly("next")
+    }
+}
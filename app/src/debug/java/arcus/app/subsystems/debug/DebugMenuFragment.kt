@@ -31,9 +31,12 @@ import android.widget.ArrayAdapter
 import android.widget.EditText
 import android.widget.Toast
 import arcus.cornea.SessionController
+import arcus.cornea.network.HttpClientFactory
 import arcus.cornea.subsystem.cameras.ClipPreviewImageGetter
+import arcus.cornea.utils.CoalescingDispatcher
 import arcus.cornea.utils.Listeners
 import arcus.cornea.utils.LooperExecutor
+import arcus.cornea.utils.PropertyChangeMonitor
 import com.iris.client.capability.Device
 import com.iris.client.capability.MobileDevice
 import com.iris.client.event.ListenerRegistration
@@ -41,6 +44,7 @@ import com.iris.client.model.PersonModel
 import arcus.app.BuildConfig
 import arcus.app.ArcusApplication
 import arcus.app.R
+import arcus.app.common.image.ImageManager
 import arcus.app.common.utils.PreferenceCache
 import arcus.app.common.utils.PreferenceUtils
 import com.squareup.picasso.Picasso
@@ -82,6 +86,9 @@ class DebugMenuFragment : Fragment(), SharedPreferences.OnSharedPreferenceChange
                 getSetupForClearClipCache(),
                 getSetupForAddMock(),
                 getSetupForDeleteMobileDevices(),
+                getSetupForPropertyMonitorStats(),
+                getSetupForHttpStats(),
+                getSetupForUiDispatchStats(),
                 HeaderOption(getString(R.string.debug_menu_preferences)),
                 getSetupForAnimationsToggle(),
                 getSetupForCleanPreferences(),
@@ -298,7 +305,9 @@ class DebugMenuFragment : Fragment(), SharedPreferences.OnSharedPreferenceChange
                 .toString()
                 .replace(",", "\n")
                 .replace("{", " {\n ")
-                .replace("}", "\n}")
+                .replace("}", "\n}") +
+                "\n\n" +
+                (ImageManager.getDownloaderStats()?.toString() ?: "Downloader not configured")
 
         logger.debug("Image Stats: {}", imageStats)
 
@@ -402,6 +411,67 @@ class DebugMenuFragment : Fragment(), SharedPreferences.OnSharedPreferenceChange
         false
     }
 
+    private fun getSetupForPropertyMonitorStats() = ButtonOption(
+            getString(R.string.debug_menu_property_monitor_button_text),
+            getString(R.string.debug_menu_property_monitor_title),
+            getString(R.string.debug_menu_property_monitor_desc)
+    ) { _, _ ->
+        val stats = PropertyChangeMonitor.instance().stats
+        logger.debug("Property Change Monitor Stats: {}", stats)
+
+        activity?.let {
+            AlertDialog.Builder(it)
+                    .setTitle(getString(R.string.debug_menu_property_monitor_title))
+                    .setMessage(stats)
+                    .setCancelable(true)
+                    .setNegativeButton("Done") { _, _ -> }
+                    .show()
+        }
+
+        false
+    }
+
+    private fun getSetupForUiDispatchStats() = ButtonOption(
+            getString(R.string.debug_menu_ui_dispatch_button_text),
+            getString(R.string.debug_menu_ui_dispatch_title),
+            getString(R.string.debug_menu_ui_dispatch_desc)
+    ) { _, _ ->
+        val stats = CoalescingDispatcher.getMainDispatcher().stats
+        logger.debug("UI Dispatch Stats: {}", stats)
+
+        activity?.let {
+            AlertDialog.Builder(it)
+                    .setTitle(getString(R.string.debug_menu_ui_dispatch_title))
+                    .setMessage(stats)
+                    .setCancelable(true)
+                    .setNegativeButton("Done") { _, _ -> }
+                    .show()
+        }
+
+        false
+    }
+
+    private fun getSetupForHttpStats() = ButtonOption(
+            getString(R.string.debug_menu_http_stats_button_text),
+            getString(R.string.debug_menu_http_stats_title),
+            getString(R.string.debug_menu_http_stats_desc)
+    ) { _, _ ->
+        val stats = HttpClientFactory.getStats()
+        logger.debug("HTTP Stats: {}", stats)
+
+        activity?.let {
+            AlertDialog.Builder(it)
+                    .setTitle(getString(R.string.debug_menu_http_stats_title))
+                    .setMessage(stats)
+                    .setCancelable(true)
+                    .setNeutralButton(getString(R.string.debug_menu_http_stats_reset)) { _, _ -> HttpClientFactory.resetMetrics() }
+                    .setNegativeButton("Done") { _, _ -> }
+                    .show()
+        }
+
+        false
+    }
+
     private fun getSetupForDeleteMobileDevices() = ButtonOption(
             getString(R.string.debug_menu_delete_mobile_device_button_text),
             getString(R.string.debug_menu_delete_mobile_device_title),
@@ -28,15 +28,19 @@ import androidx.lifecycle.OnLifecycleEvent;
 import androidx.lifecycle.ProcessLifecycleOwner;
 import androidx.multidex.MultiDex;
 
+import arcus.analytics.ArcusAnalytics;
 import arcus.cornea.CorneaService;
 
 import arcus.app.common.models.RegistrationContext;
 import arcus.app.common.utils.PreferenceUtils;
 import arcus.cornea.network.NetworkConnectionMonitor;
+import arcus.cornea.provider.ModelSnapshotStore;
+import arcus.cornea.provider.ProductCatalogStore;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ArcusApplication extends Application {
@@ -67,6 +71,9 @@ public class ArcusApplication extends Application {
         arcusApplication = this;
         String agent = String.format("Android/%s (%s %s)", Build.VERSION.RELEASE, Build.MANUFACTURER, Build.MODEL);
         CorneaService.initialize(agent, BuildConfig.VERSION_NAME);
+        ModelSnapshotStore.instance().setDirectory(new File(getCacheDir(), "snapshots"));
+        ProductCatalogStore.instance().setFile(new File(getCacheDir(), "products.catalog"));
+        ArcusAnalytics.setSpoolFile(new File(getFilesDir(), "analytics.spool"));
 
         setupLifecycleListener();
         registrationContext = RegistrationContext.getInstance();
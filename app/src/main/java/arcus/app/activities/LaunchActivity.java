@@ -102,7 +102,7 @@ public class LaunchActivity extends BaseActivity {
 
         // Configure image manager
         ImageManager.setDefaultWallpaperResId(R.drawable.background_1);
-        ImageManager.setConfiguration(this, PreferenceUtils.isPicassoCacheDisabled(), PreferenceUtils.getPicassoMemoryCacheSize());
+        ImageManager.setConfiguration(this, !PreferenceUtils.isPicassoCacheDisabled(), PreferenceUtils.getPicassoMemoryCacheSize());
     }
 
     public void onResume() {
@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import arcus.cornea.utils.ListChange;
+
+import java.util.List;
+
+/**
+ * Applies {@link ListChange}s from a list source to a RecyclerView adapter so only the
+ * affected rows are rebound.
+ */
+public final class ListChangeDispatcher {
+    private ListChangeDispatcher() {
+    }
+
+    /**
+     * @param changes the changes, in order
+     * @param adapter the adapter, which must already reflect the list after the changes have been applied
+     * @param offset the adapter position of the first item in the list (eg: 1 when there is a header row)
+     */
+    public static void dispatch(
+          @NonNull List<? extends ListChange<?>> changes,
+          @NonNull RecyclerView.Adapter<?> adapter,
+          int offset
+    ) {
+        for (ListChange<?> change : changes) {
+            switch (change.getType()) {
+                case INSERTED:
+                    adapter.notifyItemInserted(change.getPosition() + offset);
+                    break;
+                case REMOVED:
+                    adapter.notifyItemRemoved(change.getPosition() + offset);
+                    break;
+                case MOVED:
+                    adapter.notifyItemMoved(change.getFromPosition() + offset, change.getPosition() + offset);
+                    break;
+                case CHANGED:
+                    adapter.notifyItemChanged(change.getPosition() + offset);
+                    break;
+            }
+        }
+    }
+
+    public static void dispatch(@NonNull List<? extends ListChange<?>> changes, @NonNull RecyclerView.Adapter<?> adapter) {
+        dispatch(changes, adapter, 0);
+    }
+}
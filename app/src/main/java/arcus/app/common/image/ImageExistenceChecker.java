@@ -16,44 +16,249 @@
 package arcus.app.common.image;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import arcus.app.ArcusApplication;
 import arcus.app.common.utils.StringUtils;
+import arcus.cornea.network.HttpClientFactory;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-
+/**
+ * Answers whether an image exists on the server using HEAD requests.
+ *
+ * Results are kept in a bounded LRU with a TTL (misses expire sooner than hits since those are the
+ * images most likely to be added) and are persisted to the cache directory so catalog screens do not
+ * re-probe every tile after a restart.  Concurrent checks of the same URL share a single request.
+ * Transport errors are not cached.
+ */
 public class ImageExistenceChecker {
+    private static final Logger logger = LoggerFactory.getLogger(ImageExistenceChecker.class);
 
-    @NonNull public static Map<String, Boolean> cache = new ConcurrentHashMap<>();
+    private static final int MAX_ENTRIES = 1000;
+    private static final long EXISTS_TTL_MS = TimeUnit.DAYS.toMillis(7);
+    private static final long MISSING_TTL_MS = TimeUnit.DAYS.toMillis(1);
+    private static final String CACHE_FILE = "image-existence";
+    private static final String SEPARATOR = "\t";
+
+    private static final OkHttpClient client = HttpClientFactory.getClient(HttpClientFactory.Purpose.IMAGE);
+    private static final ConcurrentMap<String, FutureTask<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private static final ExecutorService persistExecutor = Executors.newSingleThreadExecutor();
+    private static final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    // Access ordered so the eldest entry is the least recently used
+    private static final LinkedHashMap<String, Entry> cache = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static boolean restored = false;
 
+    @WorkerThread
     public static boolean onServer (@NonNull String url) {
 
         if (StringUtils.isEmpty(url)) {
             return false;
         }
 
-        if (cache.containsKey(url)) {
-            return cache.get(url);
+        Boolean cached = getCached(url);
+        if (cached != null) {
+            return cached;
         }
 
+        FutureTask<Boolean> probe = new FutureTask<>(() -> existsOnServer(url));
+        FutureTask<Boolean> existing = inFlight.putIfAbsent(url, probe);
+        if (existing == null) {
+            try {
+                probe.run();
+            }
+            finally {
+                inFlight.remove(url, probe);
+            }
+        }
         else {
-            boolean exists = existsOnServer(url);
-            cache.put(url, exists);
-            return exists;
+            probe = existing;
         }
-    }
 
-    private static boolean existsOnServer (@NonNull String url){
         try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setRequestMethod("GET");
-            return (connection.getResponseCode() == HttpURLConnection.HTTP_OK);
+            return probe.get();
         }
         catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * @return true or false if it was found or not found, throws if the server could not be reached
+     */
+    private static boolean existsOnServer (@NonNull String url) throws IOException {
+        boolean exists;
+        try (Response response = client.newCall(new Request.Builder().url(url).head().build()).execute()) {
+            int code = response.code();
+            if (code == HttpURLConnection.HTTP_BAD_METHOD || code == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+                exists = existsUsingRangedGet(url);
+            }
+            else {
+                exists = response.isSuccessful();
+            }
+        }
+
+        putCached(url, exists);
+        return exists;
+    }
+
+    /**
+     * For servers that don't support HEAD, asks for the first byte only.
+     */
+    private static boolean existsUsingRangedGet (@NonNull String url) throws IOException {
+        Request request = new Request.Builder().url(url).header("Range", "bytes=0-0").build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.isSuccessful();
+        }
+    }
+
+    @Nullable
+    private static Boolean getCached(@NonNull String url) {
+        synchronized (cache) {
+            restoreIfNeeded();
+            Entry entry = cache.get(url);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.isExpired(System.currentTimeMillis())) {
+                cache.remove(url);
+                return null;
+            }
+            return entry.exists;
+        }
+    }
+
+    private static void putCached(@NonNull String url, boolean exists) {
+        synchronized (cache) {
+            cache.put(url, new Entry(exists, System.currentTimeMillis()));
+        }
+
+        if (dirty.compareAndSet(false, true)) {
+            persistExecutor.execute(ImageExistenceChecker::persist);
+        }
+    }
+
+    // Must be called holding the cache lock
+    private static void restoreIfNeeded() {
+        if (restored) {
+            return;
+        }
+        restored = true;
+
+        File file = getCacheFile();
+        if (file == null || !file.isFile()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(SEPARATOR);
+                if (parts.length != 3) {
+                    continue;
+                }
+
+                Entry entry = new Entry(Boolean.parseBoolean(parts[1]), Long.parseLong(parts[2]));
+                if (!entry.isExpired(now)) {
+                    cache.put(parts[0], entry);
+                }
+            }
+        }
+        catch (Exception ex) {
+            logger.debug("Unable to restore image existence cache.", ex);
+        }
+    }
+
+    private static void persist() {
+        dirty.set(false);
+
+        List<String> lines;
+        synchronized (cache) {
+            lines = new ArrayList<>(cache.size());
+            Iterator<Map.Entry<String, Entry>> iterator = cache.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> item = iterator.next();
+                lines.add(item.getKey() + SEPARATOR + item.getValue().exists + SEPARATOR + item.getValue().checkedAt);
+            }
+        }
+
+        File file = getCacheFile();
+        if (file == null) {
+            return;
+        }
+
+        File temp = new File(file.getParentFile(), CACHE_FILE + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        catch (IOException ex) {
+            logger.debug("Unable to persist image existence cache.", ex);
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    @Nullable
+    private static File getCacheFile() {
+        try {
+            return new File(ArcusApplication.getContext().getCacheDir(), CACHE_FILE);
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static class Entry {
+        final boolean exists;
+        final long checkedAt;
+
+        Entry(boolean exists, long checkedAt) {
+            this.exists = exists;
+            this.checkedAt = checkedAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - checkedAt > (exists ? EXISTS_TTL_MS : MISSING_TTL_MS);
+        }
+    }
 }
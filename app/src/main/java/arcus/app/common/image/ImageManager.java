@@ -18,6 +18,7 @@ package arcus.app.common.image;
 import android.app.Activity;
 import android.app.ActivityManager;
 import android.content.Context;
+import android.os.StatFs;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.view.View;
@@ -40,8 +41,12 @@ import arcus.app.common.image.picasso.transformation.BlurTransformation;
 import arcus.app.common.utils.CorneaUtils;
 import arcus.app.device.model.DeviceType;
 import arcus.app.subsystems.scenes.catalog.model.SceneCategory;
+import arcus.cornea.network.HttpClientFactory;
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 
+import java.io.File;
+
 import static android.content.Context.ACTIVITY_SERVICE;
 
 /**
@@ -54,7 +59,12 @@ public class ImageManager {
 
     private final static Logger logger = LoggerFactory.getLogger(ImageManager.class);
 
+    private static final String DISK_CACHE_DIRECTORY = "picasso-http";
+    private static final long MIN_DISK_CACHE_SIZE = 5 * 1024 * 1024;
+    private static final long MAX_DISK_CACHE_SIZE = 50 * 1024 * 1024;
+
     private final Context context;
+    private static OkHttp3Downloader downloader;
     private static ViewBackgroundTarget wallpaperTarget;
     private static int defaultWallpaperResId = R.drawable.background_1;
 
@@ -85,9 +95,15 @@ public class ImageManager {
 
             Picasso.Builder builder = new Picasso.Builder((ArcusApplication.getContext()));
 
+            // Always go through the shared client so image downloads reuse pooled connections;
+            // the HTTP cache is what makes images survive a process restart.
+            OkHttpClient.Builder clientBuilder = HttpClientFactory.newBuilder(HttpClientFactory.Purpose.IMAGE);
             if (diskCacheEnabled) {
-                builder.downloader(new OkHttp3Downloader(new OkHttpClient()));
+                File cacheDir = new File(context.getApplicationContext().getCacheDir(), DISK_CACHE_DIRECTORY);
+                clientBuilder.cache(new Cache(cacheDir, calculateDiskCacheSize(cacheDir)));
             }
+            OkHttp3Downloader okHttp3Downloader = new OkHttp3Downloader(clientBuilder.build());
+            builder.downloader(okHttp3Downloader);
 
             if (cacheHeapPercent != null) {
                 ActivityManager am = (ActivityManager) context.getSystemService(ACTIVITY_SERVICE);
@@ -99,12 +115,42 @@ public class ImageManager {
             }
 
             Picasso.setSingletonInstance(builder.build());
+            downloader = okHttp3Downloader;
 
         } catch (IllegalStateException e) {
             logger.warn("Picasso setConfiguration() has already been called; ignoring request.");
         }
     }
 
+    /**
+     * Gets the hit / miss / byte counts of the image downloader, or null if
+     * {@link #setConfiguration(Context, boolean, Integer)} has not been called.
+     */
+    @Nullable
+    public static OkHttp3Downloader.Stats getDownloaderStats() {
+        OkHttp3Downloader current = downloader;
+        return current == null ? null : current.stats();
+    }
+
+    /**
+     * Sizes the disk cache at 2% of the total space on the volume holding it, bounded between
+     * 5MB and 50MB.  Entries past that size are evicted least-recently-used first.
+     */
+    private static long calculateDiskCacheSize(File dir) {
+        long size = MIN_DISK_CACHE_SIZE;
+        try {
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            StatFs statFs = new StatFs(dir.getAbsolutePath());
+            size = statFs.getBlockCountLong() * statFs.getBlockSizeLong() / 50;
+        } catch (IllegalArgumentException ex) {
+            logger.debug("Unable to stat the image cache directory, using the minimum size.", ex);
+        }
+
+        return Math.max(Math.min(size, MAX_DISK_CACHE_SIZE), MIN_DISK_CACHE_SIZE);
+    }
+
     /**
      * Sets the view that the ImageManager will use for wallpaper operations. Ideally, an Activity
      * or parent fragment would invoke this method passing a reference to the view that covers the
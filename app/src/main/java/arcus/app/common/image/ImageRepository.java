@@ -20,8 +20,12 @@ import android.graphics.Bitmap;
 import android.net.Uri;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import android.util.DisplayMetrics;
 
 import arcus.app.ArcusApplication;
+import arcus.cornea.utils.LooperExecutor;
+import com.squareup.picasso.Picasso;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,35 +33,71 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Singleton API that represents an image repository. Provides methods for saving, retrieving and
  * determining the existence of user-generated images.
  *
+ * Images are downscaled to the largest size they're displayed at (the screen) and stored as JPEGs.
+ * Images saved as PNGs by earlier versions are still served and are converted in the background
+ * the first time they're looked up.
+ *
  * Note that this class only deals with user-generated imagery.
  */
 public class ImageRepository {
 
     private final static Logger logger = LoggerFactory.getLogger(ImageRepository.class);
+    private final static String EXTENSION = ".jpg";
+    private final static String LEGACY_EXTENSION = ".png";
+    private final static int JPEG_QUALITY = 85;
 
-    private ImageRepository() {}
-
-    public static Uri saveImage (@NonNull Context context, @NonNull Bitmap image, ImageCategory category, String placeId, String imageId) {
+    // Single threaded so saves of the same image land in the order they were made
+    private final static ExecutorService saveExecutor = Executors.newSingleThreadExecutor();
+    private final static Set<String> migrating = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
-        String fileIdentifier = getImageFilename(category, placeId, imageId);
-        Uri fileUri = uriForImage(context, category, placeId, imageId);
+    private ImageRepository() {}
 
-        logger.trace("Saving image to " + fileUri);
-        try {
-            FileOutputStream fos = new FileOutputStream(new File(context.getFilesDir(), fileIdentifier));
-            image.compress(Bitmap.CompressFormat.PNG, 100, fos);
-            fos.flush();
-            fos.close();
-        } catch (IOException e) {
-            logger.warn("Error occurred while writing image to local storage: " + e.getMessage());
-        }
+    /**
+     * Saves the image on a background thread, the listener (if any) is called on the main thread
+     * once the file is in place and Picasso's cache entries for it have been invalidated.
+     *
+     * The image passed in is not modified or recycled.
+     */
+    public static void saveImageAsync (
+          @NonNull final Context context,
+          @NonNull final Bitmap image,
+          final ImageCategory category,
+          final String placeId,
+          final String imageId,
+          @Nullable final ImageSaveListener listener
+    ) {
+        saveExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File file = fileFor(category, placeId, imageId);
+                final Uri fileUri = Uri.fromFile(file);
+                final boolean success = write(image, file);
+                if (success) {
+                    deleteLegacyImage(category, placeId, imageId);
+                }
 
-        return fileUri;
+                LooperExecutor.getMainExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        invalidate(category, placeId, imageId);
+                        if (listener != null) {
+                            listener.onImageSaveComplete(success, image, fileUri);
+                        }
+                    }
+                });
+            }
+        });
     }
 
     public static Uri getUriForImage(@NonNull Context context, ImageCategory category, String placeId, String imageId) {
@@ -67,6 +107,10 @@ public class ImageRepository {
     }
 
     public static String getImageFilename(@Nullable ImageCategory category, @Nullable String placeId, @Nullable String imageId) {
+        return getBaseFilename(category, placeId, imageId) + EXTENSION;
+    }
+
+    private static String getBaseFilename(@Nullable ImageCategory category, @Nullable String placeId, @Nullable String imageId) {
         StringBuilder builder = new StringBuilder();
 
         if (category != null) {
@@ -87,17 +131,150 @@ public class ImageRepository {
             builder.append(imageId);
         }
 
-        builder.append(".png");
         return builder.toString();
     }
 
     public static boolean imageExists(Context context, ImageCategory category, String placeId, String imageId) {
-        File imageFile = new File(ArcusApplication.getContext().getFilesDir(), getImageFilename(category, placeId, imageId));
+        File imageFile = resolveFile(category, placeId, imageId);
         logger.trace("Image exists: " + imageFile.exists() + " at " + Uri.fromFile(imageFile));
         return imageFile.exists();
     }
 
     private static Uri uriForImage (Context context, ImageCategory category, String placeId, String imageId) {
-        return Uri.fromFile(new File(ArcusApplication.getContext().getFilesDir(), getImageFilename(category, placeId, imageId)));
+        return Uri.fromFile(resolveFile(category, placeId, imageId));
+    }
+
+    private static File fileFor(ImageCategory category, String placeId, String imageId) {
+        return new File(ArcusApplication.getContext().getFilesDir(), getImageFilename(category, placeId, imageId));
+    }
+
+    private static File legacyFileFor(ImageCategory category, String placeId, String imageId) {
+        return new File(ArcusApplication.getContext().getFilesDir(), getBaseFilename(category, placeId, imageId) + LEGACY_EXTENSION);
+    }
+
+    /**
+     * The file the image is stored in, this is the legacy PNG (which gets migrated) if that's all there is.
+     */
+    private static File resolveFile(ImageCategory category, String placeId, String imageId) {
+        File file = fileFor(category, placeId, imageId);
+        if (file.exists()) {
+            return file;
+        }
+
+        File legacy = legacyFileFor(category, placeId, imageId);
+        if (legacy.exists()) {
+            migrate(category, placeId, imageId);
+            return legacy;
+        }
+
+        return file;
+    }
+
+    private static void migrate(final ImageCategory category, final String placeId, final String imageId) {
+        final String name = getBaseFilename(category, placeId, imageId);
+        if (!migrating.add(name)) {
+            return;
+        }
+
+        saveExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    File legacy = legacyFileFor(category, placeId, imageId);
+                    File file = fileFor(category, placeId, imageId);
+                    if (!legacy.exists() || file.exists()) {
+                        return;
+                    }
+
+                    int maxDimension = getMaxDimension();
+                    Bitmap image = UGCImageIntentResultHandler.loadScaledBitmapFromFile(legacy.getAbsolutePath(), maxDimension, maxDimension);
+                    if (image == null) {
+                        logger.warn("Unable to decode {} for migration.", legacy);
+                        return;
+                    }
+
+                    boolean success = write(image, file);
+                    image.recycle();
+                    if (success) {
+                        logger.debug("Migrated {} to {}", legacy, file);
+                        legacy.delete();
+                        LooperExecutor.getMainExecutor().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                invalidate(category, placeId, imageId);
+                            }
+                        });
+                    }
+                }
+                finally {
+                    migrating.remove(name);
+                }
+            }
+        });
+    }
+
+    /**
+     * Downscales and compresses the image into a temporary file then moves it into place.
+     */
+    @WorkerThread
+    private static boolean write(@NonNull Bitmap image, @NonNull File file) {
+        Bitmap scaled = downscale(image);
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try (OutputStream out = new FileOutputStream(temp)) {
+            if (!scaled.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out)) {
+                throw new IOException("Unable to compress image");
+            }
+        } catch (IOException e) {
+            logger.warn("Error occurred while writing image to local storage: " + e.getMessage());
+            temp.delete();
+            return false;
+        } finally {
+            if (scaled != image) {
+                scaled.recycle();
+            }
+        }
+
+        if (!temp.renameTo(file)) {
+            logger.warn("Unable to move image into place at {}", file);
+            temp.delete();
+            return false;
+        }
+
+        return true;
+    }
+
+    private static Bitmap downscale(@NonNull Bitmap image) {
+        int maxDimension = getMaxDimension();
+        int largest = Math.max(image.getWidth(), image.getHeight());
+        if (largest <= maxDimension) {
+            return image;
+        }
+
+        float scale = (float) maxDimension / largest;
+        int width = Math.max(1, Math.round(image.getWidth() * scale));
+        int height = Math.max(1, Math.round(image.getHeight() * scale));
+        return Bitmap.createScaledBitmap(image, width, height, true);
+    }
+
+    /**
+     * User-generated images are never displayed larger than the screen (wallpapers).
+     */
+    private static int getMaxDimension() {
+        DisplayMetrics metrics = ArcusApplication.getContext().getResources().getDisplayMetrics();
+        return Math.max(metrics.widthPixels, metrics.heightPixels);
+    }
+
+    private static void deleteLegacyImage(ImageCategory category, String placeId, String imageId) {
+        File legacy = legacyFileFor(category, placeId, imageId);
+        if (legacy.exists()) {
+            legacy.delete();
+        }
+    }
+
+    private static void invalidate(ImageCategory category, String placeId, String imageId) {
+        Picasso picasso = Picasso.with(ArcusApplication.getContext());
+        picasso.invalidate(fileFor(category, placeId, imageId));
+        picasso.invalidate(legacyFileFor(category, placeId, imageId));
     }
 }
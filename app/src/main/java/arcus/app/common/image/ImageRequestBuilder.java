@@ -16,7 +16,6 @@
 package arcus.app.common.image;
 
 import android.content.Context;
-import android.os.AsyncTask;
 
 
 /**
@@ -38,11 +37,7 @@ public class ImageRequestBuilder extends PicassoRequestBuilder implements ImageR
         }
 
         requestExecutionStartTime = System.currentTimeMillis();
-        log("Executing image request on AsyncTask executor: {}", this);
-
-        // Do not use .execute() here... some version of Android use a single threaded executor
-        // and under some circumstances the thread can block for 30-60 seconds causing no images
-        // to be visible in the app during this period.
-        new ImageRequestExecutionTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, this);
+        log("Executing image request on resolution executor: {}", this);
+        new ImageRequestExecutionTask().execute(this);
     }
 }
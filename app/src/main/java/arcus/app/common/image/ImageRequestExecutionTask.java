@@ -16,7 +16,6 @@
 package arcus.app.common.image;
 
 import android.net.Uri;
-import android.os.AsyncTask;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.widget.ImageView;
@@ -28,8 +27,11 @@ import arcus.app.common.utils.PreferenceUtils;
 import com.squareup.picasso.Callback;
 import com.squareup.picasso.Picasso;
 import com.squareup.picasso.RequestCreator;
+import com.squareup.picasso.Transformation;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -39,11 +41,49 @@ import java.util.concurrent.ConcurrentHashMap;
  * without first doing some long-running activities in the ImageLocator (like querying the
  * {@link ImageRepository} over the network).
  *
+ * Location resolution is handed to the {@link ImageResolutionExecutor}; a newer request for the
+ * same view cancels the older one.
  */
-public class ImageRequestExecutionTask extends AsyncTask<PicassoRequestBuilder, Integer, ImageLocationSpec> {
+public class ImageRequestExecutionTask {
 
     private final static ConcurrentHashMap<ImageView, ImageRequestExecutionTask> pendingRequests = new ConcurrentHashMap<>();
     private PicassoRequestBuilder builder;
+    private ImageResolutionExecutor.LookupKey lookupKey;
+    private long submittedAt;
+
+    /**
+     * Queues location resolution for the builder; must be called on the main thread.
+     *
+     * @param builder
+     */
+    public void execute(@NonNull PicassoRequestBuilder builder) {
+        this.builder = builder;
+        this.lookupKey = new ImageResolutionExecutor.LookupKey(builder.category, builder.locationHint, builder.noUserGeneratedImagery);
+        this.submittedAt = System.currentTimeMillis();
+
+        if (builder.targetView != null) {
+            ImageRequestExecutionTask previous = pendingRequests.put(builder.targetView, this);
+            if (previous != null) {
+                ImageResolutionExecutor.instance().cancel(previous);
+            }
+        }
+
+        ImageResolutionExecutor.instance().submit(this);
+    }
+
+    ImageResolutionExecutor.LookupKey getLookupKey() {
+        return lookupKey;
+    }
+
+    int getPriority() {
+        if (builder.useAsWallpaper) {
+            return ImageResolutionExecutor.PRIORITY_WALLPAPER;
+        }
+        if (builder.targetView != null) {
+            return ImageResolutionExecutor.PRIORITY_VIEW;
+        }
+        return ImageResolutionExecutor.PRIORITY_TARGET;
+    }
 
     /**
      * Executes in a background thread and is responsible for resolving the location of an image
@@ -53,18 +93,12 @@ public class ImageRequestExecutionTask extends AsyncTask<PicassoRequestBuilder,
      * require making one or more network calls (to check the existence of an image on the static
      * resource server).
      *
-     * @param builders A single element array containing the b
      * @return
      */
-    @NonNull
-    @Override
-    protected ImageLocationSpec doInBackground(PicassoRequestBuilder... builders) {
-        this.builder = builders[0];
-        builder.log("+{}ms Starting to execute image location resolution on AsyncTask thread.", getRequestDuration());
-
-        if (this.builder.targetView != null) {
-            pendingRequests.put(this.builder.targetView, this);
-        }
+    @Nullable
+    ImageLocationSpec resolve() {
+        long startedAt = System.currentTimeMillis();
+        builder.log("+{}ms Starting to execute image location resolution after waiting {}ms in queue.", getRequestDuration(), startedAt - submittedAt);
 
         ImageLocator locator = ImageLocator.locate(builder.context, builder.category)
                 .using(builder.locationHint);
@@ -74,13 +108,13 @@ public class ImageRequestExecutionTask extends AsyncTask<PicassoRequestBuilder,
         }
 
         ImageLocationSpec location = locator.execute();
-        builder.log("+{}ms Resolved location of {} as {}", getRequestDuration(), builder, location);
+        builder.log("+{}ms Resolved location of {} as {} in {}ms", getRequestDuration(), builder, location, System.currentTimeMillis() - startedAt);
         return location;
     }
 
     /**
-     * Executes on completion of the {@link #doInBackground(PicassoRequestBuilder[])} handler on
-     * the main thread.
+     * Executes on completion of the {@link #resolve()} handler on the main thread; this may be
+     * the result of a lookup started by another task for the same location.
      *
      * This code is responsible for "unpacking" the builder and producing a Picasso
      * {@link RequestCreator} object from it and then executing that request through Picasso. (Note
@@ -90,10 +124,9 @@ public class ImageRequestExecutionTask extends AsyncTask<PicassoRequestBuilder,
      *
      * @param imageLocation
      */
-    @Override
-    protected void onPostExecute(@Nullable ImageLocationSpec imageLocation) {
+    void onResolved(@Nullable ImageLocationSpec imageLocation) {
 
-        builder.log("+{}ms Preparing Picasso request for {}", getRequestDuration(), imageLocation);
+        builder.log("+{}ms Preparing Picasso request for {} ({}ms since submitted)", getRequestDuration(), imageLocation, System.currentTimeMillis() - submittedAt);
 
         if (builder.targetView == null && builder.target == null && builder.useAsWallpaper == false) {
             throw new IllegalStateException("No target or view specified for resulting image. Please call .into() or .useAsWallpaper() before .execute()");
@@ -203,22 +236,51 @@ public class ImageRequestExecutionTask extends AsyncTask<PicassoRequestBuilder,
 
         // Apply the image as a wallpaper, if requested
         if (builder.useAsWallpaper && builder.wallpaperTarget != null) {
-            RequestCreator wallpaperRequest = intoPicasso(imageLocation, Picasso.with(builder.context));
-
+            List<Transformation> wallpaperTransforms = new ArrayList<>();
             if (builder.wallpaperOverlay != null) {
-                wallpaperRequest.transform(new AlphaOverlayTransformation(builder.wallpaperOverlay));
+                wallpaperTransforms.add(new AlphaOverlayTransformation(builder.wallpaperOverlay));
             }
 
-            wallpaperRequest.transform(new BlurTransformation(builder.context));
+            wallpaperTransforms.add(new BlurTransformation(builder.context));
 
             if (!imageLocation.isUserGenerated())
-                wallpaperRequest.transform(builder.stockImageTransforms);
+                wallpaperTransforms.addAll(builder.stockImageTransforms);
             else
-                wallpaperRequest.transform(builder.transform);
+                wallpaperTransforms.addAll(builder.transform);
+
+            // Reuse a previously blurred copy of this wallpaper when there is one
+            final ImageLocationSpec wallpaperLocation = imageLocation;
+            final List<Transformation> transforms = wallpaperTransforms;
+            boolean invalidate = builder.invalidateCache || PreferenceUtils.isPicassoCacheDisabled();
+            WallpaperCache.lookup(wallpaperLocation, builder.wallpaperOverlay, transforms, invalidate, new WallpaperCache.LookupCallback() {
+                @Override
+                public void onLookup(@Nullable String cacheKey, @Nullable File cached) {
+                    placeWallpaper(wallpaperLocation, transforms, cacheKey, cached);
+                }
+            });
+        }
+    }
 
-            builder.log("+{}ms Requesting Picasso place {} into wallpaper.", getRequestDuration(), imageLocation);
-            wallpaperRequest.into(builder.wallpaperTarget);
+    private void placeWallpaper(
+          @NonNull ImageLocationSpec imageLocation,
+          @NonNull List<Transformation> wallpaperTransforms,
+          @Nullable String cacheKey,
+          @Nullable File cached
+    ) {
+        if (cached != null) {
+            builder.log("+{}ms Requesting Picasso place cached wallpaper {} for {}.", getRequestDuration(), cached, imageLocation);
+            Picasso.with(builder.context).load(cached).into(builder.wallpaperTarget);
+            return;
+        }
+
+        RequestCreator wallpaperRequest = intoPicasso(imageLocation, Picasso.with(builder.context));
+        wallpaperRequest.transform(wallpaperTransforms);
+        if (cacheKey != null) {
+            wallpaperRequest.transform(WallpaperCache.storeAs(cacheKey));
         }
+
+        builder.log("+{}ms Requesting Picasso place {} into wallpaper.", getRequestDuration(), imageLocation);
+        wallpaperRequest.into(builder.wallpaperTarget);
     }
 
     @Nullable
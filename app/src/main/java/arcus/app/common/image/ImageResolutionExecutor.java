@@ -0,0 +1,227 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import arcus.cornea.utils.LooperExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves image locations for {@link ImageRequestExecutionTask}s on a small, bounded pool of
+ * threads.
+ *
+ * Lookups are ordered by priority (wallpaper, then views, then plain targets) and then by the order
+ * they were submitted. Tasks asking for the same location share a single lookup, and a lookup that
+ * no task is waiting on any longer (the view was recycled) is dropped before it runs.
+ */
+class ImageResolutionExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ImageResolutionExecutor.class);
+    private static final int THREAD_COUNT = 4;
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    static final int PRIORITY_WALLPAPER = 0;
+    static final int PRIORITY_VIEW = 1;
+    static final int PRIORITY_TARGET = 2;
+
+    private static final ImageResolutionExecutor INSTANCE = new ImageResolutionExecutor();
+
+    static ImageResolutionExecutor instance() {
+        return INSTANCE;
+    }
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<LookupKey, Lookup> lookups = new HashMap<>(); // Guarded by lookups
+    private final ThreadPoolExecutor executor;
+
+    private ImageResolutionExecutor() {
+        executor = new ThreadPoolExecutor(
+              THREAD_COUNT,
+              THREAD_COUNT,
+              KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new PriorityBlockingQueue<Runnable>(),
+              new ThreadFactory() {
+                  private final AtomicInteger count = new AtomicInteger();
+
+                  @Override
+                  public Thread newThread(@NonNull Runnable runnable) {
+                      Thread thread = new Thread(runnable, "image-resolution-" + count.incrementAndGet());
+                      thread.setPriority(Thread.NORM_PRIORITY - 1);
+                      return thread;
+                  }
+              }
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    void submit(@NonNull ImageRequestExecutionTask task) {
+        LookupKey key = task.getLookupKey();
+        Lookup lookup;
+        synchronized (lookups) {
+            lookup = lookups.get(key);
+            if (lookup != null) {
+                lookup.waiters.add(task);
+                return;
+            }
+
+            lookup = new Lookup(key, task.getPriority(), sequence.incrementAndGet());
+            lookup.waiters.add(task);
+            lookups.put(key, lookup);
+        }
+
+        executor.execute(lookup);
+    }
+
+    /**
+     * Stops delivering a result to the task, if nothing else is waiting on the same
+     * location and the lookup hasn't started it is removed from the queue.
+     */
+    void cancel(@NonNull ImageRequestExecutionTask task) {
+        Lookup lookup;
+        synchronized (lookups) {
+            lookup = lookups.get(task.getLookupKey());
+            if (lookup == null || !lookup.waiters.remove(task) || !lookup.waiters.isEmpty() || lookup.started) {
+                return;
+            }
+
+            lookups.remove(lookup.key);
+        }
+
+        executor.remove(lookup);
+    }
+
+    private class Lookup implements Runnable, Comparable<Lookup> {
+        final LookupKey key;
+        final int priority;
+        final long order;
+        final List<ImageRequestExecutionTask> waiters = new ArrayList<>(1);
+        boolean started = false;
+
+        Lookup(LookupKey key, int priority, long order) {
+            this.key = key;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public void run() {
+            ImageRequestExecutionTask resolver;
+            synchronized (lookups) {
+                if (waiters.isEmpty()) {
+                    lookups.remove(key);
+                    return;
+                }
+
+                started = true;
+                resolver = waiters.get(0);
+            }
+
+            ImageLocationSpec location = null;
+            try {
+                location = resolver.resolve();
+            }
+            catch (Exception ex) {
+                logger.warn("Unable to resolve image location for {}", key, ex);
+            }
+
+            final List<ImageRequestExecutionTask> waiting;
+            synchronized (lookups) {
+                lookups.remove(key);
+                waiting = new ArrayList<>(waiters);
+            }
+
+            final ImageLocationSpec resolved = location;
+            LooperExecutor.getMainExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (ImageRequestExecutionTask task : waiting) {
+                        task.onResolved(resolved);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(@NonNull Lookup other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return order < other.order ? -1 : (order == other.order ? 0 : 1);
+        }
+    }
+
+    /**
+     * Identifies requests that will resolve to the same location.
+     */
+    static final class LookupKey {
+        private final ImageCategory category;
+        private final Object locationHint;
+        private final boolean noUserGeneratedImagery;
+
+        LookupKey(ImageCategory category, @Nullable Object locationHint, boolean noUserGeneratedImagery) {
+            this.category = category;
+            this.locationHint = locationHint;
+            this.noUserGeneratedImagery = noUserGeneratedImagery;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            LookupKey that = (LookupKey) o;
+            return noUserGeneratedImagery == that.noUserGeneratedImagery
+                  && category == that.category
+                  && (locationHint != null ? locationHint.equals(that.locationHint) : that.locationHint == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = category != null ? category.hashCode() : 0;
+            result = 31 * result + (locationHint != null ? locationHint.hashCode() : 0);
+            result = 31 * result + (noUserGeneratedImagery ? 1 : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "LookupKey{" +
+                  "category=" + category +
+                  ", locationHint=" + locationHint +
+                  ", noUserGeneratedImagery=" + noUserGeneratedImagery +
+                  '}';
+        }
+    }
+}
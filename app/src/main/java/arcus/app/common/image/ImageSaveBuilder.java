@@ -18,7 +18,6 @@ package arcus.app.common.image;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.net.Uri;
-import android.os.AsyncTask;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -26,7 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Saves a user-generated image to the {@link ImageRepository} within an {@link AsyncTask}.
+ * Saves a user-generated image to the {@link ImageRepository} off the main thread.
  */
 public class ImageSaveBuilder {
 
@@ -55,26 +54,18 @@ public class ImageSaveBuilder {
         return this;
     }
 
+    /**
+     * Saves the image in the background, callbacks are made on the main thread.
+     */
     public void commit () {
-
-        AsyncTask<ImageSaveBuilder, Void, Void> task = new AsyncTask<ImageSaveBuilder, Void, Void> () {
-
-            @Nullable
+        ImageRepository.saveImageAsync(context, image, category, placeId, imageId, new ImageSaveListener() {
             @Override
-            protected Void doInBackground(@NonNull ImageSaveBuilder... params) {
-
-                for (ImageSaveBuilder builder : params) {
-                    Uri fileUri = ImageRepository.saveImage(builder.context, builder.image, builder.category, builder.placeId, builder.imageId);
-                    for (ImageSaveListener thisListener : builder.listeners) {
-                        thisListener.onImageSaveComplete(true, builder.image, fileUri);
-                    }
+            public void onImageSaveComplete(boolean success, Bitmap image, Uri savedFileUri) {
+                for (ImageSaveListener thisListener : listeners) {
+                    thisListener.onImageSaveComplete(success, image, savedFileUri);
                 }
-
-                return null;
             }
-        };
-
-        task.execute(this);
+        });
     }
 
 }
@@ -21,9 +21,46 @@ import com.squareup.picasso.NetworkPolicy
 import okhttp3.CacheControl
 import okhttp3.OkHttpClient
 import java.io.IOException
+import java.util.concurrent.atomic.AtomicLong
 import okhttp3.Request.Builder as RequestBuilder
 
 class OkHttp3Downloader(private val client: OkHttpClient) : Downloader {
+    private val cacheHits = AtomicLong()
+    private val networkLoads = AtomicLong()
+    private val cacheBytes = AtomicLong()
+    private val networkBytes = AtomicLong()
+
+    /**
+     * Counts of images served from the HTTP disk cache vs the network along with the size
+     * of the disk cache itself.
+     */
+    data class Stats(
+        val cacheHits: Long,
+        val networkLoads: Long,
+        val cacheBytesServed: Long,
+        val networkBytesServed: Long,
+        val diskCacheSize: Long,
+        val diskCacheMaxSize: Long
+    ) {
+        override fun toString(): String = "Disk Cache Hits: $cacheHits\n" +
+            "Network Loads: $networkLoads\n" +
+            "Bytes From Cache: $cacheBytesServed\n" +
+            "Bytes From Network: $networkBytesServed\n" +
+            "Disk Cache Size: $diskCacheSize / $diskCacheMaxSize"
+    }
+
+    fun stats(): Stats {
+        val cache = client.cache
+        return Stats(
+            cacheHits.get(),
+            networkLoads.get(),
+            cacheBytes.get(),
+            networkBytes.get(),
+            try { cache?.size() ?: 0L } catch (ignored: IOException) { 0L },
+            cache?.maxSize() ?: 0L
+        )
+    }
+
     @Throws(IOException::class)
     override fun load(uri: Uri, networkPolicy: Int): Downloader.Response {
         var cacheControl: CacheControl? = null
@@ -57,9 +94,18 @@ class OkHttp3Downloader(private val client: OkHttpClient) : Downloader {
             )
         }
 
-        val fromCache = response.cacheResponse != null
+        // A conditional request that was revalidated has both, only count it as a hit if the network wasn't used.
+        val fromCache = response.cacheResponse != null && response.networkResponse == null
 
         val responseBody = response.body!!
+        val length = responseBody.contentLength().coerceAtLeast(0)
+        if (fromCache) {
+            cacheHits.incrementAndGet()
+            cacheBytes.addAndGet(length)
+        } else {
+            networkLoads.incrementAndGet()
+            networkBytes.addAndGet(length)
+        }
         return Downloader.Response(responseBody.byteStream(), fromCache, responseBody.contentLength())
     }
 
@@ -0,0 +1,250 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.image;
+
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import arcus.app.ArcusApplication;
+import arcus.app.BuildConfig;
+import arcus.app.common.image.picasso.transformation.AlphaPreset;
+import com.squareup.picasso.Transformation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the last few blurred and alpha-overlaid wallpapers on disk so moving between places (or
+ * back to a screen) doesn't decode and blur the same photo again.
+ *
+ * Entries are keyed by the source image and the {@link AlphaPreset}, along with the keys of the
+ * transformations that produced them.  Local files include their size and modification time in
+ * the key so a replaced photo is never served stale.  Looking a wallpaper up touches the disk, so
+ * it's done on the maintenance thread and the answer is posted back to the main thread.
+ */
+class WallpaperCache {
+    private static final Logger logger = LoggerFactory.getLogger(WallpaperCache.class);
+    private static final String CACHE_DIR = "wallpapers";
+    private static final String EXTENSION = ".jpg";
+    private static final int MAX_ENTRIES = 12;
+    private static final int JPEG_QUALITY = 90;
+
+    private static final ExecutorService maintenanceExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private WallpaperCache() {
+    }
+
+    interface LookupCallback {
+        /**
+         * Called on the main thread.
+         *
+         * @param key the key to store the wallpaper under, or null if it can't be cached
+         * @param cached the cached wallpaper, or null if there isn't one
+         */
+        void onLookup(@Nullable String key, @Nullable File cached);
+    }
+
+    /**
+     * Looks up the cached copy of a wallpaper, dropping it first when {@code invalidate} is set.
+     */
+    static void lookup(
+          @NonNull final ImageLocationSpec location,
+          @Nullable final AlphaPreset overlay,
+          @NonNull final List<Transformation> transformations,
+          final boolean invalidate,
+          @NonNull final LookupCallback callback
+    ) {
+        maintenanceExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final String key = keyFor(location, overlay, transformations);
+                File file = key == null ? null : fileFor(key);
+                if (file != null && invalidate) {
+                    file.delete();
+                    file = null;
+                }
+                if (file != null && file.isFile()) {
+                    file.setLastModified(System.currentTimeMillis());
+                }
+                else {
+                    file = null;
+                }
+
+                final File cached = file;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLookup(key, cached);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return the key for the wallpaper or null if the location can't be cached
+     */
+    @Nullable
+    private static String keyFor(
+          @NonNull ImageLocationSpec location,
+          @Nullable AlphaPreset overlay,
+          @NonNull List<Transformation> transformations
+    ) {
+        Object source = location.getLocation();
+        StringBuilder key = new StringBuilder();
+
+        if (source instanceof String || source instanceof Uri) {
+            key.append(source);
+        } else if (source instanceof File) {
+            File file = (File) source;
+            key.append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified());
+        } else if (source instanceof Integer) {
+            // Resource ids can change between builds
+            key.append("res:").append(source).append(':').append(BuildConfig.VERSION_CODE);
+        } else {
+            return null;
+        }
+
+        key.append('|').append(overlay);
+        for (Transformation transformation : transformations) {
+            key.append('|').append(transformation.key());
+        }
+
+        return hash(key.toString());
+    }
+
+    /**
+     * A pass-through transformation that stores the bitmap it's given under {@code key}. This
+     * should be the last transformation applied to the wallpaper request.
+     */
+    @NonNull
+    static Transformation storeAs(@NonNull final String key) {
+        return new Transformation() {
+            @Override
+            public Bitmap transform(Bitmap source) {
+                put(key, source);
+                return source;
+            }
+
+            @Override
+            public String key() {
+                return "WallpaperCache.store()";
+            }
+        };
+    }
+
+    private static void put(@NonNull String key, @NonNull Bitmap bitmap) {
+        File file = fileFor(key);
+        if (file == null) {
+            return;
+        }
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        }
+        catch (IOException ex) {
+            logger.debug("Unable to cache wallpaper.", ex);
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+
+        maintenanceExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                trim();
+            }
+        });
+    }
+
+    private static void trim() {
+        File dir = getDirectory();
+        File[] files = dir == null ? null : dir.listFiles();
+        if (files == null || files.length <= MAX_ENTRIES) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long left = lhs.lastModified();
+                long right = rhs.lastModified();
+                return left < right ? 1 : (left == right ? 0 : -1);
+            }
+        });
+
+        for (int i = MAX_ENTRIES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    @Nullable
+    private static File fileFor(@NonNull String key) {
+        File dir = getDirectory();
+        return dir == null ? null : new File(dir, key + EXTENSION);
+    }
+
+    @Nullable
+    private static File getDirectory() {
+        try {
+            File dir = new File(ArcusApplication.getContext().getCacheDir(), CACHE_DIR);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                return null;
+            }
+            return dir;
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    @NonNull
+    private static String hash(@NonNull String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException | IOException ex) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
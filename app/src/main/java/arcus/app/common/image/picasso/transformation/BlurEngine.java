@@ -0,0 +1,210 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.image.picasso.transformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Approximates a gaussian blur on packed ARGB pixels using three box blur passes.
+ *
+ * Each pass blurs the rows and writes them out transposed so the "vertical" half of the pass is
+ * another row walk instead of a column walk.  Scratch space is kept per thread and reused between
+ * calls, and images larger than {@link #PARALLEL_THRESHOLD} pixels are split into bands of rows
+ * that are blurred on all available cores.
+ *
+ * Radius has the same meaning as it does for the RenderScript intrinsic blur this replaces.
+ */
+public final class BlurEngine {
+    static final int PARALLEL_THRESHOLD = 512 * 512;
+    private static final int PASSES = 3;
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    private static final ThreadLocal<int[]> pixelBuffers = new ThreadLocal<>();
+    private static final ThreadLocal<int[]> scratchBuffers = new ThreadLocal<>();
+    private static volatile ExecutorService bandExecutor;
+
+    private BlurEngine() {
+    }
+
+    /**
+     * A buffer of at least {@code size} pixels owned by the calling thread, callers can read a
+     * bitmap into this to avoid allocating a pixel array for every blur.
+     */
+    public static int[] pixelBuffer(int size) {
+        return obtain(pixelBuffers, size);
+    }
+
+    /**
+     * Blurs {@code width * height} pixels in place.
+     *
+     * @param pixels packed ARGB pixels, row major, may be larger than the image
+     * @param radius blur radius in pixels
+     */
+    public static void blur(int[] pixels, int width, int height, float radius) {
+        if (width <= 0 || height <= 0 || radius <= 0) {
+            return;
+        }
+        if (pixels.length < width * height) {
+            throw new IllegalArgumentException("Pixel buffer is smaller than " + width + "x" + height);
+        }
+
+        int[] scratch = obtain(scratchBuffers, width * height);
+        boolean parallel = CORES > 1 && width * height >= PARALLEL_THRESHOLD;
+
+        for (int boxRadius : boxRadii(sigmaFor(radius))) {
+            // Rows of pixels become columns of scratch and then back again.
+            pass(pixels, scratch, width, height, boxRadius, parallel);
+            pass(scratch, pixels, height, width, boxRadius, parallel);
+        }
+    }
+
+    /**
+     * Same conversion the RenderScript intrinsic uses between its radius and sigma.
+     */
+    static float sigmaFor(float radius) {
+        return 0.4f * radius + 0.6f;
+    }
+
+    /**
+     * Radii of the boxes whose successive application best approximates a gaussian with {@code sigma}.
+     */
+    static int[] boxRadii(float sigma) {
+        double ideal = Math.sqrt(12.0 * sigma * sigma / PASSES + 1);
+        int lower = (int) Math.floor(ideal);
+        if (lower % 2 == 0) {
+            lower--;
+        }
+        int upper = lower + 2;
+
+        double idealLowerCount = (12.0 * sigma * sigma - PASSES * lower * lower - 4.0 * PASSES * lower - 3.0 * PASSES) / (-4.0 * lower - 4);
+        long lowerCount = Math.round(idealLowerCount);
+
+        int[] radii = new int[PASSES];
+        for (int i = 0; i < PASSES; i++) {
+            radii[i] = ((i < lowerCount ? lower : upper) - 1) / 2;
+        }
+        return radii;
+    }
+
+    private static void pass(final int[] in, final int[] out, final int width, final int height, final int radius, boolean parallel) {
+        if (!parallel) {
+            boxRows(in, out, width, height, radius, 0, height);
+            return;
+        }
+
+        int bands = Math.min(CORES, height);
+        int rowsPerBand = (height + bands - 1) / bands;
+        List<Future<?>> pending = new ArrayList<>(bands - 1);
+
+        for (int start = rowsPerBand; start < height; start += rowsPerBand) {
+            final int from = start;
+            final int to = Math.min(height, start + rowsPerBand);
+            pending.add(getBandExecutor().submit(new Runnable() {
+                @Override
+                public void run() {
+                    boxRows(in, out, width, height, radius, from, to);
+                }
+            }));
+        }
+
+        // The calling thread takes the first band rather than sitting idle.
+        boxRows(in, out, width, height, radius, 0, Math.min(height, rowsPerBand));
+
+        for (Future<?> band : pending) {
+            try {
+                band.get();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while blurring", ex);
+            }
+            catch (ExecutionException ex) {
+                throw new IllegalStateException("Unable to blur band", ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * Box blurs rows {@code [fromRow, toRow)} of {@code in} and writes each one as a column of
+     * {@code out}, edges are clamped.
+     */
+    static void boxRows(int[] in, int[] out, int width, int height, int radius, int fromRow, int toRow) {
+        final int size = radius * 2 + 1;
+        final int last = width - 1;
+
+        for (int y = fromRow; y < toRow; y++) {
+            final int row = y * width;
+            int a = 0, r = 0, g = 0, b = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int p = in[row + Math.min(last, Math.max(0, i))];
+                a += p >>> 24;
+                r += (p >> 16) & 0xFF;
+                g += (p >> 8) & 0xFF;
+                b += p & 0xFF;
+            }
+
+            int target = y;
+            for (int x = 0; x < width; x++) {
+                out[target] = ((a / size) << 24) | ((r / size) << 16) | ((g / size) << 8) | (b / size);
+                target += height;
+
+                int incoming = in[row + Math.min(last, x + radius + 1)];
+                int outgoing = in[row + Math.max(0, x - radius)];
+                a += (incoming >>> 24) - (outgoing >>> 24);
+                r += ((incoming >> 16) & 0xFF) - ((outgoing >> 16) & 0xFF);
+                g += ((incoming >> 8) & 0xFF) - ((outgoing >> 8) & 0xFF);
+                b += (incoming & 0xFF) - (outgoing & 0xFF);
+            }
+        }
+    }
+
+    private static int[] obtain(ThreadLocal<int[]> buffers, int size) {
+        int[] buffer = buffers.get();
+        if (buffer == null || buffer.length < size) {
+            buffer = new int[size];
+            buffers.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static ExecutorService getBandExecutor() {
+        if (bandExecutor == null) {
+            synchronized (BlurEngine.class) {
+                if (bandExecutor == null) {
+                    bandExecutor = Executors.newFixedThreadPool(CORES - 1, new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "blur-band-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return bandExecutor;
+    }
+}
@@ -18,43 +18,37 @@ package arcus.app.common.image.picasso.transformation;
 import android.content.Context;
 import android.graphics.Bitmap;
 import androidx.annotation.NonNull;
-import androidx.renderscript.Allocation;
-import androidx.renderscript.Element;
-import androidx.renderscript.RenderScript;
-import androidx.renderscript.ScriptIntrinsicBlur;
 
-import arcus.app.ArcusApplication;
 import com.squareup.picasso.Transformation;
 
+/**
+ * Scales the source down and blurs it with the {@link BlurEngine}.
+ */
 public class BlurTransformation implements Transformation {
     private final float scale;
     private final float radius;
-    private final Context context;
 
+    /**
+     * @param context unused, kept so existing callers don't need to change
+     */
     public BlurTransformation (Context context) {
         this.scale = 0.1f;
         this.radius = 20.0f;
-        this.context = context;
     }
 
     @Override
     public Bitmap transform(@NonNull Bitmap source) {
 
-        int width = Math.round(source.getWidth() * scale);
-        int height = Math.round(source.getHeight() * scale);
+        int width = Math.max(1, Math.round(source.getWidth() * scale));
+        int height = Math.max(1, Math.round(source.getHeight() * scale));
 
         Bitmap inputBitmap = Bitmap.createScaledBitmap(source, width, height, false);
-        Bitmap outputBitmap = Bitmap.createBitmap(inputBitmap);
-
-        RenderScript rs = RenderScript.create(getContext());
-        final ScriptIntrinsicBlur theIntrinsic = ScriptIntrinsicBlur.create(rs, Element.U8_4(rs));
-        final Allocation tmpIn = Allocation.createFromBitmap(rs, inputBitmap);
-        final Allocation tmpOut = Allocation.createFromBitmap(rs, outputBitmap);
+        Bitmap outputBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
 
-        theIntrinsic.setRadius(radius);
-        theIntrinsic.setInput(tmpIn);
-        theIntrinsic.forEach(tmpOut);
-        tmpOut.copyTo(outputBitmap);
+        int[] pixels = BlurEngine.pixelBuffer(width * height);
+        inputBitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+        BlurEngine.blur(pixels, width, height, radius);
+        outputBitmap.setPixels(pixels, 0, width, 0, 0, width, height);
 
         if (inputBitmap != source && !inputBitmap.isRecycled()) {
             inputBitmap.recycle();
@@ -67,14 +61,6 @@ public class BlurTransformation implements Transformation {
         return outputBitmap;
     }
 
-    private Context getContext() {
-        if (context == null) {
-            return ArcusApplication.getContext();
-        } else {
-            return context;
-        }
-    }
-
     @NonNull
     @Override
     public String key() {
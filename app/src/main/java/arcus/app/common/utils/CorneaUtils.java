@@ -25,6 +25,7 @@ import arcus.cornea.provider.PersonModelProvider;
 import arcus.cornea.provider.PlaceModelProvider;
 import arcus.cornea.provider.ProductModelProvider;
 import arcus.cornea.subsystem.safety.model.HistoryEvent;
+import arcus.cornea.utils.CapabilityIndex;
 import com.iris.capability.util.Addresses;
 import com.iris.client.bean.HistoryLog;
 import com.iris.client.capability.Account;
@@ -59,7 +60,6 @@ import org.slf4j.LoggerFactory;
 
 import java.beans.PropertyChangeEvent;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -71,26 +71,15 @@ public class CorneaUtils {
     private final static Logger logger = LoggerFactory.getLogger(CorneaUtils.class);
 
     public static <T extends Capability> boolean hasCapability (Model deviceModel, @NonNull Class<T> capability) {
-        return getCapability(deviceModel, capability) != null;
+        return capability.isInstance(deviceModel);
     }
 
     public static <T extends Capability> T getCapability (Model deviceModel, @NonNull Class<T> capability) {
-        try {
-            return capability.cast(deviceModel);
-        } catch (ClassCastException e) {
-            return null;
-        }
+        return capability.isInstance(deviceModel) ? capability.cast(deviceModel) : null;
     }
 
-    @SuppressWarnings("ConstantConditions")
     public static boolean isThermostatDevice(@Nullable DeviceModel deviceModel) {
-        if (deviceModel == null) {
-            return false;
-        }
-
-        Collection<String> caps = deviceModel.getCaps();
-        return (caps != null && !caps.isEmpty()) &&
-              (caps.contains(Thermostat.NAMESPACE));
+        return CapabilityIndex.supports(deviceModel, Thermostat.class);
     }
 
     @Nullable
@@ -398,7 +387,7 @@ public class CorneaUtils {
         List<DeviceModel> filteredDevices = new ArrayList<>();
 
         for (DeviceModel model : models) {
-            if (model == null || !(model.getCaps().contains(BridgeChild.NAMESPACE))) {
+            if (!CapabilityIndex.supports(model, BridgeChild.class)) {
                 continue;
             }
 
@@ -444,7 +433,7 @@ public class CorneaUtils {
 
     public static boolean isCamera(String address) {
         Model model = getDeviceModelFromCache(address);
-        return model != null && model.getCaps() != null && model.getCaps().contains(Camera.NAMESPACE);
+        return CapabilityIndex.supports(model, Camera.class);
     }
 
     public static @Nullable Model getDeviceModelFromCache(String address) {
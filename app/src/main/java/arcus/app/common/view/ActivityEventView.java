@@ -31,22 +31,16 @@ import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.widget.ImageView;
 
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class ActivityEventView extends ImageView {
-    protected final List<ActivityLine> activityIntervals = Collections.synchronizedList(new ArrayList<ActivityLine>());
+    protected volatile ActivityTimeline activityTimeline = ActivityTimeline.EMPTY;
 
     protected static final long THIRTY_MIN_IN_MILLIS = TimeUnit.MINUTES.toMillis(30);
     protected long VIEWPORT_WIDTH = TimeUnit.HOURS.toMillis(2);
-    protected static final int BEFORE_LEFT_BOUND = 0;
-    protected static final int AFTER_RIGHT_BOUND = -1;
     protected static final boolean DEBUG = false;
     protected static final String AM = "AM";
     protected static final String PM = "PM";
@@ -180,34 +174,15 @@ public class ActivityEventView extends ImageView {
 
     /**
      * Set the lines to be drawn on the graph.
-     * Clears any existing lines and uses this set by default.
-     * Also, calls {@link #invalidate()} to force a re-draw
+     * Replaces any existing lines.
      *
      * @param events lines to be drawn
      */
-    public void setEvents(@NonNull  List<ActivityLine> events, long atTime) {
-        activityIntervals.clear();
-        activityIntervals.addAll(events);
-        if (activityIntervals.isEmpty()) {
-            setMinMaxBounds(atTime);
-            return;
-        }
-
+    public void setEvents(@NonNull ActivityTimeline events, long atTime) {
+        activityTimeline = events;
         setMinMaxBounds(atTime);
     }
 
-    /**
-     * Set the lines to be drawn on the graph.
-     * Clears any existing lines and uses this set by default.
-     * Also, calls {@link #invalidate()} to force a re-draw
-     *
-     * @param events lines to be drawn
-     */
-    public void setEvents(@NonNull  List<ActivityLine> events, Comparator<ActivityLine> comparator, long atTime) {
-        setEvents(events, atTime);
-        Collections.sort(activityIntervals, comparator);
-    }
-
     /**
      * Set the start/end time of the graph
      *
@@ -354,36 +329,33 @@ public class ActivityEventView extends ImageView {
     }
 
     protected void drawEvents(Canvas canvas) {
-        int borderSize = getBorderSize();
-        int canvasEventLineHeight = canvasHeight - axisSizePX;
+        final int borderSize = getBorderSize();
+        final int canvasEventLineHeight = canvasHeight - axisSizePX;
+        final Canvas target = canvas;
         final Rect clipBounds = canvas.getClipBounds();
 
-        for (ActivityLine line : activityIntervals) {
-            float startDraw = getEventNextAndSkew(line, clipBounds);
-            if (startDraw == BEFORE_LEFT_BOUND) {
-                continue;
-            }
-            else if (startDraw == AFTER_RIGHT_BOUND) {
-                return;
-            }
-
-            canvas.drawLine(startDraw, borderSize, startDraw, canvasEventLineHeight, eventPaintBrush);
-        }
+        // getNextX is a straight line, so two points are enough to place every event
+        float originX = getNextX(startTime);
+        float pixelsPerMilli = (getNextX(startTime + VIEWPORT_WIDTH) - originX) / VIEWPORT_WIDTH;
+        ActivityTimelineRenderer.draw(
+              activityTimeline,
+              startTime,
+              originX,
+              pixelsPerMilli,
+              clipBounds.left,
+              clipBounds.right,
+              textPaintBrush.measureText("10"),
+              new ActivityTimelineRenderer.Target() {
+                  @Override
+                  public void drawEvent(float x, boolean isContact) {
+                      ActivityEventView.this.drawEvent(target, x, borderSize, canvasEventLineHeight, isContact);
+                  }
+              }
+        );
     }
 
-    protected float getEventNextAndSkew(ActivityLine line, Rect clipBounds) {
-        long eventTime = line.getEventTime();
-        float xStartDraw = getNextX(eventTime);
-
-        float skew = textPaintBrush.measureText("10");
-        if ((xStartDraw + skew) < clipBounds.left) {
-            return BEFORE_LEFT_BOUND;
-        }
-        if (xStartDraw > clipBounds.right) {
-            return AFTER_RIGHT_BOUND;
-        }
-
-        return xStartDraw + skew;
+    protected void drawEvent(Canvas canvas, float x, int top, int bottom, boolean isContact) {
+        canvas.drawLine(x, top, x, bottom, eventPaintBrush);
     }
 
     protected void drawHours(Canvas canvas) {
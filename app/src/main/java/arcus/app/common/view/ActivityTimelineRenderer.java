@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.view;
+
+import androidx.annotation.NonNull;
+
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
+
+/**
+ * Works out which lines of an {@link ActivityTimeline} fall inside the visible part of a graph and
+ * where they go, so a frame costs the number of visible lines rather than the number of lines in
+ * the day.
+ *
+ * Drawing starts at the first run that reaches the left edge (found with a binary search) and stops
+ * at the first run that starts past the right edge.  Each line's x is the previous line's plus a
+ * bucket's width.  When zoomed out far enough that consecutive lines land in the same pixel column,
+ * only the first of them is drawn, unless the line kind changes.
+ */
+final class ActivityTimelineRenderer {
+    interface Target {
+        void drawEvent(float x, boolean isContact);
+    }
+
+    private ActivityTimelineRenderer() {
+        //no instance
+    }
+
+    /**
+     * Draws the lines where {@code left <= x + skew} and {@code x <= right}, where
+     * {@code x = originX + (time - originTime) * pixelsPerMilli}, at {@code x + skew}.
+     *
+     * @return the number of lines drawn
+     */
+    static int draw(
+          @NonNull ActivityTimeline timeline,
+          long originTime,
+          float originX,
+          float pixelsPerMilli,
+          float left,
+          float right,
+          float skew,
+          @NonNull Target target
+    ) {
+        if (timeline.isEmpty() || !(pixelsPerMilli > 0)) {
+            return 0;
+        }
+
+        long firstTime = originTime + (long) Math.floor((left - skew - originX) / pixelsPerMilli);
+        long lastTime = originTime + (long) Math.ceil((right - originX) / pixelsPerMilli);
+        long bucket = timeline.getBucketSize();
+        float bucketWidth = bucket * pixelsPerMilli;
+
+        int drawn = 0;
+        int lastColumn = Integer.MIN_VALUE;
+        boolean lastContact = false;
+        for (int run = timeline.firstRunEndingAtOrAfter(firstTime), runs = timeline.size(); run < runs; run++) {
+            long start = timeline.getStart(run);
+            if (start > lastTime) {
+                break;
+            }
+
+            int first = 0;
+            if (start < firstTime && bucket > 0) {
+                first = (int) ((firstTime - start + bucket - 1) / bucket);
+            }
+
+            boolean isContact = timeline.isContact(run);
+            float x = originX + (start - originTime) * pixelsPerMilli + first * bucketWidth + skew;
+            for (int i = first, count = timeline.getCount(run); i < count; i++, x += bucketWidth) {
+                if (x - skew > right) {
+                    break;
+                }
+                if (x < left) {
+                    continue;
+                }
+
+                int column = (int) x;
+                if (column == lastColumn && isContact == lastContact) {
+                    continue;
+                }
+
+                target.drawEvent(x, isContact);
+                lastColumn = column;
+                lastContact = isContact;
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+}
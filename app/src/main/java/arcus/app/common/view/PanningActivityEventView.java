@@ -26,8 +26,6 @@ import android.util.Log;
 import android.util.TypedValue;
 import android.view.MotionEvent;
 
-import arcus.cornea.subsystem.care.model.ActivityLine;
-
 import java.util.Calendar;
 import java.util.concurrent.TimeUnit;
 
@@ -159,35 +157,19 @@ public class PanningActivityEventView extends ActivityEventView {
         return true;
     }
 
-    @Override protected void drawEvents(Canvas canvas) {
-        int borderSize = getBorderSize();
-        int canvasEventLineHeight = canvasHeight - axisSizePX;
-        final Rect clipBounds = canvas.getClipBounds();
+    @Override protected void drawEvent(Canvas canvas, float x, int top, int bottom, boolean isContact) {
+        canvas.drawLine(x, top, x, bottom, eventPaintBrush);
+        if (shouldUseDash3Line && isContact) {
+            float lineSegmentSize = bottom / 3;
 
-        float lineSegmentSize;
-        for (ActivityLine line : activityIntervals) {
-            float startDraw = getEventNextAndSkew(line, clipBounds);
-            if (startDraw == BEFORE_LEFT_BOUND) {
-                continue;
-            }
-            else if (startDraw == AFTER_RIGHT_BOUND) {
-                return;
-            }
+            eventPaintBrush.setColor(Color.BLACK);
+            eventPaintBrush.setAlpha(twentyPercent);
 
+            canvas.drawLine(x, top, x, lineSegmentSize, eventPaintBrush);
+            canvas.drawLine(x, top + (lineSegmentSize * 2), x, bottom, eventPaintBrush);
 
-            canvas.drawLine(startDraw, borderSize, startDraw, canvasEventLineHeight, eventPaintBrush);
-            if (shouldUseDash3Line && line.getIsContact()) {
-                lineSegmentSize = canvasEventLineHeight / 3;
-
-                eventPaintBrush.setColor(Color.BLACK);
-                eventPaintBrush.setAlpha(twentyPercent);
-
-                canvas.drawLine(startDraw, borderSize, startDraw, lineSegmentSize, eventPaintBrush);
-                canvas.drawLine(startDraw, borderSize + (lineSegmentSize * 2), startDraw, canvasEventLineHeight, eventPaintBrush);
-
-                eventPaintBrush.setColor(Color.WHITE);
-                eventPaintBrush.setAlpha(fullAlpha);
-            }
+            eventPaintBrush.setColor(Color.WHITE);
+            eventPaintBrush.setAlpha(fullAlpha);
         }
     }
 
@@ -21,18 +21,20 @@ import android.os.Handler;
 
 import androidx.annotation.Nullable;
 import arcus.cornea.CorneaClientFactory;
+import arcus.cornea.network.HttpClientFactory;
 import arcus.app.BuildConfig;
 import arcus.app.activities.FullscreenFragmentActivity;
 import arcus.app.common.popups.WhatsNewPopup;
 import arcus.app.common.utils.PreferenceUtils;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import okhttp3.Request;
+import okhttp3.Response;
+
 public class WhatsNewPopupResponsibility extends DashboardPopupResponsibility implements WhatsNewPopup.Callback {
 
     private final static int ANIMATION_DELAY_MS = 2000;
@@ -89,12 +91,10 @@ public class WhatsNewPopupResponsibility extends DashboardPopupResponsibility im
 
         String urlString =  makeWhatsNewUrl(version, baseUrl);
 
-        try {
-            URL whatsNewUrl = new URL(urlString);
-            HttpURLConnection urlConnection =  (HttpURLConnection) whatsNewUrl.openConnection();
-            urlConnection.setRequestMethod("HEAD");
-
-            int responseCode = urlConnection.getResponseCode();
+        try (Response response = HttpClientFactory.getClient()
+              .newCall(new Request.Builder().url(urlString).head().build())
+              .execute()) {
+            int responseCode = response.code();
 
             if(responseCode == 200) {
                 url = urlString;
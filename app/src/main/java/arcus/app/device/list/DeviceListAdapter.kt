@@ -1,25 +1,32 @@
 package arcus.app.device.list
 
+import android.os.Handler
+import android.os.Looper
 import android.view.View
 import android.view.ViewGroup
 import android.widget.ImageView
 import android.widget.TextView
-import androidx.recyclerview.widget.DiffUtil.ItemCallback
-import androidx.recyclerview.widget.ListAdapter
+import androidx.recyclerview.widget.DiffUtil
+import androidx.recyclerview.widget.RecyclerView
 import androidx.recyclerview.widget.RecyclerView.ViewHolder
 import arcus.app.R
+import arcus.app.common.adapters.ListChangeDispatcher
 import arcus.app.common.image.ImageManager
 import arcus.app.common.image.picasso.transformation.CropCircleTransformation
 import arcus.app.common.utils.inflate
 import arcus.presentation.device.list.DeviceListItem
+import arcus.presentation.device.list.Devices
 import arcus.presentation.device.list.ListItem
+import java.util.concurrent.Executors
 
 class DeviceListAdapter(
         private val itemClickListener: ItemClickListener
-) : ListAdapter<ListItem, ViewHolder>(object : ItemCallback<ListItem>() {
-    override fun areItemsTheSame(oldItem: ListItem, newItem: ListItem): Boolean = oldItem.areItemsTheSame(newItem)
-    override fun areContentsTheSame(oldItem: ListItem, newItem: ListItem): Boolean = oldItem.areContentsTheSame(newItem)
-}) {
+) : RecyclerView.Adapter<ViewHolder>() {
+    private var items: List<ListItem> = emptyList()
+    private var version = -1
+    private var generation = 0
+    private var diffing = false
+
     interface ItemClickListener {
         /**
          * Called when the device is clicked with it's [position] in the list.
@@ -32,6 +39,49 @@ class DeviceListAdapter(
         fun footerClicked()
     }
 
+    /**
+     * Shows the [devices] list, applying its changes when they follow on from what's shown and
+     * diffing against what's shown in the background when they don't.  While a diff is running
+     * what's shown stays as it was, so later lists are diffed too and only the last one is shown.
+     */
+    fun submitList(devices: Devices) {
+        val current = devices.deviceList
+        val changes = devices.changes.takeIf { devices.version == version + 1 && !diffing }
+        val submitted = ++generation
+        version = devices.version
+
+        if (changes != null) {
+            items = current
+            ListChangeDispatcher.dispatch(changes, this)
+            return
+        }
+
+        val previous = items
+        diffing = true
+        diffExecutor.execute {
+            val result = DiffUtil.calculateDiff(object : DiffUtil.Callback() {
+                override fun getOldListSize(): Int = previous.size
+                override fun getNewListSize(): Int = current.size
+                override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean =
+                        previous[oldItemPosition].areItemsTheSame(current[newItemPosition])
+                override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean =
+                        previous[oldItemPosition].areContentsTheSame(current[newItemPosition])
+            })
+
+            mainHandler.post {
+                if (submitted == generation) {
+                    items = current
+                    diffing = false
+                    result.dispatchUpdatesTo(this)
+                }
+            }
+        }
+    }
+
+    override fun getItemCount(): Int = items.size
+
+    private fun getItem(position: Int): ListItem = items[position]
+
     override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): ViewHolder {
         return if (viewType == 0) {
             DeviceViewHolder(parent.inflate(R.layout.device_list_item))
@@ -97,4 +147,9 @@ class DeviceListAdapter(
     }
 
     class FooterViewHolder(itemView: View) : ViewHolder(itemView)
+
+    companion object {
+        private val diffExecutor = Executors.newSingleThreadExecutor()
+        private val mainHandler = Handler(Looper.getMainLooper())
+    }
 }
@@ -60,9 +60,8 @@ class DeviceListingFragment : CoreFragment<DeviceListViewModel>() {
         viewModel.viewState.observe(viewLifecycleOwner, Observer {
             when (it) {
                 is ViewState.Loaded -> {
-                    val (devices, deviceListItems) = it.item
-                    numOfDevices.text = devices.toString()
-                    deviceListAdapter.submitList(deviceListItems)
+                    numOfDevices.text = it.item.devices.toString()
+                    deviceListAdapter.submitList(it.item)
                 }
             }
         })
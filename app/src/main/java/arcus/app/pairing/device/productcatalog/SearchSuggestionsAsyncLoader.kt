@@ -25,6 +25,7 @@ import androidx.loader.content.AsyncTaskLoader
 
 import arcus.cornea.CorneaClientFactory
 import arcus.cornea.SessionController
+import arcus.cornea.provider.ProductModelProvider
 import com.iris.client.capability.Place
 import com.iris.client.capability.Product
 import com.iris.client.service.ProductCatalogService
@@ -47,7 +48,9 @@ class SearchSuggestionsAsyncLoader(context: Context, private val searchString: S
             val activePlace = SessionController.instance().activePlace
             if (activePlace == null) {
                 addNoResultsCursor(cursor)
-            } else {
+            } else if (!addLocalResults(cursor)) {
+                // The catalog hasn't been loaded (and indexed) yet, ask the platform
+                ProductModelProvider.instance().load()
                 CorneaClientFactory.getService(ProductCatalogService::class.java).findProducts(
                         SERVICE_ADDRESS_FORMAT.format(activePlace), searchString
                 ).onSuccess { response ->
@@ -75,6 +78,29 @@ class SearchSuggestionsAsyncLoader(context: Context, private val searchString: S
         }
     }
 
+    /**
+     * Adds suggestions from the local catalog index, returns false if it isn't ready.
+     */
+    private fun addLocalResults(cursor: MatrixCursor): Boolean {
+        val results = ProductModelProvider.instance().searchIndex.search(searchString, MAX_SUGGESTIONS) ?: return false
+        if (results.isEmpty()) {
+            addNoResultsCursor(cursor)
+        } else {
+            results.forEachIndexed { index, document ->
+                cursor.addRow(
+                        arrayOf(
+                                index,
+                                document.displayName,
+                                Intent.ACTION_SEARCH,
+                                SearchManager.EXTRA_DATA_KEY,
+                                document.address
+                        )
+                )
+            }
+        }
+        return true
+    }
+
     // This is used in a lambda, keeping visibility "kotlin protected" so we don't create synthetics
     @Suppress("MemberVisibilityCanBePrivate")
     internal fun addNoResultsCursor(cursor: MatrixCursor) {
@@ -125,5 +151,6 @@ class SearchSuggestionsAsyncLoader(context: Context, private val searchString: S
 
     companion object {
         const val SERVICE_ADDRESS_FORMAT = "SERV:${Place.NAMESPACE}:%s"
+        const val MAX_SUGGESTIONS = 50
     }
 }
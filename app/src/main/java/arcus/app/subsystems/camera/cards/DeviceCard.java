@@ -26,6 +26,7 @@ import java.io.File;
 public class DeviceCard extends SimpleDividerCard {
     public final static String TAG = "CAMERA DEVICE CARD";
     private OnClickListener mListener;
+    private String deviceId;
     private File cacheFile;
     private boolean isFirmwareUpdating;
     private boolean isOffline;
@@ -60,6 +61,14 @@ public class DeviceCard extends SimpleDividerCard {
         this.mListener = listener;
     }
 
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
     public File getCacheFile() {
         return cacheFile;
     }
@@ -63,6 +63,7 @@ public class DeviceCardController extends AbstractCardController<SimpleDividerCa
         mDeviceId = cameraModel.getCameraID();
 
         DeviceCard card = new DeviceCard(context);
+        card.setDeviceId(mDeviceId);
         card.setHideButtons(cameraModel.isUpgradingFirmware());
         card.setRecording(cameraModel.isRecording());
         card.setOnClickListener(this);
@@ -20,12 +20,14 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
 import android.util.AttributeSet;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import arcus.cornea.subsystem.cameras.CameraPreviewGetter;
 import arcus.app.R;
 import arcus.app.common.cards.view.BaseCardItemView;
 import arcus.app.common.view.Version1TextView;
@@ -36,6 +38,10 @@ public class DeviceCardItemView extends BaseCardItemView<DeviceCard> {
 
     ImageView previewImage;
 
+    // The camera whose preview this view is currently showing (and so keeping fresh)
+    @Nullable private String previewDeviceId;
+    @Nullable private String boundDeviceId;
+
     public DeviceCardItemView(Context context) {
         super(context);
     }
@@ -50,6 +56,10 @@ public class DeviceCardItemView extends BaseCardItemView<DeviceCard> {
 
     @Override public void build(@NonNull final DeviceCard card) {
         super.build(card);
+        boolean showsPreview = !card.isOffline() && !card.isFirmwareUpdating() && !card.isUnavailable();
+        boundDeviceId = showsPreview ? card.getDeviceId() : null;
+        updatePreviewVisibility();
+
         if (card.isOffline()) {
             showCardOffline(card);
         }
@@ -64,6 +74,35 @@ public class DeviceCardItemView extends BaseCardItemView<DeviceCard> {
         }
     }
 
+    @Override protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updatePreviewVisibility();
+    }
+
+    @Override protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        updatePreviewVisibility();
+    }
+
+    /**
+     * Only previews on screen are refreshed, so register the bound camera while attached.
+     */
+    private void updatePreviewVisibility() {
+        String visibleId = isAttachedToWindow() ? boundDeviceId : null;
+        if (visibleId == null ? previewDeviceId == null : visibleId.equals(previewDeviceId)) {
+            return;
+        }
+
+        CameraPreviewGetter previewGetter = CameraPreviewGetter.instance();
+        if (previewDeviceId != null) {
+            previewGetter.setVisible(previewDeviceId, false);
+        }
+        if (visibleId != null) {
+            previewGetter.setVisible(visibleId, true);
+        }
+        previewDeviceId = visibleId;
+    }
+
     protected void showCardUnavailable(@NonNull final DeviceCard card) {
         CardView cardView = findViewById(R.id.cardView);
         if (cardView == null) {
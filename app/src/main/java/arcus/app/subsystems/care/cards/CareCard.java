@@ -18,17 +18,15 @@ package arcus.app.subsystems.care.cards;
 import android.content.Context;
 import android.text.SpannableString;
 
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 import arcus.cornea.subsystem.care.model.AlarmState;
 import arcus.app.R;
 import arcus.app.common.cards.SimpleDividerCard;
 import arcus.app.dashboard.settings.services.ServiceCard;
 
-import java.util.List;
-
 public class CareCard extends SimpleDividerCard {
     private static final String TAG = ServiceCard.CARE.name();
-    private List<ActivityLine> activityLines;
+    private ActivityTimeline activityTimeline;
     private SpannableString lastActivity;
     private String alarmMode;
     private int totalBehaviors;
@@ -47,12 +45,12 @@ public class CareCard extends SimpleDividerCard {
         return R.layout.card_care;
     }
 
-    public List<ActivityLine> getActivityLines() {
-        return activityLines;
+    public ActivityTimeline getActivityTimeline() {
+        return activityTimeline;
     }
 
-    public void setActivityLines(List<ActivityLine> activityLines) {
-        this.activityLines = activityLines;
+    public void setActivityTimeline(ActivityTimeline activityTimeline) {
+        this.activityTimeline = activityTimeline;
     }
 
     public String getAlarmMode() {
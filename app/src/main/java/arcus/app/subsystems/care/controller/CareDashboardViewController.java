@@ -66,7 +66,7 @@ public class CareDashboardViewController
         }
 
         dashboardCareCard.setIsAlerting(false);
-        dashboardCareCard.setActivityLines(alarmState.getEvents());
+        dashboardCareCard.setActivityTimeline(alarmState.getEvents());
         dashboardCareCard.setAlarmMode(alarmState.getAlarmMode());
         dashboardCareCard.setActiveBehaviors(alarmState.getActiveBehaviors());
         dashboardCareCard.setTotalBehaviors(alarmState.getTotalBehaviors());
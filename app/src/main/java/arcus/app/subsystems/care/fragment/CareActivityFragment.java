@@ -28,7 +28,7 @@ import android.widget.TextView;
 
 import com.google.common.collect.Lists;
 import arcus.cornea.subsystem.care.CareActivityController;
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 import arcus.cornea.subsystem.model.CareHistoryModel;
 import arcus.cornea.utils.Listeners;
 import com.iris.client.event.ListenerRegistration;
@@ -253,11 +253,11 @@ public class CareActivityFragment
         ErrorManager.in(getActivity()).showGenericBecauseOf(cause);
     }
 
-    @Override public void activitiesLoaded(List<ActivityLine> activityLines) {
+    @Override public void activitiesLoaded(ActivityTimeline timeline) {
         enableButtonsAndShowProgress(true, false);
 
         if (activityEventView != null) {
-            activityEventView.setEvents(activityLines, viewingTimelineTime);
+            activityEventView.setEvents(timeline, viewingTimelineTime);
             activityEventView.invalidate();
         }
     }
@@ -32,7 +32,7 @@ import android.widget.TextView;
 import arcus.cornea.CorneaClientFactory;
 import arcus.cornea.SessionController;
 import arcus.cornea.subsystem.care.CareActivityController;
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 import com.iris.client.model.DeviceModel;
 import com.iris.client.model.Model;
 import com.iris.client.model.PlaceModel;
@@ -325,11 +325,11 @@ public class FullScreenActivityGraph extends Fragment implements CareActivityCon
         ErrorManager.in(getActivity()).showGenericBecauseOf(cause);
     }
 
-    @Override public void activitiesLoaded(List<ActivityLine> activityLines) {
+    @Override public void activitiesLoaded(ActivityTimeline timeline) {
         addAdapterClickListener();
 
         if (panningActivityEventView != null) {
-            panningActivityEventView.setEvents(activityLines, currentTimeFilter);
+            panningActivityEventView.setEvents(timeline, currentTimeFilter);
             panningActivityEventView.invalidate();
         }
     }
@@ -31,7 +31,7 @@ import arcus.cornea.controller.SubscriptionController;
 import arcus.cornea.dto.HistoryLogEntries;
 import arcus.cornea.provider.PlaceModelProvider;
 import arcus.cornea.subsystem.care.CareActivityController;
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 import arcus.cornea.subsystem.model.CareHistoryModel;
 import arcus.cornea.utils.Listeners;
 import com.iris.client.bean.HistoryLog;
@@ -579,9 +579,9 @@ public class HistoryFragment extends BaseFragment implements CareActivityControl
     }
 
     @Override
-    public void activitiesLoaded(List<ActivityLine> activityLines) {
+    public void activitiesLoaded(ActivityTimeline timeline) {
         if (activityEventView != null) {
-            activityEventView.setEvents(activityLines, viewingTimelineTime);
+            activityEventView.setEvents(timeline, viewingTimelineTime);
             activityEventView.invalidate();
         }
     }
@@ -17,6 +17,7 @@ package arcus.app.subsystems.place.controller;
 
 import android.app.Activity;
 import android.graphics.Bitmap;
+import android.net.Uri;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -33,6 +34,7 @@ import arcus.app.account.settings.pin.SettingsUpdatePin;
 import arcus.app.common.backstack.BackstackManager;
 import arcus.app.common.image.ImageCategory;
 import arcus.app.common.image.ImageRepository;
+import arcus.app.common.image.ImageSaveListener;
 import arcus.app.common.sequence.AbstractStaticSequenceController;
 import arcus.app.common.sequence.Sequenceable;
 import arcus.app.common.sequence.SequencedFragment;
@@ -179,12 +181,13 @@ public class NewPlaceSequenceController extends AbstractStaticSequenceController
 
             @Override public void onSuccess(String newPlaceAddress) {
                 placeAddress = newPlaceAddress;
-                String newPlaceID = Addresses.getId(newPlaceAddress);
-                if (newPlaceBitmap != null) {
-                    ImageRepository.saveImage(ArcusApplication.getContext(), newPlaceBitmap, ImageCategory.PLACE, newPlaceID, null);
-                }
-                SessionController.instance().changeActivePlace(Addresses.getId(newPlaceAddress));
-                NewPlaceSequenceController.this.onSuccess(createPlaceCallback);
+                final String newPlaceID = Addresses.getId(newPlaceAddress);
+                savePlaceImage(newPlaceID, new Runnable() {
+                    @Override public void run() {
+                        SessionController.instance().changeActivePlace(newPlaceID);
+                        NewPlaceSequenceController.this.onSuccess(createPlaceCallback);
+                    }
+                });
             }
         }).promoteToAccount(SessionController.instance().getPerson());
     }
@@ -218,16 +221,31 @@ public class NewPlaceSequenceController extends AbstractStaticSequenceController
 
             @Override public void onSuccess(String newPlaceAddress) {
                 placeAddress = newPlaceAddress;
-                String newPlaceID = Addresses.getId(newPlaceAddress);
-                if (newPlaceBitmap != null) {
-                    ImageRepository.saveImage(ArcusApplication.getContext(), newPlaceBitmap, ImageCategory.PLACE, newPlaceID, null);
-                }
-                NewPlaceSequenceController.this.onSuccess(createPlaceCallback);
-                SessionController.instance().changeActivePlace(newPlaceID);
+                final String newPlaceID = Addresses.getId(newPlaceAddress);
+                savePlaceImage(newPlaceID, new Runnable() {
+                    @Override public void run() {
+                        NewPlaceSequenceController.this.onSuccess(createPlaceCallback);
+                        SessionController.instance().changeActivePlace(newPlaceID);
+                    }
+                });
             }
         }).addNewPlace(existingServiceLevel);
     }
 
+    // The place's image is read when the place becomes active, so only switch once it's on disk
+    protected void savePlaceImage(String placeId, @NonNull final Runnable onSaved) {
+        if (newPlaceBitmap == null) {
+            onSaved.run();
+            return;
+        }
+
+        ImageRepository.saveImageAsync(ArcusApplication.getContext(), newPlaceBitmap, ImageCategory.PLACE, placeId, null, new ImageSaveListener() {
+            @Override public void onImageSaveComplete(boolean success, Bitmap image, Uri savedFileUri) {
+                onSaved.run();
+            }
+        });
+    }
+
     public void getPrimaryPlaceServiceLevel(@NonNull final PrimaryPlaceServiceLevelCallback callback) {
 
         PlaceModelProvider.getPrimaryPlace()
@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.image.picasso.transformation
+
+import arcus.app.common.image.picasso.transformation.BlurEngineTest.Companion.RADIUS
+import arcus.app.common.image.picasso.transformation.BlurEngineTest.Companion.SCALED_WALLPAPER
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertWithMessage
+
+/**
+ * Times the [BlurEngine] against a separable gaussian convolution that allocates its buffers on
+ * every call, which is what the RenderScript intrinsic computed.
+ */
+class BlurEngineBenchmarkTest {
+    @Test
+    fun blurIsFasterThanConvolutionAtWallpaperSizes() {
+        for ((width, height) in listOf(SCALED_WALLPAPER, FULL_WALLPAPER)) {
+            val source = wallpaper(width, height)
+            val pixels = BlurEngine.pixelBuffer(width * height)
+
+            val engineNs = timePerRun(10) {
+                System.arraycopy(source, 0, pixels, 0, width * height)
+                BlurEngine.blur(pixels, width, height, RADIUS)
+            }
+            val convolutionNs = timePerRun(2) {
+                gaussian(source, width, height, RADIUS)
+            }
+
+            assertWithMessage("${width}x$height engine: ${engineNs / 1000}us, convolution: ${convolutionNs / 1000}us")
+                    .that(engineNs)
+                    .isLessThan(convolutionNs)
+        }
+    }
+
+    private fun timePerRun(runs: Int, block: () -> Unit): Long {
+        block() // Warm up
+        val start = System.nanoTime()
+        repeat(runs) { block() }
+        return (System.nanoTime() - start) / runs
+    }
+
+    companion object {
+        // The unscaled wallpaper
+        private val FULL_WALLPAPER = 1080 to 1920
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.image.picasso.transformation
+
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import kotlin.math.abs
+import kotlin.math.exp
+import kotlin.math.roundToInt
+
+/**
+ * Compares the [BlurEngine] against the gaussian blur the RenderScript intrinsic computed
+ * (RenderScript itself can't run on the JVM).
+ */
+class BlurEngineTest {
+    @Test
+    fun closelyMatchesGaussianBlur() {
+        val (width, height) = SCALED_WALLPAPER
+        val source = wallpaper(width, height)
+
+        val expected = gaussian(source, width, height, RADIUS)
+        val actual = source.copyOf()
+        BlurEngine.blur(actual, width, height, RADIUS)
+
+        var error = 0L
+        for (i in 0 until width * height) {
+            for (shift in intArrayOf(0, 8, 16, 24)) {
+                error += abs(((expected[i] shr shift) and 0xFF) - ((actual[i] shr shift) and 0xFF))
+            }
+        }
+
+        assertThat(error.toDouble() / (width * height * 4)).isLessThan(3.0)
+    }
+
+    companion object {
+        internal const val RADIUS = 20f
+
+        // What BlurTransformation sees after scaling a 1080p wallpaper
+        internal val SCALED_WALLPAPER = 108 to 192
+    }
+}
+
+// A photo-like gradient with some noise
+internal fun wallpaper(width: Int, height: Int): IntArray {
+    val random = Random(42)
+    return IntArray(width * height) { i ->
+        val x = i % width
+        val y = i / width
+        val red = (x * 255 / width + random.nextInt(40)) and 0xFF
+        val green = y * 255 / height
+        val blue = random.nextInt(256)
+        (0xFF shl 24) or (red shl 16) or (green shl 8) or blue
+    }
+}
+
+// What the RenderScript intrinsic computed, a separable gaussian convolution that allocates its
+// buffers on every call
+internal fun gaussian(source: IntArray, width: Int, height: Int, radius: Float): IntArray {
+    val r = radius.roundToInt()
+    val sigma = BlurEngine.sigmaFor(radius).toDouble()
+    val kernel = DoubleArray(r * 2 + 1) { exp(-((it - r) * (it - r)) / (2 * sigma * sigma)) }
+    val total = kernel.sum()
+    for (i in kernel.indices) {
+        kernel[i] /= total
+    }
+
+    val horizontal = Array(4) { DoubleArray(width * height) }
+    for (y in 0 until height) {
+        for (x in 0 until width) {
+            for (i in -r..r) {
+                val pixel = source[y * width + (x + i).coerceIn(0, width - 1)]
+                for (channel in 0 until 4) {
+                    horizontal[channel][y * width + x] += kernel[i + r] * ((pixel shr (channel * 8)) and 0xFF)
+                }
+            }
+        }
+    }
+
+    val result = IntArray(width * height)
+    for (y in 0 until height) {
+        for (x in 0 until width) {
+            var pixel = 0
+            for (channel in 0 until 4) {
+                var sum = 0.0
+                for (i in -r..r) {
+                    sum += kernel[i + r] * horizontal[channel][(y + i).coerceIn(0, height - 1) * width + x]
+                }
+                pixel = pixel or (sum.roundToInt().coerceIn(0, 255) shl (channel * 8))
+            }
+            result[y * width + x] = pixel
+        }
+    }
+    return result
+}
@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.view
+
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertWithMessage
+import java.util.concurrent.TimeUnit
+
+/**
+ * Pans a full screen graph across a busy day the way [PanningActivityEventView] does, a few pixels
+ * per frame, and compares it with walking every line from the start of the day on every frame.
+ */
+class ActivityTimelineRendererBenchmarkTest {
+    private val graph = BusyDayGraph()
+    private val canvas = RecordingCanvas()
+
+    @Test
+    fun panningFramesOnlyCostTheVisibleLines() {
+        val viewport = Viewport(TimeUnit.HOURS.toMillis(4))
+        val frames = graph.pan(viewport)
+
+        repeat(WARM_UP) {
+            frames.forEach { graph.walkEveryLine(viewport, it, canvas.clear()) }
+            frames.forEach { graph.draw(viewport, it, canvas.clear()) }
+        }
+
+        var start = System.nanoTime()
+        frames.forEach { graph.walkEveryLine(viewport, it, canvas.clear()) }
+        val walkNs = (System.nanoTime() - start) / frames.size
+
+        start = System.nanoTime()
+        frames.forEach { graph.draw(viewport, it, canvas.clear()) }
+        val culledNs = (System.nanoTime() - start) / frames.size
+
+        assertWithMessage("${graph.timeline.lineCount} lines in ${graph.timeline.size()} runs, ${frames.size} frames, per frame walking: ${walkNs}ns, culled: ${culledNs}ns")
+                .that(culledNs).isLessThan(walkNs)
+    }
+
+    companion object {
+        private const val WARM_UP = 5
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.app.common.view
+
+import arcus.app.common.view.BusyDayGraph.Companion.DAY_START
+import arcus.app.common.view.BusyDayGraph.Companion.WIDTH
+import arcus.cornea.subsystem.care.model.ActivityTimeline
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import java.util.concurrent.TimeUnit
+
+class ActivityTimelineRendererTest {
+    private val graph = BusyDayGraph()
+    private val canvas = RecordingCanvas()
+
+    @Test
+    fun drawsTheSameLinesAsWalkingEveryLine() {
+        val viewport = Viewport(TimeUnit.HOURS.toMillis(4))
+        for (hour in 0 until 20) {
+            val start = DAY_START + TimeUnit.HOURS.toMillis(hour.toLong())
+            val expected = RecordingCanvas().also { graph.walkEveryLine(viewport, start, it) }
+
+            canvas.clear()
+            graph.draw(viewport, start, canvas)
+
+            assertThat(canvas.contact).isEqualTo(expected.contact)
+            assertThat(canvas.xs.size).isEqualTo(expected.xs.size)
+            canvas.xs.forEachIndexed { i, x -> assertThat(x).isWithin(0.01f).of(expected.xs[i]) }
+        }
+    }
+
+    @Test
+    fun zoomedOutLinesInTheSameColumnAreDrawnOnce() {
+        val viewport = Viewport(TimeUnit.HOURS.toMillis(24))
+
+        canvas.clear()
+        val drawn = graph.draw(viewport, DAY_START, canvas)
+
+        assertThat(drawn).isLessThan(graph.timeline.lineCount)
+        assertThat(drawn).isAtMost(WIDTH * 2)
+        canvas.xs.zipWithNext().forEachIndexed { i, (x, next) ->
+            if (x.toInt() == next.toInt()) {
+                assertThat(canvas.contact[i]).isNotEqualTo(canvas.contact[i + 1])
+            }
+        }
+    }
+}
+
+/**
+ * A full screen graph of a busy day, drawn by the [ActivityTimelineRenderer] or by walking every
+ * line from the start of the day the way [PanningActivityEventView] used to.
+ */
+internal class BusyDayGraph {
+    val timeline = busyDay()
+
+    fun draw(viewport: Viewport, startTime: Long, target: RecordingCanvas) = ActivityTimelineRenderer.draw(
+            timeline,
+            startTime,
+            0f,
+            viewport.pixelsPerMilli,
+            0f,
+            WIDTH.toFloat(),
+            SKEW,
+            target
+    )
+
+    // How drawEvents worked before: every line from the start of the day until one passes the right edge
+    fun walkEveryLine(viewport: Viewport, startTime: Long, target: RecordingCanvas) {
+        for (line in timeline.toLines()) {
+            val x = (line.eventTime - startTime) * viewport.pixelsPerMilli
+            if (x + SKEW < 0f) {
+                continue
+            }
+            if (x > WIDTH) {
+                return
+            }
+            target.drawEvent(x + SKEW, line.isContact)
+        }
+    }
+
+    fun pan(viewport: Viewport): List<Long> {
+        val step = (PAN_STEP_PX / viewport.pixelsPerMilli).toLong()
+        return generateSequence(DAY_START) { it + step }
+                .takeWhile { it + viewport.width < DAY_START + TimeUnit.DAYS.toMillis(1) }
+                .toList()
+    }
+
+    private fun busyDay(): ActivityTimeline {
+        val random = Random(5)
+        val bucket = TimeUnit.MINUTES.toMillis(1)
+        val timeline = ActivityTimeline.builder(bucket)
+        var time = DAY_START
+        while (time < DAY_START + TimeUnit.DAYS.toMillis(1)) {
+            val contact = random.nextInt(4) == 0
+            val count = if (contact) 1 else 1 + random.nextInt(20)
+            timeline.add(time, count, contact)
+            time += bucket * (count + random.nextInt(5))
+        }
+        return timeline.build()
+    }
+
+    companion object {
+        val DAY_START = TimeUnit.DAYS.toMillis(18_000)
+        const val WIDTH = 1080
+        private const val SKEW = 12f
+        private const val PAN_STEP_PX = 8f
+    }
+}
+
+internal class Viewport(val width: Long) {
+    val pixelsPerMilli = WIDTH * .85f / width
+}
+
+internal class RecordingCanvas : ActivityTimelineRenderer.Target {
+    val xs = ArrayList<Float>()
+    val contact = ArrayList<Boolean>()
+
+    override fun drawEvent(x: Float, isContact: Boolean) {
+        xs.add(x)
+        contact.add(isContact)
+    }
+
+    fun clear() = apply {
+        xs.clear()
+        contact.clear()
+    }
+}
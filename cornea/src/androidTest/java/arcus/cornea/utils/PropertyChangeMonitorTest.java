@@ -135,6 +135,32 @@ public class PropertyChangeMonitorTest extends MockClientTestCase {
         assertFalse(monitor.hasAnyChangesFor(DEV_ADDRESS));
     }
 
+    @Test public void tracksAttributesIndependently() throws Exception {
+        monitor.startMonitorFor(DEV_ADDRESS, ATTRIBUTE, 500, callback, null, null);
+        monitor.startMonitorFor(DEV_ADDRESS, WRONG_ATTRIBUTE, 500, callback, null, null);
+
+        receiveValueChange(ATTRIBUTE, true);
+
+        Mockito.verify(callback, Mockito.timeout(100).times(1)).requestSucceeded(DEV_ADDRESS, ATTRIBUTE);
+        assertFalse(monitor.hasChangeFor(DEV_ADDRESS, ATTRIBUTE));
+        assertTrue(monitor.hasChangeFor(DEV_ADDRESS, WRONG_ATTRIBUTE));
+
+        Mockito.verify(callback, Mockito.timeout(550).times(1)).requestTimedOut(DEV_ADDRESS, WRONG_ATTRIBUTE);
+        assertFalse(monitor.hasAnyChangesFor(DEV_ADDRESS));
+        assertEquals(1, monitor.getSucceededCount());
+        assertEquals(1, monitor.getTimedOutCount());
+    }
+
+    @Test public void restartingReplacesEarlierMonitor() throws Exception {
+        monitor.startMonitorFor(DEV_ADDRESS, ATTRIBUTE, 5, callback, null, null);
+        monitor.startMonitorFor(DEV_ADDRESS, ATTRIBUTE, 500, callback, null, null);
+
+        Mockito.verify(callback, Mockito.after(50).never()).requestTimedOut(DEV_ADDRESS, ATTRIBUTE);
+        assertTrue(monitor.hasChangeFor(DEV_ADDRESS, ATTRIBUTE));
+
+        Mockito.verify(callback, Mockito.timeout(550).times(1)).requestTimedOut(DEV_ADDRESS, ATTRIBUTE);
+    }
+
     protected void receiveValueChange(String attribute, Object value) {
         client().received(
               ClientMessage.builder()
@@ -15,6 +15,8 @@
  */
 package arcus.cornea;
 
+import arcus.cornea.utils.CapabilityIndex;
+
 import com.iris.client.IrisClient2;
 import com.iris.client.IrisClientFactory;
 import com.iris.client.connection.ConnectionState;
@@ -25,6 +27,7 @@ public abstract class CorneaClientFactory extends IrisClientFactory {
 
     static {
         init(delegate);
+        CapabilityIndex.bind(getClient(), getModelCache());
     }
 
     public static void init() {
@@ -42,6 +45,7 @@ public abstract class CorneaClientFactory extends IrisClientFactory {
 
     public static void restore() {
         init(delegate);
+        CapabilityIndex.bind(getClient(), getModelCache());
     }
 
     public static IrisClient2 getClient2() {
@@ -30,7 +30,10 @@ import arcus.cornea.model.PlaceLostEvent;
 import arcus.cornea.provider.AvailablePlacesProvider;
 import arcus.cornea.provider.DeviceModelProvider;
 import arcus.cornea.provider.HubModelProvider;
+import arcus.cornea.provider.ModelSnapshot;
+import arcus.cornea.provider.ModelSnapshotStore;
 import arcus.cornea.provider.PersonModelProvider;
+import arcus.cornea.provider.ProductCatalogStore;
 import arcus.cornea.provider.ProductModelProvider;
 import arcus.cornea.utils.AddressableModelSource;
 import arcus.cornea.utils.CachedModelSource;
@@ -51,6 +54,7 @@ import com.iris.client.event.Listener;
 import com.iris.client.event.ListenerRegistration;
 import com.iris.client.exception.UnauthorizedException;
 import com.iris.client.model.AccountModel;
+import com.iris.client.model.ModelCache;
 import com.iris.client.model.PersonModel;
 import com.iris.client.model.PlaceModel;
 import com.iris.client.session.Credentials;
@@ -81,6 +85,13 @@ final public class SessionController {
     private final int CACHE_LOAD_TIMEOUT_SEC = 30;
     private final int CACHE_COUNT = 7;                  // Number of caches we load on login
 
+    private static final String SNAPSHOT_PLACE = "place";
+    private static final String SNAPSHOT_PERSON = "person";
+    private static final String SNAPSHOT_ACCOUNT = "account";
+    private static final String SNAPSHOT_DEVICES = "devices";
+    private static final String SNAPSHOT_HUBS = "hubs";
+    private static final String SNAPSHOT_PEOPLE = "people";
+
     public interface LoginCallback extends ErrorCallback {
         void loginSuccess(
               @Nullable PlaceModel placeModel,
@@ -127,6 +138,7 @@ final public class SessionController {
             try {
                 irisClient.close();
                 CorneaClientFactory.getModelCache().clearCache();
+                ModelSnapshotStore.instance().clear();
                 logoutSuccess();
             }
             catch (Exception ex) {
@@ -163,6 +175,11 @@ final public class SessionController {
             onLoginError(throwable);
         }
     });
+    private final Listener<Throwable> reloadErrorListener = new Listener<Throwable>() {
+        @Override public void onEvent(Throwable throwable) {
+            logger.warn("Unable to refresh models restored from snapshot.", throwable);
+        }
+    };
     private final Listener<Throwable> logoutErrorListener = Listeners.runOnUiThread(new Listener<Throwable>() {
         @Override public void onEvent(Throwable throwable) {
             onLogoutError(throwable);
@@ -391,24 +408,65 @@ final public class SessionController {
         // Write
         String setPlace = uuid.toString();
         SessionInfo.PlaceDescriptor place = getPlaceOr0(sessionInfo, setPlace);
-        String personAddress    = Addresses.toObjectAddress(Person.NAMESPACE, sessionInfo.getPersonId());
-        String placeAddress     = Addresses.toObjectAddress(Place.NAMESPACE, place.getPlaceId());
-        String accountAddress   = Addresses.toObjectAddress(Account.NAMESPACE, place.getAccountId());
+        final String personAddress    = Addresses.toObjectAddress(Person.NAMESPACE, sessionInfo.getPersonId());
+        final String placeAddress     = Addresses.toObjectAddress(Place.NAMESPACE, place.getPlaceId());
+        final String accountAddress   = Addresses.toObjectAddress(Account.NAMESPACE, place.getAccountId());
 
-        placeRef.setAddress(placeAddress);
-        personRef.setAddress(personAddress);
-        accountRef.setAddress(accountAddress);
+        final String placeId = place.getPlaceId();
+        runOnThread(new Runnable() {
+            @Override
+            public void run() {
+                final ModelSnapshot snapshot = ModelSnapshotStore.instance().read(placeId);
+                final ProductCatalogStore.Catalog catalog = ProductModelProvider.instance().isLoaded()
+                      ? null
+                      : ProductModelProvider.instance().readCatalog();
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (catalog != null) {
+                            ProductModelProvider.instance().restoreCatalog(catalog);
+                        }
+                        // The snapshot goes into the cache before the sources are pointed at it, so
+                        // they load from the cache instead of asking the platform
+                        boolean restored = snapshot != null
+                              && restoreSnapshot(snapshot, placeAddress, personAddress, accountAddress);
+                        placeRef.setAddress(placeAddress);
+                        personRef.setAddress(personAddress);
+                        accountRef.setAddress(accountAddress);
+
+                        if (restored && placeRef.isLoaded() && personRef.isLoaded() && accountRef.isLoaded()) {
+                            // Login with what we had last time, the reload reconciles in the background
+                            loginSuccess();
+                            loadCaches(placeId, reloadErrorListener, false);
+                        }
+                        else {
+                            loadCaches(placeId, loginErrorListener, true);
+                        }
+                    }
+                });
+            }
+        });
+    }
 
-        loginEventsPending = new CountDownLatch(CACHE_COUNT);
+    private void loadCaches(final String placeId, Listener<Throwable> onFailure, final boolean notifyLogin) {
+        // The catalog only blocks login when there wasn't a copy on disk
+        boolean productsLoaded = ProductModelProvider.instance().isLoaded();
+        final CountDownLatch pending = new CountDownLatch(productsLoaded ? CACHE_COUNT - 1 : CACHE_COUNT);
+        loginEventsPending = pending;
 
         // Start loading caches
-        placeRef.reload().onSuccess(loaded).onFailure(loginErrorListener);
-        personRef.reload().onSuccess(loaded).onFailure(loginErrorListener);
-        accountRef.reload().onSuccess(loaded).onFailure(loginErrorListener);
-        DeviceModelProvider.instance().reload().onSuccess(loaded).onFailure(loginErrorListener);
-        HubModelProvider.instance().reload().onSuccess(loaded).onFailure(loginErrorListener);
-        PersonModelProvider.instance().reload().onSuccess(loaded).onFailure(loginErrorListener);
-        ProductModelProvider.instance().reload().onSuccess(loaded).onFailure(loginErrorListener);
+        placeRef.reload().onSuccess(loaded).onFailure(onFailure);
+        personRef.reload().onSuccess(loaded).onFailure(onFailure);
+        accountRef.reload().onSuccess(loaded).onFailure(onFailure);
+        DeviceModelProvider.instance().reload().onSuccess(loaded).onFailure(onFailure);
+        HubModelProvider.instance().reload().onSuccess(loaded).onFailure(onFailure);
+        PersonModelProvider.instance().reload().onSuccess(loaded).onFailure(onFailure);
+        if (productsLoaded) {
+            ProductModelProvider.instance().reload().onFailure(reloadErrorListener);
+        }
+        else {
+            ProductModelProvider.instance().reload().onSuccess(loaded).onFailure(onFailure);
+        }
 
         // Wait for caches to finish loading before proceeding
         runOnThread(new Runnable() {
@@ -416,26 +474,97 @@ final public class SessionController {
             public void run() {
                 try {
                     // Give all caches 30 seconds to load; then bail
-                    if (loginEventsPending.await(CACHE_LOAD_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                    if (pending.await(CACHE_LOAD_TIMEOUT_SEC, TimeUnit.SECONDS)) {
                         runOnUiThread(new Runnable() {
                             @Override
                             public void run() {
-                                loginSuccess();
+                                if (notifyLogin) {
+                                    loginSuccess();
+                                }
+                                saveSnapshot(placeId);
                             }
                         });
-                    } else {
+                    } else if (notifyLogin) {
                         onLoginError(new RuntimeException("Cache load timeout"));
                     }
                 }
 
                 // This thread was interrupted; abort
                 catch (InterruptedException e) {
-                    onLoginError(e);
+                    if (notifyLogin) {
+                        onLoginError(e);
+                    }
                 }
             }
         });
     }
 
+    /**
+     * Populates the model cache and providers from a snapshot saved by a previous session.
+     *
+     * @return true if the place, person and account at the given addresses are all in the cache
+     */
+    protected boolean restoreSnapshot(
+          @NonNull ModelSnapshot snapshot,
+          @NonNull String placeAddress,
+          @NonNull String personAddress,
+          @NonNull String accountAddress
+    ) {
+        if (!snapshot.hasSection(SNAPSHOT_DEVICES)
+              || !snapshot.hasSection(SNAPSHOT_HUBS)
+              || !snapshot.hasSection(SNAPSHOT_PEOPLE)) {
+            return false;
+        }
+
+        try {
+            ModelCache cache = CorneaClientFactory.getModelCache();
+            if (snapshot.restoreSingle(cache, SNAPSHOT_PLACE, placeAddress) == null
+                  || snapshot.restoreSingle(cache, SNAPSHOT_PERSON, personAddress) == null
+                  || snapshot.restoreSingle(cache, SNAPSHOT_ACCOUNT, accountAddress) == null) {
+                return false;
+            }
+
+            DeviceModelProvider.instance().restore(snapshot.getSection(SNAPSHOT_DEVICES));
+            HubModelProvider.instance().restore(snapshot.getSection(SNAPSHOT_HUBS));
+            PersonModelProvider.instance().restore(snapshot.getSection(SNAPSHOT_PEOPLE));
+            logger.debug("Restored snapshot for place [{}] saved at [{}]", snapshot.getPlaceId(), snapshot.getCreatedAt());
+            return true;
+        }
+        catch (Exception ex) {
+            logger.warn("Unable to restore snapshot, loading from the network.", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Captures the models to restore at the next login, the attributes are copied and written on a
+     * background thread.
+     */
+    protected void saveSnapshot(@NonNull final String placeId) {
+        final PlaceModel place = placeRef.get();
+        final PersonModel person = personRef.get();
+        final AccountModel account = accountRef.get();
+        if (place == null || person == null || account == null || !placeId.equals(getActivePlace())) {
+            return;
+        }
+
+        runOnThread(new Runnable() {
+            @Override
+            public void run() {
+                ModelSnapshot snapshot = ModelSnapshot
+                      .builder(placeId)
+                      .withSingle(SNAPSHOT_PLACE, place.toMap())
+                      .withSingle(SNAPSHOT_PERSON, person.toMap())
+                      .withSingle(SNAPSHOT_ACCOUNT, account.toMap())
+                      .withSection(SNAPSHOT_DEVICES, DeviceModelProvider.instance().snapshot())
+                      .withSection(SNAPSHOT_HUBS, HubModelProvider.instance().snapshot())
+                      .withSection(SNAPSHOT_PEOPLE, PersonModelProvider.instance().snapshot())
+                      .build();
+                ModelSnapshotStore.instance().write(snapshot);
+            }
+        });
+    }
+
     public final boolean isAccountOwner() {
         PersonModel personModel = getPerson();
         if (personModel == null) {
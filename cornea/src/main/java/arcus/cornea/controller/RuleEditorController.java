@@ -21,6 +21,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import arcus.cornea.CorneaClientFactory;
 import arcus.cornea.events.TimeSelectedEvent;
+import arcus.cornea.model.CompiledRuleTemplate;
 import arcus.cornea.model.RuleConversionUtils;
 import arcus.cornea.model.RuleDisplayModel;
 import arcus.cornea.model.RuleEditorCallbacks;
@@ -461,33 +462,9 @@ public class RuleEditorController {
     }
 
     protected RuleDisplayModel getDisplayModel () {
-        List<TemplateTextField> templateTextFields = new ArrayList<>();
-
-        // Split template on '${' '}' tokens and walk each token
-        String[] tokens = addressableModelSource.get().getTemplate().split("\\$\\{|\\}");
-        for (int index = 0; index < tokens.length; index++) {
-            String token = tokens[index];
-
-            if (token.length() == 0)
-                continue;
-
-            // Even numbered tokens are the uneditable strings
-            if (index % 2 == 0) {
-                templateTextFields.add(new TemplateTextField(token, token, false));
-            }
-
-            // Odd numbered tokens are the editable ones
-            else {
-                String displayText = getTemplateFieldDisplayText(token);
-                templateTextFields.add(new TemplateTextField(displayText, token, true));
-            }
-        }
-
-        return new RuleDisplayModel(templateTextFields);
-    }
-
-    private String getTemplateFieldDisplayText(String templateName) {
-        return templateName.replaceAll("_", " ");
+        // Parsed once per template, each edit gets its own fields
+        RuleTemplateModel template = addressableModelSource.get();
+        return CompiledRuleTemplate.compile(template.getId(), template.getTemplate()).newDisplayModel();
     }
 
     protected void updateView() {
@@ -48,8 +48,12 @@ public class RuleCategoryCounts {
     }
 
     public RuleCategoryCounts(RuleService.GetCategoriesResponse response) {
-        if (response != null && response.getCategories() != null) {
-            for (Map.Entry<String, Integer> item : response.getCategories().entrySet()) {
+        this(response == null ? null : response.getCategories());
+    }
+
+    public RuleCategoryCounts(Map<String, Integer> categories) {
+        if (categories != null) {
+            for (Map.Entry<String, Integer> item : categories.entrySet()) {
                 try {
                     Double number = Double.parseDouble(String.valueOf(item.getValue()));
                     counts.add(new RuleCountInstance(item.getKey(), number.intValue()));
@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link com.iris.client.model.RuleTemplateModel}'s template, such as
+ * "When ${button} is pressed turn ${switch} ${state}", parsed into the text and fields it's made
+ * of.
+ *
+ * Compiled templates are immutable and cached by template id, the cached one is used for as long
+ * as the template's text is the same (the platform doesn't version templates, the text is what
+ * changes).  Each {@link #newDisplayModel()} gets its own fields to edit.
+ */
+public final class CompiledRuleTemplate {
+    private static final String FIELD_START = "${";
+    private static final char FIELD_END = '}';
+    private static final CompiledRuleTemplate EMPTY = new CompiledRuleTemplate("", Collections.<Token>emptyList());
+    private static final ConcurrentMap<String, CompiledRuleTemplate> compiled = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final List<Token> tokens;
+
+    private CompiledRuleTemplate(String source, List<Token> tokens) {
+        this.source = source;
+        this.tokens = tokens;
+    }
+
+    /**
+     * A piece of the template, either text shown as is or a field the user picks a value for.
+     */
+    public static final class Token {
+        private final String text;
+        private final @Nullable String fieldName;
+
+        Token(String text, @Nullable String fieldName) {
+            this.text = text;
+            this.fieldName = fieldName;
+        }
+
+        /**
+         * @return the text, or for a field its name as shown before a value is picked
+         */
+        @NonNull public String getText() {
+            return text;
+        }
+
+        /**
+         * @return the field's name, or the text when this isn't a field
+         */
+        @NonNull public String getFieldName() {
+            return fieldName == null ? text : fieldName;
+        }
+
+        public boolean isField() {
+            return fieldName != null;
+        }
+
+        @Override
+        public String toString() {
+            return isField() ? FIELD_START + fieldName + FIELD_END : text;
+        }
+    }
+
+    /**
+     * @return the compiled template, from the cache when {@code templateId}'s template is unchanged
+     */
+    @NonNull
+    public static CompiledRuleTemplate compile(@Nullable String templateId, @Nullable String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        if (templateId == null) {
+            return parse(template);
+        }
+
+        CompiledRuleTemplate cached = compiled.get(templateId);
+        if (cached != null && cached.source.equals(template)) {
+            return cached;
+        }
+
+        CompiledRuleTemplate parsed = parse(template);
+        compiled.put(templateId, parsed);
+        return parsed;
+    }
+
+    /**
+     * Splits the template on {@code ${} and {@code }}.  A field that is never closed runs to the end
+     * of the template, empty text and empty fields are left out.
+     */
+    @NonNull
+    static CompiledRuleTemplate parse(@NonNull String template) {
+        List<Token> tokens = new ArrayList<>();
+        int position = 0;
+        int length = template.length();
+        while (position < length) {
+            int fieldStart = template.indexOf(FIELD_START, position);
+            if (fieldStart == -1) {
+                tokens.add(new Token(template.substring(position), null));
+                break;
+            }
+            if (fieldStart > position) {
+                tokens.add(new Token(template.substring(position, fieldStart), null));
+            }
+
+            int nameStart = fieldStart + FIELD_START.length();
+            int fieldEnd = template.indexOf(FIELD_END, nameStart);
+            if (fieldEnd == -1) {
+                fieldEnd = length;
+            }
+            if (fieldEnd > nameStart) {
+                String name = template.substring(nameStart, fieldEnd);
+                tokens.add(new Token(name.replace('_', ' '), name));
+            }
+            position = fieldEnd + 1;
+        }
+
+        return new CompiledRuleTemplate(template, Collections.unmodifiableList(tokens));
+    }
+
+    @NonNull public List<Token> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return a display model with fresh fields, ready to be edited
+     */
+    @NonNull public RuleDisplayModel newDisplayModel() {
+        List<TemplateTextField> fields = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            fields.add(new TemplateTextField(token.getText(), token.getFieldName(), token.isField()));
+        }
+        return new RuleDisplayModel(fields);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
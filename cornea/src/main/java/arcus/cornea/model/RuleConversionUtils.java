@@ -24,8 +24,6 @@ import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormatSymbols;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -33,8 +31,6 @@ import java.util.concurrent.TimeUnit;
 
 public class RuleConversionUtils {
     private static final Logger logger = LoggerFactory.getLogger(RuleConversionUtils.class);
-    private static final SimpleDateFormat parseFormat = new SimpleDateFormat("H:mm:ss", Locale.getDefault());
-    private static final SimpleDateFormat displayFormat = new SimpleDateFormat("h:mm a" , Locale.getDefault());
 
     public String convertStringToDisplayTime(Object stringTime) {
         if (stringTime == null) {
@@ -50,8 +46,9 @@ public class RuleConversionUtils {
         String[] parts = value.split(" - ");
         if (parts.length == 2) {
             try {
-                parts[0] = displayFormat.format(parseFormat.parse(parts[0]));
-                parts[1] = displayFormat.format(parseFormat.parse(parts[1]));
+                Locale locale = Locale.getDefault();
+                parts[0] = RuleTimeFormat.formatForDisplay(RuleTimeFormat.parseSecondOfDay(parts[0]), locale);
+                parts[1] = RuleTimeFormat.formatForDisplay(RuleTimeFormat.parseSecondOfDay(parts[1]), locale);
                 value = parts[0] + " and " + parts[1];
             }
             catch (Exception ex) {
@@ -87,10 +84,7 @@ public class RuleConversionUtils {
             }
 
             try {
-                Date startDate = parseFormat.parse(start);
-                Date endDate = parseFormat.parse(end);
-
-                if (endDate.before(startDate)) {
+                if (RuleTimeFormat.parseSecondOfDay(end) < RuleTimeFormat.parseSecondOfDay(start)) {
                     end = "23:59:59";
                 }
             } catch (ParseException e) {
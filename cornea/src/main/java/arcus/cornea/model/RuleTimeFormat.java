@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.model;
+
+import androidx.annotation.NonNull;
+
+import java.text.DateFormatSymbols;
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * Reads the "H:mm:ss" times a rule's context holds and writes them as "h:mm a" for display.
+ *
+ * Unlike a shared {@link java.text.SimpleDateFormat} this holds no state so it's safe to use from
+ * any thread, and a time is kept as the second of the day rather than a {@link java.util.Date}.
+ */
+public final class RuleTimeFormat {
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int SECONDS_PER_HOUR = 3600;
+
+    private RuleTimeFormat() {
+        //no instance
+    }
+
+    /**
+     * @param time "H:mm:ss", or "H:mm"
+     * @return the second of the day
+     * @throws ParseException if it isn't a time of day
+     */
+    public static int parseSecondOfDay(@NonNull String time) throws ParseException {
+        String trimmed = time.trim();
+        int firstColon = trimmed.indexOf(':');
+        if (firstColon == -1) {
+            throw new ParseException("Not a time: " + time, 0);
+        }
+        int secondColon = trimmed.indexOf(':', firstColon + 1);
+
+        int hours = parseField(time, trimmed, 0, firstColon);
+        int minutes = parseField(time, trimmed, firstColon + 1, secondColon == -1 ? trimmed.length() : secondColon);
+        int seconds = secondColon == -1 ? 0 : parseField(time, trimmed, secondColon + 1, trimmed.length());
+        if (hours > 23 || minutes > 59 || seconds > 59) {
+            throw new ParseException("Not a time of day: " + time, 0);
+        }
+
+        return hours * SECONDS_PER_HOUR + minutes * SECONDS_PER_MINUTE + seconds;
+    }
+
+    /**
+     * @return the time as "h:mm a", "7:05 PM" for instance, with the locale's am/pm
+     */
+    @NonNull
+    public static String formatForDisplay(int secondOfDay, @NonNull Locale locale) {
+        int hours = secondOfDay / SECONDS_PER_HOUR;
+        int minutes = secondOfDay % SECONDS_PER_HOUR / SECONDS_PER_MINUTE;
+        int hourOfHalfDay = hours % 12 == 0 ? 12 : hours % 12;
+
+        StringBuilder text = new StringBuilder(8);
+        text.append(hourOfHalfDay).append(':');
+        if (minutes < 10) {
+            text.append('0');
+        }
+        text.append(minutes).append(' ');
+        text.append(DateFormatSymbols.getInstance(locale).getAmPmStrings()[hours < 12 ? 0 : 1]);
+        return text.toString();
+    }
+
+    private static int parseField(String time, String trimmed, int start, int end) throws ParseException {
+        if (start >= end) {
+            throw new ParseException("Not a time: " + time, start);
+        }
+
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = trimmed.charAt(i);
+            if (c < '0' || c > '9' || value > 99) {
+                throw new ParseException("Not a time: " + time, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * Hands out OkHttp clients that all share a single connection pool so connections to the same
+ * hosts (static resources, previews, etc) are reused across the app.
+ *
+ * Each {@link Purpose} has its own dispatcher, which caps how many of its asynchronous calls run
+ * at once, and they all hand those calls to one small pool of threads that runs the highest
+ * priority purpose first when it's busy.  Synchronous calls run on the caller's thread and only
+ * share the connection pool.  Every call is timed by the {@link HttpMetrics} of its purpose.
+ *
+ * Callers customize what they need (timeouts, cache, interceptors) on the builder returned by
+ * {@link #newBuilder(Purpose)} rather than creating their own {@link OkHttpClient}.
+ */
+public final class HttpClientFactory {
+    private static final int MAX_THREADS = 10;
+
+    /**
+     * What the calls are for, in priority order.
+     */
+    public enum Purpose {
+        /** Requests the user is waiting on (stream start, what's new, etc). */
+        GENERAL(6, 4),
+        /** Camera previews for the cards on screen. */
+        PREVIEW(4, 4),
+        /** Product, place and person images. */
+        IMAGE(6, 4),
+        /** Prefetched clip thumbnails. */
+        CLIP(2, 2);
+
+        private final int maxRequests;
+        private final int maxRequestsPerHost;
+
+        Purpose(int maxRequests, int maxRequestsPerHost) {
+            this.maxRequests = maxRequests;
+            this.maxRequestsPerHost = maxRequestsPerHost;
+        }
+    }
+
+    private static final ThreadPoolExecutor executor = newExecutor();
+    private static final ConnectionPool connectionPool = new ConnectionPool();
+    private static final Map<Purpose, OkHttpClient> clients = new EnumMap<>(Purpose.class);
+    private static final Map<Purpose, HttpMetrics> metrics = new EnumMap<>(Purpose.class);
+
+    static {
+        OkHttpClient base = new OkHttpClient.Builder().connectionPool(connectionPool).build();
+        for (Purpose purpose : Purpose.values()) {
+            Dispatcher dispatcher = new Dispatcher(new PrioritizedExecutor(purpose.ordinal()));
+            dispatcher.setMaxRequests(purpose.maxRequests);
+            dispatcher.setMaxRequestsPerHost(purpose.maxRequestsPerHost);
+
+            HttpMetrics purposeMetrics = new HttpMetrics(purpose.name());
+            metrics.put(purpose, purposeMetrics);
+            clients.put(purpose, base.newBuilder()
+                  .dispatcher(dispatcher)
+                  .eventListenerFactory(purposeMetrics)
+                  .build());
+        }
+    }
+
+    private HttpClientFactory() {
+    }
+
+    /**
+     * The shared client with the default configuration for {@link Purpose#GENERAL} requests.
+     */
+    @NonNull public static OkHttpClient getClient() {
+        return getClient(Purpose.GENERAL);
+    }
+
+    @NonNull public static OkHttpClient getClient(@NonNull Purpose purpose) {
+        return clients.get(purpose);
+    }
+
+    /**
+     * A builder sharing the connection pool, dispatcher and metrics of {@link #getClient()}.
+     */
+    @NonNull public static OkHttpClient.Builder newBuilder() {
+        return newBuilder(Purpose.GENERAL);
+    }
+
+    /**
+     * A builder sharing the connection pool, dispatcher and metrics of {@link #getClient(Purpose)}.
+     */
+    @NonNull public static OkHttpClient.Builder newBuilder(@NonNull Purpose purpose) {
+        return getClient(purpose).newBuilder();
+    }
+
+    @NonNull public static HttpMetrics getMetrics(@NonNull Purpose purpose) {
+        return metrics.get(purpose);
+    }
+
+    @NonNull public static List<HttpMetrics.Snapshot> getMetricsSnapshots() {
+        List<HttpMetrics.Snapshot> snapshots = new ArrayList<>(metrics.size());
+        for (HttpMetrics purposeMetrics : metrics.values()) {
+            snapshots.add(purposeMetrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    public static void resetMetrics() {
+        for (HttpMetrics purposeMetrics : metrics.values()) {
+            purposeMetrics.reset();
+        }
+    }
+
+    /**
+     * The metrics of every purpose along with what's currently queued and running, for the debug
+     * menu.
+     */
+    @NonNull public static String getStats() {
+        StringBuilder stats = new StringBuilder();
+        for (Purpose purpose : Purpose.values()) {
+            Dispatcher dispatcher = getClient(purpose).dispatcher();
+            stats.append(metrics.get(purpose).snapshot())
+                  .append("\n  Dispatcher: ").append(dispatcher.runningCallsCount()).append(" running, ")
+                  .append(dispatcher.queuedCallsCount()).append(" queued\n\n");
+        }
+
+        stats.append("Connections: ").append(connectionPool.connectionCount())
+              .append(" (").append(connectionPool.idleConnectionCount()).append(" idle)\n")
+              .append("Threads: ").append(executor.getActiveCount()).append(" active, ")
+              .append(executor.getQueue().size()).append(" waiting");
+        return stats.toString();
+    }
+
+    /**
+     * Runs a dispatcher's calls on the shared pool at its purpose's priority, calls of the same
+     * priority run in the order they were dispatched.
+     */
+    private static final class PrioritizedExecutor extends AbstractExecutorService {
+        private static final AtomicLong sequence = new AtomicLong();
+        private final int priority;
+
+        PrioritizedExecutor(int priority) {
+            this.priority = priority;
+        }
+
+        @Override public void execute(@NonNull Runnable command) {
+            executor.execute(new PrioritizedRunnable(command, priority, sequence.getAndIncrement()));
+        }
+
+        // Shared by every client, never shut down.
+        @Override public void shutdown() {
+        }
+
+        @NonNull @Override public List<Runnable> shutdownNow() {
+            return new ArrayList<>();
+        }
+
+        @Override public boolean isShutdown() {
+            return false;
+        }
+
+        @Override public boolean isTerminated() {
+            return false;
+        }
+
+        @Override public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+            return false;
+        }
+    }
+
+    static final class PrioritizedRunnable implements Runnable, Comparable<PrioritizedRunnable> {
+        private final Runnable delegate;
+        private final int priority;
+        private final long sequence;
+
+        PrioritizedRunnable(Runnable delegate, int priority, long sequence) {
+            this.delegate = delegate;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override public void run() {
+            delegate.run();
+        }
+
+        @Override public int compareTo(@NonNull PrioritizedRunnable other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor() {
+        // With an unbounded queue the pool never grows past its core size, so that is the limit
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+              MAX_THREADS,
+              MAX_THREADS,
+              60, TimeUnit.SECONDS,
+              new PriorityBlockingQueue<Runnable>(),
+              new ThreadFactory() {
+                  private final AtomicInteger count = new AtomicInteger();
+
+                  @Override public Thread newThread(@NonNull Runnable runnable) {
+                      Thread thread = new Thread(runnable, "http-" + count.incrementAndGet());
+                      thread.setDaemon(true);
+                      return thread;
+                  }
+              });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Totals of the DNS, connect, time to first byte and transfer of every call made by the clients
+ * of one {@link HttpClientFactory.Purpose}.
+ *
+ * Each call gets its own listener (so per call timing needs no locking), which adds what it saw
+ * to the shared totals.
+ */
+public final class HttpMetrics implements EventListener.Factory {
+    private final String name;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong callNanos = new AtomicLong();
+    private final AtomicLong dnsLookups = new AtomicLong();
+    private final AtomicLong dnsNanos = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong connectNanos = new AtomicLong();
+    private final AtomicLong connectionsReused = new AtomicLong();
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong ttfbNanos = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    HttpMetrics(@NonNull String name) {
+        this.name = name;
+    }
+
+    @NonNull @Override public EventListener create(@NonNull Call call) {
+        return new CallListener();
+    }
+
+    @NonNull public Snapshot snapshot() {
+        return new Snapshot(
+              name,
+              calls.get(),
+              failures.get(),
+              inFlight.get(),
+              callNanos.get(),
+              dnsLookups.get(),
+              dnsNanos.get(),
+              connects.get(),
+              connectNanos.get(),
+              connectionsReused.get(),
+              responses.get(),
+              ttfbNanos.get(),
+              bytesSent.get(),
+              bytesReceived.get()
+        );
+    }
+
+    public void reset() {
+        for (AtomicLong counter : new AtomicLong[] {
+              calls, failures, callNanos, dnsLookups, dnsNanos, connects, connectNanos,
+              connectionsReused, responses, ttfbNanos, bytesSent, bytesReceived
+        }) {
+            counter.set(0);
+        }
+    }
+
+    private final class CallListener extends EventListener {
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long requestStart;
+        private boolean connected;
+
+        @Override public void callStart(@NonNull Call call) {
+            callStart = System.nanoTime();
+            inFlight.incrementAndGet();
+        }
+
+        @Override public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> addresses) {
+            dnsLookups.incrementAndGet();
+            dnsNanos.addAndGet(System.nanoTime() - dnsStart);
+        }
+
+        @Override public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            connected = true;
+            connects.incrementAndGet();
+            connectNanos.addAndGet(System.nanoTime() - connectStart);
+        }
+
+        @Override public void connectFailed(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy, @Nullable Protocol protocol, @NonNull IOException ioe) {
+            connectNanos.addAndGet(System.nanoTime() - connectStart);
+        }
+
+        @Override public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            if (!connected) {
+                connectionsReused.incrementAndGet();
+            }
+        }
+
+        @Override public void requestHeadersStart(@NonNull Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            bytesSent.addAndGet(byteCount);
+        }
+
+        @Override public void responseHeadersStart(@NonNull Call call) {
+            responses.incrementAndGet();
+            ttfbNanos.addAndGet(System.nanoTime() - requestStart);
+        }
+
+        @Override public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            bytesReceived.addAndGet(byteCount);
+        }
+
+        @Override public void callEnd(@NonNull Call call) {
+            finish(false);
+        }
+
+        @Override public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(true);
+        }
+
+        private void finish(boolean failed) {
+            calls.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            callNanos.addAndGet(System.nanoTime() - callStart);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public static final class Snapshot {
+        private final String name;
+        private final long calls;
+        private final long failures;
+        private final long inFlight;
+        private final long callNanos;
+        private final long dnsLookups;
+        private final long dnsNanos;
+        private final long connects;
+        private final long connectNanos;
+        private final long connectionsReused;
+        private final long responses;
+        private final long ttfbNanos;
+        private final long bytesSent;
+        private final long bytesReceived;
+
+        Snapshot(
+              String name,
+              long calls,
+              long failures,
+              long inFlight,
+              long callNanos,
+              long dnsLookups,
+              long dnsNanos,
+              long connects,
+              long connectNanos,
+              long connectionsReused,
+              long responses,
+              long ttfbNanos,
+              long bytesSent,
+              long bytesReceived
+        ) {
+            this.name = name;
+            this.calls = calls;
+            this.failures = failures;
+            this.inFlight = inFlight;
+            this.callNanos = callNanos;
+            this.dnsLookups = dnsLookups;
+            this.dnsNanos = dnsNanos;
+            this.connects = connects;
+            this.connectNanos = connectNanos;
+            this.connectionsReused = connectionsReused;
+            this.responses = responses;
+            this.ttfbNanos = ttfbNanos;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        public long getDnsLookups() {
+            return dnsLookups;
+        }
+
+        public long getConnects() {
+            return connects;
+        }
+
+        public long getConnectionsReused() {
+            return connectionsReused;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+
+        public long getAverageCallMs() {
+            return averageMs(callNanos, calls);
+        }
+
+        public long getAverageDnsMs() {
+            return averageMs(dnsNanos, dnsLookups);
+        }
+
+        public long getAverageConnectMs() {
+            return averageMs(connectNanos, connects);
+        }
+
+        public long getAverageTtfbMs() {
+            return averageMs(ttfbNanos, responses);
+        }
+
+        /**
+         * Flat name/value pairs (keys prefixed with the purpose) for logging or comparing in tests.
+         */
+        @NonNull public Map<String, Long> export() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put(name + ".calls", calls);
+            values.put(name + ".failures", failures);
+            values.put(name + ".inFlight", inFlight);
+            values.put(name + ".callMs", getAverageCallMs());
+            values.put(name + ".dnsLookups", dnsLookups);
+            values.put(name + ".dnsMs", getAverageDnsMs());
+            values.put(name + ".connects", connects);
+            values.put(name + ".connectMs", getAverageConnectMs());
+            values.put(name + ".connectionsReused", connectionsReused);
+            values.put(name + ".ttfbMs", getAverageTtfbMs());
+            values.put(name + ".bytesSent", bytesSent);
+            values.put(name + ".bytesReceived", bytesReceived);
+            return values;
+        }
+
+        @Override public String toString() {
+            return String.format(Locale.US,
+                  "%s: %d calls (%d failed, %d in flight), avg %dms\n" +
+                  "  DNS: %d lookups, avg %dms\n" +
+                  "  Connect: %d new, %d reused, avg %dms\n" +
+                  "  TTFB: avg %dms\n" +
+                  "  Bytes: %d sent, %d received",
+                  name, calls, failures, inFlight, getAverageCallMs(),
+                  dnsLookups, getAverageDnsMs(),
+                  connects, connectionsReused, getAverageConnectMs(),
+                  getAverageTtfbMs(),
+                  bytesSent, bytesReceived
+            );
+        }
+
+        private static long averageMs(long nanos, long count) {
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos / count);
+        }
+    }
+}
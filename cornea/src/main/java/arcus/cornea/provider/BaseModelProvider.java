@@ -28,6 +28,7 @@ import arcus.cornea.utils.CachedModelSource;
 import arcus.cornea.utils.Listeners;
 import arcus.cornea.utils.ModelSource;
 import com.iris.client.IrisClient;
+import com.iris.client.capability.Capability;
 import com.iris.client.event.ClientFuture;
 import com.iris.client.event.Futures;
 import com.iris.client.event.Listener;
@@ -44,8 +45,10 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -99,7 +102,7 @@ public abstract class BaseModelProvider<M extends Model> {
 
     protected void onPlaceSelected(SessionActivePlaceSetEvent event) {
         String newPlaceId = event.getPlaceId().toString();
-        if(!ObjectUtils.equals(newPlaceId, getPlaceID())) {
+        if(isPlaceScoped() && !ObjectUtils.equals(newPlaceId, getPlaceID())) {
             store.clear();
         }
 
@@ -110,6 +113,15 @@ public abstract class BaseModelProvider<M extends Model> {
     protected void onSessionExpired(SessionExpiredEvent event) {
     }
 
+    /**
+     * Whether the models belong to the active place, when they do the store is cleared as soon as
+     * a different place is selected rather than showing the old place's models until the reload
+     * completes.
+     */
+    protected boolean isPlaceScoped() {
+        return true;
+    }
+
     public ClientFuture<List<M>> load() {
         ClientFuture<List<M>> load = loadRef.get();
         if(load != null && load.isDone()) {
@@ -194,6 +206,57 @@ public abstract class BaseModelProvider<M extends Model> {
         logger.error("Unable to load models for " + this.getClass().getSimpleName(), cause);
     }
 
+    /**
+     * Gets the attributes of every model currently in the store in the form
+     * accepted by {@link #restore(List)}.
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> attributes = new ArrayList<>(store.size());
+        for (M model : store.values()) {
+            attributes.add(model.toMap());
+        }
+        return attributes;
+    }
+
+    /**
+     * Seeds the cache and store from a previously persisted {@link #snapshot()} so the provider
+     * reports itself as loaded before the network has responded.  A subsequent {@link #reload()}
+     * reconciles the store, only firing events for what actually changed.
+     *
+     * Nothing is restored once a load has completed, and models already in the cache are kept as
+     * they are since they're at least as fresh as the snapshot.  When a load is in flight the
+     * store is seeded but the load is left to finish.
+     */
+    @SuppressWarnings({"unchecked"})
+    public void restore(List<Map<String, Object>> snapshot) {
+        ClientFuture<List<M>> load = loadRef.get();
+        if (load != null && load.isDone()) {
+            logger.debug("Not restoring {}, already loaded", getClass().getSimpleName());
+            return;
+        }
+
+        List<M> models = new ArrayList<>(snapshot.size());
+        List<Map<String, Object>> missing = new ArrayList<>(snapshot.size());
+        for (Map<String, Object> attributes : snapshot) {
+            Object address = attributes.get(Capability.ATTR_ADDRESS);
+            Model cached = address instanceof String ? cache.get((String) address) : null;
+            if (cached != null) {
+                models.add((M) cached);
+            }
+            else {
+                missing.add(attributes);
+            }
+        }
+        if (!missing.isEmpty()) {
+            models.addAll((List) cache.addOrUpdate(missing));
+        }
+
+        if (load == null && !loadRef.compareAndSet(null, Futures.succeededFuture(models))) {
+            return;
+        }
+        onLoaded(models);
+    }
+
     private void fireStoreLoaded(List<M> models) {
         storeLoadedListeners.fireEvent(models);
     }
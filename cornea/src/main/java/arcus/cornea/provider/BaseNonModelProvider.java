@@ -21,13 +21,14 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import android.text.TextUtils;
 
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import arcus.cornea.utils.DebouncingScheduler;
 import arcus.cornea.utils.Listeners;
-import com.iris.client.ClientEvent;
 import com.iris.client.ClientMessage;
 import com.iris.client.IrisClient;
-import com.iris.client.capability.Capability;
 import com.iris.client.event.ClientFuture;
 import com.iris.client.event.Listener;
 import com.iris.client.event.ListenerList;
@@ -40,11 +41,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * A provider of {@link M}'s that reloads on devices added/removed and clears on SessionExpired
+ * A provider of {@link M}'s that reloads when its {@link InvalidationPolicy} says the list is stale
+ * (by default a burst of devices added/removed) and clears on SessionExpired
  *
  * @param <M>
  */
@@ -58,24 +62,57 @@ public abstract class BaseNonModelProvider<M> {
     private final AtomicReference<String> subsystemAddressRef = new AtomicReference<>();
     private final AtomicReference<ClientFuture<List<M>>> loadRef = new AtomicReference<>();
     private final ListenerList<List<M>> providerLoadedList = new ListenerList<>();
+    private final ProviderInvalidator invalidator;
+    private final AtomicBoolean invalidatedWhileLoading = new AtomicBoolean(false);
+    private final AtomicLong loadCount = new AtomicLong();
+    private final List<ProviderIndex<?, M>> indexes = new CopyOnWriteArrayList<>();
+    private final Supplier<List<M>> loadedItems = new Supplier<List<M>>() {
+        @Override
+        public List<M> get() {
+            return getLoadedOrNull();
+        }
+    };
+
+    // Runs on the thread that completed the load, before the UI is told about it
+    private final Listener<List<M>> rebuildIndexes = new Listener<List<M>>() {
+        @Override
+        public void onEvent(List<M> models) {
+            for (ProviderIndex<?, M> index : indexes) {
+                index.rebuild(models);
+            }
+        }
+    };
 
     private final Listener<List<M>> onLoaded = Listeners.runOnUiThread(new Listener<List<M>>() {
         @Override
         public void onEvent(List<M> models) {
             onLoaded(models);
+            reloadIfInvalidatedWhileLoading();
         }
     });
     private final Listener<Throwable> onLoadError = Listeners.runOnUiThread(new Listener<Throwable>() {
         @Override
         public void onEvent(Throwable throwable) {
             onLoadError(throwable);
+            reloadIfInvalidatedWhileLoading();
         }
     });
 
     @VisibleForTesting BaseNonModelProvider(IrisClient client) {
+        this(client, InvalidationPolicy.devicesAddedOrDeleted());
+    }
+
+    protected BaseNonModelProvider(IrisClient client, InvalidationPolicy policy) {
         Preconditions.checkNotNull(client);
+        Preconditions.checkNotNull(policy);
 
         this.client = client;
+        this.invalidator = new ProviderInvalidator(policy, DebouncingScheduler.instance(), new Runnable() {
+            @Override
+            public void run() {
+                invalidate();
+            }
+        });
         this.client.addSessionListener(new Listener<SessionEvent>() {
             @Override
             public void onEvent(SessionEvent event) {
@@ -84,26 +121,15 @@ public abstract class BaseNonModelProvider<M> {
                 }
             }
         });
+        if (policy.isStaticData()) {
+            return;
+        }
+
         this.client.addMessageListener(new Listener<ClientMessage>() {
             @Override
             public void onEvent(ClientMessage clientMessage) {
-                if (clientMessage == null) {
-                    return;
-                }
-
-                ClientEvent clientEvent = clientMessage.getEvent();
-                if (clientEvent == null) {
-                    return;
-                }
-
-                String eventType = clientEvent.getType();
-                if (!(Capability.EVENT_ADDED.equals(eventType) || Capability.EVENT_DELETED.equals(eventType))) {
-                    return;
-                }
-
-                String source = String.valueOf(clientEvent.getSourceAddress());
-                if (source.startsWith(DEVICE)) {
-                    reload();
+                if (clientMessage != null) {
+                    invalidator.onEvent(clientMessage.getEvent());
                 }
             }
         });
@@ -115,6 +141,8 @@ public abstract class BaseNonModelProvider<M> {
 
     @CallSuper public void clearProvider() {
         logger.debug("Setting loadRef Null - clearProvider() called.");
+        invalidator.cancel();
+        invalidatedWhileLoading.set(false);
         loadRef.set(null);
         subsystemAddressRef.set(null);
     }
@@ -133,14 +161,35 @@ public abstract class BaseNonModelProvider<M> {
             return load;
         }
 
+        loadCount.incrementAndGet();
         ClientFuture<List<M>> response =
                 doLoad()
+                    .onSuccess(rebuildIndexes)
                     .onSuccess(onLoaded)
                     .onFailure(onLoadError);
         this.loadRef.set(response);
         return response;
     }
 
+    /**
+     * Reloads for an invalidation.  If a load is already running it may have been answered before
+     * the change, so another one is started once it completes rather than joining it.
+     */
+    private void invalidate() {
+        ClientFuture<List<M>> load = loadRef.get();
+        if (load != null && !load.isDone()) {
+            invalidatedWhileLoading.set(true);
+            return;
+        }
+        reload();
+    }
+
+    private void reloadIfInvalidatedWhileLoading() {
+        if (invalidatedWhileLoading.getAndSet(false) && loadRef.get() != null) {
+            reload();
+        }
+    }
+
     /**
      * Indicates whether or not the {@link M}s of this type have been loaded.  When this is true load().isDone() will also be true.
      * NOTE there may still be an empty list returned, but it means there are no items of that type.
@@ -154,6 +203,31 @@ public abstract class BaseNonModelProvider<M> {
 
     protected abstract ClientFuture<List<M>> doLoad();
 
+    /**
+     * Declares a lookup by {@code keyFunction} over the loaded items, for subclasses to keep in a
+     * field and use instead of scanning {@link #getAll()}.  The index is rebuilt when a load
+     * completes.
+     */
+    protected final <K> ProviderIndex<K, M> addIndex(@NonNull Function<? super M, ? extends K> keyFunction) {
+        ProviderIndex<K, M> index = new ProviderIndex<>(keyFunction, loadedItems);
+        indexes.add(index);
+        return index;
+    }
+
+    private @Nullable List<M> getLoadedOrNull() {
+        ClientFuture<List<M>> load = loadRef.get();
+        if (load == null || !load.isDone()) {
+            return null;
+        }
+
+        try {
+            return load.get();
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
     protected @NonNull IrisClient getClient() {
         return this.client;
     }
@@ -200,6 +274,38 @@ public abstract class BaseNonModelProvider<M> {
         }
     }
 
+    public InvalidationPolicy getInvalidationPolicy() {
+        return invalidator.getPolicy();
+    }
+
+    /**
+     * @return the number of events that invalidated the list, each burst of them is one reload
+     */
+    public long getInvalidationCount() {
+        return invalidator.getInvalidationCount();
+    }
+
+    /**
+     * @return the number of reloads started because of invalidations
+     */
+    public long getInvalidatedReloadCount() {
+        return invalidator.getReloadCount();
+    }
+
+    /**
+     * @return the number of requests made for the list, for any reason
+     */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public String getStats() {
+        return "Policy: " + getInvalidationPolicy() +
+              "\nInvalidations: " + getInvalidationCount() +
+              "\nInvalidated reloads: " + getInvalidatedReloadCount() +
+              "\nLoads: " + getLoadCount();
+    }
+
     public ListenerRegistration addItemsLoadedListener(Listener<? super List<M>> listener) {
         return addItemsLoadedListener(listener, true);
     }
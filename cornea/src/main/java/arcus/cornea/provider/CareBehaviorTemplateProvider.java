@@ -19,7 +19,6 @@ import androidx.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
 import arcus.cornea.CorneaClientFactory;
 import com.iris.client.ClientEvent;
 import com.iris.client.IrisClient;
@@ -52,6 +51,13 @@ public class CareBehaviorTemplateProvider extends BaseNonModelProvider<Map<Strin
               }
           };
 
+    private final ProviderIndex<String, Map<String, Object>> byId = addIndex(new Function<Map<String, Object>, String>() {
+        @Override public String apply(Map<String, Object> item) {
+            Object id = item.get(CareBehaviorTemplate.ATTR_ID);
+            return id instanceof String ? (String) id : null;
+        }
+    });
+
     public static CareBehaviorTemplateProvider instance() {
         return INSTANCE;
     }
@@ -61,7 +67,8 @@ public class CareBehaviorTemplateProvider extends BaseNonModelProvider<Map<Strin
     }
 
     protected CareBehaviorTemplateProvider(IrisClient client) {
-        super(client);
+        // Templates list the devices that can take part in them
+        super(client, InvalidationPolicy.devicesAddedOrDeleted());
     }
 
     public @Nullable Map<String, Object> getById(String templateID) {
@@ -69,16 +76,7 @@ public class CareBehaviorTemplateProvider extends BaseNonModelProvider<Map<Strin
             return null;
         }
 
-        Optional<List<Map<String, Object>>> allItems = getAll();
-        if (allItems.isPresent()) {
-            for (Map<String, Object> item : allItems.get()) {
-                if (templateID.equals(item.get(CareBehaviorTemplate.ATTR_ID))) {
-                    return item;
-                }
-            }
-        }
-
-        return null;
+        return byId.get(templateID);
     }
 
     @Override protected ClientFuture<List<Map<String, Object>>> doLoad() {
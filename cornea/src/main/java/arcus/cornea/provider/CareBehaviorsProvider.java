@@ -20,7 +20,6 @@ import androidx.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
 import arcus.cornea.CorneaClientFactory;
 import com.iris.client.ClientEvent;
 import com.iris.client.IrisClient;
@@ -53,6 +52,13 @@ public class CareBehaviorsProvider extends BaseNonModelProvider<Map<String, Obje
               }
           };
 
+    private final ProviderIndex<String, Map<String, Object>> byId = addIndex(new Function<Map<String, Object>, String>() {
+        @Override public String apply(Map<String, Object> item) {
+            Object id = item.get(CareBehavior.ATTR_ID);
+            return id instanceof String ? (String) id : null;
+        }
+    });
+
     public static CareBehaviorsProvider instance() {
         return INSTANCE;
     }
@@ -60,26 +66,16 @@ public class CareBehaviorsProvider extends BaseNonModelProvider<Map<String, Obje
     protected CareBehaviorsProvider() { this(CorneaClientFactory.getClient()); }
 
     protected CareBehaviorsProvider(IrisClient client) {
-        super(client);
+        // Behaviors drop devices that are removed
+        super(client, InvalidationPolicy.devicesAddedOrDeleted());
     }
 
     public @Nullable Map<String, Object> getById(@NonNull String id) {
-        if (!isLoaded() || TextUtils.isEmpty(id)) {
+        if (TextUtils.isEmpty(id)) {
             return null;
         }
 
-        Optional<List<Map<String, Object>>> allTpls = getAll();
-        if (!allTpls.isPresent()) {
-            return null;
-        }
-
-        for (Map<String, Object> item : allTpls.get()) {
-            if (id.equals(item.get(CareBehavior.ATTR_ID))) {
-                return item;
-            }
-        }
-
-        return null;
+        return byId.get(id);
     }
 
     @Override protected ClientFuture<List<Map<String, Object>>> doLoad() {
@@ -29,6 +29,7 @@ import com.iris.client.service.EasCodeService;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class EASCodeProvider extends BaseNonModelProvider<EasCode> {
@@ -48,6 +49,11 @@ public class EASCodeProvider extends BaseNonModelProvider<EasCode> {
               }
           };
     private final EasCodeService easCodeService;
+    private final ProviderIndex<String, EasCode> byCode = addIndex(new Function<EasCode, String>() {
+        @Override public String apply(EasCode code) {
+            return normalize(code.getEas());
+        }
+    });
 
     public static EASCodeProvider instance() {
         return INSTANCE;
@@ -58,7 +64,8 @@ public class EASCodeProvider extends BaseNonModelProvider<EasCode> {
     }
 
     public EASCodeProvider(IrisClient client, EasCodeService service) {
-        super(client);
+        // The EAS code list is the same for everyone, it only needs fetching once a session
+        super(client, InvalidationPolicy.staticData());
         this.easCodeService = service;
     }
 
@@ -73,14 +80,11 @@ public class EASCodeProvider extends BaseNonModelProvider<EasCode> {
             return null;
         }
 
-        List<EasCode> codes = getAll().or(Collections.<EasCode>emptyList());
-        for (EasCode code : codes) {
-            if (easCode.equalsIgnoreCase(code.getEas())) {
-                return code;
-            }
-        }
+        return byCode.get(normalize(easCode));
+    }
 
-        return null;
+    private static @Nullable String normalize(@Nullable String easCode) {
+        return easCode == null ? null : easCode.toUpperCase(Locale.US);
     }
 
     @Override
@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.iris.client.ClientEvent;
+import com.iris.client.capability.Capability;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Which platform events make a {@link BaseNonModelProvider}'s list stale and how quickly it should
+ * be reloaded after one.
+ *
+ * Events are matched on type and on the prefix of their source address.  Matching events are
+ * coalesced: the reload runs once the events have stopped for {@link #getCoalesceMs()}, or after
+ * {@link #getMaxWaitMs()} if they keep coming, so pairing a kit of sensors costs one reload rather
+ * than one per device.
+ *
+ * {@link #staticData()} is for lists that don't change during a session, nothing invalidates them
+ * (they are still cleared when the session expires).
+ */
+public final class InvalidationPolicy {
+    private static final InvalidationPolicy STATIC_DATA = new InvalidationPolicy(
+          ImmutableSet.<String>of(),
+          ImmutableList.<String>of(),
+          0,
+          0
+    );
+
+    private final Set<String> eventTypes;
+    private final List<String> sourcePrefixes;
+    private final long coalesceMs;
+    private final long maxWaitMs;
+
+    private InvalidationPolicy(Set<String> eventTypes, List<String> sourcePrefixes, long coalesceMs, long maxWaitMs) {
+        this.eventTypes = eventTypes;
+        this.sourcePrefixes = sourcePrefixes;
+        this.coalesceMs = coalesceMs;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Reloads when a device is added or removed, what every provider used to do.
+     */
+    public static InvalidationPolicy devicesAddedOrDeleted() {
+        return builder()
+              .onAddedOrDeleted()
+              .from(BaseNonModelProvider.DEVICE)
+              .build();
+    }
+
+    public static InvalidationPolicy staticData() {
+        return STATIC_DATA;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isStaticData() {
+        return eventTypes.isEmpty() || sourcePrefixes.isEmpty();
+    }
+
+    public long getCoalesceMs() {
+        return coalesceMs;
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public boolean isInvalidatedBy(@Nullable ClientEvent event) {
+        if (event == null || !eventTypes.contains(event.getType())) {
+            return false;
+        }
+
+        String source = String.valueOf(event.getSourceAddress());
+        for (String prefix : sourcePrefixes) {
+            if (source.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override public String toString() {
+        if (isStaticData()) {
+            return "InvalidationPolicy{static}";
+        }
+        return "InvalidationPolicy{" +
+              "eventTypes=" + eventTypes +
+              ", sourcePrefixes=" + sourcePrefixes +
+              ", coalesceMs=" + coalesceMs +
+              ", maxWaitMs=" + maxWaitMs +
+              '}';
+    }
+
+    public static class Builder {
+        private final ImmutableSet.Builder<String> eventTypes = ImmutableSet.builder();
+        private final ImmutableList.Builder<String> sourcePrefixes = ImmutableList.builder();
+        private long coalesceMs = TimeUnit.SECONDS.toMillis(2);
+        private long maxWaitMs = TimeUnit.SECONDS.toMillis(10);
+
+        Builder() {
+        }
+
+        public Builder on(@NonNull String eventType) {
+            eventTypes.add(eventType);
+            return this;
+        }
+
+        public Builder onAddedOrDeleted() {
+            return on(Capability.EVENT_ADDED).on(Capability.EVENT_DELETED);
+        }
+
+        /**
+         * Only events whose source address starts with {@code addressPrefix}, ie {@code "DRIV:dev:"}.
+         */
+        public Builder from(@NonNull String addressPrefix) {
+            sourcePrefixes.add(addressPrefix);
+            return this;
+        }
+
+        /**
+         * How long the events must stop for before reloading, 0 to reload on every event.  Defaults
+         * to 2 seconds.
+         */
+        public Builder coalesceFor(long duration, @NonNull TimeUnit unit) {
+            Preconditions.checkArgument(duration >= 0, "Coalescing window must not be negative");
+            this.coalesceMs = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * The longest a reload waits while events keep arriving.  Defaults to 10 seconds.
+         */
+        public Builder maxWait(long duration, @NonNull TimeUnit unit) {
+            Preconditions.checkArgument(duration >= 0, "Max wait must not be negative");
+            this.maxWaitMs = unit.toMillis(duration);
+            return this;
+        }
+
+        public InvalidationPolicy build() {
+            return new InvalidationPolicy(eventTypes.build(), sourcePrefixes.build(), coalesceMs, maxWaitMs);
+        }
+    }
+}
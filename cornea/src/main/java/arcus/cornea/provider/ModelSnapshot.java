@@ -0,0 +1,361 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.iris.client.capability.Capability;
+import com.iris.client.model.Model;
+import com.iris.client.model.ModelCache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attribute maps for a set of named sections (place, devices, hubs, etc) captured for a single place.
+ *
+ * The binary form is a versioned header followed by the sections, with every string written once
+ * and referenced by index afterwards since attribute names and capability namespaces repeat across
+ * nearly every model.
+ */
+public final class ModelSnapshot {
+    static final int MAGIC = 0x41524D53; // ARMS
+    static final int VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_TRUE = 1;
+    private static final int TYPE_FALSE = 2;
+    private static final int TYPE_INT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_STRING = 6;
+    private static final int TYPE_LIST = 7;
+    private static final int TYPE_SET = 8;
+    private static final int TYPE_MAP = 9;
+
+    private final String placeId;
+    private final long createdAt;
+    private final Map<String, List<Map<String, Object>>> sections;
+
+    private ModelSnapshot(String placeId, long createdAt, Map<String, List<Map<String, Object>>> sections) {
+        this.placeId = placeId;
+        this.createdAt = createdAt;
+        this.sections = sections;
+    }
+
+    public static Builder builder(@NonNull String placeId) {
+        return new Builder(placeId);
+    }
+
+    public String getPlaceId() {
+        return placeId;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean hasSection(String name) {
+        return sections.containsKey(name);
+    }
+
+    @NonNull public List<Map<String, Object>> getSection(String name) {
+        List<Map<String, Object>> section = sections.get(name);
+        return section == null ? ImmutableList.<Map<String, Object>>of() : section;
+    }
+
+    /**
+     * The attributes of the first model in the section, or null if the section is empty.
+     */
+    @Nullable public Map<String, Object> getSingle(String name) {
+        List<Map<String, Object>> section = getSection(name);
+        return section.isEmpty() ? null : section.get(0);
+    }
+
+    /**
+     * Adds the single named {@code name} to {@code cache} if it's the model at {@code address}, a
+     * model already in the cache is kept as it is since it's at least as fresh.
+     *
+     * @return the cached model, or null if the snapshot holds a different model or none
+     */
+    @Nullable public Model restoreSingle(@NonNull ModelCache cache, @NonNull String name, @NonNull String address) {
+        Map<String, Object> attributes = getSingle(name);
+        if (attributes == null || !address.equals(attributes.get(Capability.ATTR_ADDRESS))) {
+            return null;
+        }
+
+        Model cached = cache.get(address);
+        if (cached == null) {
+            cache.addOrUpdate(attributes);
+            cached = cache.get(address);
+        }
+        return cached;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        Writer writer = new Writer(out);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writer.writeString(placeId);
+        out.writeLong(createdAt);
+        writer.writeVarInt(sections.size());
+        for (Map.Entry<String, List<Map<String, Object>>> section : sections.entrySet()) {
+            writer.writeString(section.getKey());
+            writer.writeVarInt(section.getValue().size());
+            for (Map<String, Object> attributes : section.getValue()) {
+                writer.writeMap(attributes);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot previously written with {@link #writeTo(DataOutputStream)}.
+     *
+     * @return the snapshot or null if it was written by a different version
+     * @throws IOException if the stream is truncated or is not a snapshot
+     */
+    @Nullable public static ModelSnapshot readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a model snapshot");
+        }
+        if (in.readInt() != VERSION) {
+            return null;
+        }
+
+        Reader reader = new Reader(in);
+        String placeId = reader.readString();
+        long createdAt = in.readLong();
+        int sectionCount = reader.readVarInt();
+        Map<String, List<Map<String, Object>>> sections = new LinkedHashMap<>(sectionCount * 2);
+        for (int i = 0; i < sectionCount; i++) {
+            String name = reader.readString();
+            int count = reader.readVarInt();
+            List<Map<String, Object>> models = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                models.add(reader.readMap());
+            }
+            sections.put(name, models);
+        }
+        return new ModelSnapshot(placeId, createdAt, sections);
+    }
+
+    public static class Builder {
+        private final String placeId;
+        private final Map<String, List<Map<String, Object>>> sections = new LinkedHashMap<>();
+
+        Builder(String placeId) {
+            this.placeId = placeId;
+        }
+
+        public Builder withSection(String name, List<Map<String, Object>> models) {
+            sections.put(name, ImmutableList.copyOf(models));
+            return this;
+        }
+
+        public Builder withSingle(String name, @Nullable Map<String, Object> attributes) {
+            if (attributes != null) {
+                sections.put(name, ImmutableList.of(attributes));
+            }
+            return this;
+        }
+
+        public ModelSnapshot build() {
+            return new ModelSnapshot(placeId, System.currentTimeMillis(), ImmutableMap.copyOf(sections));
+        }
+    }
+
+    private static class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        void writeString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(index + 1);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(0);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @SuppressWarnings("unchecked")
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(TYPE_NULL);
+            }
+            else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+            }
+            else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                out.writeByte(TYPE_INT);
+                out.writeInt(((Number) value).intValue());
+            }
+            else if (value instanceof Long) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong((Long) value);
+            }
+            else if (value instanceof Number) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            }
+            else if (value instanceof Set) {
+                out.writeByte(TYPE_SET);
+                writeCollection((Collection<Object>) value);
+            }
+            else if (value instanceof Collection) {
+                out.writeByte(TYPE_LIST);
+                writeCollection((Collection<Object>) value);
+            }
+            else if (value instanceof Map) {
+                out.writeByte(TYPE_MAP);
+                writeMap((Map<String, Object>) value);
+            }
+            else {
+                out.writeByte(TYPE_STRING);
+                writeString(String.valueOf(value));
+            }
+        }
+
+        void writeCollection(Collection<Object> values) throws IOException {
+            writeVarInt(values.size());
+            for (Object value : values) {
+                writeValue(value);
+            }
+        }
+
+        void writeMap(Map<String, Object> values) throws IOException {
+            writeVarInt(values.size());
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                writeString(String.valueOf(entry.getKey()));
+                writeValue(entry.getValue());
+            }
+        }
+    }
+
+    private static class Reader {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String readString() throws IOException {
+            int index = readVarInt();
+            if (index > 0) {
+                if (index > strings.size()) {
+                    throw new IOException("Unknown string reference " + index);
+                }
+                return strings.get(index - 1);
+            }
+
+            byte[] bytes = new byte[readVarInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        Object readValue() throws IOException {
+            int type = in.readUnsignedByte();
+            switch (type) {
+                case TYPE_NULL:
+                    return null;
+                case TYPE_TRUE:
+                    return Boolean.TRUE;
+                case TYPE_FALSE:
+                    return Boolean.FALSE;
+                case TYPE_INT:
+                    return in.readInt();
+                case TYPE_LONG:
+                    return in.readLong();
+                case TYPE_DOUBLE:
+                    return in.readDouble();
+                case TYPE_STRING:
+                    return readString();
+                case TYPE_LIST:
+                    return readCollection(new ArrayList<>());
+                case TYPE_SET:
+                    return readCollection(new LinkedHashSet<>());
+                case TYPE_MAP:
+                    return readMap();
+                default:
+                    throw new IOException("Unknown value type " + type);
+            }
+        }
+
+        <C extends Collection<Object>> C readCollection(C values) throws IOException {
+            int count = readVarInt();
+            for (int i = 0; i < count; i++) {
+                values.add(readValue());
+            }
+            return values;
+        }
+
+        Map<String, Object> readMap() throws IOException {
+            int count = readVarInt();
+            Map<String, Object> values = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String key = readString();
+                values.put(key, readValue());
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+/**
+ * Persists {@link ModelSnapshot}s, one file per place, so the next launch can populate the providers
+ * before the network has responded.
+ *
+ * Nothing is read or written until a directory has been set.
+ */
+public class ModelSnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(ModelSnapshotStore.class);
+    private static final String SUFFIX = ".snapshot";
+    private static final ModelSnapshotStore INSTANCE = new ModelSnapshotStore();
+
+    public static ModelSnapshotStore instance() {
+        return INSTANCE;
+    }
+
+    private volatile File directory;
+
+    ModelSnapshotStore() {
+    }
+
+    public void setDirectory(@Nullable File directory) {
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Unable to create snapshot directory [{}]", directory);
+            directory = null;
+        }
+        this.directory = directory;
+    }
+
+    @WorkerThread
+    @Nullable public ModelSnapshot read(String placeId) {
+        File file = fileFor(placeId);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            ModelSnapshot snapshot = ModelSnapshot.readFrom(in);
+            if (snapshot == null || !placeId.equals(snapshot.getPlaceId())) {
+                logger.debug("Discarding stale snapshot for [{}]", placeId);
+                file.delete();
+                return null;
+            }
+            return snapshot;
+        }
+        catch (Exception ex) {
+            logger.debug("Unable to read snapshot for [{}]", placeId, ex);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temporary file and renames it over the existing snapshot so a
+     * partially written file is never read.
+     */
+    @WorkerThread
+    public boolean write(ModelSnapshot snapshot) {
+        File file = fileFor(snapshot.getPlaceId());
+        if (file == null) {
+            return false;
+        }
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            snapshot.writeTo(out);
+        }
+        catch (Exception ex) {
+            logger.debug("Unable to write snapshot for [{}]", snapshot.getPlaceId(), ex);
+            temp.delete();
+            return false;
+        }
+
+        if (!temp.renameTo(file)) {
+            logger.debug("Unable to move snapshot into place for [{}]", snapshot.getPlaceId());
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes every stored snapshot, this should be called when the user logs out.
+     */
+    public void clear() {
+        File directory = this.directory;
+        if (directory == null) {
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.getName().contains(SUFFIX)) {
+                file.delete();
+            }
+        }
+    }
+
+    @Nullable private File fileFor(String placeId) {
+        File directory = this.directory;
+        if (directory == null || placeId == null || placeId.isEmpty()) {
+            return null;
+        }
+        return new File(directory, placeId + SUFFIX);
+    }
+}
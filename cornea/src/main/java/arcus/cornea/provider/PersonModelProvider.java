@@ -66,17 +66,7 @@ public final class PersonModelProvider extends BaseModelProvider<PersonModel> {
                         return Collections.emptyList();
                     }
 
-                    List<Map<String, Object>> personsOnly = new ArrayList<>(personsWithAccessDescriptors.size() + 1);
-                    for (Map<String, Object> personsWithAccessDescriptor : personsWithAccessDescriptors) {
-                        PersonAccessDescriptor descriptor = new PersonAccessDescriptor(personsWithAccessDescriptor);
-                        String address = (String) descriptor.getPerson().get(Person.ATTR_ADDRESS);
-                        if (!TextUtils.isEmpty(address)) {
-                            roleMap.put(address, descriptor.getRole());
-                        }
-                        personsOnly.add(descriptor.getPerson());
-                    }
-
-                    return (List) cache.retainAll(Person.NAMESPACE, personsOnly);
+                    return (List) cache.retainAll(Person.NAMESPACE, personsOnly(personsWithAccessDescriptors));
                 }
             };
 
@@ -92,6 +82,37 @@ public final class PersonModelProvider extends BaseModelProvider<PersonModel> {
         super.onPlaceSelected(event);
     }
 
+    /**
+     * Snapshots the people as {@link PersonAccessDescriptor}s so the roles are restored with them.
+     */
+    @Override public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> descriptors = new ArrayList<>(store.size());
+        for (PersonModel person : store.values()) {
+            PersonAccessDescriptor descriptor = new PersonAccessDescriptor();
+            descriptor.setPerson(person.toMap());
+            descriptor.setRole(roleMap.get(person.getAddress()));
+            descriptors.add(descriptor.toMap());
+        }
+        return descriptors;
+    }
+
+    @Override public void restore(List<Map<String, Object>> snapshot) {
+        super.restore(personsOnly(snapshot));
+    }
+
+    private List<Map<String, Object>> personsOnly(List<Map<String, Object>> personsWithAccessDescriptors) {
+        List<Map<String, Object>> personsOnly = new ArrayList<>(personsWithAccessDescriptors.size() + 1);
+        for (Map<String, Object> personsWithAccessDescriptor : personsWithAccessDescriptors) {
+            PersonAccessDescriptor descriptor = new PersonAccessDescriptor(personsWithAccessDescriptor);
+            String address = (String) descriptor.getPerson().get(Person.ATTR_ADDRESS);
+            if (!TextUtils.isEmpty(address) && descriptor.getRole() != null) {
+                roleMap.put(address, descriptor.getRole());
+            }
+            personsOnly.add(descriptor.getPerson());
+        }
+        return personsOnly;
+    }
+
     @Override
     protected ClientFuture<List<PersonModel>> doLoad(String placeId) {
         Place.ListPersonsWithAccessRequest request = new Place.ListPersonsWithAccessRequest();
@@ -0,0 +1,180 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the product catalog on its own, separate from the per place {@link ModelSnapshotStore},
+ * since it is the same for every place and only changes when the platform is updated.
+ *
+ * The file is a header holding a hash of the catalog followed by a {@link ModelSnapshot} with a
+ * single section.  The hash lets a fresh download be compared against what is on disk without
+ * reading it back, so the file is only rewritten when the catalog actually changed.
+ *
+ * Nothing is read or written until a file has been set.
+ */
+public class ProductCatalogStore {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogStore.class);
+    static final int MAGIC = 0x41525043; // ARPC
+    static final int VERSION = 1;
+    private static final String SECTION = "products";
+    private static final ProductCatalogStore INSTANCE = new ProductCatalogStore();
+
+    public static ProductCatalogStore instance() {
+        return INSTANCE;
+    }
+
+    private volatile File file;
+
+    ProductCatalogStore() {
+    }
+
+    public void setFile(@Nullable File file) {
+        File directory = file == null ? null : file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Unable to create catalog directory [{}]", directory);
+            file = null;
+        }
+        this.file = file;
+    }
+
+    @WorkerThread
+    @Nullable public Catalog read() {
+        File file = this.file;
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a product catalog");
+            }
+            if (in.readInt() != VERSION) {
+                logger.debug("Discarding product catalog written by a different version");
+                file.delete();
+                return null;
+            }
+
+            long hash = in.readLong();
+            ModelSnapshot snapshot = ModelSnapshot.readFrom(in);
+            if (snapshot == null || !snapshot.hasSection(SECTION)) {
+                file.delete();
+                return null;
+            }
+            return new Catalog(hash, snapshot.getCreatedAt(), snapshot.getSection(SECTION));
+        }
+        catch (Exception ex) {
+            logger.debug("Unable to read product catalog", ex);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temporary file and renames it over the existing catalog so a partially written
+     * file is never read.
+     */
+    @WorkerThread
+    public boolean write(long hash, List<Map<String, Object>> products) {
+        File file = this.file;
+        if (file == null) {
+            return false;
+        }
+
+        ModelSnapshot snapshot = ModelSnapshot.builder(SECTION).withSection(SECTION, products).build();
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(hash);
+            snapshot.writeTo(out);
+        }
+        catch (Exception ex) {
+            logger.debug("Unable to write product catalog", ex);
+            temp.delete();
+            return false;
+        }
+
+        if (!temp.renameTo(file)) {
+            logger.debug("Unable to move product catalog into place");
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * A hash of the catalog that does not depend on the order the products are listed in, and
+     * only changes when a product is added, removed or has an attribute changed.
+     */
+    public static long hash(List<Map<String, Object>> products) {
+        long hash = products.size();
+        for (Map<String, Object> product : products) {
+            hash += mix(product.hashCode());
+        }
+        return hash;
+    }
+
+    // Spreads each 32 bit hash over 64 bits so the sum doesn't collide as easily (murmur3 finalizer)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static final class Catalog {
+        private final long hash;
+        private final long createdAt;
+        private final List<Map<String, Object>> products;
+
+        Catalog(long hash, long createdAt, List<Map<String, Object>> products) {
+            this.hash = hash;
+            this.createdAt = createdAt;
+            this.products = products;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public List<Map<String, Object>> getProducts() {
+            return products;
+        }
+    }
+}
@@ -15,7 +15,9 @@
  */
 package arcus.cornea.provider;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import android.text.TextUtils;
 
 import arcus.cornea.CorneaClientFactory;
@@ -32,14 +34,24 @@ import com.iris.client.model.ModelCache;
 import com.iris.client.model.ProductModel;
 import com.iris.client.model.Store;
 import com.iris.client.service.ProductCatalogService;
+import com.iris.client.session.SessionActivePlaceSetEvent;
+import com.iris.client.session.SessionExpiredEvent;
 
-import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-// TODO:  this should really be more sophisticated.  Ideally something along these lines:
-// * Try to load the product catalog from a physical cache on the device
-// * If it does, it should pull down the metadata from the server
-// * If there is no local cache or the metadata timestamp on the local cache is < the timestamp on the metadata from the server
-//   then refetch the product catalog and cache locally
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The product catalog is the same for every place and rarely changes, so the last copy downloaded
+ * is kept in the {@link ProductCatalogStore} and restored with {@link #restoreCatalog(ProductCatalogStore.Catalog)}
+ * at login.  The download still runs once per session, in the background, to reconcile it, and the
+ * copy on disk is only rewritten when the download hashes differently.
+ */
 public class ProductModelProvider extends BaseModelProvider<ProductModel> {
     public static final String UNCERTIFIED = "uncertified";
     public static final String HUB_VENDOR = "iris";
@@ -50,7 +62,15 @@ public class ProductModelProvider extends BaseModelProvider<ProductModel> {
         return INSTANCE;
     }
 
+    private static final Logger logger = LoggerFactory.getLogger(ProductModelProvider.class);
+
     private final ModelCache cache;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final Executor catalogWriter = Executors.newSingleThreadExecutor();
+    private volatile long catalogHash = 0;
+    private volatile boolean downloaded = false;
+    // Main thread only
+    private boolean restoring = false;
 
     ProductModelProvider() {
         this(
@@ -74,11 +94,104 @@ public class ProductModelProvider extends BaseModelProvider<ProductModel> {
             return null;
         }
 
+        // The store is keyed by id, so this doesn't need a model source (and cache listener) per lookup
+        ProductModel product = store.get(productID);
+        if (product != null) {
+            return product;
+        }
+
+        // Not in the catalog (or it hasn't loaded yet), look it up directly
         ModelSource<ProductModel> model = getModel(Addresses.toObjectAddress(Product.NAMESPACE, productID));
         model.load();
         return model.get();
     }
 
+    /**
+     * A local index of the catalog for search suggestions, rebuilt each time the catalog loads.
+     */
+    public ProductSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Reads the catalog saved by a previous session, off the main thread.
+     */
+    @WorkerThread
+    @Nullable public ProductCatalogStore.Catalog readCatalog() {
+        return ProductCatalogStore.instance().read();
+    }
+
+    /**
+     * Seeds the provider with a catalog returned by {@link #readCatalog()} so it reports itself as
+     * loaded without waiting on the network.
+     */
+    @MainThread
+    public void restoreCatalog(ProductCatalogStore.Catalog catalog) {
+        catalogHash = catalog.getHash();
+        restoring = true;
+        try {
+            restore(catalog.getProducts());
+        }
+        finally {
+            restoring = false;
+        }
+        logger.debug("Restored [{}] products saved at [{}]", store.size(), catalog.getCreatedAt());
+    }
+
+    @Override
+    protected boolean isPlaceScoped() {
+        return false;
+    }
+
+    @Override
+    protected void onPlaceSelected(SessionActivePlaceSetEvent event) {
+        // Every place has the same catalog, once it's been downloaded this session there's nothing to reload
+        if (downloaded && isLoaded()) {
+            return;
+        }
+
+        super.onPlaceSelected(event);
+    }
+
+    @Override
+    protected void onSessionExpired(SessionExpiredEvent event) {
+        downloaded = false;
+    }
+
+    @Override
+    protected void onLoaded(List<ProductModel> models) {
+        super.onLoaded(models);
+        searchIndex.update(models);
+
+        // A restored catalog is what's already on disk
+        if (!restoring) {
+            downloaded = true;
+            saveCatalog(new ArrayList<>(models));
+        }
+    }
+
+    private void saveCatalog(final List<ProductModel> models) {
+        if (models.isEmpty()) {
+            return;
+        }
+
+        catalogWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<Map<String, Object>> products = new ArrayList<>(models.size());
+                for (ProductModel model : models) {
+                    products.add(model.toMap());
+                }
+
+                long hash = ProductCatalogStore.hash(products);
+                if (hash != catalogHash && ProductCatalogStore.instance().write(hash, products)) {
+                    catalogHash = hash;
+                    logger.debug("Saved product catalog of [{}] products", products.size());
+                }
+            }
+        });
+    }
+
     @SuppressWarnings({"unchecked"})
     @Override
     protected ClientFuture<List<ProductModel>> doLoad(String placeId) {
@@ -0,0 +1,498 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.iris.client.capability.Product;
+import com.iris.client.model.ProductModel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * An in memory search index over the product catalog so type-ahead suggestions don't need a round
+ * trip to the platform.
+ *
+ * Vendor, name, categories and keywords are split into lower case tokens; a query matches a
+ * product when every word of the query is a prefix of one of its tokens (or, for words of four or
+ * more letters that match nothing, is a single edit away from one).  Name matches rank above vendor
+ * matches, which rank above category and keyword matches.
+ *
+ * The index is an immutable snapshot (a sorted token table with postings) which is swapped in once
+ * it has been built on a background thread, so searches never block on a rebuild.  Rebuilds only
+ * re-tokenize the products that changed since the last one.
+ */
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 8;
+    private static final int VENDOR_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int KEYWORD_WEIGHT = 1;
+    private static final int EXACT_BONUS = 1;
+    private static final int TYPO_PENALTY = 1;
+    private static final int MIN_TYPO_LENGTH = 4;
+
+    private final Executor executor;
+
+    // Only touched while rebuilding (on the executor)
+    private Map<String, Entry> entriesByAddress = new HashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    public ProductSearchIndex() {
+        this(Executors.newSingleThreadExecutor());
+    }
+
+    @VisibleForTesting
+    ProductSearchIndex(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The fields of a product that are searched.
+     */
+    public static final class Document {
+        private final String address;
+        private final String vendor;
+        private final String name;
+        private final Collection<String> categories;
+        private final String keywords;
+        private final String displayName;
+
+        public Document(
+              @NonNull String address,
+              @Nullable String vendor,
+              @Nullable String name,
+              @Nullable Collection<String> categories,
+              @Nullable String keywords
+        ) {
+            this.address = address;
+            this.vendor = vendor == null ? "" : vendor;
+            this.name = name == null ? "" : name;
+            this.categories = categories == null ? Collections.<String>emptyList() : categories;
+            this.keywords = keywords == null ? "" : keywords;
+            this.displayName = this.vendor.isEmpty() ? this.name : this.vendor + " " + this.name;
+        }
+
+        @NonNull public String getAddress() {
+            return address;
+        }
+
+        /**
+         * What the suggestion shows, "Vendor Name".
+         */
+        @NonNull public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Document document = (Document) o;
+            return address.equals(document.address) &&
+                  vendor.equals(document.vendor) &&
+                  name.equals(document.name) &&
+                  categories.equals(document.categories) &&
+                  keywords.equals(document.keywords);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(address, vendor, name, categories, keywords);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the products that can be searched for, in the background.
+     */
+    public void update(@NonNull Collection<ProductModel> products) {
+        final List<Document> documents = new ArrayList<>(products.size());
+        for (ProductModel product : products) {
+            if (Boolean.FALSE.equals(product.get(Product.ATTR_CANSEARCH))) {
+                continue;
+            }
+
+            Object categories = product.get(Product.ATTR_CATEGORIES);
+            documents.add(new Document(
+                  product.getAddress(),
+                  product.getVendor(),
+                  product.getName(),
+                  categories instanceof Collection ? toStrings((Collection<?>) categories) : null,
+                  (String) product.get(Product.ATTR_KEYWORDS)
+            ));
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    rebuild(documents);
+                }
+                catch (Exception ex) {
+                    logger.warn("Unable to index the product catalog.", ex);
+                }
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.entries.length;
+    }
+
+    /**
+     * @return the best matches for the query, best first, or null if the index hasn't been built
+     */
+    @Nullable
+    public List<Document> search(@NonNull String query, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+
+        return current.search(query, limit);
+    }
+
+    /**
+     * Builds and swaps in a new snapshot, reusing the tokens of the documents that are unchanged.
+     *
+     * @return how many documents had to be tokenized
+     */
+    @VisibleForTesting
+    int rebuild(@NonNull Collection<Document> documents) {
+        Map<String, Entry> previous = entriesByAddress;
+        Map<String, Entry> current = new HashMap<>(documents.size() * 2);
+        int tokenized = 0;
+        for (Document document : documents) {
+            Entry entry = previous.get(document.address);
+            if (entry == null || !entry.document.equals(document)) {
+                entry = new Entry(document);
+                tokenized++;
+            }
+            current.put(document.address, entry);
+        }
+
+        entriesByAddress = current;
+        snapshot = new Snapshot(current.values());
+        return tokenized;
+    }
+
+    private static List<String> toStrings(Collection<?> values) {
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value != null) {
+                strings.add(String.valueOf(value));
+            }
+        }
+        return strings;
+    }
+
+    /**
+     * A document along with its tokens and the weight of the best field each appeared in.
+     */
+    private static final class Entry {
+        final Document document;
+        final Map<String, Integer> tokens = new HashMap<>();
+
+        Entry(Document document) {
+            this.document = document;
+            addTokens(document.keywords, KEYWORD_WEIGHT);
+            for (String category : document.categories) {
+                addTokens(category, CATEGORY_WEIGHT);
+            }
+            addTokens(document.vendor, VENDOR_WEIGHT);
+            addTokens(document.name, NAME_WEIGHT);
+        }
+
+        private void addTokens(String field, int weight) {
+            for (String token : tokenize(field, true)) {
+                Integer existing = tokens.get(token);
+                if (existing == null || existing < weight) {
+                    tokens.put(token, weight);
+                }
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        final Document[] entries;
+        final String[] tokens;
+        final int[][] postings; // Entry indexes for each token
+        final int[][] weights;  // Parallel to postings
+
+        Snapshot(Collection<Entry> entryValues) {
+            entries = new Document[entryValues.size()];
+            TreeMap<String, List<int[]>> byToken = new TreeMap<>();
+            int index = 0;
+            for (Entry entry : entryValues) {
+                entries[index] = entry.document;
+                for (Map.Entry<String, Integer> token : entry.tokens.entrySet()) {
+                    List<int[]> list = byToken.get(token.getKey());
+                    if (list == null) {
+                        list = new ArrayList<>(2);
+                        byToken.put(token.getKey(), list);
+                    }
+                    list.add(new int[] { index, token.getValue() });
+                }
+                index++;
+            }
+
+            tokens = new String[byToken.size()];
+            postings = new int[byToken.size()][];
+            weights = new int[byToken.size()][];
+            int tokenIndex = 0;
+            for (Map.Entry<String, List<int[]>> token : byToken.entrySet()) {
+                List<int[]> list = token.getValue();
+                tokens[tokenIndex] = token.getKey();
+                postings[tokenIndex] = new int[list.size()];
+                weights[tokenIndex] = new int[list.size()];
+                for (int i = 0; i < list.size(); i++) {
+                    postings[tokenIndex][i] = list.get(i)[0];
+                    weights[tokenIndex][i] = list.get(i)[1];
+                }
+                tokenIndex++;
+            }
+        }
+
+        List<Document> search(String query, int limit) {
+            List<String> words = tokenize(query, false);
+            if (words.isEmpty() || entries.length == 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            int[] scores = new int[entries.length];
+            int[] matchedWords = new int[entries.length];
+            int[] best = new int[entries.length];
+            int[] bestStamp = new int[entries.length];
+            int[] touched = new int[entries.length];
+
+            for (int w = 0; w < words.size(); w++) {
+                String word = words.get(w);
+                int stamp = w + 1;
+                int touchedCount = 0;
+
+                int low = lowerBound(word);
+                int high = lowerBound(word + Character.MAX_VALUE);
+                if (low < high) {
+                    for (int t = low; t < high; t++) {
+                        int bonus = tokens[t].length() == word.length() ? EXACT_BONUS : 0;
+                        touchedCount = collect(t, bonus, stamp, best, bestStamp, touched, touchedCount);
+                    }
+                }
+                else if (word.length() >= MIN_TYPO_LENGTH) {
+                    for (int t = 0; t < tokens.length; t++) {
+                        if (isTypoOf(word, tokens[t])) {
+                            touchedCount = collect(t, -TYPO_PENALTY, stamp, best, bestStamp, touched, touchedCount);
+                        }
+                    }
+                }
+
+                if (touchedCount == 0) {
+                    return Collections.emptyList(); // Every word has to match
+                }
+
+                for (int i = 0; i < touchedCount; i++) {
+                    scores[touched[i]] += best[touched[i]];
+                    matchedWords[touched[i]]++;
+                }
+            }
+
+            // Keep the best few in a heap with the worst of them on top
+            Comparator<Integer> ranking = new Ranking(scores);
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, Collections.reverseOrder(ranking));
+            for (int i = 0; i < entries.length; i++) {
+                if (matchedWords[i] != words.size()) {
+                    continue;
+                }
+
+                if (top.size() < limit) {
+                    top.add(i);
+                }
+                else if (ranking.compare(i, top.peek()) < 0) {
+                    top.poll();
+                    top.add(i);
+                }
+            }
+
+            List<Integer> ranked = new ArrayList<>(top);
+            Collections.sort(ranked, ranking);
+            List<Document> results = new ArrayList<>(ranked.size());
+            for (Integer index : ranked) {
+                results.add(entries[index]);
+            }
+            return results;
+        }
+
+        /**
+         * Highest score first, then the shortest (most specific) name, then alphabetically.
+         */
+        private final class Ranking implements Comparator<Integer> {
+            private final int[] scores;
+
+            Ranking(int[] scores) {
+                this.scores = scores;
+            }
+
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                if (scores[lhs] != scores[rhs]) {
+                    return scores[lhs] > scores[rhs] ? -1 : 1;
+                }
+                String left = entries[lhs].displayName;
+                String right = entries[rhs].displayName;
+                if (left.length() != right.length()) {
+                    return left.length() < right.length() ? -1 : 1;
+                }
+                return left.compareToIgnoreCase(right);
+            }
+        }
+
+        // Records the best weight each entry gets from any of the word's tokens
+        private int collect(int token, int adjustment, int stamp, int[] best, int[] bestStamp, int[] touched, int touchedCount) {
+            int[] tokenPostings = postings[token];
+            int[] tokenWeights = weights[token];
+            for (int i = 0; i < tokenPostings.length; i++) {
+                int entry = tokenPostings[i];
+                int weight = tokenWeights[i] + adjustment;
+                if (bestStamp[entry] != stamp) {
+                    bestStamp[entry] = stamp;
+                    best[entry] = weight;
+                    touched[touchedCount++] = entry;
+                }
+                else if (weight > best[entry]) {
+                    best[entry] = weight;
+                }
+            }
+            return touchedCount;
+        }
+
+        private int lowerBound(String key) {
+            int index = Arrays.binarySearch(tokens, key);
+            return index < 0 ? -index - 1 : index;
+        }
+    }
+
+    /**
+     * Splits text on whitespace into lower case words with the punctuation removed ("Z-Wave" is
+     * "zwave"); when indexing, the parts between the punctuation ("z", "wave") are added too.
+     */
+    @VisibleForTesting
+    static List<String> tokenize(@Nullable String text, boolean includeParts) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.US).split("\\s+")) {
+            StringBuilder joined = new StringBuilder(word.length());
+            StringBuilder part = new StringBuilder(word.length());
+            int parts = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    joined.append(c);
+                    part.append(c);
+                }
+                else if (part.length() > 0) {
+                    parts++;
+                    if (includeParts) {
+                        tokens.add(part.toString());
+                    }
+                    part.setLength(0);
+                }
+            }
+
+            if (includeParts && parts > 0 && part.length() > 0) {
+                tokens.add(part.toString());
+            }
+            if (joined.length() > 0) {
+                tokens.add(joined.toString());
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Whether {@code token}, or its prefix of about the same length, is one insert, delete or
+     * substitution away from {@code word}.
+     */
+    static boolean isTypoOf(String word, String token) {
+        // The whole token, or a prefix of it within a letter of the word's length
+        for (int length = word.length() - 1; length <= word.length() + 1; length++) {
+            if (length > 0 && length <= token.length() && withinOneEdit(word, word.length(), token, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the first {@code aLength} characters of {@code a} are within one insert, delete or
+     * substitution of the first {@code bLength} of {@code b}.
+     */
+    private static boolean withinOneEdit(String a, int aLength, String b, int bLength) {
+        if (aLength > bLength) {
+            return withinOneEdit(b, bLength, a, aLength);
+        }
+        if (bLength - aLength > 1) {
+            return false;
+        }
+
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < aLength && j < bLength) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) {
+                return false;
+            }
+            edited = true;
+            if (aLength == bLength) {
+                i++; // Substitution
+            }
+            j++;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lookup by key over a provider's loaded list, see {@link BaseNonModelProvider#addIndex(Function)}.
+ *
+ * The index remembers which list it was built from and is rebuilt, as a whole, whenever the
+ * provider's list is a different one, so a lookup never mixes entries from two loads.  Items with
+ * a {@code null} key are left out and when two items share a key the first one wins, the same as
+ * scanning the list would.
+ *
+ * @param <K> the key
+ * @param <M> the items in the provider
+ */
+public final class ProviderIndex<K, M> {
+    private static final Snapshot<?, ?> EMPTY = new Snapshot<>(null, Collections.emptyMap());
+
+    private final Function<? super M, ? extends K> keyFunction;
+    private final Supplier<List<M>> source;
+    @SuppressWarnings("unchecked")
+    private volatile Snapshot<K, M> snapshot = (Snapshot<K, M>) EMPTY;
+
+    /**
+     * @param source the provider's current list, or {@code null} when it isn't loaded
+     */
+    ProviderIndex(@NonNull Function<? super M, ? extends K> keyFunction, @NonNull Supplier<List<M>> source) {
+        this.keyFunction = keyFunction;
+        this.source = source;
+    }
+
+    /**
+     * @return the first item with {@code key}, or {@code null} if there isn't one or the provider
+     * isn't loaded
+     */
+    @Nullable
+    public M get(@Nullable K key) {
+        if (key == null) {
+            return null;
+        }
+
+        List<M> items = source.get();
+        if (items == null) {
+            return null;
+        }
+        return snapshotOf(items).items.get(key);
+    }
+
+    /**
+     * Builds the index for a list that was just loaded so the first lookup doesn't have to.
+     */
+    void rebuild(@Nullable List<M> items) {
+        if (items != null) {
+            snapshotOf(items);
+        }
+    }
+
+    private Snapshot<K, M> snapshotOf(@NonNull List<M> items) {
+        Snapshot<K, M> current = snapshot;
+        if (current.source == items) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current.source != items) {
+                current = new Snapshot<>(items, index(items));
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Map<K, M> index(List<M> items) {
+        Map<K, M> index = new HashMap<>(items.size() * 4 / 3 + 1);
+        for (M item : items) {
+            if (item == null) {
+                continue;
+            }
+
+            K key = keyFunction.apply(item);
+            if (key != null && !index.containsKey(key)) {
+                index.put(key, item);
+            }
+        }
+        return index;
+    }
+
+    private static final class Snapshot<K, M> {
+        final @Nullable List<M> source;
+        final Map<K, M> items;
+
+        Snapshot(@Nullable List<M> source, Map<K, M> items) {
+            this.source = source;
+            this.items = items;
+        }
+    }
+}
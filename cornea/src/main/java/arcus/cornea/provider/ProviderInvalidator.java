@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import arcus.cornea.utils.DebouncingScheduler;
+import com.iris.client.ClientEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies an {@link InvalidationPolicy} to the events a provider sees, running {@code reload} once
+ * per burst of matching events on the shared {@link DebouncingScheduler} thread.
+ */
+final class ProviderInvalidator {
+    private final InvalidationPolicy policy;
+    private final Runnable reload;
+    private final @Nullable DebouncingScheduler.Debouncer debouncer;
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final Runnable countedReload = new Runnable() {
+        @Override
+        public void run() {
+            reloadCount.incrementAndGet();
+            reload.run();
+        }
+    };
+
+    ProviderInvalidator(@NonNull InvalidationPolicy policy, @NonNull DebouncingScheduler scheduler, @NonNull Runnable reload) {
+        this.policy = policy;
+        this.reload = reload;
+
+        if (policy.isStaticData() || policy.getCoalesceMs() == 0) {
+            this.debouncer = null;
+        }
+        else {
+            this.debouncer = scheduler
+                  .newDebouncerBuilder(policy.getCoalesceMs())
+                  .maxWait(policy.getMaxWaitMs())
+                  .build();
+        }
+    }
+
+    /**
+     * @return {@code true} if the event invalidates the provider, the reload may run later
+     */
+    boolean onEvent(@Nullable ClientEvent event) {
+        if (!policy.isInvalidatedBy(event)) {
+            return false;
+        }
+
+        invalidationCount.incrementAndGet();
+        if (debouncer == null) {
+            countedReload.run();
+        }
+        else {
+            debouncer.submit(this, countedReload);
+        }
+        return true;
+    }
+
+    /**
+     * Drops a reload that's waiting for its burst to end.
+     */
+    void cancel() {
+        if (debouncer != null) {
+            debouncer.cancel(this);
+        }
+    }
+
+    boolean isReloadPending() {
+        return debouncer != null && debouncer.isPending(this);
+    }
+
+    @NonNull InvalidationPolicy getPolicy() {
+        return policy;
+    }
+
+    long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    long getReloadCount() {
+        return reloadCount.get();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.iris.client.model.RuleTemplateModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rule templates of a place grouped by category, each category's templates sorted by name and
+ * counted, see {@link RuleTemplateModelProvider#getTemplatesByCategoryName(String)}.
+ *
+ * A catalog is immutable, when the templates change a new one is built.  It remembers the place
+ * it belongs to and when its templates were downloaded so the provider can tell when it's stale.
+ */
+final class RuleTemplateCatalog {
+    static final Comparator<RuleTemplateModel> SORTED_BY_NAME = (lhs, rhs) -> {
+        if (lhs.getName() == null || rhs.getName() == null) {
+            return 0;
+        }
+
+        return lhs.getName().compareToIgnoreCase(rhs.getName());
+    };
+
+    private final String placeId;
+    private final long loadedAt;
+    private final Map<String, List<RuleTemplateModel>> byCategory;
+    private final Map<String, Integer> counts;
+
+    private RuleTemplateCatalog(
+          String placeId,
+          long loadedAt,
+          Map<String, List<RuleTemplateModel>> byCategory,
+          Map<String, Integer> counts
+    ) {
+        this.placeId = placeId;
+        this.loadedAt = loadedAt;
+        this.byCategory = byCategory;
+        this.counts = counts;
+    }
+
+    /**
+     * @param loadedAt when {@code templates} were downloaded, a catalog rebuilt from the store keeps
+     *                 the time of the download it came from
+     */
+    static RuleTemplateCatalog of(
+          @NonNull String placeId,
+          @Nullable Iterable<RuleTemplateModel> templates,
+          long loadedAt
+    ) {
+        Map<String, List<RuleTemplateModel>> byCategory = new HashMap<>();
+        if (templates != null) {
+            for (RuleTemplateModel template : templates) {
+                if (template == null || template.getCategories() == null) {
+                    continue;
+                }
+
+                for (String category : template.getCategories()) {
+                    List<RuleTemplateModel> inCategory = byCategory.get(category);
+                    if (inCategory == null) {
+                        inCategory = new ArrayList<>();
+                        byCategory.put(category, inCategory);
+                    }
+                    inCategory.add(template);
+                }
+            }
+        }
+
+        Map<String, Integer> counts = new HashMap<>(byCategory.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<RuleTemplateModel>> category : byCategory.entrySet()) {
+            List<RuleTemplateModel> inCategory = category.getValue();
+            Collections.sort(inCategory, SORTED_BY_NAME);
+            category.setValue(Collections.unmodifiableList(inCategory));
+            counts.put(category.getKey(), inCategory.size());
+        }
+
+        return new RuleTemplateCatalog(placeId, loadedAt, byCategory, Collections.unmodifiableMap(counts));
+    }
+
+    @NonNull String getPlaceId() {
+        return placeId;
+    }
+
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return the templates in {@code category} sorted by name, empty if there are none
+     */
+    @NonNull List<RuleTemplateModel> getTemplates(@Nullable String category) {
+        List<RuleTemplateModel> templates = byCategory.get(category);
+        return templates == null ? Collections.<RuleTemplateModel>emptyList() : templates;
+    }
+
+    /**
+     * @return the number of templates in each category that has any
+     */
+    @NonNull Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    boolean isFreshFor(@Nullable String placeId, long now, long ttlMs) {
+        return this.placeId.equals(placeId) && now - loadedAt < ttlMs;
+    }
+}
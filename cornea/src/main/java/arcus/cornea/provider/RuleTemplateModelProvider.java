@@ -15,6 +15,8 @@
  */
 package arcus.cornea.provider;
 
+import androidx.annotation.Nullable;
+
 import com.google.common.base.Function;
 
 import arcus.cornea.CorneaClientFactory;
@@ -24,18 +26,36 @@ import com.iris.client.IrisClient;
 import com.iris.client.capability.RuleTemplate;
 import com.iris.client.event.ClientFuture;
 import com.iris.client.event.Futures;
+import com.iris.client.model.ModelAddedEvent;
 import com.iris.client.model.ModelCache;
+import com.iris.client.model.ModelChangedEvent;
+import com.iris.client.model.ModelDeletedEvent;
 import com.iris.client.model.RuleTemplateModel;
 import com.iris.client.model.Store;
 import com.iris.client.service.RuleService;
+import com.iris.client.session.SessionExpiredEvent;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rule templates are downloaded once per place and kept as a {@link RuleTemplateCatalog}, so
+ * opening a category or showing the category counts doesn't go back to the platform.
+ *
+ * When a template is added, removed or has its name or categories changed the catalog is rebuilt
+ * from the store the next time it's asked for.  It's downloaded again when a device is added or
+ * removed, as that changes which templates are satisfiable, and once it's older than
+ * {@link #CATALOG_TTL_MS} to pick up changes the platform doesn't tell us about.  A download that
+ * was already running when a device was added or removed isn't kept.  Otherwise the templates
+ * already in the store are used, they're loaded whenever a place is selected.  A catalog is only
+ * ever built from a load that succeeded, if the last one failed they're downloaded again.
+ */
 public class RuleTemplateModelProvider extends BaseModelProvider<RuleTemplateModel> {
     private static final RuleTemplateModelProvider INSTANCE = new RuleTemplateModelProvider();
+    private static final long CATALOG_TTL_MS = TimeUnit.MINUTES.toMillis(30);
 
     public static RuleTemplateModelProvider instance() {
         return INSTANCE;
@@ -43,19 +63,20 @@ public class RuleTemplateModelProvider extends BaseModelProvider<RuleTemplateMod
 
     private final IrisClient client;
     private final ModelCache cache;
-
-    private static final Comparator<RuleTemplateModel> SORTED_BY_NAME = (lhs, rhs) -> {
-        if (lhs.getName() == null || rhs.getName() == null) {
-            return 0;
-        }
-
-        return lhs.getName().compareToIgnoreCase(rhs.getName());
-    };
+    private final InvalidationPolicy satisfiabilityPolicy = InvalidationPolicy.devicesAddedOrDeleted();
+    private final AtomicBoolean catalogChanged = new AtomicBoolean(false);
+    private final AtomicInteger catalogGeneration = new AtomicInteger();
+    private volatile int downloadedGeneration = 0;
+    // Set before the load's future completes, the onLoaded/onLoadError callbacks run later on the
+    // UI thread
+    private volatile boolean loadSucceeded = false;
+    private volatile RuleTemplateCatalog catalog;
 
     private final Function<RuleService.ListRuleTemplatesResponse, List<RuleTemplateModel>> getRuleTemplates =
           new Function<RuleService.ListRuleTemplatesResponse, List<RuleTemplateModel>>() {
               @SuppressWarnings({"unchecked"}) @Override
               public List<RuleTemplateModel> apply(RuleService.ListRuleTemplatesResponse input) {
+                  loadSucceeded = true;
                   return (List) cache.retainAll(RuleTemplate.NAMESPACE, input.getRuleTemplates());
               }
           };
@@ -76,39 +97,95 @@ public class RuleTemplateModelProvider extends BaseModelProvider<RuleTemplateMod
         super(client, cache, store);
         this.client = client;
         this.cache = cache;
-    }
 
-    public ClientFuture<List<RuleTemplateModel>> getTemplatesByCategoryName(String category) {
-        return reload().transform(templates -> {
-            if (templates == null) {
-                return Collections.emptyList();
+        store.addListener(event -> {
+            if (event instanceof ModelAddedEvent || event instanceof ModelDeletedEvent) {
+                catalogChanged.set(true);
             }
-
-            List<RuleTemplateModel> results = new ArrayList<>();
-
-            for (RuleTemplateModel model : templates) {
-                if (model.getCategories().contains(category)) {
-                    results.add(model);
+            else if (event instanceof ModelChangedEvent) {
+                Map<String, Object> changes = ((ModelChangedEvent) event).getChangedAttributes();
+                if (changes.containsKey(RuleTemplate.ATTR_NAME) || changes.containsKey(RuleTemplate.ATTR_CATEGORIES)) {
+                    catalogChanged.set(true);
                 }
             }
-
-            Collections.sort(results, SORTED_BY_NAME);
-            return results;
+        });
+        client.addMessageListener(message -> {
+            if (message != null && satisfiabilityPolicy.isInvalidatedBy(message.getEvent())) {
+                catalogGeneration.incrementAndGet();
+                catalog = null;
+            }
         });
     }
 
+    public ClientFuture<List<RuleTemplateModel>> getTemplatesByCategoryName(String category) {
+        return loadCatalog().transform(catalog -> catalog.getTemplates(category));
+    }
+
     public ClientFuture<RuleCategoryCounts> getRuleCategoryCounts() {
-        String placeId = getPlaceID();
+        return loadCatalog().transform(catalog -> new RuleCategoryCounts(catalog.getCounts()));
+    }
+
+    private ClientFuture<RuleTemplateCatalog> loadCatalog() {
+        RuleTemplateCatalog current = currentCatalog();
+        if (current != null) {
+            return Futures.succeededFuture(current);
+        }
+
+        final String placeId = getPlaceID();
         if (placeId == null) {
             return Futures.failedFuture(new RuntimeException("Is Client connected? Place was missing."));
-        } else {
-            RuleService ruleService = CorneaClientFactory.getService(RuleService.class);
-            return Futures.transform(ruleService.getCategories(placeId), RuleCategoryCounts::new);
         }
+
+        final int generation = catalogGeneration.get();
+        RuleTemplateCatalog previous = catalog;
+        // Satisfiability may be out of date after a device change or once the catalog's expired,
+        // otherwise the store already has the place's templates if they loaded
+        boolean stale = generation != downloadedGeneration || previous != null && previous.getPlaceId().equals(placeId);
+        ClientFuture<List<RuleTemplateModel>> templates = stale || !isLoaded() || !loadSucceeded ? reload() : load();
+
+        return templates.transform(loadedTemplates -> {
+            RuleTemplateCatalog loaded = RuleTemplateCatalog.of(placeId, loadedTemplates, System.currentTimeMillis());
+            if (catalogGeneration.get() == generation) {
+                downloadedGeneration = generation;
+                catalog = loaded;
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * @return the catalog for the active place, rebuilt from the store if a template has changed,
+     * or {@code null} if there isn't one or it's too old
+     */
+    private @Nullable RuleTemplateCatalog currentCatalog() {
+        RuleTemplateCatalog current = catalog;
+        if (current == null || !current.isFreshFor(getPlaceID(), System.currentTimeMillis(), CATALOG_TTL_MS)) {
+            return null;
+        }
+
+        if (catalogChanged.getAndSet(false)) {
+            current = RuleTemplateCatalog.of(current.getPlaceId(), store.values(), current.getLoadedAt());
+            catalog = current;
+        }
+        return current;
+    }
+
+    @Override
+    protected void onLoaded(List<RuleTemplateModel> models) {
+        // Also called when the store is restored from a snapshot
+        loadSucceeded = true;
+        super.onLoaded(models);
+    }
+
+    @Override
+    protected void onSessionExpired(SessionExpiredEvent event) {
+        super.onSessionExpired(event);
+        catalog = null;
     }
 
     @Override
     protected ClientFuture<List<RuleTemplateModel>> doLoad(String placeId) {
+        loadSucceeded = false;
         ClientFuture<RuleService.ListRuleTemplatesResponse> request =
               CorneaClientFactory.getService(RuleService.class).listRuleTemplates(placeId);
 
@@ -48,7 +48,7 @@ public abstract class BaseSubsystemController<C> {
     // TODO this could be parameterized pretty easilly to generic controller
 
     private final ModelSource<SubsystemModel> subsystem;
-    private final Listener<ModelEvent> onModelEvent = Listeners.runOnUiThread(
+    private final Listener<ModelEvent> onModelEvent = Listeners.coalesceOnUiThread(
             new Listener<ModelEvent>() {
                 @Override
                 public void onEvent(ModelEvent event) {
@@ -23,6 +23,7 @@ import arcus.cornea.subsystem.BaseSubsystemController;
 import arcus.cornea.subsystem.SubsystemController;
 import arcus.cornea.subsystem.cameras.model.CameraModel;
 import arcus.cornea.utils.AddressableListSource;
+import arcus.cornea.utils.CapabilityIndex;
 import arcus.cornea.utils.CapabilityInstances;
 import arcus.cornea.utils.Listeners;
 import arcus.cornea.utils.ModelSource;
@@ -38,7 +39,6 @@ import com.iris.client.model.ModelDeletedEvent;
 import com.iris.client.model.SubsystemModel;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -149,8 +149,7 @@ public class CameraDeviceListController extends BaseSubsystemController<CameraDe
 
         List<CameraModel> cameraModels = new ArrayList<>();
         for (DeviceModel model : online) {
-            Collection<String> caps = model.getCaps();
-            if (caps != null && caps.contains(Camera.NAMESPACE)) {
+            if (CapabilityIndex.supports(model, Camera.class)) {
                 String recordingState = (String) CapabilityInstances.getAttributeValue(getModel(), model.getId(), CameraStatus.ATTR_STATE);
 
                 CameraModel camera = new CameraModel(model, onCellular);
@@ -22,18 +22,19 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import arcus.cornea.CorneaClientFactory;
+import arcus.cornea.network.HttpClientFactory;
 import arcus.cornea.provider.DeviceModelProvider;
 import arcus.cornea.subsystem.BaseSubsystemController;
 import arcus.cornea.subsystem.SubsystemController;
 import arcus.cornea.utils.AddressableListSource;
 import arcus.cornea.utils.ModelSource;
 import okhttp3.Call;
-import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -52,19 +53,36 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Keeps the preview images of the cameras that are on screen up to date.
+ *
+ * Only cameras marked visible through {@link #setVisible(String, boolean)} are refreshed.  Each
+ * camera is polled with a conditional request (so an unchanged preview is a 304) on its own
+ * interval, which shortens while the preview keeps changing and grows while it doesn't.
+ */
 public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGetter.Callback> {
     private static final Logger logger = LoggerFactory.getLogger(CameraPreviewGetter.class);
     private static final String IMAGES_DIRECTORY = "PIM";
     private static final String AUTHORIZATION = "Authorization";
     private static final String PREVIEW = "/preview/";
     private static final String URL_FORMAT = "%s%s%s/%s";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
     private static final int REFRESH_TIME_SECONDS = 15;
+    private static final int MIN_REFRESH_TIME_SECONDS = 10;
+    private static final int MAX_REFRESH_TIME_SECONDS = 120;
+    private static final int PREVIEW_SIZE = 370;
     private static final int REQUEST_TIMEOUT = 30_000;
 
     private static final CameraPreviewGetter INSTANCE;
@@ -74,6 +92,8 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
     private final AddressableListSource<DeviceModel> cameras;
     private final Map<String, WeakReference<Callback>> callbackRefs;
     private DiskCache diskCache;
+    private final Map<String, PreviewState> previewStates = new ConcurrentHashMap<>();
+    private final Map<String, Integer> visibleCounts = new HashMap<>(); // Main thread only
 
     // Callbacks will be emitted on main thread (below) while work will be sent to bg thread from OkHttp
     private final Handler ioHandler = new Handler(Looper.getMainLooper());
@@ -101,9 +121,8 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
         this.irisClient = client;
         this.cameras = cameras;
         this.callbackRefs = new HashMap<>();
-        this.okHttpClient = new OkHttpClient
-                .Builder()
-                .dispatcher(new Dispatcher())
+        this.okHttpClient = HttpClientFactory
+                .newBuilder(HttpClientFactory.Purpose.PREVIEW)
                 .connectTimeout(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
                 .readTimeout(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
                 .build();
@@ -162,6 +181,34 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
         return diskCache.getExistingFileRef(deviceID);
     }
 
+    /**
+     * Marks a camera's preview as (no longer) being shown, calls must be balanced and made on the
+     * main thread.  A camera that becomes visible with a stale preview is refreshed right away.
+     */
+    public void setVisible(String deviceID, boolean visible) {
+        if (Strings.isNullOrEmpty(deviceID)) {
+            return;
+        }
+
+        Integer count = visibleCounts.get(deviceID);
+        int updated = (count == null ? 0 : count) + (visible ? 1 : -1);
+        if (updated > 0) {
+            visibleCounts.put(deviceID, updated);
+        }
+        else {
+            visibleCounts.remove(deviceID);
+        }
+
+        if (visible && updated == 1) {
+            if (shouldPoll.get()) {
+                postNewTask(0);
+            }
+            else {
+                start();
+            }
+        }
+    }
+
     public void pauseUpdates() {
         stop();
     }
@@ -194,21 +241,30 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
         ioHandler.removeCallbacksAndMessages(null);
     }
 
+    private final Runnable fetchTask = new Runnable() {
+        @Override public void run() {
+            fetchImages();
+        }
+    };
+
+    private final Runnable rescheduleTask = new Runnable() {
+        @Override public void run() {
+            postNewTask(0);
+        }
+    };
+
     private void postNewTask() {
         postNewTask(getNormalRetryTime());
     }
 
-    private void postNewTask(int returnIn) {
+    private void postNewTask(long returnIn) {
         if (!shouldPoll.get()) {
             logger.info("Stopping poll - logged out or watching video?");
             return;
         }
 
-        ioHandler.postDelayed(new Runnable() {
-            @Override public void run() {
-                fetchImages();
-            }
-        }, returnIn);
+        ioHandler.removeCallbacks(fetchTask);
+        ioHandler.postDelayed(fetchTask, returnIn);
     }
 
     private void fetchImages() {
@@ -219,20 +275,13 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
             return;
         }
 
-        int queueingDevice = 0;
-        int deviceCount = cameras.get().size();
-        if (deviceCount == 0) {
+        if (cameras.get().isEmpty()) {
             shouldPoll.set(false);
             return;
         }
 
-        int running = okHttpClient.dispatcher().runningCallsCount();
-        int active  = okHttpClient.dispatcher().queuedCallsCount();
-        if (running >= deviceCount || active >= deviceCount) {
-            postNewTask(getBackoffTime()); // We've started to run-away; Backoff a little bit.
-            return;
-        }
-
+        long now = SystemClock.uptimeMillis();
+        long nextDue = Long.MAX_VALUE;
         for (DeviceModel devID : cameras.get()) {
             String deviceID = devID.getId();
             if (!CorneaClientFactory.isConnected() || diskCache == null) {
@@ -240,30 +289,82 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
                 return;
             }
 
-            try {
-                String url = String.format(URL_FORMAT,
-                      irisClient.getSessionInfo().getPreviewBaseUrl(), PREVIEW,
-                      irisClient.getActivePlace().toString(), deviceID);
-                Request request = new Request.Builder()
-                      .url(url)
-                      .get()
-                      .addHeader(AUTHORIZATION, irisClient.getSessionInfo().getSessionToken())
-                      .build();
-                OkHttpCallback downloadCB = new OkHttpCallback(++queueingDevice == deviceCount, deviceID);
-                okHttpClient.newCall(request).enqueue(downloadCB);
+            if (!visibleCounts.containsKey(deviceID)) {
+                continue;
             }
-            catch (Exception ex) {
-                // If we barf on the last item being scheduled, submit another task to come back and update using backoff.
-                if (queueingDevice == deviceCount) {
-                    postNewTask(getBackoffTime());
+
+            PreviewState state = getPreviewState(deviceID);
+            if (state.startIfDue(now)) {
+                try {
+                    String url = String.format(URL_FORMAT,
+                          irisClient.getSessionInfo().getPreviewBaseUrl(), PREVIEW,
+                          irisClient.getActivePlace().toString(), deviceID);
+                    Request.Builder request = new Request.Builder()
+                          .url(url)
+                          .get()
+                          .addHeader(AUTHORIZATION, irisClient.getSessionInfo().getSessionToken());
+                    if (diskCache.contains(deviceID)) {
+                        // Only worth a 304 if there is still something on disk to show
+                        state.addValidators(request);
+                    }
+                    okHttpClient.newCall(request.build()).enqueue(new OkHttpCallback(deviceID, state));
+                }
+                catch (Exception ex) {
+                    state.finished(false, true);
+                    logger.debug("Cannot download preview image for [{}]", deviceID, ex);
                 }
-                logger.debug("Cannot download clip images for [{}]", deviceID, ex);
+            }
+
+            // In flight requests reschedule when they complete.
+            if (!state.isInFlight()) {
+                nextDue = Math.min(nextDue, state.getNextFetchAt());
             }
         }
+
+        if (nextDue != Long.MAX_VALUE) {
+            postNewTask(Math.max(0, nextDue - now));
+        }
     }
 
-    private int getBackoffTime() {
-        return getNormalRetryTime() * 2;
+    private PreviewState getPreviewState(String deviceID) {
+        PreviewState state = previewStates.get(deviceID);
+        if (state == null) {
+            state = new PreviewState();
+            previewStates.put(deviceID, state);
+        }
+        return state;
+    }
+
+    /**
+     * Decodes the preview subsampled to about the size it's stored at, then scales it the rest of
+     * the way.
+     */
+    @Nullable
+    static Bitmap decodePreview(byte[] bytes) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= PREVIEW_SIZE && options.outHeight / (sampleSize * 2) >= PREVIEW_SIZE) {
+            sampleSize *= 2;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap sampled = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (sampled == null) {
+            return null;
+        }
+
+        Bitmap scaled = Bitmap.createScaledBitmap(sampled, PREVIEW_SIZE, PREVIEW_SIZE, true);
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+        return scaled;
     }
 
     private int getNormalRetryTime() {
@@ -271,45 +372,56 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
     }
 
     private class OkHttpCallback implements okhttp3.Callback {
-        private final boolean isLast;
         private final String id;
+        private final PreviewState state;
 
-        public OkHttpCallback(boolean isLastItem, String deviceID) {
-            isLast = isLastItem;
+        public OkHttpCallback(String deviceID, PreviewState state) {
             this.id = deviceID;
+            this.state = state;
         }
 
         @Override
         public void onFailure(Call call, IOException e) {
             logger.debug("Failed to execute " + call.request(), e);
-            rePost();
+            state.finished(false, true);
+            ioHandler.post(rescheduleTask);
         }
 
         @Override
         public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+            boolean changed = false;
+            boolean failed = false;
             try {
-                if (response.isSuccessful()) {
-                    Bitmap bmd = BitmapFactory.decodeStream(response.body().byteStream());
-                    if (bmd != null) {
-                        diskCache.saveImage(Bitmap.createScaledBitmap(bmd, 370, 370, false), id);
-                        updateCallbackOfNewImage(id);
-                        logger.trace("Saved Preview for: [{}]", id);
+                if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    logger.trace("Preview unchanged for: [{}]", id);
+                }
+                else if (response.isSuccessful()) {
+                    byte[] bytes = response.body().bytes();
+                    state.setValidators(response.header(ETAG), response.header(LAST_MODIFIED));
+                    if (!state.updateContentHash(Arrays.hashCode(bytes)) && diskCache.contains(id)) {
+                        logger.trace("Preview content unchanged for: [{}]", id);
+                    }
+                    else {
+                        Bitmap bmd = decodePreview(bytes);
+                        if (bmd != null) {
+                            diskCache.saveImage(bmd, id);
+                            bmd.recycle();
+                            changed = true;
+                            updateCallbackOfNewImage(id);
+                            logger.trace("Saved Preview for: [{}]", id);
+                        }
                     }
                 }
                 else {
+                    failed = true;
                     logger.error("Received [{}] attempting to get preview image for [{}]", response.code(), id);
                 }
             }
             finally {
                 // This throws an IOE but the way it's wrapped it'll be caught by {@link Call.AsyncCall#execute()}
                 response.body().close();
-                rePost();
-            }
-        }
-
-        private void rePost() {
-            if (isLast) {
-                postNewTask();
+                state.finished(changed, failed);
+                ioHandler.post(rescheduleTask);
             }
         }
 
@@ -330,4 +442,78 @@ public class CameraPreviewGetter extends BaseSubsystemController<CameraPreviewGe
             }
         }
     }
+
+    /**
+     * Validators and refresh interval for one camera's preview.
+     */
+    private static class PreviewState {
+        private String etag;
+        private String lastModified;
+        private long intervalMs = REFRESH_TIME_SECONDS * 1000;
+        private long nextFetchAt = 0;
+        private boolean inFlight = false;
+        private Integer contentHash;
+
+        synchronized boolean startIfDue(long now) {
+            if (inFlight || now < nextFetchAt) {
+                return false;
+            }
+
+            inFlight = true;
+            return true;
+        }
+
+        synchronized boolean isInFlight() {
+            return inFlight;
+        }
+
+        synchronized long getNextFetchAt() {
+            return nextFetchAt;
+        }
+
+        synchronized void addValidators(Request.Builder request) {
+            if (etag != null) {
+                request.addHeader(IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                request.addHeader(IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        synchronized void setValidators(@Nullable String etag, @Nullable String lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * For servers that don't send validators.
+         *
+         * @return true if the content differs from the last download
+         */
+        synchronized boolean updateContentHash(int hash) {
+            boolean changed = contentHash == null || contentHash != hash;
+            contentHash = hash;
+            return changed;
+        }
+
+        /**
+         * Previews that keep changing are checked more often, ones that don't less often.  Failures
+         * back off without changing the interval.
+         */
+        synchronized void finished(boolean changed, boolean failed) {
+            inFlight = false;
+            if (failed) {
+                nextFetchAt = SystemClock.uptimeMillis() + Math.min(intervalMs * 2, MAX_REFRESH_TIME_SECONDS * 1000L);
+                return;
+            }
+
+            if (changed) {
+                intervalMs = Math.max(MIN_REFRESH_TIME_SECONDS * 1000L, intervalMs / 2);
+            }
+            else {
+                intervalMs = Math.min(MAX_REFRESH_TIME_SECONDS * 1000L, intervalMs * 3 / 2);
+            }
+            nextFetchAt = SystemClock.uptimeMillis() + intervalMs;
+        }
+    }
 }
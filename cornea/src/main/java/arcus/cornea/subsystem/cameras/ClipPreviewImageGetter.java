@@ -23,10 +23,10 @@ import androidx.annotation.VisibleForTesting;
 
 import com.google.common.base.Strings;
 import arcus.cornea.CorneaClientFactory;
+import arcus.cornea.network.HttpClientFactory;
 import arcus.cornea.provider.PagedRecordingModelProvider;
 import arcus.cornea.utils.Listeners;
 import okhttp3.Call;
-import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -45,7 +45,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -85,9 +84,8 @@ public class ClipPreviewImageGetter {
     private final OkHttpClient okHttpClient;
 
     public ClipPreviewImageGetter() {
-        this.okHttpClient = new OkHttpClient
-                .Builder()
-                .dispatcher(new Dispatcher())
+        this.okHttpClient = HttpClientFactory
+                .newBuilder(HttpClientFactory.Purpose.CLIP)
                 .connectTimeout(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
                 .readTimeout(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS)
                 .build();
@@ -205,8 +203,7 @@ public class ClipPreviewImageGetter {
             return true;
         }
 
-        List<String> filesSaved = Arrays.asList(diskCache.listFileNames());
-        return filesSaved.contains(fileName);
+        return diskCache.contains(fileName);
     }
 
     protected void downloadNewImages(final RecordingModel recordingModel) {
@@ -27,37 +27,77 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Stores camera and clip preview images in a directory per place.
+ *
+ * Every directory shares one {@link DiskCacheIndex} so the total size across places is bounded;
+ * the least recently used images are evicted in the background once it's exceeded.  Lookups go
+ * through the index rather than the file system.
+ */
 public class DiskCache {
     private static final Logger logger = LoggerFactory.getLogger(DiskCache.class);
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final String JOURNAL_FILE = "camera_cache.journal";
+    private static final long MAX_BYTES = 25 * 1024 * 1024;
+    private static final int JPEG_QUALITY = 85;
+
+    private static final ExecutorService indexExecutor = Executors.newSingleThreadExecutor();
+    private static DiskCacheIndex sharedIndex;
+
+    private final DiskCacheIndex index;
     private File contextDir;
 
     public DiskCache(Context context, String directoryName, int mode) {
         Preconditions.checkNotNull(context);
         Preconditions.checkArgument(!Strings.isNullOrEmpty(directoryName));
         this.contextDir = context.getDir(directoryName, mode);
+        this.index = getIndex(context);
+        this.index.reconcile(contextDir);
     }
 
     public DiskCache(Context context, String directoryName) {
         this(context, directoryName, Context.MODE_PRIVATE);
     }
 
+    private static synchronized DiskCacheIndex getIndex(Context context) {
+        if (sharedIndex == null) {
+            File journal = new File(context.getApplicationContext().getFilesDir(), JOURNAL_FILE);
+            sharedIndex = new DiskCacheIndex(journal, MAX_BYTES, indexExecutor);
+        }
+        return sharedIndex;
+    }
+
+    /**
+     * Writes the image to a temporary file and moves it into place so readers never see a
+     * partially written image.
+     */
     public boolean saveImage(Bitmap bmd, String fileName) {
         if (contextDir == null) {
             return false;
         }
 
-        FileOutputStream fos;
-        try {
-            fos = new FileOutputStream(new File(contextDir, fileName));
-            bmd.compress(Bitmap.CompressFormat.PNG, 100, fos);
-            fos.close();
-            return true;
+        File file = new File(contextDir, fileName);
+        File temp = new File(contextDir, fileName + TEMP_SUFFIX);
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            bmd.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, fos);
         }
         catch (Exception ex) {
             logger.debug("Could not save image to disk cache.", ex);
+            temp.delete();
             return false;
         }
+
+        if (!temp.renameTo(file)) {
+            logger.debug("Could not move image into the disk cache.");
+            temp.delete();
+            return false;
+        }
+
+        index.put(file, file.length());
+        return true;
     }
 
     @Nullable
@@ -73,15 +113,18 @@ public class DiskCache {
     }
 
     public File getIfExists(String fileName) {
-        File file = new File(contextDir, fileName);
+        return index.get(new File(contextDir, fileName));
+    }
 
-        return file.exists() ? file : null;
+    public boolean contains(String fileName) {
+        return index.contains(new File(contextDir, fileName));
     }
 
     public boolean delete(String fileName) {
-        File name = getExistingFileRef(fileName);
+        File file = new File(contextDir, fileName);
+        index.remove(file);
 
-        return name != null && name.delete();
+        return file.delete();
     }
 
     public String[] listFileNames() {
@@ -100,6 +143,7 @@ public class DiskCache {
         int couldNotDelete = 0;
         for (File file : filesSaved) {
             try {
+                index.remove(file);
                 logger.debug("Deleting [{}]; Freed: [{}]; Result [{}]", file.getName(), file.length(), file.delete());
                 deleted++;
             }
@@ -111,4 +155,12 @@ public class DiskCache {
 
         return new int[]{ deleted, couldNotDelete };
     }
+
+    /**
+     * Total bytes used by every preview directory, the count of images and the limit.
+     */
+    public String getStats() {
+        return "Images: " + index.getCount() +
+              "\nBytes: " + index.getTotalBytes() + " / " + index.getMaxBytes();
+    }
 }
@@ -0,0 +1,339 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.subsystem.cameras;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Size bounded, least recently used index of the files in every {@link DiskCache} directory.
+ *
+ * The index lives in memory and is backed by an append only journal of puts and removes which is
+ * periodically rewritten (in access order) to keep it small.  Reads only reorder the in memory
+ * index, the new order is persisted the next time the journal is compacted.  Journal writes and
+ * file deletes happen on the executor.
+ *
+ * Until the journal has been loaded lookups fall back to checking the file system.  The executor
+ * must run tasks one at a time, in order.
+ */
+class DiskCacheIndex {
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheIndex.class);
+    private static final String PUT = "P";
+    private static final String REMOVE = "R";
+    private static final String SEPARATOR = "\t";
+    private static final int MIN_COMPACT_LINES = 200;
+
+    private final File journal;
+    private final long maxBytes;
+    private final Executor executor;
+
+    // Guarded by this
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+    private int journalLines = 0;
+    private boolean loaded = false;
+    private List<String> pendingJournal = new ArrayList<>();
+    private boolean flushScheduled = false;
+
+    // Only touched on the executor
+    private Writer writer;
+
+    DiskCacheIndex(@NonNull File journal, long maxBytes, @NonNull Executor executor) {
+        this.journal = journal;
+        this.maxBytes = maxBytes;
+        this.executor = executor;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * @return the file if it's in the cache, marking it as recently used
+     */
+    @Nullable
+    File get(@NonNull File file) {
+        synchronized (this) {
+            if (loaded) {
+                return entries.get(file.getPath()) != null ? file : null;
+            }
+        }
+
+        return file.exists() ? file : null;
+    }
+
+    synchronized boolean contains(@NonNull File file) {
+        if (loaded) {
+            return entries.containsKey(file.getPath());
+        }
+
+        return file.exists();
+    }
+
+    void put(@NonNull File file, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(file.getPath(), size);
+            if (previous != null) {
+                totalBytes -= previous;
+            }
+            totalBytes += size;
+            journal(PUT + SEPARATOR + size + SEPARATOR + file.getPath());
+
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(file.getPath())) {
+                    break; // Never evict what was just added
+                }
+
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+                journal(REMOVE + SEPARATOR + entry.getKey());
+            }
+        }
+
+        if (!evicted.isEmpty()) {
+            logger.debug("Evicting {} files from the disk cache.", evicted.size());
+            deleteFiles(evicted);
+        }
+    }
+
+    void remove(@NonNull File file) {
+        synchronized (this) {
+            Long size = entries.remove(file.getPath());
+            if (size != null) {
+                totalBytes -= size;
+                journal(REMOVE + SEPARATOR + file.getPath());
+            }
+        }
+    }
+
+    /**
+     * Brings the entries for {@code directory} in line with what's actually in it, this picks up
+     * files written before there was an index and drops entries for files that are gone.
+     */
+    void reconcile(@NonNull final File directory) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File[] files = directory.listFiles();
+                Set<String> present = new HashSet<>();
+                if (files != null) {
+                    for (File file : files) {
+                        if (file.isFile() && !file.getName().endsWith(DiskCache.TEMP_SUFFIX)) {
+                            present.add(file.getPath());
+                        }
+                    }
+                }
+
+                synchronized (DiskCacheIndex.this) {
+                    String prefix = directory.getPath() + File.separator;
+                    Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, Long> entry = iterator.next();
+                        if (entry.getKey().startsWith(prefix) && !present.remove(entry.getKey()) && !new File(entry.getKey()).exists()) {
+                            totalBytes -= entry.getValue();
+                            iterator.remove();
+                            journal(REMOVE + SEPARATOR + entry.getKey());
+                        }
+                    }
+                }
+
+                for (String path : present) {
+                    File file = new File(path);
+                    put(file, file.length());
+                }
+            }
+        });
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int getCount() {
+        return entries.size();
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // Must hold the lock
+    private void journal(String line) {
+        pendingJournal.add(line);
+        journalLines++;
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+
+    private void deleteFiles(final List<String> paths) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (String path : paths) {
+                    new File(path).delete();
+                }
+            }
+        });
+    }
+
+    // Executor only
+    private void load() {
+        Map<String, Long> replayed = new LinkedHashMap<>();
+        int lines = 0;
+        if (journal.isFile()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(journal))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    String[] parts = line.split(SEPARATOR, 3);
+                    if (PUT.equals(parts[0]) && parts.length == 3) {
+                        replayed.remove(parts[2]); // Move to the end (most recent)
+                        replayed.put(parts[2], Long.parseLong(parts[1]));
+                    }
+                    else if (REMOVE.equals(parts[0]) && parts.length == 2) {
+                        replayed.remove(parts[1]);
+                    }
+                }
+            }
+            catch (IOException | NumberFormatException ex) {
+                logger.debug("Unable to read disk cache journal, starting over.", ex);
+            }
+        }
+
+        synchronized (this) {
+            // Anything that happened while loading is more recent than the journal
+            LinkedHashMap<String, Long> current = new LinkedHashMap<>(entries);
+            entries.clear();
+            entries.putAll(replayed);
+            for (Map.Entry<String, Long> entry : current.entrySet()) {
+                entries.remove(entry.getKey());
+                entries.put(entry.getKey(), entry.getValue());
+            }
+
+            totalBytes = 0;
+            for (Long size : entries.values()) {
+                totalBytes += size;
+            }
+            journalLines += lines;
+            loaded = true;
+        }
+    }
+
+    // Executor only
+    private void flush() {
+        List<String> lines;
+        boolean compact;
+        synchronized (this) {
+            flushScheduled = false;
+            lines = pendingJournal;
+            pendingJournal = new ArrayList<>();
+            compact = loaded && journalLines > Math.max(MIN_COMPACT_LINES, entries.size() * 2);
+        }
+
+        if (compact) {
+            compact();
+            return;
+        }
+
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new FileWriter(journal, true));
+            }
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+        catch (IOException ex) {
+            logger.debug("Unable to append to disk cache journal.", ex);
+            closeWriter();
+        }
+    }
+
+    // Executor only
+    private void compact() {
+        List<String> lines;
+        synchronized (this) {
+            lines = new ArrayList<>(entries.size());
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                lines.add(PUT + SEPARATOR + entry.getValue() + SEPARATOR + entry.getKey());
+            }
+            journalLines = lines.size();
+        }
+
+        closeWriter();
+        File temp = new File(journal.getPath() + DiskCache.TEMP_SUFFIX);
+        try (Writer out = new BufferedWriter(new FileWriter(temp))) {
+            for (String line : lines) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        catch (IOException ex) {
+            logger.debug("Unable to compact disk cache journal.", ex);
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(journal)) {
+            temp.delete();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            }
+            catch (IOException ignored) {}
+            writer = null;
+        }
+    }
+}
@@ -23,7 +23,7 @@ import com.google.common.collect.Sets;
 import arcus.cornea.CorneaClientFactory;
 import arcus.cornea.subsystem.BaseSubsystemController;
 import arcus.cornea.subsystem.SubsystemController;
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 import arcus.cornea.subsystem.care.util.ActivityIntervalProcessor;
 import arcus.cornea.subsystem.model.CareHistoryModel;
 import arcus.cornea.utils.Listeners;
@@ -58,7 +58,7 @@ import java.util.concurrent.TimeUnit;
 public class CareActivityController extends BaseSubsystemController<CareActivityController.Callback> {
     public interface Callback {
         void onError(Throwable cause);
-        void activitiesLoaded(List<ActivityLine> activityLines);
+        void activitiesLoaded(ActivityTimeline timeline);
     }
 
     public interface HistoryCallback {
@@ -280,16 +280,16 @@ public class CareActivityController extends BaseSubsystemController<CareActivity
             return;
         }
 
-        callback.activitiesLoaded(Collections.<ActivityLine>emptyList());
+        callback.activitiesLoaded(ActivityTimeline.EMPTY);
     }
 
-    protected void updateView(List<ActivityLine> linesToDraw) {
+    protected void updateView(ActivityTimeline timeline) {
         Callback callback = getCallback();
         if (callback == null) {
             return;
         }
 
-        callback.activitiesLoaded(linesToDraw);
+        callback.activitiesLoaded(timeline);
     }
 
     protected void parseDetailedActivity(CareSubsystem.ListDetailedActivityResponse response) {
@@ -343,16 +343,16 @@ public class CareActivityController extends BaseSubsystemController<CareActivity
             return;
         }
 
-        final List<ActivityLine> linesToDraw = getActivityArrayFor(response, withFillIn);
+        final ActivityTimeline timeline = getActivityTimelineFor(response, withFillIn);
         LooperExecutor.getMainExecutor().execute(new Runnable() {
             @Override
             public void run() {
-                callback.activitiesLoaded(linesToDraw);
+                callback.activitiesLoaded(timeline);
             }
         });
     }
 
-    protected List<ActivityLine> getActivityArrayFor(CareSubsystem.ListActivityResponse response, boolean withFillIn) {
-        return ActivityIntervalProcessor.instance().parseActivityIntervalResponse(response, BUCKET_IN_MILLIS, withFillIn);
+    protected ActivityTimeline getActivityTimelineFor(CareSubsystem.ListActivityResponse response, boolean withFillIn) {
+        return ActivityIntervalProcessor.instance().parseActivityTimeline(response, BUCKET_IN_MILLIS, withFillIn);
     }
 }
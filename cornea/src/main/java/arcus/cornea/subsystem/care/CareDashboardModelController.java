@@ -18,7 +18,7 @@ package arcus.cornea.subsystem.care;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import arcus.cornea.provider.CareBehaviorsProvider;
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
 import arcus.cornea.subsystem.care.model.AlarmState;
 import arcus.cornea.subsystem.care.model.CareBehaviorModel;
 import arcus.cornea.subsystem.model.CareHistoryModel;
@@ -40,7 +40,6 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -158,7 +157,7 @@ public class CareDashboardModelController extends BaseCareController<CareDashboa
         updateView();
     }
 
-    protected void updateView(List<ActivityLine> intervals) {
+    protected void updateView(ActivityTimeline intervals) {
         Callback callback = getCallback();
         if (callback == null) {
             return;
@@ -168,10 +167,10 @@ public class CareDashboardModelController extends BaseCareController<CareDashboa
     }
 
     @Override protected void updateView(Callback callback) {
-        updateView(callback, Collections.<ActivityLine>emptyList());
+        updateView(callback, ActivityTimeline.EMPTY);
     }
 
-    protected void updateView(Callback callback, List<ActivityLine> intervals) {
+    protected void updateView(Callback callback, ActivityTimeline intervals) {
         CareSubsystem careSubsystem = (CareSubsystem) getModel();
         if (careSubsystem == null || Boolean.FALSE.equals(careSubsystem.getAvailable())) {
             callback.showLearnMore();
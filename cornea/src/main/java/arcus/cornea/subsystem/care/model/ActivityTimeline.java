@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.subsystem.care.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The activity lines to draw on a care graph, stored as runs of consecutive buckets rather than a
+ * line per bucket.  A run starts at {@link #getStart(int)} and has a line every
+ * {@link #getBucketSize()} millis for {@link #getCount(int)} buckets, all of them either motion or
+ * contact.
+ *
+ * Runs are in time order (two runs may start at the same time when a contact sensor closed in the
+ * same bucket something else was active) and immutable once built.
+ */
+public final class ActivityTimeline {
+    public static final ActivityTimeline EMPTY = new ActivityTimeline(0, new long[0], new int[0], new boolean[0], 0);
+
+    private final long bucketSize;
+    private final long[] starts;
+    private final int[] counts;
+    private final boolean[] contact;
+    private final int size;
+    private final int lineCount;
+
+    private ActivityTimeline(long bucketSize, long[] starts, int[] counts, boolean[] contact, int size) {
+        this.bucketSize = bucketSize;
+        this.starts = starts;
+        this.counts = counts;
+        this.contact = contact;
+        this.size = size;
+
+        int lines = 0;
+        for (int i = 0; i < size; i++) {
+            lines += counts[i];
+        }
+        this.lineCount = lines;
+    }
+
+    public static Builder builder(long bucketSize) {
+        return new Builder(bucketSize);
+    }
+
+    public long getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * @return the number of runs
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of lines across every run
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public long getStart(int run) {
+        return starts[run];
+    }
+
+    public int getCount(int run) {
+        return counts[run];
+    }
+
+    /**
+     * @return the time of the last line in the run
+     */
+    public long getEnd(int run) {
+        return starts[run] + (counts[run] - 1) * bucketSize;
+    }
+
+    public boolean isContact(int run) {
+        return contact[run];
+    }
+
+    /**
+     * @return the first run with a line at or after {@code time}, or {@link #size()} if there isn't one
+     */
+    public int firstRunEndingAtOrAfter(long time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (getEnd(mid) < time) {
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Expands the runs into a line per bucket.
+     */
+    public @NonNull List<ActivityLine> toLines() {
+        List<ActivityLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < size; i++) {
+            long time = starts[i];
+            for (int j = 0; j < counts[i]; j++, time += bucketSize) {
+                ActivityLine line = new ActivityLine();
+                line.setIsContact(contact[i]);
+                line.setEventTime(time);
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Override public String toString() {
+        return "ActivityTimeline{" +
+              "bucketSize=" + bucketSize +
+              ", runs=" + size +
+              ", lines=" + lineCount +
+              '}';
+    }
+
+    public static class Builder {
+        private final long bucketSize;
+        private long[] starts = new long[16];
+        private int[] counts = new int[16];
+        private boolean[] contact = new boolean[16];
+        private int size = 0;
+
+        Builder(long bucketSize) {
+            this.bucketSize = bucketSize;
+        }
+
+        /**
+         * Adds a line at {@code time}, extending the last run if it's the next bucket of the
+         * same kind.
+         */
+        public Builder add(long time, boolean isContact) {
+            return add(time, 1, isContact);
+        }
+
+        /**
+         * Adds {@code count} lines a bucket apart starting at {@code start}, extending the last run
+         * if they carry on from it.  Lines must be added in time order.
+         */
+        public Builder add(long start, int count, boolean isContact) {
+            if (count <= 0) {
+                return this;
+            }
+
+            int last = size - 1;
+            if (last >= 0 && contact[last] == isContact && starts[last] + counts[last] * bucketSize == start) {
+                counts[last] += count;
+                return this;
+            }
+
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                contact = Arrays.copyOf(contact, capacity);
+            }
+            starts[size] = start;
+            counts[size] = count;
+            contact[size] = isContact;
+            size++;
+            return this;
+        }
+
+        public ActivityTimeline build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new ActivityTimeline(
+                  bucketSize,
+                  Arrays.copyOf(starts, size),
+                  Arrays.copyOf(counts, size),
+                  Arrays.copyOf(contact, size),
+                  size
+            );
+        }
+    }
+}
@@ -15,9 +15,7 @@
  */
 package arcus.cornea.subsystem.care.model;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 public class AlarmState {
     private AlertActor alertActor;
@@ -26,7 +24,7 @@ public class AlarmState {
     private String alarmMode;
     private int totalBehaviors;
     private int activeBehaviors;
-    private List<ActivityLine> events;
+    private ActivityTimeline events;
     private Date lastEvent;
 
     public enum AlertActor {
@@ -61,15 +59,15 @@ public class AlarmState {
         this.activeBehaviors = activeBehaviors;
     }
 
-    public List<ActivityLine> getEvents() {
+    public ActivityTimeline getEvents() {
         if (events == null) {
-            events = new ArrayList<>(1);
+            events = ActivityTimeline.EMPTY;
         }
 
         return events;
     }
 
-    public void setEvents(List<ActivityLine> events) {
+    public void setEvents(ActivityTimeline events) {
         this.events = events;
     }
 
@@ -17,9 +17,11 @@ package arcus.cornea.subsystem.care.util;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import arcus.cornea.CorneaClientFactory;
-import arcus.cornea.subsystem.care.model.ActivityLine;
+import arcus.cornea.subsystem.care.model.ActivityTimeline;
+import com.google.common.base.Predicate;
 import com.iris.client.bean.ActivityInterval;
 import com.iris.client.capability.CareSubsystem;
 import com.iris.client.capability.Motion;
@@ -31,101 +33,116 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ActivityIntervalProcessor {
     private static final Logger logger = LoggerFactory.getLogger(ActivityIntervalProcessor.class);
-    private final Map<String, Boolean> sensorMap = new HashMap<>();
-    private final Set<String> activeDevices = new HashSet<>();
 
-    private final Comparator<ActivityLine> standardComparison = new Comparator<ActivityLine>() {
-        @Override public int compare(ActivityLine lhs, ActivityLine rhs) {
-            return Long.valueOf(lhs.getEventTime()).compareTo(rhs.getEventTime());
+    // A sensor doesn't stop (or start) being a motion sensor, so this is shared by every parse
+    private static final Map<String, Boolean> motionSensors = new ConcurrentHashMap<>();
+    private static final Predicate<String> MODEL_CACHE_LOOKUP = new Predicate<String>() {
+        @Override public boolean apply(String address) {
+            Boolean isMotion = motionSensors.get(address);
+            if (isMotion != null) {
+                return isMotion;
+            }
+
+            Model model = CorneaClientFactory.getModelCache().get(address);
+            if (model == null) {
+                return false; // Not loaded yet, look again next time
+            }
+
+            isMotion = model.getCaps() != null && model.getCaps().contains(Motion.NAMESPACE);
+            motionSensors.put(address, isMotion);
+            return isMotion;
         }
     };
 
+    private static final Comparator<ActivityInterval> START_ORDER = new Comparator<ActivityInterval>() {
+        @Override public int compare(ActivityInterval lhs, ActivityInterval rhs) {
+            long left = lhs.getStart().getTime();
+            long right = rhs.getStart().getTime();
+            return left < right ? -1 : (left == right ? 0 : 1);
+        }
+    };
+
+    private final Predicate<String> isMotion;
+    private final Set<String> activeDevices = new HashSet<>();
+
     public static ActivityIntervalProcessor instance() {
-        return new ActivityIntervalProcessor();
+        return new ActivityIntervalProcessor(MODEL_CACHE_LOOKUP);
     }
 
-    private ActivityIntervalProcessor() {
-        //no instance
+    @VisibleForTesting
+    ActivityIntervalProcessor(@NonNull Predicate<String> isMotion) {
+        this.isMotion = isMotion;
     }
 
-    public @NonNull List<ActivityLine> parseActivityIntervalResponse(
+    public @NonNull ActivityTimeline parseActivityTimeline(
           @NonNull CareSubsystem.ListActivityResponse response,
           long bucketSizeMillis,
           boolean withFillIn
     ) {
-        List<ActivityLine> linesToDraw = new ArrayList<>();
-        List<ActivityInterval> intervals = getIntervals(response);
+        return parseActivityTimeline(getIntervals(response), bucketSizeMillis, withFillIn, System.currentTimeMillis());
+    }
+
+    /**
+     * Builds the timeline in a single pass over the intervals.  Each interval where something is
+     * active starts a run that (when filling in, or when it was motion) carries on a bucket at a
+     * time until the next interval, or {@code endTime} for the last one; a contact sensor closing
+     * with nothing else active is a single line.
+     */
+    @VisibleForTesting
+    @NonNull ActivityTimeline parseActivityTimeline(
+          @NonNull List<ActivityInterval> intervals,
+          long bucketSizeMillis,
+          boolean withFillIn,
+          long endTime
+    ) {
         if (intervals.isEmpty()) {
-            return linesToDraw;
+            return ActivityTimeline.EMPTY;
+        }
+
+        // The platform returns these in order, this just makes sure the runs come out in order
+        if (!isInStartOrder(intervals)) {
+            intervals = new ArrayList<>(intervals);
+            Collections.sort(intervals, START_ORDER);
         }
 
-        long endTime = System.currentTimeMillis();
-        boolean foundMotion;
+        ActivityTimeline.Builder timeline = ActivityTimeline.builder(bucketSizeMillis);
+        long eventTime = intervals.get(0).getStart().getTime();
         for (int i = 0, size = intervals.size(); i < size; i++) {
+            // The next interval's start is where this one's fill in stops.
+            long nextEventTime = (i + 1) < size ? intervals.get(i + 1).getStart().getTime() : endTime;
+
             // Parse through the list of devices and:
             // Look for contact sensors (these win because they have a different line style)
             // Update the current list of active/inactive devices.
-            Map<String, String> devices = intervals.get(i).getDevices();
-            long eventTime = intervals.get(i).getStart().getTime();
-            foundMotion = hasActiveMotionSensor(devices, linesToDraw, eventTime);
-
-            if (activeDevices.isEmpty()) {
-                continue;
-            }
-
-            // Else, We need to draw at least one line.
-            ActivityLine line = new ActivityLine();
-            line.setIsContact(!foundMotion);
-            line.setEventTime(eventTime);
-            linesToDraw.add(line);
-
-            // If all were deactivated in this bucket, we don't need to draw anything further
-            // If we're not supposed to fill in and we haven't found motion, we don't need to draw anything further
-            if (!withFillIn && !foundMotion) {
-                continue;
-            }
-
-            // Now, determine how much we have to fill in.
-            long endTimeOfFillIn = endTime;
-            if ((i + 1) < size) {
-                // If there is another event, we want to stop drawing when we get to that and not the max end time.
-                endTimeOfFillIn = intervals.get(i + 1).getStart().getTime();
+            boolean foundMotion = hasActiveMotionSensor(intervals.get(i).getDevices(), timeline, eventTime);
+            if (!activeDevices.isEmpty()) {
+                // We need to draw at least one line, and if we're filling in (or found motion)
+                // one for every bucket until the next event.
+                int buckets = 1;
+                if (withFillIn || foundMotion) {
+                    buckets = Math.max(1, bucketsBetween(eventTime, nextEventTime, bucketSizeMillis));
+                }
+                timeline.add(eventTime, buckets, !foundMotion);
             }
 
-            // Continue to add "lines we need to draw" until we've reached the next event
-            // Or the end of the time range - whatever was set above.
-            for (eventTime = eventTime + bucketSizeMillis; eventTime < endTimeOfFillIn; eventTime += bucketSizeMillis) {
-                line = new ActivityLine();
-                line.setIsContact(!foundMotion); // Let these take precedent so the dashed line gets drawn if desired.
-                line.setEventTime(eventTime);
-                linesToDraw.add(line);
-            }
+            eventTime = nextEventTime;
         }
 
-        logger.debug("Processed {} intervals for a total of {} line(s)", intervals.size(), linesToDraw.size());
-        Collections.sort(linesToDraw, standardComparison);
-
-        return linesToDraw;
+        ActivityTimeline built = timeline.build();
+        logger.debug("Processed {} intervals for a total of {} line(s) in {} run(s)", intervals.size(), built.getLineCount(), built.size());
+        return built;
     }
 
     protected boolean isMotionDevice(String key) {
-        Boolean isMotion = sensorMap.get(key);
-
-        if (isMotion == null) {
-            Model model  = CorneaClientFactory.getModelCache().get(key);
-            isMotion = model != null && model.getCaps().contains(Motion.NAMESPACE);
-            sensorMap.put(key, isMotion);
-        }
-
-        return isMotion;
+        return isMotion.apply(key);
     }
 
     /**
@@ -149,7 +166,7 @@ public class ActivityIntervalProcessor {
             }
         }
 
-        return activityIntervals; // Should these be sorted when the client gets?
+        return activityIntervals;
     }
 
     /**
@@ -158,7 +175,7 @@ public class ActivityIntervalProcessor {
      */
     protected boolean hasActiveMotionSensor(
           Map<String, String> deviceMap,
-          List<ActivityLine> linesToDraw,
+          ActivityTimeline.Builder timeline,
           long eventTime
     ) {
         if (deviceMap == null || deviceMap.isEmpty()) {
@@ -167,8 +184,9 @@ public class ActivityIntervalProcessor {
 
         boolean deactivatedContact = false;
         boolean foundMotion = false;
-        for (String key : deviceMap.keySet()) {
-            if (ActivityInterval.DEVICES_ACTIVATED.equals(deviceMap.get(key))) {
+        for (Map.Entry<String, String> device : deviceMap.entrySet()) {
+            String key = device.getKey();
+            if (ActivityInterval.DEVICES_ACTIVATED.equals(device.getValue())) {
                 if (!foundMotion) {
                     foundMotion = isMotionDevice(key);
                 }
@@ -184,11 +202,28 @@ public class ActivityIntervalProcessor {
 
         // If we've found motion, we're going to continue to draw anyhow, so don't double draw
         if (!foundMotion && deactivatedContact) {
-            ActivityLine line = new ActivityLine();
-            line.setIsContact(true);
-            line.setEventTime(eventTime);
-            linesToDraw.add(line);
+            timeline.add(eventTime, true);
         }
         return foundMotion;
     }
+
+    private static boolean isInStartOrder(List<ActivityInterval> intervals) {
+        long previous = Long.MIN_VALUE;
+        for (int i = 0, size = intervals.size(); i < size; i++) {
+            long start = intervals.get(i).getStart().getTime();
+            if (start < previous) {
+                return false;
+            }
+            previous = start;
+        }
+        return true;
+    }
+
+    // The number of buckets starting at from, from + bucket, ... that start before to
+    private static int bucketsBetween(long from, long to, long bucketSizeMillis) {
+        if (to <= from || bucketSizeMillis <= 0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (to - from + bucketSizeMillis - 1) / bucketSizeMillis);
+    }
 }
@@ -73,7 +73,7 @@ public class ClimateDashboardCardController extends BaseClimateController<Climat
             updateView();
         }
     });
-    private Listener<ModelEvent> modelListeners = Listeners.runOnUiThread(new Listener<ModelEvent>() {
+    private Listener<ModelEvent> modelListeners = Listeners.coalesceOnUiThread(new Listener<ModelEvent>() {
         @Override
         public void onEvent(ModelEvent modelEvent) {
             if (modelEvent instanceof ModelChangedEvent) {
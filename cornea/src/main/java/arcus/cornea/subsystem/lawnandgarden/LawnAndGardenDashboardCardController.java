@@ -69,7 +69,7 @@ public class LawnAndGardenDashboardCardController extends BaseLawnAndGardenContr
             updateView();
         }
     });
-    private Listener<ModelEvent> modelListeners = Listeners.runOnUiThread(new Listener<ModelEvent>() {
+    private Listener<ModelEvent> modelListeners = Listeners.coalesceOnUiThread(new Listener<ModelEvent>() {
         @Override
         public void onEvent(ModelEvent modelEvent) {
             if (modelEvent instanceof ModelChangedEvent) {
@@ -27,6 +27,7 @@ import arcus.cornea.subsystem.BaseSubsystemController;
 import arcus.cornea.subsystem.SubsystemController;
 import arcus.cornea.subsystem.lightsnswitches.model.LightsNSwitchesDevice;
 import arcus.cornea.utils.AddressableListSource;
+import arcus.cornea.utils.CapabilityIndex;
 import arcus.cornea.utils.Listeners;
 import arcus.cornea.utils.LooperExecutor;
 import arcus.cornea.utils.ModelSource;
@@ -50,7 +51,6 @@ import com.iris.client.model.ModelEvent;
 import com.iris.client.model.SubsystemModel;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -146,11 +146,10 @@ public class LightsNSwitchesDevListController extends BaseSubsystemController<Li
             device.setAddress(deviceModel.getAddress());
             device.setDeviceType(getType(deviceModel));
 
-            Collection<String> caps = deviceModel.getCaps() == null ? Collections.<String>emptySet() : deviceModel.getCaps();
-            device.setDimmable(caps.contains(Dimmer.NAMESPACE));
-            device.setColorChangeable(caps.contains(Color.NAMESPACE));
-            device.setColorTempChangeable(caps.contains(ColorTemperature.NAMESPACE));
-            device.setSwitchable(caps.contains(Switch.NAMESPACE));
+            device.setDimmable(CapabilityIndex.supports(deviceModel, Dimmer.class));
+            device.setColorChangeable(CapabilityIndex.supports(deviceModel, Color.class));
+            device.setColorTempChangeable(CapabilityIndex.supports(deviceModel, ColorTemperature.class));
+            device.setSwitchable(CapabilityIndex.supports(deviceModel, Switch.class));
             device.setIsOffline(DeviceConnection.STATE_OFFLINE.equals(deviceModel.get(DeviceConnection.ATTR_STATE)));
 
             Number dim = (Number) deviceModel.get(Dimmer.ATTR_BRIGHTNESS);
@@ -300,19 +299,19 @@ public class LightsNSwitchesDevListController extends BaseSubsystemController<Li
     }
 
     private boolean isSwitch(DeviceModel d) {
-        return d.getCaps().contains(Switch.NAMESPACE);
+        return CapabilityIndex.supports(d, Switch.class);
     }
 
     private boolean isDimmer(DeviceModel d) {
-        return d.getCaps().contains(Dimmer.NAMESPACE);
+        return CapabilityIndex.supports(d, Dimmer.class);
     }
 
     private boolean isLightBulb(DeviceModel d) {
-        return d.getCaps().contains(Light.NAMESPACE);
+        return CapabilityIndex.supports(d, Light.class);
     }
 
     private boolean isHalo(DeviceModel d) {
-        return d.getCaps().contains(Halo.NAMESPACE);
+        return CapabilityIndex.supports(d, Halo.class);
     }
 
     private LightsNSwitchesDevice.Type getType(DeviceModel d) {
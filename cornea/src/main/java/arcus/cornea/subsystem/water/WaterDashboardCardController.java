@@ -71,7 +71,7 @@ public class WaterDashboardCardController extends BaseWaterController<WaterDashb
             updateView();
         }
     });
-    private Listener<ModelEvent> modelListeners = Listeners.runOnUiThread(new Listener<ModelEvent>() {
+    private Listener<ModelEvent> modelListeners = Listeners.coalesceOnUiThread(new Listener<ModelEvent>() {
         @Override
         public void onEvent(ModelEvent modelEvent) {
             if (modelEvent instanceof ModelChangedEvent) {
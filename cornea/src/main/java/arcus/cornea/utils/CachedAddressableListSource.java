@@ -19,6 +19,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import arcus.cornea.CorneaClientFactory;
 import com.iris.client.event.ClientFuture;
 import com.iris.client.event.Listener;
@@ -38,7 +39,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class CachedAddressableListSource<M extends Model> extends BaseCachedSource<List<M>> implements AddressableListSource<M> {
     private static final Logger logger = LoggerFactory.getLogger(CachedModelSource.class);
@@ -71,28 +76,43 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
     private Predicate<ModelEvent> filter = new Predicate<ModelEvent>() {
         @Override
         public boolean apply(ModelEvent input) {
-            return addresses.contains(input.getModel().getAddress());
+            return order.containsKey(input.getModel().getAddress());
         }
     };
+    private final Comparator<M> byAddressOrder = new Comparator<M>() {
+        @Override
+        public int compare(M lhs, M rhs) {
+            return order.get(lhs.getAddress()) - order.get(rhs.getAddress());
+        }
+    };
+
+    // the index only holds a weak reference, this keeps the listener alive as long as the source is
+    private final Listener<ModelEvent> cacheListener = new Listener<ModelEvent>() {
+        @Override
+        public void onEvent(ModelEvent event) {
+            if(event instanceof ModelAddedEvent) {
+                onAdded(event);
+            }
+            if(event instanceof ModelDeletedEvent) {
+                onRemoved(event);
+            }
+            modelListeners.fireEvent(event);
+        }
+    };
+    private ListenerRegistration registration = Listeners.empty();
 
     private List<String> addresses = ImmutableList.of();
+    // address -> index in addresses, used for filtering and sorting
+    private Map<String, Integer> order = ImmutableMap.of();
+    // address -> slot in the currently loaded list
+    private Map<String, Integer> positions = new HashMap<>();
 
     CachedAddressableListSource(Collection<String> addresses, Supplier<ClientFuture<List<M>>> supplier, ModelCache cache) {
         this.addresses = addresses != null ? ImmutableList.copyOf(addresses) : ImmutableList.<String>of();
+        this.order = indexOf(this.addresses);
         this.supplier = supplier;
         this.cache = cache;
-        this.cache.addModelListener(Listeners.filter(filter, new Listener<ModelEvent>() {
-            @Override
-            public void onEvent(ModelEvent event) {
-                if(event instanceof ModelAddedEvent) {
-                    onAdded(event);
-                }
-                if(event instanceof ModelDeletedEvent) {
-                    onRemoved(event);
-                }
-                modelListeners.fireEvent(event);
-            }
-        }));
+        this.registration = ModelEventIndex.get(cache).subscribe(this.addresses, cacheListener);
     }
 
     protected void onAdded(ModelEvent event) {
@@ -101,15 +121,21 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
             return;
         }
 
-        List<M> models = get();
+        M model = (M) event.getModel();
+        if(positions.containsKey(model.getAddress())) {
+            return;
+        }
 
+        List<M> models = get();
         List<M> copy = models == null ? new ArrayList<M>() : new ArrayList<M>(models.size() + 1);
         if(models != null) {
             copy.addAll(models);
         }
-        if(copy.add((M) event.getModel())) {
-            set(copy);
-        }
+
+        // the list is kept in address order so a binary search gives the insertion point
+        int position = -(Collections.binarySearch(copy, model, byAddressOrder) + 1);
+        copy.add(position, model);
+        publish(copy);
     }
 
     protected void onRemoved(ModelEvent event) {
@@ -118,15 +144,15 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
             return;
         }
 
+        Integer position = positions.get(event.getModel().getAddress());
         List<M> models = get();
-
-        List<M> copy = models == null ? new ArrayList<M>() : new ArrayList<M>(models.size() + 1);
-        if(models != null) {
-            copy.addAll(models);
-        }
-        if(copy.remove(event.getModel())) {
-            set(copy);
+        if(position == null || models == null) {
+            return;
         }
+
+        List<M> copy = new ArrayList<M>(models);
+        copy.remove(position.intValue());
+        publish(copy);
     }
 
     @Override
@@ -140,19 +166,24 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
         // this -> BaseCachedSource::set(all entities for the place)
         // BaseCacheSource -> this::onLoaded(all entities for the place)
         // this -> listeners(all entities for the place instead of filtered)
-        List<M> filtered = new ArrayList<>();
+        List<M> filtered = new ArrayList<>(Math.min(value.size(), addresses.size()));
+        Set<String> seen = new HashSet<>();
         for(M m : value) {
-            if(addresses.contains(m.getAddress())) {
+            if(order.containsKey(m.getAddress()) && seen.add(m.getAddress())) {
                 filtered.add(m);
             }
         }
-        Collections.sort(filtered, new Comparator<M>() {
-            @Override
-            public int compare(M lhs, M rhs) {
-                return addresses.indexOf(lhs.getAddress()) - addresses.indexOf(rhs.getAddress());
-            }
-        });
-        super.set(filtered);
+        Collections.sort(filtered, byAddressOrder);
+        publish(filtered);
+    }
+
+    private void publish(List<M> models) {
+        Map<String, Integer> positions = new HashMap<>(models.size() * 2);
+        for(int i = 0; i < models.size(); i++) {
+            positions.put(models.get(i).getAddress(), i);
+        }
+        this.positions = positions;
+        super.set(models);
     }
 
     @Override
@@ -160,6 +191,12 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
         listListeners.fireEvent(value);
     }
 
+    @Override
+    protected void clear(boolean suppressEvent) {
+        super.clear(suppressEvent);
+        positions = new HashMap<>();
+    }
+
     @Override
     protected void onCleared() {
         fireRemovedAll(modelListeners);
@@ -176,6 +213,9 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
         this.addresses = addresses == null || addresses.isEmpty() ?
                 ImmutableList.<String>of() :
                 new ArrayList<>(addresses);
+        this.order = indexOf(this.addresses);
+        this.registration = Listeners.clear(this.registration);
+        this.registration = ModelEventIndex.get(cache).subscribe(this.addresses, cacheListener);
         load();
     }
 
@@ -264,4 +304,13 @@ public class CachedAddressableListSource<M extends Model> extends BaseCachedSour
         }
     }
 
+    private static Map<String, Integer> indexOf(List<String> addresses) {
+        Map<String, Integer> order = new HashMap<>(addresses.size() * 2);
+        for(int i = 0; i < addresses.size(); i++) {
+            if(!order.containsKey(addresses.get(i))) {
+                order.put(addresses.get(i), i);
+            }
+        }
+        return order;
+    }
 }
@@ -19,7 +19,6 @@ import android.text.TextUtils;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import arcus.cornea.CorneaClientFactory;
 import com.iris.client.ClientEvent;
 import com.iris.client.ClientRequest;
@@ -59,6 +58,7 @@ public class CachedModelSource<M extends Model> extends BaseCachedSource<M> impl
     private ModelCache cache;
 
     private String address;
+    private ListenerRegistration registration = Listeners.empty();
     private ClientFuture<M> request = null;
     private int timeoutMs = 30000;
 
@@ -66,13 +66,7 @@ public class CachedModelSource<M extends Model> extends BaseCachedSource<M> impl
         this.address = address;
         this.client = client;
         this.cache = cache;
-        Predicate<ModelEvent> filter = new Predicate<ModelEvent>() {
-            @Override
-            public boolean apply(ModelEvent input) {
-                return CachedModelSource.this.address.equals(input.getModel().getAddress());
-            }
-        };
-        this.cache.addModelListener(Listeners.filter(filter, this));
+        this.registration = ModelEventIndex.get(cache).subscribe(address, this);
     }
 
     @Override
@@ -88,6 +82,8 @@ public class CachedModelSource<M extends Model> extends BaseCachedSource<M> impl
 
         clear();
         this.address = address;
+        this.registration = Listeners.clear(this.registration);
+        this.registration = ModelEventIndex.get(cache).subscribe(address, this);
         load();
     }
 
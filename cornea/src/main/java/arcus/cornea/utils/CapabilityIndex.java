@@ -0,0 +1,320 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.iris.client.IrisClient;
+import com.iris.client.capability.Capability;
+import com.iris.client.event.Listener;
+import com.iris.client.event.ListenerRegistration;
+import com.iris.client.model.Model;
+import com.iris.client.model.ModelCache;
+import com.iris.client.model.ModelDeletedEvent;
+import com.iris.client.model.ModelEvent;
+import com.iris.client.session.SessionActivePlaceSetEvent;
+import com.iris.client.session.SessionEvent;
+import com.iris.client.session.SessionExpiredEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers "does this model support that capability" from a bitset per model instead of searching
+ * {@link Model#getCaps()}, reflecting on the capability class or catching a ClassCastException.
+ *
+ * Every namespace seen is given a small id (namespaces are interned, the same string always gets
+ * the same id).  A model's caps and instances are turned into bitsets over those ids the first time
+ * it's asked about and again only after its {@link Capability#ATTR_CAPS} or
+ * {@link Capability#ATTR_INSTANCES} change, or when a different model object shows up for the same
+ * address (a reload).  The namespace of a capability class is looked up once per class.
+ *
+ * Entries are kept per address and only hold the model weakly.  Once {@link #bind(IrisClient, ModelCache)}
+ * has been called an entry is dropped, and stops listening to its model, when the model is deleted,
+ * and every entry is dropped when the session expires or another place is selected.
+ */
+public final class CapabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CapabilityIndex.class);
+    private static final String NAMESPACE = "NAMESPACE";
+    private static final int NO_NAMESPACE = -1;
+    private static final long[] NO_BITS = new long[0];
+
+    private static final ConcurrentMap<String, Integer> namespaceIds = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextNamespaceId = new AtomicInteger();
+    private static final ConcurrentMap<Class<?>, Integer> classIds = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private CapabilityIndex() {
+        //no instance
+    }
+
+    /**
+     * Drops entries as models are deleted, and all of them when {@code client}'s session expires or
+     * another place is selected.
+     */
+    public static void bind(@NonNull IrisClient client, @NonNull ModelCache cache) {
+        client.addSessionListener(new Listener<SessionEvent>() {
+            @Override
+            public void onEvent(SessionEvent event) {
+                if (event instanceof SessionExpiredEvent || event instanceof SessionActivePlaceSetEvent) {
+                    clear();
+                }
+            }
+        });
+        cache.addModelListener(new Listener<ModelEvent>() {
+            @Override
+            public void onEvent(ModelEvent event) {
+                if (event instanceof ModelDeletedEvent) {
+                    remove(event.getModel().getAddress());
+                }
+            }
+        });
+    }
+
+    /**
+     * Forgets the model at {@code address}, it's read again the next time it's asked about.
+     */
+    public static void remove(@Nullable String address) {
+        if (address == null) {
+            return;
+        }
+
+        Entry entry = entries.remove(address);
+        if (entry != null) {
+            entry.release();
+        }
+    }
+
+    /**
+     * Forgets every model.
+     */
+    public static void clear() {
+        for (String address : entries.keySet()) {
+            remove(address);
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code model}'s caps include {@code capability}'s namespace
+     */
+    public static boolean supports(@Nullable Model model, @NonNull Class<? extends Capability> capability) {
+        return model != null && contains(capsOf(model), idOf(capability));
+    }
+
+    /**
+     * @return {@code true} if {@code model}'s caps include {@code namespace}
+     */
+    public static boolean supports(@Nullable Model model, @NonNull String namespace) {
+        return model != null && contains(capsOf(model), namespaceId(namespace));
+    }
+
+    /**
+     * @return {@code true} if {@code model} has an instance named {@code instance} that supports
+     * {@code capability}
+     */
+    public static boolean instanceSupports(
+          @Nullable Model model,
+          @Nullable String instance,
+          @NonNull Class<? extends Capability> capability
+    ) {
+        if (model == null || instance == null) {
+            return false;
+        }
+
+        long[] bits = entryFor(model).instances.get(instance);
+        return bits != null && contains(bits, idOf(capability));
+    }
+
+    /**
+     * The interned id of {@code namespace}, ids are small and start at 0.
+     */
+    public static int namespaceId(@NonNull String namespace) {
+        Integer id = namespaceIds.get(namespace);
+        if (id != null) {
+            return id;
+        }
+
+        Integer created = nextNamespaceId.getAndIncrement();
+        id = namespaceIds.putIfAbsent(namespace, created);
+        return id == null ? created : id;
+    }
+
+    /**
+     * @return the capability's {@code NAMESPACE} constant, or {@code null} if it doesn't have one
+     */
+    public static @Nullable String namespaceOf(@NonNull Class<? extends Capability> capability) {
+        try {
+            return String.valueOf(capability.getField(NAMESPACE).get(null));
+        }
+        catch (Exception ex) {
+            logger.debug("No namespace for capability: [{}]", capability.getSimpleName(), ex);
+            return null;
+        }
+    }
+
+    private static int idOf(Class<? extends Capability> capability) {
+        Integer id = classIds.get(capability);
+        if (id == null) {
+            String namespace = namespaceOf(capability);
+            id = namespace == null ? NO_NAMESPACE : namespaceId(namespace);
+            classIds.put(capability, id);
+        }
+        return id;
+    }
+
+    private static long[] capsOf(Model model) {
+        return entryFor(model).caps;
+    }
+
+    private static Entry entryFor(Model model) {
+        String address = model.getAddress();
+        if (address == null) {
+            // Nothing to key it by, answer from the model as it is now
+            Entry entry = new Entry();
+            entry.read(model);
+            return entry;
+        }
+
+        Entry entry = entries.get(address);
+        if (entry == null) {
+            Entry created = new Entry();
+            entry = entries.putIfAbsent(address, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+
+        if (entry.isStaleFor(model)) {
+            entry.rebuild(model);
+        }
+        return entry;
+    }
+
+    private static boolean contains(long[] bits, int id) {
+        if (id < 0) {
+            return false;
+        }
+
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    private static long[] bitsOf(@Nullable Collection<String> namespaces) {
+        if (namespaces == null || namespaces.isEmpty()) {
+            return NO_BITS;
+        }
+
+        long[] bits = NO_BITS;
+        for (String namespace : namespaces) {
+            if (namespace == null) {
+                continue;
+            }
+
+            int id = namespaceId(namespace);
+            int word = id >>> 6;
+            if (word >= bits.length) {
+                long[] grown = new long[word + 1];
+                System.arraycopy(bits, 0, grown, 0, bits.length);
+                bits = grown;
+            }
+            bits[word] |= 1L << id;
+        }
+        return bits;
+    }
+
+    private static final class Entry implements PropertyChangeListener {
+        private final AtomicInteger changes = new AtomicInteger();
+        // Written after caps and instances, a reader that sees them current sees the bits too
+        private volatile WeakReference<Model> model = new WeakReference<>(null);
+        private volatile int builtAt = -1;
+        private volatile long[] caps = NO_BITS;
+        private volatile Map<String, long[]> instances = Collections.emptyMap();
+
+        // guarded by this
+        private WeakReference<Model> listeningTo = new WeakReference<>(null);
+        private ListenerRegistration registration;
+        private boolean released = false;
+
+        boolean isStaleFor(Model current) {
+            return builtAt != changes.get() || model.get() != current;
+        }
+
+        synchronized void rebuild(Model current) {
+            if (!isStaleFor(current)) {
+                return;
+            }
+            if (released) {
+                // Dropped from the index while being asked about, answer without listening again
+                read(current);
+                return;
+            }
+
+            if (listeningTo.get() != current) {
+                registration = Listeners.clear(registration);
+                registration = current.addPropertyChangeListener(this);
+                listeningTo = new WeakReference<>(current);
+            }
+
+            // Noted before reading, a change that lands while reading leaves it stale
+            int seen = changes.get();
+            read(current);
+            builtAt = seen;
+            model = listeningTo;
+        }
+
+        synchronized void release() {
+            released = true;
+            registration = Listeners.clear(registration);
+            listeningTo = new WeakReference<>(null);
+        }
+
+        void read(Model current) {
+            caps = bitsOf(current.getCaps());
+
+            Map<String, Collection<String>> modelInstances = current.getInstances();
+            if (modelInstances == null || modelInstances.isEmpty()) {
+                instances = Collections.emptyMap();
+            }
+            else {
+                Map<String, long[]> bits = new HashMap<>(modelInstances.size() * 4 / 3 + 1);
+                for (Map.Entry<String, Collection<String>> instance : modelInstances.entrySet()) {
+                    bits.put(instance.getKey(), bitsOf(instance.getValue()));
+                }
+                instances = bits;
+            }
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent event) {
+            String name = event.getPropertyName();
+            if (Capability.ATTR_CAPS.equals(name) || Capability.ATTR_INSTANCES.equals(name)) {
+                changes.incrementAndGet();
+            }
+        }
+    }
+}
@@ -43,7 +43,6 @@ import java.util.Set;
 public class CapabilityUtils {
     private static final Logger logger = LoggerFactory.getLogger(CapabilityUtils.class);
     private static final AndroidCapabilityRegistry CAPABILITY_REGISTRY = new AndroidCapabilityRegistry();
-    private static final String NAMESPACE = "NAMESPACE";
     private final Model model;
 
     public <T extends Model> CapabilityUtils(@NonNull T model) {
@@ -110,16 +109,7 @@ public class CapabilityUtils {
      * @return true if the Capability is supported, false if it's not or an error occurred while trying to getSecuritySubsystem the capability NAMESPACE
      */
     public <T extends Capability> boolean instanceSupports(String instanceName, Class<T> cap) {
-        if (getInstanceNames().contains(instanceName)) {
-            try {
-                return getInstanceNamespaces(instanceName).contains(String.valueOf(cap.getField(NAMESPACE).get(null)));
-            }
-            catch (Exception ex) {
-                logger.debug("Caught exception trying to getSecuritySubsystem namespace for capability: [{}]", cap.getSimpleName(), ex);
-            }
-        }
-
-        return false;
+        return CapabilityIndex.instanceSupports(model, instanceName, cap);
     }
 
     /**
@@ -0,0 +1,324 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.iris.client.event.Listener;
+import com.iris.client.model.Model;
+import com.iris.client.model.ModelChangedEvent;
+import com.iris.client.model.ModelEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers events to listeners on an executor (normally the main thread) in batches rather than a
+ * task per event.
+ *
+ * Events queued while a batch is waiting to run join that batch, so a burst that arrives before the
+ * main thread gets to it (hub reconnect, place load) costs one message.  Within a batch each listener
+ * gets its events in the order they arrived, except that a {@link ModelChangedEvent} for a model
+ * that already has a change waiting is merged into it: the listener sees a single change event with
+ * the union of the changed attributes (later values win).  A change is never merged across an added
+ * or deleted event for the same model.
+ *
+ * Listeners see the merged event at the position of the first change, which is fine for the usual
+ * "something changed, refresh the view" handler since the model itself already has the latest
+ * values.  Listeners that need every intermediate value should keep using
+ * {@link Listeners#runOnExecutor(Listener, Executor)}.
+ */
+public final class CoalescingDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingDispatcher.class);
+
+    private final Executor executor;
+    private final Object lock = new Object();
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    // guarded by lock
+    private List<Target<?>> dirty = new ArrayList<>();
+    private boolean scheduled = false;
+    private long scheduledAtNanos;
+    private int queueDepth = 0;
+    private int maxQueueDepth = 0;
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public CoalescingDispatcher(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Dispatches on {@link LooperExecutor#getMainExecutor()}, looked up per batch so tests that
+     * replace the main executor are picked up.
+     */
+    public static CoalescingDispatcher getMainDispatcher() {
+        return MainDispatcherRef.INSTANCE;
+    }
+
+    private static class MainDispatcherRef {
+        private static final CoalescingDispatcher INSTANCE = new CoalescingDispatcher(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                LooperExecutor.getMainExecutor().execute(command);
+            }
+        });
+    }
+
+    /**
+     * Wraps {@code delegate} so the events it receives are queued and delivered with the next batch.
+     * Each call creates a separate target, wrap a listener once and keep the result.
+     */
+    public <E> Listener<E> wrap(@NonNull Listener<? super E> delegate) {
+        return new Target<>(delegate);
+    }
+
+    /**
+     * @return the number of events waiting to be delivered, after merging
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queueDepth;
+        }
+    }
+
+    public int getMaxQueueDepth() {
+        synchronized (lock) {
+            return maxQueueDepth;
+        }
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return the average time between a batch being scheduled and it starting to run
+     */
+    public long getAverageLatencyMs() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / batches);
+    }
+
+    public long getMaxLatencyMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    public String getStats() {
+        return "Received: " + receivedCount.get() +
+              "\nMerged: " + mergedCount.get() +
+              "\nDelivered: " + deliveredCount.get() +
+              "\nBatches: " + batchCount.get() +
+              "\nQueued: " + getQueueDepth() + " (max " + getMaxQueueDepth() + ")" +
+              "\nLatency: " + getAverageLatencyMs() + "ms (max " + getMaxLatencyMs() + "ms)";
+    }
+
+    private void enqueue(Target<?> target, Object event) {
+        receivedCount.incrementAndGet();
+
+        boolean schedule = false;
+        synchronized (lock) {
+            if (target.add(event)) {
+                mergedCount.incrementAndGet();
+            }
+            else {
+                queueDepth++;
+                if (queueDepth > maxQueueDepth) {
+                    maxQueueDepth = queueDepth;
+                }
+            }
+
+            if (!target.queued) {
+                target.queued = true;
+                dirty.add(target);
+            }
+            if (!scheduled) {
+                scheduled = true;
+                scheduledAtNanos = System.nanoTime();
+                schedule = true;
+            }
+        }
+
+        // outside the lock, the executor may run the batch inline when already on its thread
+        if (schedule) {
+            executor.execute(drain);
+        }
+    }
+
+    private void drain() {
+        // Fresh lists per batch rather than swapped buffers, a listener can queue another event from
+        // inside onEvent and on the main thread that batch runs before this one returns.
+        List<Target<?>> targets;
+        List<List<Pending>> batches;
+        synchronized (lock) {
+            targets = dirty;
+            dirty = new ArrayList<>();
+            scheduled = false;
+            recordLatency(System.nanoTime() - scheduledAtNanos);
+
+            batches = new ArrayList<>(targets.size());
+            for (Target<?> target : targets) {
+                List<Pending> batch = target.takePending();
+                queueDepth -= batch.size();
+                batches.add(batch);
+            }
+        }
+
+        for (int i = 0, size = targets.size(); i < size; i++) {
+            targets.get(i).deliver(batches.get(i));
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        batchCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        if (latencyNanos > maxLatencyNanos.get()) {
+            maxLatencyNanos.set(latencyNanos);
+        }
+    }
+
+    /**
+     * An event waiting to be delivered.  Once a second change for the same model is merged in
+     * {@code changes} holds the union and the event is rebuilt when it's delivered.
+     */
+    private static final class Pending {
+        Object event;
+        @Nullable Map<String, Object> changes;
+
+        Pending(Object event) {
+            this.event = event;
+        }
+
+        void merge(ModelChangedEvent next) {
+            if (changes == null) {
+                changes = new LinkedHashMap<>(((ModelChangedEvent) event).getChangedAttributes());
+            }
+            changes.putAll(next.getChangedAttributes());
+            event = next;
+        }
+
+        Object toEvent() {
+            if (changes == null) {
+                return event;
+            }
+            return new ModelChangedEvent(((ModelChangedEvent) event).getModel(), changes);
+        }
+    }
+
+    private final class Target<E> implements Listener<E> {
+        private final Listener<? super E> delegate;
+
+        // guarded by lock
+        private boolean queued = false;
+        private List<Pending> pending = new ArrayList<>();
+        // address -> the latest event queued for that model
+        private final Map<String, Pending> lastByAddress = new HashMap<>();
+
+        Target(Listener<? super E> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onEvent(E event) {
+            enqueue(this, event);
+        }
+
+        /**
+         * @return {@code true} if the event was merged into one already waiting
+         */
+        boolean add(Object event) {
+            String address = addressOf(event);
+            if (address == null) {
+                pending.add(new Pending(event));
+                return false;
+            }
+
+            Pending last = lastByAddress.get(address);
+            if (last != null && event instanceof ModelChangedEvent && last.event instanceof ModelChangedEvent) {
+                last.merge((ModelChangedEvent) event);
+                return true;
+            }
+
+            Pending next = new Pending(event);
+            pending.add(next);
+            lastByAddress.put(address, next);
+            return false;
+        }
+
+        List<Pending> takePending() {
+            List<Pending> taken = pending;
+            pending = new ArrayList<>();
+            lastByAddress.clear();
+            queued = false;
+            return taken;
+        }
+
+        @SuppressWarnings("unchecked")
+        void deliver(List<Pending> batch) {
+            for (Pending next : batch) {
+                Object event = next.toEvent();
+                deliveredCount.incrementAndGet();
+                try {
+                    delegate.onEvent((E) event);
+                }
+                catch (Exception ex) {
+                    logger.warn("Error dispatching event: " + event, ex);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static String addressOf(Object event) {
+        if (!(event instanceof ModelEvent)) {
+            return null;
+        }
+        Model model = ((ModelEvent) event).getModel();
+        return model == null ? null : model.getAddress();
+    }
+}
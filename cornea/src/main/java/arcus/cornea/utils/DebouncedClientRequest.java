@@ -17,6 +17,7 @@ package arcus.cornea.utils;
 
 import androidx.annotation.NonNull;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.iris.client.ClientEvent;
 import com.iris.client.ClientRequest;
@@ -25,9 +26,9 @@ import com.iris.client.event.ClientFuture;
 import com.iris.client.event.Listener;
 import com.iris.client.util.Result;
 
-import java.util.TimerTask;
+import java.util.Map;
 
-public class DebouncedClientRequest extends TimerTask {
+public class DebouncedClientRequest implements Runnable {
     private final IrisClient irisClient;
     private final ClientRequest request;
     private Listener<Throwable> onError;
@@ -50,6 +51,26 @@ public class DebouncedClientRequest extends TimerTask {
         this.onSuccess = onSuccess;
     }
 
+    /**
+     * Carries over attributes from an earlier request to the same address that hasn't been sent
+     * yet, values already set on this request win.
+     */
+    void mergeEarlier(@NonNull DebouncedClientRequest earlier) {
+        ClientRequest previous = earlier.request;
+        if (previous == request
+              || !Objects.equal(previous.getAddress(), request.getAddress())
+              || !Objects.equal(previous.getCommand(), request.getCommand())) {
+            return;
+        }
+
+        Map<String, Object> attributes = request.getAttributes();
+        for (Map.Entry<String, Object> attribute : previous.getAttributes().entrySet()) {
+            if (!attributes.containsKey(attribute.getKey())) {
+                request.setAttribute(attribute.getKey(), attribute.getValue());
+            }
+        }
+    }
+
     @Override
     public void run() {
         ClientFuture<ClientEvent> requestFuture = irisClient.request(request);
@@ -21,9 +21,7 @@ import com.iris.client.event.Listener;
 import com.iris.client.model.DeviceModel;
 import com.iris.client.util.Result;
 
-import java.util.TimerTask;
-
-public class DebouncedRequest extends TimerTask {
+public class DebouncedRequest implements Runnable {
     private DeviceModel model;
     private Listener<Throwable> onError;
     private Listener<ClientEvent> onSuccess;
@@ -15,41 +15,45 @@
  */
 package arcus.cornea.utils;
 
-import com.google.common.base.Strings;
-
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
+import androidx.annotation.NonNull;
 
+/**
+ * Runs the last task scheduled for an identifier once no others have been scheduled for the
+ * debounce delay.
+ *
+ * Tasks run on the shared {@link DebouncingScheduler} thread rather than a thread per instance.
+ * Consecutive {@link DebouncedClientRequest}s for the same identifier are merged, so attributes
+ * written in quick succession on one device go out in a single request.
+ */
 public class DebouncedRequestScheduler {
-    private final long debounceDelayMilliSeconds;
-    private final Timer timer;
-    private final ConcurrentHashMap<String, TimerTask> taskMap;
+    private final DebouncingScheduler.Debouncer debouncer;
 
     public DebouncedRequestScheduler(long debounceDelayMilliSeconds) {
-        this(debounceDelayMilliSeconds, null);
+        debouncer = DebouncingScheduler.instance()
+              .newDebouncerBuilder(debounceDelayMilliSeconds)
+              .coalesceWith(new DebouncingScheduler.Coalescer() {
+                  @NonNull @Override public Runnable coalesce(@NonNull Runnable pending, @NonNull Runnable next) {
+                      if (pending instanceof DebouncedClientRequest && next instanceof DebouncedClientRequest) {
+                          ((DebouncedClientRequest) next).mergeEarlier((DebouncedClientRequest) pending);
+                      }
+                      return next;
+                  }
+              })
+              .build();
     }
 
+    /**
+     * @param timerName no longer used, tasks for every scheduler run on one shared thread
+     */
     public DebouncedRequestScheduler(long debounceDelayMilliSeconds, String timerName) {
-        if (Strings.isNullOrEmpty(timerName)) {
-            timer = new Timer();
-        }
-        else {
-            timer = new Timer(timerName);
-        }
-        taskMap = new ConcurrentHashMap<>();
-        this.debounceDelayMilliSeconds = debounceDelayMilliSeconds;
+        this(debounceDelayMilliSeconds);
     }
 
-    public void schedule(String taskIdentifier, TimerTask task) {
-        TimerTask existingTask = taskMap.get(taskIdentifier);
-
-        taskMap.put(taskIdentifier, task);
-        if (existingTask != null) {
-            existingTask.cancel();
-            timer.purge(); // Clear existing cancelled requests.
-        }
+    public void schedule(String taskIdentifier, Runnable task) {
+        debouncer.submit(taskIdentifier, task);
+    }
 
-        timer.schedule(task, debounceDelayMilliSeconds);
+    public void cancel(String taskIdentifier) {
+        debouncer.cancel(taskIdentifier);
     }
 }
@@ -0,0 +1,313 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One scheduler thread shared by every {@link Debouncer} in the app.
+ *
+ * A debouncer collapses a burst of submissions for the same key into a single run.  Each key has
+ * one reusable slot with at most one pending timer; resubmitting just moves the slot's deadline
+ * and swaps the action, so a slider sending dozens of updates a second doesn't cancel and
+ * reschedule anything.  When the timer fires before the (moved) deadline it re-arms for the time
+ * remaining.
+ *
+ * Actions are run on the scheduler thread and should hand off anything long running.
+ */
+public final class DebouncingScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(DebouncingScheduler.class);
+    private static final DebouncingScheduler INSTANCE = new DebouncingScheduler(newExecutor());
+
+    private final ScheduledExecutorService executor;
+    private final Ticker ticker;
+
+    DebouncingScheduler(@NonNull ScheduledExecutorService executor) {
+        this(executor, Ticker.systemTicker());
+    }
+
+    DebouncingScheduler(@NonNull ScheduledExecutorService executor, @NonNull Ticker ticker) {
+        this.executor = executor;
+        this.ticker = ticker;
+    }
+
+    public static DebouncingScheduler instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * A trailing edge debouncer, the last action submitted for a key is run once no more have been
+     * submitted for {@code delayMs}.
+     */
+    @NonNull public Debouncer newDebouncer(long delayMs) {
+        return new Builder(delayMs).build();
+    }
+
+    @NonNull public Builder newDebouncerBuilder(long delayMs) {
+        return new Builder(delayMs);
+    }
+
+    /**
+     * Combines the action waiting to run with a newer one for the same key, the default keeps
+     * only the newer action.
+     */
+    public interface Coalescer {
+        @NonNull Runnable coalesce(@NonNull Runnable pending, @NonNull Runnable next);
+    }
+
+    public final class Builder {
+        private final long delayMs;
+        private long maxWaitMs = 0;
+        private boolean leading = false;
+        private boolean trailing = true;
+        private Coalescer coalescer;
+
+        Builder(long delayMs) {
+            Preconditions.checkArgument(delayMs >= 0, "Delay must be positive");
+            this.delayMs = delayMs;
+        }
+
+        /**
+         * Run the first action of a burst right away.
+         */
+        public Builder leading(boolean leading) {
+            this.leading = leading;
+            return this;
+        }
+
+        /**
+         * Run the last action of a burst once it goes quiet, on by default.
+         */
+        public Builder trailing(boolean trailing) {
+            this.trailing = trailing;
+            return this;
+        }
+
+        /**
+         * The longest a pending action may wait while submissions keep coming, 0 (the default) to
+         * wait indefinitely.
+         */
+        public Builder maxWait(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+            return this;
+        }
+
+        public Builder coalesceWith(@Nullable Coalescer coalescer) {
+            this.coalescer = coalescer;
+            return this;
+        }
+
+        @NonNull public Debouncer build() {
+            return new Debouncer(this);
+        }
+    }
+
+    public final class Debouncer {
+        private final long delayMs;
+        private final long maxWaitMs;
+        private final boolean leading;
+        private final boolean trailing;
+        private final Coalescer coalescer;
+        private final ConcurrentMap<Object, Slot> slots = new ConcurrentHashMap<>();
+
+        Debouncer(Builder builder) {
+            this.delayMs = builder.delayMs;
+            this.maxWaitMs = builder.maxWaitMs;
+            this.leading = builder.leading;
+            this.trailing = builder.trailing;
+            this.coalescer = builder.coalescer;
+        }
+
+        public void submit(@NonNull Object key, @NonNull Runnable action) {
+            Preconditions.checkNotNull(key);
+            Preconditions.checkNotNull(action);
+
+            Slot slot = slots.get(key);
+            if (slot == null) {
+                Slot created = new Slot(this);
+                slot = slots.putIfAbsent(key, created);
+                if (slot == null) {
+                    slot = created;
+                }
+            }
+
+            slot.submit(action);
+        }
+
+        /**
+         * Drops the pending action for the key (if any) without running it.
+         */
+        public void cancel(@NonNull Object key) {
+            Slot slot = slots.get(key);
+            if (slot != null) {
+                slot.cancel();
+            }
+        }
+
+        public boolean isPending(@NonNull Object key) {
+            Slot slot = slots.get(key);
+            return slot != null && slot.isPending();
+        }
+    }
+
+    private final class Slot implements Runnable {
+        private final Debouncer debouncer;
+
+        // Guarded by this
+        private Runnable pending;
+        private boolean active;  // In a burst
+        private boolean armed;   // A timer is scheduled
+        private long deadline;
+        private long burstStart;
+
+        Slot(Debouncer debouncer) {
+            this.debouncer = debouncer;
+        }
+
+        void submit(Runnable action) {
+            Runnable runNow = null;
+            synchronized (this) {
+                long now = now();
+                deadline = now + debouncer.delayMs;
+
+                if (!active) {
+                    active = true;
+                    burstStart = now;
+                    if (debouncer.leading) {
+                        runNow = action;
+                    }
+                    else {
+                        pending = action;
+                    }
+                }
+                else if (pending != null && debouncer.coalescer != null) {
+                    pending = debouncer.coalescer.coalesce(pending, action);
+                }
+                else {
+                    pending = action;
+                }
+
+                if (!armed) {
+                    arm(now);
+                }
+            }
+
+            if (runNow != null) {
+                final Runnable leadingAction = runNow;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        runSafely(leadingAction);
+                    }
+                });
+            }
+        }
+
+        synchronized void cancel() {
+            pending = null;
+            active = false;
+        }
+
+        synchronized boolean isPending() {
+            return pending != null;
+        }
+
+        @Override
+        public void run() {
+            Runnable toRun = null;
+            synchronized (this) {
+                armed = false;
+                if (!active) {
+                    return;
+                }
+
+                long now = now();
+                boolean maxedOut = debouncer.maxWaitMs > 0 && pending != null && now - burstStart >= debouncer.maxWaitMs;
+                if (now < deadline && !maxedOut) {
+                    arm(now);
+                    return;
+                }
+
+                if (debouncer.trailing) {
+                    toRun = pending;
+                }
+                pending = null;
+
+                if (now < deadline) {
+                    // Still in the burst, start the next max wait window
+                    burstStart = now;
+                    arm(now);
+                }
+                else {
+                    active = false;
+                }
+            }
+
+            if (toRun != null) {
+                runSafely(toRun);
+            }
+        }
+
+        // Must hold the lock
+        private void arm(long now) {
+            long wait = Math.max(0, deadline - now);
+            if (debouncer.maxWaitMs > 0 && pending != null) {
+                wait = Math.min(wait, Math.max(0, burstStart + debouncer.maxWaitMs - now));
+            }
+
+            armed = true;
+            executor.schedule(this, wait, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void runSafely(Runnable action) {
+        try {
+            action.run();
+        }
+        catch (Exception ex) {
+            logger.error("Debounced action failed.", ex);
+        }
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMillis(ticker.read());
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        return new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "debouncer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A single positional change to a list.
+ *
+ * Changes are delivered in batches and are meant to be applied in order, each position is relative
+ * to the list as it is after the preceding changes in the batch have been applied.  This lines up
+ * with the notifyItemInserted / Removed / Moved / Changed calls on a RecyclerView adapter.
+ */
+public final class ListChange<T> {
+    public enum Type {
+        INSERTED,
+        REMOVED,
+        MOVED,
+        CHANGED
+    }
+
+    private final Type type;
+    private final int position;
+    private final int fromPosition;
+    private final T item;
+
+    private ListChange(Type type, int position, int fromPosition, T item) {
+        this.type = type;
+        this.position = position;
+        this.fromPosition = fromPosition;
+        this.item = item;
+    }
+
+    public static <T> ListChange<T> inserted(int position, T item) {
+        return new ListChange<>(Type.INSERTED, position, position, item);
+    }
+
+    public static <T> ListChange<T> removed(int position, T item) {
+        return new ListChange<>(Type.REMOVED, position, position, item);
+    }
+
+    public static <T> ListChange<T> moved(int fromPosition, int toPosition, T item) {
+        return new ListChange<>(Type.MOVED, toPosition, fromPosition, item);
+    }
+
+    public static <T> ListChange<T> changed(int position, T item) {
+        return new ListChange<>(Type.CHANGED, position, position, item);
+    }
+
+    @NonNull public Type getType() {
+        return type;
+    }
+
+    /**
+     * The position the change applies to, for {@link Type#MOVED} this is the destination.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * The original position for {@link Type#MOVED}, for every other type this is the same as {@link #getPosition()}.
+     */
+    public int getFromPosition() {
+        return fromPosition;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        return "ListChange{" +
+              "type=" + type +
+              ", position=" + position +
+              ", fromPosition=" + fromPosition +
+              ", item=" + item +
+              '}';
+    }
+}
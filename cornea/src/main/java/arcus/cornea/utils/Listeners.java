@@ -117,6 +117,16 @@ public class Listeners {
         return runOnExecutor(delegate, LooperExecutor.getMainExecutor());
     }
 
+    /**
+     * Like {@link #runOnUiThread(Listener)} but events that arrive before the main thread gets to
+     * them are delivered as one batch, with changes to the same model merged.
+     *
+     * @see CoalescingDispatcher
+     */
+    public static <E> Listener<E> coalesceOnUiThread(final Listener<? super E> delegate) {
+        return CoalescingDispatcher.getMainDispatcher().wrap(delegate);
+    }
+
     public static <E> Listener<E> runOnExecutor(final Listener<? super E> delegate, final Executor executor) {
         return new Listener<E>() {
             @Override
@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils;
+
+import com.iris.client.event.Listener;
+import com.iris.client.event.ListenerRegistration;
+import com.iris.client.model.Model;
+import com.iris.client.model.ModelCache;
+import com.iris.client.model.ModelEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Routes {@link ModelEvent}s from a {@link ModelCache} to listeners keyed by model address.
+ *
+ * A single listener is registered with the cache, no matter how many sources subscribe, and each event
+ * is only delivered to the subscriptions for its address, so the cost per event does not grow with the
+ * number of sources that have been created.
+ *
+ * Subscriptions only hold a weak reference to the listener, the caller is responsible for keeping the
+ * listener reachable for as long as it wants events (generally by storing it in a member variable).  Once
+ * the listener is collected the subscription is dropped the next time an event for that address is fired.
+ */
+public class ModelEventIndex implements Listener<ModelEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(ModelEventIndex.class);
+    private static final Map<ModelCache, ModelEventIndex> indexes = new WeakHashMap<>();
+
+    /**
+     * Gets the shared index for the given cache, registering it with the cache
+     * the first time it is requested.
+     *
+     * @param cache
+     * @return
+     */
+    public static ModelEventIndex get(ModelCache cache) {
+        synchronized (indexes) {
+            ModelEventIndex index = indexes.get(cache);
+            if(index == null) {
+                index = new ModelEventIndex();
+                cache.addModelListener(index);
+                indexes.put(cache, index);
+            }
+            return index;
+        }
+    }
+
+    private final ConcurrentMap<String, CopyOnWriteArrayList<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    ModelEventIndex() {
+    }
+
+    /**
+     * Subscribes {@code listener} to events for the model at {@code address}.  Only a weak reference
+     * to the listener is retained.
+     *
+     * @param address
+     * @param listener
+     * @return
+     */
+    public ListenerRegistration subscribe(String address, Listener<? super ModelEvent> listener) {
+        if(address == null || address.isEmpty() || listener == null) {
+            return Listeners.empty();
+        }
+
+        Subscription subscription = new Subscription(address, listener);
+        while(true) {
+            CopyOnWriteArrayList<Subscription> list = subscriptions.get(address);
+            if(list == null) {
+                CopyOnWriteArrayList<Subscription> created = new CopyOnWriteArrayList<>();
+                list = subscriptions.putIfAbsent(address, created);
+                if(list == null) {
+                    list = created;
+                }
+            }
+            list.add(subscription);
+            // the list may have been dropped as empty by a concurrent remove, retry against the new one
+            if(subscriptions.get(address) == list) {
+                return subscription;
+            }
+            list.remove(subscription);
+        }
+    }
+
+    /**
+     * Subscribes {@code listener} to events for each of the given addresses.
+     *
+     * @param addresses
+     * @param listener
+     * @return
+     */
+    public ListenerRegistration subscribe(Iterable<String> addresses, Listener<? super ModelEvent> listener) {
+        if(addresses == null) {
+            return Listeners.empty();
+        }
+
+        final CopyOnWriteArrayList<ListenerRegistration> registrations = new CopyOnWriteArrayList<>();
+        for(String address : addresses) {
+            registrations.add(subscribe(address, listener));
+        }
+        return new ListenerRegistration() {
+            @Override
+            public boolean isRegistered() {
+                for(ListenerRegistration registration : registrations) {
+                    if(registration.isRegistered()) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public boolean remove() {
+                boolean removed = false;
+                for(ListenerRegistration registration : registrations) {
+                    removed |= registration.remove();
+                }
+                registrations.clear();
+                return removed;
+            }
+        };
+    }
+
+    /**
+     * The number of addresses that currently have at least one subscription.
+     */
+    public int getAddressCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * The number of live subscriptions for the given address.
+     */
+    public int getSubscriptionCount(String address) {
+        CopyOnWriteArrayList<Subscription> list = subscriptions.get(address);
+        if(list == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for(Subscription subscription : list) {
+            if(subscription.isRegistered()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void onEvent(ModelEvent event) {
+        Model model = event.getModel();
+        if(model == null) {
+            return;
+        }
+
+        String address = model.getAddress();
+        if(address == null) {
+            return;
+        }
+
+        CopyOnWriteArrayList<Subscription> list = subscriptions.get(address);
+        if(list == null) {
+            return;
+        }
+
+        for(Subscription subscription : list) {
+            Listener<? super ModelEvent> listener = subscription.reference.get();
+            if(listener == null) {
+                subscription.remove();
+                continue;
+            }
+
+            try {
+                listener.onEvent(event);
+            }
+            catch(Exception ex) {
+                logger.warn("Error dispatching event to {}", listener, ex);
+            }
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        CopyOnWriteArrayList<Subscription> list = subscriptions.get(subscription.address);
+        if(list == null) {
+            return;
+        }
+
+        list.remove(subscription);
+        if(list.isEmpty()) {
+            subscriptions.remove(subscription.address, list);
+        }
+    }
+
+    private class Subscription implements ListenerRegistration {
+        private final String address;
+        private final WeakReference<Listener<? super ModelEvent>> reference;
+        private volatile boolean registered = true;
+
+        Subscription(String address, Listener<? super ModelEvent> listener) {
+            this.address = address;
+            this.reference = new WeakReference<Listener<? super ModelEvent>>(listener);
+        }
+
+        @Override
+        public boolean isRegistered() {
+            return registered && reference.get() != null;
+        }
+
+        @Override
+        public boolean remove() {
+            boolean wasRegistered = isRegistered();
+            registered = false;
+            reference.clear();
+            ModelEventIndex.this.remove(this);
+            return wasRegistered;
+        }
+    }
+}
@@ -15,12 +15,11 @@
  */
 package arcus.cornea.utils;
 
-import android.os.Bundle;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
-import android.os.Message;
 import android.os.Process;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.text.TextUtils;
@@ -42,15 +41,31 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Watches for an attribute on a device to change (optionally to a specific value) and lets the
+ * caller know if it did, or if it timed out first.
+ *
+ * Monitors are tracked per address and attribute; starting a monitor for an attribute that is
+ * already being watched replaces the earlier one.  Incoming value changes are checked against the
+ * monitors without a global lock and timeouts are kept on a single timer wheel that's only ticked
+ * when something is due, so starting a burst of monitors (dragging a slider) doesn't post a
+ * message per monitor.
+ */
 public class PropertyChangeMonitor {
     private static final Logger logger = LoggerFactory.getLogger(PropertyChangeMonitor.class);
-    private static final String ADDRESS = "ADDRESS";
-    private static final String ATTRIBUTE = "ATTRIBUTE";
+    private static final long TICK_MS = 4;
+    private static final int WHEEL_SIZE = 512; // ~2 seconds per rotation
 
     private static final PropertyChangeMonitor INSTANCE;
     static {
@@ -61,7 +76,21 @@ public class PropertyChangeMonitor {
     }
 
     protected final Handler monitorHandler;
-    protected final Map<String, ResultInstructions> monitorMap = Collections.synchronizedMap(new HashMap<String, ResultInstructions>());
+    // address -> attribute -> monitor, the inner maps are never removed only cleared
+    private final ConcurrentMap<String, ConcurrentMap<String, Monitor>> monitors = new ConcurrentHashMap<>();
+
+    // Timer wheel state, only touched on the monitorHandler thread other than the pending queue.
+    private final Queue<Monitor> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainPosted = new AtomicBoolean(false);
+    @SuppressWarnings("unchecked")
+    private final List<Monitor>[] wheel = new List[WHEEL_SIZE];
+    private long lastTick = -1;
+    private int wheelCount = 0;
+
+    private final AtomicLong startedCount = new AtomicLong();
+    private final AtomicLong succeededCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final AtomicLong replacedCount = new AtomicLong();
 
     public interface Callback {
         void requestTimedOut(String address, String attribute);
@@ -72,7 +101,7 @@ public class PropertyChangeMonitor {
         Preconditions.checkNotNull(client);
         Preconditions.checkNotNull(looper);
 
-        monitorHandler = new MonitorHandler(looper);
+        monitorHandler = new Handler(looper);
         client.addMessageListener(new Listener<ClientMessage>() {
             @Override public void onEvent(ClientMessage clientMessage) {
                 ClientEvent event = clientMessage.getEvent();
@@ -84,24 +113,7 @@ public class PropertyChangeMonitor {
                     return;
                 }
 
-                Capability.ValueChangeEvent vc = (Capability.ValueChangeEvent) event;
-                String source = vc.getSourceAddress();
-                Set<String> changedKeys = vc.getAttributes().keySet();
-
-                synchronized (monitorMap) {
-                    ResultInstructions instructions = monitorMap.get(source);
-                    if (instructions != null && changedKeys.contains(instructions.getAttribute())) {
-                        Object newValue = vc.getAttribute(instructions.getAttribute());
-                        Object expectedValue = instructions.getValue();
-
-                        // If the expected value is not set, we saw this property go ahead and succeed
-                        // Or - If the value was set and the values are equal, we can succeed.
-                        if (expectedValue == null || Objects.equal(expectedValue, newValue)) {
-                            monitorMap.remove(source);
-                            notifySuccess(source, instructions);
-                        }
-                    }
-                }
+                onValueChange((Capability.ValueChangeEvent) event);
             }
         });
 
@@ -109,8 +121,14 @@ public class PropertyChangeMonitor {
             @Override public void onEvent(SessionEvent event) {
                 if (event instanceof SessionExpiredEvent) {
                     try {
-                        monitorMap.clear();
+                        for (ConcurrentMap<String, Monitor> attributes : monitors.values()) {
+                            attributes.clear();
+                        }
+                        monitors.clear();
+                        pending.clear();
                         monitorHandler.removeCallbacksAndMessages(null);
+                        drainPosted.set(false);
+                        monitorHandler.post(clearWheel);
                     } catch (Exception ignored) {}
                 }
             }
@@ -131,24 +149,63 @@ public class PropertyChangeMonitor {
     ) {
         Reference<Callback> callbackRef = new WeakReference<>(callback);
         ResultInstructions instructions = new ResultInstructions(attribute, valueShouldBe, callbackRef, noCallbackFailedUpdate);
-        monitorMap.put(address, instructions);
 
-        Bundle bundle = new Bundle(2);
-        bundle.putString(ADDRESS, address);
-        bundle.putString(ATTRIBUTE, attribute);
-
-        Message message = monitorHandler.obtainMessage();
-        message.setData(bundle);
+        ConcurrentMap<String, Monitor> attributes = attributesFor(address);
+        Monitor monitor = new Monitor(address, attributes, instructions, SystemClock.uptimeMillis() + Math.max(0, timeoutInMS));
+        if (attributes.put(attribute, monitor) != null) {
+            replacedCount.incrementAndGet();
+        }
+        startedCount.incrementAndGet();
 
-        monitorHandler.sendMessageDelayed(message, timeoutInMS);
+        pending.add(monitor);
+        if (drainPosted.compareAndSet(false, true)) {
+            monitorHandler.post(drain);
+        }
     }
 
     public boolean hasAnyChangesFor(@NonNull String address) {
-        return !TextUtils.isEmpty(address) && monitorMap.containsKey(address);
+        if (TextUtils.isEmpty(address)) {
+            return false;
+        }
+
+        Map<String, Monitor> attributes = monitors.get(address);
+        return attributes != null && !attributes.isEmpty();
+    }
+
+    public boolean hasChangeFor(@NonNull String address, @NonNull String attribute) {
+        Map<String, Monitor> attributes = monitors.get(address);
+        return attributes != null && attributes.containsKey(attribute);
     }
 
     public void removeAllFor(String address) {
-        monitorMap.remove(address);
+        Map<String, Monitor> attributes = monitors.get(address);
+        if (attributes != null) {
+            attributes.clear();
+        }
+    }
+
+    public long getSucceededCount() {
+        return succeededCount.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOutCount.get();
+    }
+
+    public int getActiveCount() {
+        int count = 0;
+        for (Map<String, Monitor> attributes : monitors.values()) {
+            count += attributes.size();
+        }
+        return count;
+    }
+
+    public String getStats() {
+        return "Started: " + startedCount.get() +
+              "\nSucceeded: " + succeededCount.get() +
+              "\nTimed out: " + timedOutCount.get() +
+              "\nReplaced: " + replacedCount.get() +
+              "\nActive: " + getActiveCount();
     }
 
     protected void notifySuccess(String address, ResultInstructions instructions) {
@@ -163,40 +220,169 @@ public class PropertyChangeMonitor {
         }
     }
 
-    private class MonitorHandler extends Handler {
-        public MonitorHandler(Looper looper) {
-            super(looper);
+    protected void notifyTimedOut(String address, ResultInstructions instructions) {
+        PropertyChangeMonitor.Callback callback = instructions.getUpdateCallback();
+        if (callback != null) {
+            try { // Let the caller take care of the update if they choose to.
+                callback.requestTimedOut(address, instructions.getAttribute());
+            }
+            catch (Exception ex) {
+                logger.error("Could not deliver unsuccessful request update.", ex);
+            }
+        }
+        else {
+            // View was destroyed, navigated away, lost reference.  Go ahead and update.
+            Function<String, ?> noCBFunction = instructions.getUpdateFailedFunction();
+            if (noCBFunction != null) {
+                noCBFunction.apply(address);
+            }
         }
+    }
 
-        @Override public void handleMessage(Message msg) {
-            Bundle bundle = msg.getData();
-            String address = bundle.getString(ADDRESS);
-            String attribute = bundle.getString(ATTRIBUTE);
-            if (TextUtils.isEmpty(address) || TextUtils.isEmpty(attribute)) {
-                return;
+    private ConcurrentMap<String, Monitor> attributesFor(String address) {
+        ConcurrentMap<String, Monitor> attributes = monitors.get(address);
+        if (attributes == null) {
+            ConcurrentMap<String, Monitor> created = new ConcurrentHashMap<>(4);
+            attributes = monitors.putIfAbsent(address, created);
+            if (attributes == null) {
+                attributes = created;
             }
+        }
+        return attributes;
+    }
+
+    private void onValueChange(Capability.ValueChangeEvent vc) {
+        String source = vc.getSourceAddress();
+        ConcurrentMap<String, Monitor> attributes = source == null ? null : monitors.get(source);
+        if (attributes == null || attributes.isEmpty()) {
+            return;
+        }
 
-            ResultInstructions resultInstructions = monitorMap.remove(address);
-            if (resultInstructions == null) {
-                return;
+        for (String changed : vc.getAttributes().keySet()) {
+            Monitor monitor = attributes.get(changed);
+            if (monitor == null) {
+                continue;
             }
 
-            PropertyChangeMonitor.Callback callback = resultInstructions.getUpdateCallback();
-            if (callback != null) {
-                try { // Let the caller take care of the update if they choose to.
-                    callback.requestTimedOut(address, attribute);
-                }
-                catch (Exception ex) {
-                    logger.error("Could not deliver unsuccessful request update.", ex);
+            // If the expected value is not set, we saw this property go ahead and succeed
+            // Or - If the value was set and the values are equal, we can succeed.
+            Object expectedValue = monitor.instructions.getValue();
+            if (expectedValue == null || Objects.equal(expectedValue, vc.getAttribute(changed))) {
+                // Only one of success / timeout / replacement wins the removal
+                if (attributes.remove(changed, monitor)) {
+                    succeededCount.incrementAndGet();
+                    notifySuccess(source, monitor.instructions);
                 }
             }
-            else {
-                // View was destroyed, navigated away, lost reference.  Go ahead and update.
-                Function<String, ?> noCBFunction = resultInstructions.getUpdateFailedFunction();
-                if (noCBFunction != null) {
-                    noCBFunction.apply(address);
+        }
+    }
+
+    private final Runnable drain = new Runnable() {
+        @Override public void run() {
+            drainPosted.set(false);
+
+            if (lastTick < 0 || wheelCount == 0) {
+                lastTick = tickFor(SystemClock.uptimeMillis()) - 1;
+            }
+
+            Monitor monitor;
+            while ((monitor = pending.poll()) != null) {
+                // Never schedule into a tick that's already been processed
+                long tick = Math.max(tickFor(monitor.deadline), lastTick + 1);
+                int slot = (int) (tick % WHEEL_SIZE);
+                if (wheel[slot] == null) {
+                    wheel[slot] = new ArrayList<>(4);
                 }
+                wheel[slot].add(monitor);
+                wheelCount++;
+            }
+
+            scheduleNextTick();
+        }
+    };
+
+    private final Runnable tick = new Runnable() {
+        @Override public void run() {
+            long now = SystemClock.uptimeMillis();
+            long current = tickFor(now);
+
+            // Catch up on every tick since the last run, but never more than once around the wheel.
+            long from = Math.max(lastTick + 1, current - WHEEL_SIZE + 1);
+            for (long index = from; index <= current; index++) {
+                expire(wheel[(int) (index % WHEEL_SIZE)], now);
             }
+            lastTick = current;
+
+            scheduleNextTick();
+        }
+    };
+
+    private final Runnable clearWheel = new Runnable() {
+        @Override public void run() {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = null;
+            }
+            wheelCount = 0;
+            lastTick = -1;
+        }
+    };
+
+    private void expire(@Nullable List<Monitor> slot, long now) {
+        if (slot == null) {
+            return;
+        }
+
+        Iterator<Monitor> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Monitor monitor = iterator.next();
+            if (monitor.deadline > now) {
+                continue; // Due on a later rotation
+            }
+
+            iterator.remove();
+            wheelCount--;
+            if (monitor.attributes.remove(monitor.instructions.getAttribute(), monitor)) {
+                timedOutCount.incrementAndGet();
+                notifyTimedOut(monitor.address, monitor.instructions);
+            }
+        }
+    }
+
+    /**
+     * Schedules the tick for the next slot with something in it, skipping empty ticks.
+     */
+    private void scheduleNextTick() {
+        monitorHandler.removeCallbacks(tick);
+        if (wheelCount == 0) {
+            return;
+        }
+
+        long nextTick = lastTick + 1;
+        for (int i = 0; i < WHEEL_SIZE; i++, nextTick++) {
+            List<Monitor> slot = wheel[(int) (nextTick % WHEEL_SIZE)];
+            if (slot != null && !slot.isEmpty()) {
+                break;
+            }
+        }
+
+        monitorHandler.postAtTime(tick, nextTick * TICK_MS);
+    }
+
+    private static long tickFor(long uptime) {
+        return (uptime + TICK_MS - 1) / TICK_MS;
+    }
+
+    private static final class Monitor {
+        final String address;
+        final ConcurrentMap<String, Monitor> attributes;
+        final ResultInstructions instructions;
+        final long deadline;
+
+        Monitor(String address, ConcurrentMap<String, Monitor> attributes, ResultInstructions instructions, long deadline) {
+            this.address = address;
+            this.attributes = attributes;
+            this.instructions = instructions;
+            this.deadline = deadline;
         }
     }
 }
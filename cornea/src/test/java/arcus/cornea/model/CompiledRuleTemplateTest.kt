@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.model
+
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.text.ParseException
+import java.util.Locale
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class CompiledRuleTemplateTest {
+    @Test
+    fun splitsTextAndFields() {
+        val compiled = CompiledRuleTemplate.compile("button-turns-on", TEMPLATE)
+
+        assertThat(compiled.tokens.map { it.toString() })
+                .containsExactly("When ", "\${button}", " is pressed turn ", "\${the_switch}", " ", "\${state}", ".")
+                .inOrder()
+        assertThat(compiled.tokens[3].text).isEqualTo("the switch")
+        assertThat(compiled.tokens[3].fieldName).isEqualTo("the_switch")
+        assertThat(compiled.newDisplayModel().editableFieldsCount).isEqualTo(3)
+    }
+
+    @Test
+    fun compiledOncePerTemplateText() {
+        val first = CompiledRuleTemplate.compile("cached", TEMPLATE)
+
+        assertThat(CompiledRuleTemplate.compile("cached", TEMPLATE)).isSameAs(first)
+        assertThat(CompiledRuleTemplate.compile("cached", "$TEMPLATE!")).isNotSameAs(first)
+        assertThat(CompiledRuleTemplate.compile("cached", null).tokens).isEmpty()
+    }
+
+    @Test
+    fun everyDisplayModelEditsItsOwnFields() {
+        val compiled = CompiledRuleTemplate.compile("fresh-fields", TEMPLATE)
+        val editing = compiled.newDisplayModel()
+
+        editing.templateTextFields[1].text = "Fob"
+
+        assertThat(compiled.newDisplayModel().templateTextFields[1].text).isEqualTo("button")
+    }
+
+    @Test
+    fun unclosedAndEmptyFields() {
+        val compiled = CompiledRuleTemplate.compile(null, "\${}Turn on \${light")
+
+        assertThat(compiled.tokens.map { it.toString() }).containsExactly("Turn on ", "\${light}").inOrder()
+    }
+
+    @Test
+    fun formatsTimesWithoutSharedState() {
+        assertThat(RuleTimeFormat.formatForDisplay(RuleTimeFormat.parseSecondOfDay("0:00:00"), Locale.US)).isEqualTo("12:00 AM")
+        assertThat(RuleTimeFormat.formatForDisplay(RuleTimeFormat.parseSecondOfDay("19:05:30"), Locale.US)).isEqualTo("7:05 PM")
+        assertThat(RuleTimeFormat.parseSecondOfDay("12:00")).isEqualTo(12 * 3600)
+
+        val executor = Executors.newFixedThreadPool(4)
+        val results = executor.invokeAll((0 until 200).map { i ->
+            Callable { RuleTimeFormat.formatForDisplay(RuleTimeFormat.parseSecondOfDay("${i % 24}:${i % 60}:00"), Locale.US) }
+        })
+        executor.shutdown()
+
+        results.forEachIndexed { i, result ->
+            val hour = if (i % 12 == 0) 12 else i % 12
+            assertThat(result.get()).isEqualTo("$hour:${"%02d".format(i % 60)} ${if (i % 24 < 12) "AM" else "PM"}")
+        }
+    }
+
+    @Test(expected = ParseException::class)
+    fun rejectsWhatIsNotATime() {
+        RuleTimeFormat.parseSecondOfDay("25:00:00")
+    }
+
+    companion object {
+        private const val TEMPLATE = "When \${button} is pressed turn \${the_switch} \${state}."
+    }
+}
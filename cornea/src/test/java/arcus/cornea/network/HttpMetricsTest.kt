@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.network
+
+import okhttp3.Call
+import okhttp3.Connection
+import org.junit.Test
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertThat
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+
+class HttpMetricsTest {
+    private val call = mock(Call::class.java)
+    private val connection = mock(Connection::class.java)
+    private val address = InetSocketAddress.createUnresolved("localhost", 443)
+
+    @Test
+    fun recordsNewAndReusedConnections() {
+        val metrics = HttpMetrics("TEST")
+
+        metrics.create(call).apply {
+            callStart(call)
+            dnsStart(call, "localhost")
+            dnsEnd(call, "localhost", listOf(InetAddress.getLoopbackAddress()))
+            connectStart(call, address, Proxy.NO_PROXY)
+            connectEnd(call, address, Proxy.NO_PROXY, null)
+            connectionAcquired(call, connection)
+            requestHeadersStart(call)
+            responseHeadersStart(call)
+            responseBodyEnd(call, 1024)
+            callEnd(call)
+        }
+        metrics.create(call).apply {
+            callStart(call)
+            connectionAcquired(call, connection)
+            requestHeadersStart(call)
+            responseHeadersStart(call)
+            responseBodyEnd(call, 512)
+            callEnd(call)
+        }
+
+        val exported = metrics.snapshot().export()
+        assertThat(exported["TEST.calls"]).isEqualTo(2L)
+        assertThat(exported["TEST.dnsLookups"]).isEqualTo(1L)
+        assertThat(exported["TEST.connects"]).isEqualTo(1L)
+        assertThat(exported["TEST.connectionsReused"]).isEqualTo(1L)
+        assertThat(exported["TEST.bytesReceived"]).isEqualTo(1536L)
+        assertThat(exported["TEST.inFlight"]).isEqualTo(0L)
+    }
+
+    @Test
+    fun countsFailuresAndInFlightCalls() {
+        val metrics = HttpMetrics("TEST")
+
+        metrics.create(call).apply {
+            callStart(call)
+            callFailed(call, IOException("Timed out"))
+        }
+        metrics.create(call).callStart(call)
+
+        val snapshot = metrics.snapshot()
+        assertThat(snapshot.calls).isEqualTo(1L)
+        assertThat(snapshot.failures).isEqualTo(1L)
+        assertThat(snapshot.inFlight).isEqualTo(1L)
+
+        metrics.reset()
+        assertThat(metrics.snapshot().calls).isEqualTo(0L)
+        assertThat(metrics.snapshot().inFlight).isEqualTo(1L)
+    }
+
+    @Test
+    fun higherPriorityCallsRunFirst() {
+        val ran = mutableListOf<String>()
+        val queued = listOf(
+            HttpClientFactory.PrioritizedRunnable(Runnable { ran.add("clip") }, 3, 0),
+            HttpClientFactory.PrioritizedRunnable(Runnable { ran.add("image") }, 2, 1),
+            HttpClientFactory.PrioritizedRunnable(Runnable { ran.add("preview 1") }, 1, 2),
+            HttpClientFactory.PrioritizedRunnable(Runnable { ran.add("preview 2") }, 1, 3)
+        )
+
+        queued.sorted().forEach { it.run() }
+
+        assertThat(ran).containsExactly("preview 1", "preview 2", "image", "clip").inOrder()
+    }
+}
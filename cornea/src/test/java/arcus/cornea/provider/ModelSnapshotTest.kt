@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import arcus.cornea.utils.CachedModelSource
+import com.iris.client.IrisClient
+import com.iris.client.model.Model
+import com.iris.client.model.ModelCache
+import org.junit.Test
+import org.mockito.ArgumentMatchers.anyMap
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.verifyZeroInteractions
+
+import com.google.common.truth.Truth.assertThat
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+
+class ModelSnapshotTest {
+    private val place = mapOf<String, Any?>(
+            "base:address" to "SERV:place:1",
+            "place:name" to "Home ⌂",
+            "place:zipCode" to null
+    )
+    private val devices = (0 until 300).map { device(it) }
+
+    @Test
+    fun readsBackWhatWasWritten() {
+        val snapshot = ModelSnapshot.builder("place-1")
+                .withSingle("place", place)
+                .withSection("devices", devices)
+                .withSection("hubs", emptyList())
+                .build()
+
+        val read = readFrom(write(snapshot))!!
+
+        assertThat(read.placeId).isEqualTo("place-1")
+        assertThat(read.createdAt).isEqualTo(snapshot.createdAt)
+        assertThat(read.getSingle("place")).isEqualTo(place)
+        assertThat(read.getSection("devices")).containsExactlyElementsIn(devices).inOrder()
+        assertThat(read.hasSection("hubs")).isTrue()
+        assertThat(read.getSection("hubs")).isEmpty()
+        assertThat(read.hasSection("people")).isFalse()
+    }
+
+    @Test
+    fun keepsValueTypes() {
+        val read = readFrom(write(ModelSnapshot.builder("place-1").withSingle("device", device(1)).build()))!!
+        val device = read.getSingle("device")!!
+
+        assertThat(device["devpow:battery"]).isInstanceOf(java.lang.Integer::class.java)
+        assertThat(device["devconn:lastchange"]).isInstanceOf(java.lang.Long::class.java)
+        assertThat(device["temp:temperature"]).isInstanceOf(java.lang.Double::class.java)
+        assertThat(device["base:caps"]).isInstanceOf(Set::class.java)
+        assertThat(device["base:tags"]).isInstanceOf(List::class.java)
+        assertThat(device["base:instances"]).isInstanceOf(Map::class.java)
+    }
+
+    @Test
+    fun repeatedStringsAreWrittenOnce() {
+        val one = write(ModelSnapshot.builder("place-1").withSection("devices", devices.take(1)).build())
+        val all = write(ModelSnapshot.builder("place-1").withSection("devices", devices).build())
+
+        // Every device repeats the same attribute names and caps, only the values that differ cost much
+        assertThat(all.size).isLessThan(one.size * devices.size / 2)
+    }
+
+    @Test
+    fun anotherVersionIsNotRead() {
+        val bytes = write(ModelSnapshot.builder("place-1").withSection("devices", devices).build())
+        bytes[7] = (ModelSnapshot.VERSION + 1).toByte()
+
+        assertThat(readFrom(bytes)).isNull()
+    }
+
+    @Test(expected = IOException::class)
+    fun somethingElseIsRejected() {
+        readFrom(byteArrayOf(1, 2, 3, 4, 0, 0, 0, 1))
+    }
+
+    @Test(expected = IOException::class)
+    fun aTruncatedSnapshotIsRejected() {
+        val bytes = write(ModelSnapshot.builder("place-1").withSection("devices", devices).build())
+
+        readFrom(bytes.copyOf(bytes.size / 2))
+    }
+
+    @Test
+    fun aRestoredSingleLoadsWithoutAskingThePlatform() {
+        val cache = cache()
+        val client = mock(IrisClient::class.java)
+        val snapshot = ModelSnapshot.builder("place-1").withSingle("place", place).build()
+        val source = CachedModelSource.get<Model>("", client, cache)
+
+        val restored = snapshot.restoreSingle(cache, "place", "SERV:place:1")
+        source.setAddress("SERV:place:1")
+
+        assertThat(restored).isNotNull()
+        assertThat(source.isLoaded).isTrue()
+        assertThat(source.get()).isSameAs(restored)
+        verifyZeroInteractions(client)
+    }
+
+    @Test
+    fun aCachedModelIsKeptOverTheSnapshot() {
+        val cache = cache()
+        val cached = mock(Model::class.java)
+        `when`(cache.get("SERV:place:1")).thenReturn(cached)
+
+        val restored = ModelSnapshot.builder("place-1").withSingle("place", place).build()
+                .restoreSingle(cache, "place", "SERV:place:1")
+
+        assertThat(restored).isSameAs(cached)
+        verify(cache, never()).addOrUpdate(anyMap<String, Any>())
+    }
+
+    @Test
+    fun anotherOrAMissingModelIsNotRestored() {
+        val cache = cache()
+        val snapshot = ModelSnapshot.builder("place-1").withSingle("place", place).withSection("person", emptyList()).build()
+
+        assertThat(snapshot.restoreSingle(cache, "place", "SERV:place:2")).isNull()
+        assertThat(snapshot.restoreSingle(cache, "person", "SERV:person:1")).isNull()
+        assertThat(snapshot.restoreSingle(cache, "account", "SERV:account:1")).isNull()
+        verify(cache, never()).addOrUpdate(anyMap<String, Any>())
+    }
+
+    // A cache that holds a model for each map added to it
+    private fun cache(): ModelCache {
+        val models = mutableMapOf<String, Model>()
+        val cache = mock(ModelCache::class.java)
+        `when`(cache.get(anyString())).thenAnswer { models[it.getArgument(0)] }
+        doAnswer {
+            val address = it.getArgument<Map<String, Any?>>(0)["base:address"] as String
+            val model = mock(Model::class.java)
+            `when`(model.address).thenReturn(address)
+            models[address] = model
+            model
+        }.`when`(cache).addOrUpdate(anyMap<String, Any>())
+        return cache
+    }
+
+    private fun write(snapshot: ModelSnapshot): ByteArray {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { snapshot.writeTo(it) }
+        return bytes.toByteArray()
+    }
+
+    private fun readFrom(bytes: ByteArray) = ModelSnapshot.readFrom(DataInputStream(ByteArrayInputStream(bytes)))
+
+    private fun device(index: Int): Map<String, Any?> = mapOf(
+            "base:address" to "DRIV:dev:$index",
+            "base:id" to "$index",
+            "base:caps" to linkedSetOf("base", "dev", "devadv", "devconn", "devpow", "swit"),
+            "base:tags" to listOf("tag-${index % 3}"),
+            "base:instances" to mapOf("button" to listOf("swit")),
+            "dev:name" to "Device $index",
+            "devpow:battery" to index % 100,
+            "devconn:lastchange" to 1_500_000_000_000L + index,
+            "temp:temperature" to 20.5 + index,
+            "swit:state" to if (index % 2 == 0) "ON" else "OFF"
+    )
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.google.common.truth.Truth.assertThat
+
+class ProductCatalogStoreTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val products = (0 until 500).map { product(it) }
+
+    @Test
+    fun readsBackWhatWasWritten() {
+        val store = ProductCatalogStore()
+        store.setFile(folder.root.resolve("catalog/products.catalog"))
+
+        val hash = ProductCatalogStore.hash(products)
+        assertThat(store.write(hash, products)).isTrue()
+
+        val catalog = store.read()!!
+        assertThat(catalog.hash).isEqualTo(hash)
+        assertThat(catalog.products).containsExactlyElementsIn(products).inOrder()
+    }
+
+    @Test
+    fun hashIgnoresOrderButNotContent() {
+        val hash = ProductCatalogStore.hash(products)
+        val changed = products.toMutableList().apply { this[42] = product(42) + ("product:name" to "Renamed") }
+
+        assertThat(ProductCatalogStore.hash(products.reversed())).isEqualTo(hash)
+        assertThat(ProductCatalogStore.hash(changed)).isNotEqualTo(hash)
+        assertThat(ProductCatalogStore.hash(products.dropLast(1))).isNotEqualTo(hash)
+    }
+
+    @Test
+    fun corruptFilesAreDiscarded() {
+        val file = folder.newFile("products.catalog")
+        file.writeBytes(byteArrayOf(1, 2, 3, 4, 5, 6, 7, 8))
+        val store = ProductCatalogStore()
+        store.setFile(file)
+
+        assertThat(store.read()).isNull()
+        assertThat(file.exists()).isFalse()
+    }
+
+    @Test
+    fun nothingIsReadWithoutAFile() {
+        val store = ProductCatalogStore()
+
+        assertThat(store.write(0, products)).isFalse()
+        assertThat(store.read()).isNull()
+    }
+
+    private fun product(index: Int): Map<String, Any> = mapOf(
+            "base:address" to "SERV:product:$index",
+            "base:id" to "$index",
+            "product:name" to "Product $index",
+            "product:vendor" to "Vendor ${index % 20}",
+            "product:canSearch" to (index % 7 != 0),
+            "product:categories" to listOf("Lights & Switches", "Energy")
+    )
+}
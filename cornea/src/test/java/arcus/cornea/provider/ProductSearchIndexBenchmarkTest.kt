@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import arcus.cornea.provider.ProductSearchIndex.Document
+import arcus.cornea.provider.ProductSearchIndexTest.Companion.QUERIES
+import org.junit.Before
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import com.google.common.truth.Truth.assertWithMessage
+import java.util.concurrent.Executor
+
+/**
+ * Searches a synthetic catalog about the size of the real one (a few thousand products from a
+ * couple hundred vendors) the way the pairing search box does, one keystroke at a time.
+ */
+class ProductSearchIndexBenchmarkTest {
+    private val index = ProductSearchIndex(Executor { it.run() })
+    private lateinit var catalog: List<Document>
+
+    @Before
+    fun setUp() {
+        catalog = syntheticCatalog()
+        assertThat(index.rebuild(catalog)).isEqualTo(catalog.size)
+    }
+
+    @Test
+    fun typeAheadQueriesTakeUnderAMillisecond() {
+        val queries = QUERIES
+
+        repeat(200) { queries.forEach { index.search(it, 50) } } // Warm up
+
+        val runs = 50
+        val start = System.nanoTime()
+        repeat(runs) { queries.forEach { index.search(it, 50) } }
+        val averageNs = (System.nanoTime() - start) / (runs * queries.size)
+
+        assertWithMessage("${catalog.size} products, average query: ${averageNs / 1000}us")
+                .that(averageNs)
+                .isLessThan(1_000_000L)
+    }
+}
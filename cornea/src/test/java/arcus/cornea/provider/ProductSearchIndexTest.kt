@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import arcus.cornea.provider.ProductSearchIndex.Document
+import org.junit.Before
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import java.util.concurrent.Executor
+
+class ProductSearchIndexTest {
+    private val index = ProductSearchIndex(Executor { it.run() })
+    private lateinit var catalog: List<Document>
+
+    @Before
+    fun setUp() {
+        catalog = syntheticCatalog()
+        assertThat(index.rebuild(catalog)).isEqualTo(catalog.size)
+    }
+
+    @Test
+    fun nameMatchesRankAboveKeywordMatches() {
+        val results = index.search("plug", catalog.size)!!
+
+        assertThat(results.first().displayName.toLowerCase()).contains("plug")
+        assertThat(results.last().displayName.toLowerCase()).doesNotContain("plug")
+        assertThat(results.map { it.displayName }).contains("Keyword Vendor Widget")
+    }
+
+    @Test
+    fun everyWordHasToMatch() {
+        val results = index.search("acme smart dimmer", 50)!!
+
+        assertThat(results.first().displayName).isEqualTo("Acme Smart Dimmer")
+        results.forEach { assertThat(it.displayName).startsWith("Acme") }
+    }
+
+    @Test
+    fun punctuationAndTyposStillMatch() {
+        assertThat(index.search("zwave", 50)!!.map { it.displayName }).contains("Acme Z-Wave Siren")
+        assertThat(index.search("z-wave", 50)!!.map { it.displayName }).contains("Acme Z-Wave Siren")
+        assertThat(index.search("thermostst", 50)!!).isNotEmpty()
+        assertThat(index.search("qqqqqq", 50)!!).isEmpty()
+    }
+
+    @Test
+    fun rebuildOnlyTokenizesChangedProducts() {
+        val changed = catalog.mapIndexed { i, document ->
+            if (i % 100 == 0) Document(document.address, "Renamed", "Product $i", null, null) else document
+        }
+
+        assertThat(index.rebuild(changed)).isEqualTo((catalog.size + 99) / 100)
+        assertThat(index.search("renamed", 100)!!).hasSize((catalog.size + 99) / 100)
+    }
+
+    @Test
+    fun typeAheadQueriesFindWhatIsTyped() {
+        QUERIES.filter { it.length >= 3 && it != "thermostst" }.forEach { query ->
+            assertThat(index.search(query, 50)!!).isNotEmpty()
+        }
+    }
+
+    companion object {
+        // The pairing search box, one keystroke at a time
+        internal val QUERIES = listOf("a", "ac", "acm", "acme", "acme s", "acme sm", "acme smart", "acme smart d",
+                "p", "pl", "plu", "plug", "c", "ca", "cam", "came", "camera", "thermostst", "door lock")
+    }
+}
+
+// A few thousand products from a couple hundred vendors, about the size of the real catalog, plus
+// the handful the tests look for by name
+internal fun syntheticCatalog(): List<Document> {
+    val random = Random(7)
+    val vendors = listOf("Acme", "GE", "Jasco", "Schlage", "Kwikset", "Honeywell", "Aeotec", "Leviton", "Iris", "Yale") +
+            (0 until 190).map { "Vendor$it" }
+    val adjectives = listOf("Smart", "Outdoor", "Indoor", "Wireless", "In-Wall", "Plug-In", "Deluxe", "Mini", "Pro", "Z-Wave", "Zigbee")
+    val nouns = listOf("Plug", "Dimmer", "Switch", "Camera", "Thermostat", "Door Lock", "Contact Sensor",
+            "Motion Sensor", "Siren", "Keypad", "Water Valve", "Garage Door Controller", "Bulb", "Fan Control")
+    val categories = listOf("Lights & Switches", "Cameras", "Climate", "Doors & Locks", "Security", "Water", "Energy")
+
+    val documents = mutableListOf<Document>()
+    for (vendor in vendors) {
+        repeat(15) {
+            val name = "${adjectives[random.nextInt(adjectives.size)]} ${nouns[random.nextInt(nouns.size)]} ${random.nextInt(1000)}"
+            documents.add(Document(
+                    "SERV:product:${documents.size}",
+                    vendor,
+                    name,
+                    listOf(categories[random.nextInt(categories.size)]),
+                    "model ${random.nextInt(100_000)} ${nouns[random.nextInt(nouns.size)].toLowerCase()}"
+            ))
+        }
+    }
+    documents.add(Document("SERV:product:dimmer", "Acme", "Smart Dimmer", listOf("Lights & Switches"), null))
+    documents.add(Document("SERV:product:siren", "Acme", "Z-Wave Siren", listOf("Security"), null))
+    documents.add(Document("SERV:product:keyword", "Keyword Vendor", "Widget", listOf("Energy"), "plug in module"))
+    return documents
+}
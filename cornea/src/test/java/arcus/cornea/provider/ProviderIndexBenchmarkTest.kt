@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertWithMessage
+import java.util.Locale
+
+/**
+ * Renders the weather alert picker against an index and against the case insensitive scan
+ * getByCode used to do.
+ */
+class ProviderIndexBenchmarkTest {
+    private val picker = EasCodePicker()
+    private val byCode = picker.byCode
+
+    @Test
+    fun renderingThePickerIsLinearWithAnIndex() {
+        val rows = picker.rows()
+
+        repeat(WARM_UP) {
+            rows.forEach { picker.scan(it) }
+            rows.forEach { byCode.get(it.toUpperCase(Locale.US)) }
+        }
+
+        var start = System.nanoTime()
+        repeat(RUNS) { rows.forEach { picker.scan(it) } }
+        val scanNs = (System.nanoTime() - start) / RUNS
+
+        start = System.nanoTime()
+        repeat(RUNS) { rows.forEach { byCode.get(it.toUpperCase(Locale.US)) } }
+        val indexNs = (System.nanoTime() - start) / RUNS
+
+        assertWithMessage("${rows.size} codes, per render scan: ${scanNs / 1000}us, index: ${indexNs / 1000}us")
+                .that(indexNs).isLessThan(scanNs)
+    }
+
+    companion object {
+        private const val WARM_UP = 2_000
+        private const val RUNS = 500
+    }
+}
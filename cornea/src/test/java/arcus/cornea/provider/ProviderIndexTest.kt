@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import com.google.common.base.Function
+import com.google.common.base.Supplier
+import com.iris.client.bean.EasCode
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.withSettings
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Locale
+
+class ProviderIndexTest {
+    private val picker = EasCodePicker()
+    private val byCode = picker.byCode
+
+    @Test
+    fun lookupsAreCaseInsensitiveAndFirstMatchWins() {
+        val duplicate = picker.easCode("TOR")
+        picker.codes = picker.codes + duplicate
+
+        val found = byCode.get("tor".toUpperCase(Locale.US))
+
+        assertThat(found).isNotNull()
+        assertThat(found).isNotSameAs(duplicate)
+        assertThat(found).isSameAs(picker.scan("tor"))
+        assertThat(byCode.get("XXX")).isNull()
+        assertThat(byCode.get(null)).isNull()
+    }
+
+    @Test
+    fun aNewLoadReplacesTheWholeIndex() {
+        assertThat(byCode.get("TOR")).isNotNull()
+
+        val reloaded = listOf(picker.easCode("FFW"))
+        picker.codes = reloaded
+        byCode.rebuild(reloaded)
+
+        assertThat(byCode.get("TOR")).isNull()
+        assertThat(byCode.get("FFW")).isSameAs(reloaded[0])
+    }
+
+    @Test
+    fun notLoadedFindsNothing() {
+        val unloaded = ProviderIndex(Function<EasCode, String> { it!!.eas }, Supplier<List<EasCode>> { null })
+
+        assertThat(unloaded.get("TOR")).isNull()
+    }
+
+    @Test
+    fun everyPickerRowFindsWhatTheScanFound() {
+        picker.rows().forEach {
+            assertThat(byCode.get(it.toUpperCase(Locale.US))).isSameAs(picker.scan(it))
+        }
+    }
+}
+
+/**
+ * The weather alert picker, a row per EAS code each looking its code up.  The platform's list is a
+ * little over 120 codes.
+ */
+internal class EasCodePicker {
+    var codes: List<EasCode> = easCodes(CODES)
+    val byCode = ProviderIndex(Function<EasCode, String> { it!!.eas.toUpperCase(Locale.US) }, Supplier { codes })
+
+    fun rows() = codes.map { it.eas.toLowerCase(Locale.US) }
+
+    // What EASCodeProvider.getByCode did before the index
+    fun scan(code: String): EasCode? = codes.firstOrNull { code.equals(it.eas, ignoreCase = true) }
+
+    fun easCode(code: String): EasCode {
+        val easCode = mock(EasCode::class.java, withSettings().stubOnly())
+        `when`(easCode.eas).thenReturn(code)
+        return easCode
+    }
+
+    private fun easCodes(count: Int): List<EasCode> {
+        val codes = mutableListOf(easCode("TOR"), easCode("SVR"), easCode("FFW"))
+        var i = 0
+        while (codes.size < count) {
+            val name = "${'A' + i / 676}${'A' + i / 26 % 26}${'A' + i % 26}"
+            if (codes.none { it.eas == name }) {
+                codes.add(easCode(name))
+            }
+            i += 7
+        }
+        return codes
+    }
+
+    private companion object {
+        const val CODES = 124
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import arcus.cornea.utils.DebouncingScheduler
+import com.iris.client.ClientEvent
+import com.iris.client.capability.Capability
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Pairs a kit of 20 sensors, an added event a few millis apart for each, and counts the reloads a
+ * provider asks for.
+ */
+class ProviderInvalidatorTest {
+    private val reloads = AtomicInteger()
+    private val reload = Runnable { reloads.incrementAndGet() }
+
+    @Test
+    fun pairingAKitReloadsOnce() {
+        val invalidator = invalidator(InvalidationPolicy.builder()
+                .onAddedOrDeleted()
+                .from("DRIV:dev:")
+                .coalesceFor(WINDOW_MS, TimeUnit.MILLISECONDS)
+                .build())
+
+        pairKit(invalidator)
+        Thread.sleep(WINDOW_MS * 4)
+
+        assertThat(reloads.get()).isEqualTo(1)
+        assertThat(invalidator.invalidationCount).isEqualTo(KIT_SIZE.toLong())
+        assertThat(invalidator.reloadCount).isEqualTo(1)
+    }
+
+    @Test
+    fun withoutAWindowEveryEventReloads() {
+        val invalidator = invalidator(InvalidationPolicy.builder()
+                .onAddedOrDeleted()
+                .from("DRIV:dev:")
+                .coalesceFor(0, TimeUnit.MILLISECONDS)
+                .build())
+
+        pairKit(invalidator)
+
+        assertThat(reloads.get()).isEqualTo(KIT_SIZE)
+    }
+
+    @Test
+    fun staticDataIsNeverInvalidated() {
+        val invalidator = invalidator(InvalidationPolicy.staticData())
+
+        pairKit(invalidator)
+        Thread.sleep(WINDOW_MS * 4)
+
+        assertThat(reloads.get()).isEqualTo(0)
+        assertThat(invalidator.invalidationCount).isEqualTo(0)
+    }
+
+    @Test
+    fun onlyMatchingSourcesAndTypesInvalidate() {
+        val policy = InvalidationPolicy.devicesAddedOrDeleted()
+
+        assertThat(policy.isInvalidatedBy(event(Capability.EVENT_DELETED, "DRIV:dev:1"))).isTrue()
+        assertThat(policy.isInvalidatedBy(event(Capability.EVENT_ADDED, "SERV:person:1"))).isFalse()
+        assertThat(policy.isInvalidatedBy(event("base:ValueChange", "DRIV:dev:1"))).isFalse()
+        assertThat(policy.isInvalidatedBy(null)).isFalse()
+    }
+
+    @Test
+    fun cancelDropsThePendingReload() {
+        val invalidator = invalidator(InvalidationPolicy.builder()
+                .onAddedOrDeleted()
+                .from("DRIV:dev:")
+                .coalesceFor(WINDOW_MS, TimeUnit.MILLISECONDS)
+                .build())
+
+        pairKit(invalidator)
+        assertThat(invalidator.isReloadPending).isTrue()
+        invalidator.cancel()
+        Thread.sleep(WINDOW_MS * 4)
+
+        assertThat(reloads.get()).isEqualTo(0)
+    }
+
+    private fun invalidator(policy: InvalidationPolicy) = ProviderInvalidator(policy, DebouncingScheduler.instance(), reload)
+
+    private fun pairKit(invalidator: ProviderInvalidator) {
+        for (i in 0 until KIT_SIZE) {
+            invalidator.onEvent(event(Capability.EVENT_ADDED, "DRIV:dev:$i"))
+            Thread.sleep(2)
+        }
+    }
+
+    private fun event(type: String, source: String): ClientEvent {
+        val event = mock(ClientEvent::class.java)
+        `when`(event.type).thenReturn(type)
+        `when`(event.sourceAddress).thenReturn(source)
+        return event
+    }
+
+    companion object {
+        private const val KIT_SIZE = 20
+        private const val WINDOW_MS = 100L
+    }
+}
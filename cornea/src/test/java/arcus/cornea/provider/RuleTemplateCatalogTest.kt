@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.provider
+
+import com.iris.client.model.RuleTemplateModel
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertThat
+
+class RuleTemplateCatalogTest {
+    private val templates = listOf(
+            template("Turn on lights when motion", "Lights & Switches", "Motion"),
+            template("alert when door opens", "Doors & Locks", "Security"),
+            template("Arm at night", "Security", "Security"),
+            template("Lock the door at 10", "Doors & Locks"),
+            template(null, "Doors & Locks"),
+            template("No categories")
+    )
+
+    @Test
+    fun groupsAndSortsByCategory() {
+        val catalog = RuleTemplateCatalog.of(PLACE, templates, 0)
+
+        assertThat(catalog.getTemplates("Doors & Locks")).containsAllOf(templates[1], templates[3], templates[4])
+        assertThat(catalog.getTemplates("Doors & Locks").indexOf(templates[1])).isLessThan(catalog.getTemplates("Doors & Locks").indexOf(templates[3]))
+        assertThat(catalog.getTemplates("Security")).containsExactly(templates[1], templates[2]).inOrder()
+        assertThat(catalog.getTemplates("Climate")).isEmpty()
+        assertThat(catalog.getTemplates(null)).isEmpty()
+    }
+
+    @Test
+    fun countsMatchWhatEachCategoryShows() {
+        val catalog = RuleTemplateCatalog.of(PLACE, templates, 0)
+
+        assertThat(catalog.counts).containsExactly(
+                "Lights & Switches", 1,
+                "Motion", 1,
+                "Doors & Locks", 3,
+                "Security", 2
+        )
+        catalog.counts.forEach { (category, count) -> assertThat(catalog.getTemplates(category)).hasSize(count) }
+    }
+
+    @Test
+    fun staleForAnotherPlaceOrOnceExpired() {
+        val catalog = RuleTemplateCatalog.of(PLACE, templates, 1_000)
+
+        assertThat(catalog.isFreshFor(PLACE, 1_500, 1_000)).isTrue()
+        assertThat(catalog.isFreshFor(PLACE, 2_000, 1_000)).isFalse()
+        assertThat(catalog.isFreshFor("other-place", 1_500, 1_000)).isFalse()
+        assertThat(catalog.isFreshFor(null, 1_500, 1_000)).isFalse()
+    }
+
+    @Test
+    fun nothingLoadedIsEmpty() {
+        val catalog = RuleTemplateCatalog.of(PLACE, null, 0)
+
+        assertThat(catalog.counts).isEmpty()
+        assertThat(catalog.getTemplates("Security")).isEmpty()
+    }
+
+    private fun template(name: String?, vararg categories: String): RuleTemplateModel {
+        val template = mock(RuleTemplateModel::class.java)
+        `when`(template.name).thenReturn(name)
+        `when`(template.categories).thenReturn(categories.toSet())
+        return template
+    }
+
+    companion object {
+        private const val PLACE = "place-id"
+    }
+}
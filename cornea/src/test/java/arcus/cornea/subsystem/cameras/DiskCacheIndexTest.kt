@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.subsystem.cameras
+
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.google.common.truth.Truth.assertThat
+import java.io.File
+import java.util.concurrent.Executor
+
+class DiskCacheIndexTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val directExecutor = Executor { it.run() }
+    private lateinit var journal: File
+    private lateinit var places: File
+
+    @Before
+    fun setUp() {
+        journal = File(folder.root, "journal")
+        places = folder.newFolder("PIMplace")
+    }
+
+    @Test
+    fun evictsLeastRecentlyUsedOnceOverSize() {
+        val index = DiskCacheIndex(journal, 100, directExecutor)
+        val first = image("first", 40)
+        val second = image("second", 40)
+        val third = image("third", 40)
+
+        index.put(first, 40)
+        index.put(second, 40)
+        assertThat(index.get(first)).isEqualTo(first)
+        index.put(third, 40)
+
+        assertThat(index.contains(second)).isFalse()
+        assertThat(second.exists()).isFalse()
+        assertThat(index.contains(first)).isTrue()
+        assertThat(index.contains(third)).isTrue()
+        assertThat(index.totalBytes).isEqualTo(80)
+    }
+
+    @Test
+    fun journalRestoresEntriesAfterRestart() {
+        val index = DiskCacheIndex(journal, 1_000, directExecutor)
+        val kept = image("kept", 10)
+        val removed = image("removed", 20)
+        index.put(kept, 10)
+        index.put(removed, 20)
+        index.remove(removed)
+
+        val restored = DiskCacheIndex(journal, 1_000, directExecutor)
+
+        assertThat(restored.contains(kept)).isTrue()
+        assertThat(restored.contains(removed)).isFalse()
+        assertThat(restored.count).isEqualTo(1)
+        assertThat(restored.totalBytes).isEqualTo(10)
+    }
+
+    @Test
+    fun reconcileTracksFilesWrittenBeforeTheIndex() {
+        val untracked = image("untracked", 30)
+        val index = DiskCacheIndex(journal, 1_000, directExecutor)
+        val missing = File(places, "missing")
+        index.put(missing, 50)
+
+        index.reconcile(places)
+
+        assertThat(index.contains(untracked)).isTrue()
+        assertThat(index.contains(missing)).isFalse()
+        assertThat(index.totalBytes).isEqualTo(30)
+    }
+
+    private fun image(name: String, size: Int): File {
+        val file = File(places, name)
+        file.writeBytes(ByteArray(size))
+        return file
+    }
+}
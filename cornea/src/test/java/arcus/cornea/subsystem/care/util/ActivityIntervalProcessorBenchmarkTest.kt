@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.subsystem.care.util
+
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertWithMessage
+import java.lang.management.ManagementFactory
+
+/**
+ * Parses a day of care activity at one minute buckets into the run length timeline and into the
+ * line per bucket list it replaced, and compares their time and allocations.
+ */
+class ActivityIntervalProcessorBenchmarkTest {
+    private val day = ActivityDay()
+
+    @Test
+    fun timelineIsCheaperThanLinePerBucket() {
+        repeat(WARM_UP) {
+            day.linePerBucket(true)
+            day.timeline(day.intervals, true)
+        }
+
+        val (legacyNs, legacyBytes) = measure { day.linePerBucket(true) }
+        val (timelineNs, timelineBytes) = measure { day.timeline(day.intervals, true) }
+
+        val measured = "${day.intervals.size} intervals, lines: ${legacyNs / 1000}us ${legacyBytes / 1024}KB, timeline: ${timelineNs / 1000}us ${timelineBytes / 1024}KB"
+        assertWithMessage(measured).that(timelineNs).isLessThan(legacyNs)
+        assertWithMessage(measured).that(timelineBytes).isLessThan(legacyBytes / 10)
+    }
+
+    private fun measure(block: () -> Unit): Pair<Long, Long> {
+        val threads = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        val thread = Thread.currentThread().id
+        val bytes = threads.getThreadAllocatedBytes(thread)
+        val start = System.nanoTime()
+        repeat(RUNS) { block() }
+        val elapsed = (System.nanoTime() - start) / RUNS
+        return elapsed to (threads.getThreadAllocatedBytes(thread) - bytes) / RUNS
+    }
+
+    companion object {
+        private const val WARM_UP = 500
+        private const val RUNS = 50
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.subsystem.care.util
+
+import arcus.cornea.subsystem.care.model.ActivityLine
+import com.google.common.base.Predicate
+import com.iris.client.bean.ActivityInterval
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.withSettings
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Date
+import java.util.Random
+import java.util.concurrent.TimeUnit
+
+class ActivityIntervalProcessorTest {
+    private val day = ActivityDay()
+
+    @Test
+    fun timelineExpandsToTheSameLines() {
+        for (withFillIn in listOf(true, false)) {
+            val expected = day.linePerBucket(withFillIn)
+            val timeline = day.timeline(day.intervals, withFillIn)
+
+            assertThat(timeline.toLines()).containsExactlyElementsIn(expected).inOrder()
+            assertThat(timeline.lineCount).isEqualTo(expected.size)
+            assertThat(timeline.size()).isLessThan(expected.size)
+        }
+    }
+
+    @Test
+    fun outOfOrderIntervalsStillComeOutInOrder() {
+        val timeline = day.timeline(day.intervals.reversed(), true)
+
+        for (run in 1 until timeline.size()) {
+            assertThat(timeline.getStart(run)).isAtLeast(timeline.getStart(run - 1))
+        }
+    }
+}
+
+/**
+ * A day of care activity at one minute buckets, the way the full screen graph asks for it, parsed
+ * into the run length timeline or into the line per bucket list it replaced.
+ */
+internal class ActivityDay {
+    private val isMotion = Predicate<String> { it!!.startsWith("motion") }
+    private val random = Random(3)
+    private val start = TimeUnit.DAYS.toMillis(18_000)
+    private val endTime = start + TimeUnit.DAYS.toMillis(1)
+    val intervals: List<ActivityInterval>
+
+    init {
+        val devices = (0 until 6).map { "motion-$it" } + (0 until 4).map { "contact-$it" }
+
+        var time = start
+        intervals = generateSequence {
+            time += BUCKET * (1 + random.nextInt(10))
+            if (time >= endTime) null else interval(time, devices.shuffled(random).take(1 + random.nextInt(3)).associateWith {
+                if (random.nextBoolean()) ActivityInterval.DEVICES_ACTIVATED else "DEACTIVATED"
+            })
+        }.toList()
+    }
+
+    fun timeline(intervals: List<ActivityInterval>, withFillIn: Boolean) =
+            ActivityIntervalProcessor(isMotion).parseActivityTimeline(intervals, BUCKET, withFillIn, endTime)
+
+    fun linePerBucket(withFillIn: Boolean) = LegacyProcessor().parse(intervals, withFillIn)
+
+    private fun interval(time: Long, devices: Map<String, String>): ActivityInterval {
+        val interval = mock(ActivityInterval::class.java, withSettings().stubOnly())
+        `when`(interval.start).thenReturn(Date(time))
+        `when`(interval.devices).thenReturn(devices)
+        return interval
+    }
+
+    // How intervals were turned into lines before the timeline: a line per bucket, then sorted
+    private inner class LegacyProcessor {
+        private val activeDevices = HashSet<String>()
+
+        fun parse(intervals: List<ActivityInterval>, withFillIn: Boolean): List<ActivityLine> {
+            val linesToDraw = ArrayList<ActivityLine>()
+            for (i in intervals.indices) {
+                var eventTime = intervals[i].start.time
+                val foundMotion = hasActiveMotionSensor(intervals[i].devices, linesToDraw, eventTime)
+                if (activeDevices.isEmpty()) {
+                    continue
+                }
+
+                linesToDraw.add(line(eventTime, !foundMotion))
+                if (!withFillIn && !foundMotion) {
+                    continue
+                }
+
+                val endTimeOfFillIn = if (i + 1 < intervals.size) intervals[i + 1].start.time else endTime
+                eventTime += BUCKET
+                while (eventTime < endTimeOfFillIn) {
+                    linesToDraw.add(line(eventTime, !foundMotion))
+                    eventTime += BUCKET
+                }
+            }
+
+            linesToDraw.sortWith(Comparator { lhs, rhs -> java.lang.Long.valueOf(lhs.eventTime).compareTo(rhs.eventTime) })
+            return linesToDraw
+        }
+
+        private fun hasActiveMotionSensor(devices: Map<String, String>, linesToDraw: MutableList<ActivityLine>, eventTime: Long): Boolean {
+            var deactivatedContact = false
+            var foundMotion = false
+            for (key in devices.keys) {
+                if (ActivityInterval.DEVICES_ACTIVATED == devices[key]) {
+                    if (!foundMotion) {
+                        foundMotion = isMotion.apply(key)
+                    }
+                    activeDevices.add(key)
+                } else {
+                    if (!deactivatedContact) {
+                        deactivatedContact = !isMotion.apply(key)
+                    }
+                    activeDevices.remove(key)
+                }
+            }
+
+            if (!foundMotion && deactivatedContact) {
+                linesToDraw.add(line(eventTime, true))
+            }
+            return foundMotion
+        }
+
+        private fun line(time: Long, isContact: Boolean) = ActivityLine().apply {
+            setIsContact(isContact)
+            setEventTime(time)
+        }
+    }
+
+    private companion object {
+        val BUCKET = TimeUnit.MINUTES.toMillis(1)
+    }
+}
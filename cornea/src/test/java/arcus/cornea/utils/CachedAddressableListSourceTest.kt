@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import com.google.common.base.Supplier
+import com.iris.client.event.ClientFuture
+import com.iris.client.event.Futures
+import com.iris.client.model.Model
+import com.iris.client.model.ModelAddedEvent
+import com.iris.client.model.ModelCache
+import com.iris.client.model.ModelDeletedEvent
+import com.iris.client.model.ModelEvent
+
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+
+class CachedAddressableListSourceTest {
+    private val random = Random(3)
+    private val models = (0 until 50).map { model("DRIV:dev:$it") }
+    private val addresses = models.map { it.address }
+    private lateinit var cache: ModelCache
+    private var loaded: List<Model> = emptyList()
+
+    @Before
+    fun setUp() {
+        // Nothing is in the cache so every load goes through the supplier
+        cache = mock(ModelCache::class.java)
+    }
+
+    @Test
+    fun loadsInAddressOrder() {
+        loaded = models.shuffled(random) + model("DRIV:dev:other") + models.take(5)
+        val source = source(addresses)
+
+        assertThat(source.get()).containsExactlyElementsIn(models).inOrder()
+    }
+
+    @Test
+    fun addedModelsAreInsertedInAddressOrder() {
+        val remaining = models.shuffled(random).toMutableList()
+        loaded = remaining.take(10)
+        val source = source(addresses)
+        remaining.subList(0, 10).clear()
+
+        for (model in remaining) {
+            fire(ModelAddedEvent(model))
+            assertThat(source.get()).containsExactlyElementsIn(models.filter { it in source.get() }).inOrder()
+        }
+        fire(ModelAddedEvent(models[0]))
+
+        assertThat(source.get()).containsExactlyElementsIn(models).inOrder()
+    }
+
+    @Test
+    fun removedModelsAreDroppedAndCanComeBack() {
+        loaded = models
+        val source = source(addresses)
+        val expected = models.toMutableList()
+
+        repeat(200) {
+            val model = models[random.nextInt(models.size)]
+            if (random.nextBoolean()) {
+                fire(ModelDeletedEvent(model))
+                expected.remove(model)
+            } else {
+                fire(ModelAddedEvent(model))
+                if (model !in expected) {
+                    expected.add(model)
+                    expected.sortBy { models.indexOf(it) }
+                }
+            }
+            assertThat(source.get()).containsExactlyElementsIn(expected).inOrder()
+        }
+    }
+
+    @Test
+    fun newAddressesReorderTheList() {
+        loaded = models
+        val source = source(addresses)
+        val reordered = models.shuffled(random)
+
+        source.setAddresses(reordered.drop(1).map { it.address })
+        assertThat(source.get()).containsExactlyElementsIn(reordered.drop(1)).inOrder()
+
+        fire(ModelDeletedEvent(reordered[10]))
+        fire(ModelAddedEvent(reordered[0]))
+        assertThat(source.get()).containsExactlyElementsIn(reordered.drop(1) - reordered[10]).inOrder()
+    }
+
+    @Test
+    fun eventsForOtherAddressesAreIgnored() {
+        loaded = models.take(10)
+        val source = source(addresses.take(10))
+
+        fire(ModelAddedEvent(models[20]))
+        fire(ModelDeletedEvent(models[30]))
+
+        assertThat(source.get()).containsExactlyElementsIn(models.take(10)).inOrder()
+    }
+
+    private fun source(addresses: List<String>): CachedAddressableListSource<Model> {
+        val source = CachedAddressableListSource(addresses, Supplier<ClientFuture<List<Model>>> { Futures.succeededFuture(loaded) }, cache)
+        source.load()
+        return source
+    }
+
+    private fun fire(event: ModelEvent) = ModelEventIndex.get(cache).onEvent(event)
+
+    private fun model(address: String): Model {
+        val model = mock(Model::class.java)
+        `when`(model.address).thenReturn(address)
+        return model
+    }
+}
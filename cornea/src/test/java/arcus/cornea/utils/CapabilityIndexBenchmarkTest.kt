@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import com.iris.client.capability.Capability
+import com.iris.client.capability.Color
+import com.iris.client.capability.ColorTemperature
+import com.iris.client.capability.Dimmer
+import com.iris.client.capability.Presence
+import com.iris.client.capability.Switch
+import com.iris.client.model.DeviceModel
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import com.google.common.truth.Truth.assertWithMessage
+import java.lang.reflect.Proxy
+
+/**
+ * Binds a device list, the capability checks the lights and switches list and the device list make
+ * for each row plus an instance check, against each model's caps and against the index.  A large
+ * place has a few hundred devices with a dozen or so caps each.
+ */
+class CapabilityIndexBenchmarkTest {
+    @Test
+    fun bindingADeviceListIsCheaperFromTheIndex() {
+        val devices = (0 until DEVICES).map { device("DRIV:dev:bench-$it", capsFor(it), mapOf("button" to listOf(Switch.NAMESPACE))) }
+        devices.forEach { assertThat(bindFromIndex(it)).isEqualTo(bindFromCaps(it)) }
+
+        repeat(WARM_UP) {
+            devices.forEach { bindFromCaps(it) }
+            devices.forEach { bindFromIndex(it) }
+        }
+
+        var start = System.nanoTime()
+        repeat(RUNS) { devices.forEach { bindFromCaps(it) } }
+        val capsNs = (System.nanoTime() - start) / RUNS
+
+        start = System.nanoTime()
+        repeat(RUNS) { devices.forEach { bindFromIndex(it) } }
+        val indexNs = (System.nanoTime() - start) / RUNS
+
+        assertWithMessage("$DEVICES devices, per bind caps: ${capsNs / 1000}us, index: ${indexNs / 1000}us")
+                .that(indexNs).isLessThan(capsNs)
+    }
+
+    // What the list controllers and CapabilityUtils.instanceSupports did before the index
+    private fun bindFromCaps(device: DeviceModel): Int {
+        val caps = device.caps.orEmpty()
+        var flags = 0
+        if (caps.contains(Dimmer.NAMESPACE)) flags = flags or 1
+        if (caps.contains(Color.NAMESPACE)) flags = flags or 2
+        if (caps.contains(ColorTemperature.NAMESPACE)) flags = flags or 4
+        if (caps.contains(Switch.NAMESPACE)) flags = flags or 8
+        if (caps.contains(Presence.NAMESPACE)) flags = flags or 16
+
+        val instance = device.instances.orEmpty()["button"]
+        if (instance != null && HashSet(instance).contains(Switch::class.java.getField("NAMESPACE").get(null).toString())) {
+            flags = flags or 32
+        }
+        return flags
+    }
+
+    private fun bindFromIndex(device: DeviceModel): Int {
+        var flags = 0
+        if (CapabilityIndex.supports(device, Dimmer::class.java)) flags = flags or 1
+        if (CapabilityIndex.supports(device, Color::class.java)) flags = flags or 2
+        if (CapabilityIndex.supports(device, ColorTemperature::class.java)) flags = flags or 4
+        if (CapabilityIndex.supports(device, Switch::class.java)) flags = flags or 8
+        if (CapabilityIndex.supports(device, Presence.NAMESPACE)) flags = flags or 16
+        if (CapabilityIndex.instanceSupports(device, "button", Switch::class.java)) flags = flags or 32
+        return flags
+    }
+
+    private fun capsFor(i: Int): List<String> {
+        val caps = mutableListOf(BASE, DEVICE, "devadv", "devconn", "devpow", "devota", "ident", "temp")
+        when (i % 4) {
+            0 -> caps += listOf(Switch.NAMESPACE, Dimmer.NAMESPACE)
+            1 -> caps += listOf(Switch.NAMESPACE, Dimmer.NAMESPACE, Color.NAMESPACE, ColorTemperature.NAMESPACE)
+            2 -> caps += listOf("cont", "tamp")
+            else -> caps += listOf(Presence.NAMESPACE)
+        }
+        return caps
+    }
+
+    // A proxy rather than a mock, a model reads its attributes from a map and mock calls would cost
+    // more than the checks being measured
+    private fun device(
+        address: String,
+        caps: List<String>,
+        instances: Map<String, Collection<String>> = emptyMap()
+    ): DeviceModel {
+        val attributes = mapOf(Capability.ATTR_ADDRESS to address, Capability.ATTR_CAPS to caps, Capability.ATTR_INSTANCES to instances)
+        return Proxy.newProxyInstance(javaClass.classLoader, arrayOf(DeviceModel::class.java)) { _, method, _ ->
+            when (method.name) {
+                "getAddress" -> attributes[Capability.ATTR_ADDRESS]
+                "getCaps" -> attributes[Capability.ATTR_CAPS]
+                "getInstances" -> attributes[Capability.ATTR_INSTANCES]
+                "addPropertyChangeListener" -> Listeners.empty()
+                else -> throw UnsupportedOperationException(method.name)
+            }
+        } as DeviceModel
+    }
+
+    companion object {
+        private const val BASE = "base"
+        private const val DEVICE = "dev"
+        private const val DEVICES = 300
+        private const val WARM_UP = 200
+        private const val RUNS = 200
+    }
+}
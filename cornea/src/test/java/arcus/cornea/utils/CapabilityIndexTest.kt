@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import com.iris.client.capability.Capability
+import com.iris.client.capability.Color
+import com.iris.client.capability.Dimmer
+import com.iris.client.capability.Switch
+import com.iris.client.model.DeviceModel
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.beans.PropertyChangeEvent
+import java.beans.PropertyChangeListener
+import java.lang.reflect.Proxy
+
+class CapabilityIndexTest {
+    private val listeners = mutableMapOf<String, PropertyChangeListener>()
+
+    @Test
+    fun answersFromCapsAndInstances() {
+        val dimmer = device("DRIV:dev:dimmer", listOf(BASE, DEVICE, Switch.NAMESPACE, Dimmer.NAMESPACE),
+                mapOf("button" to listOf(Switch.NAMESPACE)))
+
+        assertThat(CapabilityIndex.supports(dimmer, Dimmer::class.java)).isTrue()
+        assertThat(CapabilityIndex.supports(dimmer, Color.NAMESPACE)).isFalse()
+        assertThat(CapabilityIndex.instanceSupports(dimmer, "button", Switch::class.java)).isTrue()
+        assertThat(CapabilityIndex.instanceSupports(dimmer, "button", Dimmer::class.java)).isFalse()
+        assertThat(CapabilityIndex.instanceSupports(dimmer, "missing", Switch::class.java)).isFalse()
+        assertThat(CapabilityIndex.supports(dimmer, Capability::class.java)).isFalse()
+        assertThat(CapabilityIndex.supports(null, Switch::class.java)).isFalse()
+        assertThat(CapabilityIndex.namespaceId(Dimmer.NAMESPACE)).isEqualTo(CapabilityIndex.namespaceId(Dimmer.NAMESPACE))
+    }
+
+    @Test
+    fun refreshesOnlyWhenCapsChange() {
+        val caps = mutableListOf(BASE, DEVICE, Switch.NAMESPACE)
+        val bulb = device("DRIV:dev:bulb", caps)
+        assertThat(CapabilityIndex.supports(bulb, Color::class.java)).isFalse()
+
+        caps.add(Color.NAMESPACE)
+        changed(bulb, Switch.ATTR_STATE)
+        assertThat(CapabilityIndex.supports(bulb, Color::class.java)).isFalse()
+
+        changed(bulb, Capability.ATTR_CAPS)
+        assertThat(CapabilityIndex.supports(bulb, Color::class.java)).isTrue()
+    }
+
+    @Test
+    fun aReloadedModelIsReadAgain() {
+        val before = device("DRIV:dev:reloaded", listOf(BASE, Switch.NAMESPACE))
+        assertThat(CapabilityIndex.supports(before, Switch::class.java)).isTrue()
+
+        val after = device("DRIV:dev:reloaded", listOf(BASE, Dimmer.NAMESPACE))
+        assertThat(CapabilityIndex.supports(after, Switch::class.java)).isFalse()
+        assertThat(CapabilityIndex.supports(after, Dimmer::class.java)).isTrue()
+    }
+
+    @Test
+    fun aForgottenModelIsReadAgain() {
+        val caps = mutableListOf(BASE, DEVICE, Switch.NAMESPACE)
+        val removed = device("DRIV:dev:removed", caps)
+        val cleared = device("DRIV:dev:cleared", caps)
+        assertThat(CapabilityIndex.supports(removed, Color::class.java)).isFalse()
+        assertThat(CapabilityIndex.supports(cleared, Color::class.java)).isFalse()
+
+        caps.add(Color.NAMESPACE)
+        CapabilityIndex.remove(removed.address)
+        assertThat(CapabilityIndex.supports(removed, Color::class.java)).isTrue()
+        assertThat(CapabilityIndex.supports(cleared, Color::class.java)).isFalse()
+
+        CapabilityIndex.clear()
+        assertThat(CapabilityIndex.supports(cleared, Color::class.java)).isTrue()
+    }
+
+    @Test
+    fun answersLikeTheCapsForEveryKindOfDevice() {
+        val kinds = listOf(
+                listOf(BASE, DEVICE, Switch.NAMESPACE, Dimmer.NAMESPACE),
+                listOf(BASE, DEVICE, Switch.NAMESPACE, Dimmer.NAMESPACE, Color.NAMESPACE),
+                listOf(BASE, DEVICE, "cont", "tamp"),
+                emptyList()
+        )
+
+        kinds.forEachIndexed { i, caps ->
+            val device = device("DRIV:dev:kind-$i", caps)
+            for (namespace in listOf(BASE, DEVICE, Switch.NAMESPACE, Dimmer.NAMESPACE, Color.NAMESPACE, "cont", "pres")) {
+                assertThat(CapabilityIndex.supports(device, namespace)).isEqualTo(namespace in caps)
+            }
+        }
+    }
+
+    private fun device(
+        address: String,
+        caps: List<String>,
+        instances: Map<String, Collection<String>> = emptyMap()
+    ): DeviceModel {
+        val attributes = mapOf(Capability.ATTR_ADDRESS to address, Capability.ATTR_CAPS to caps, Capability.ATTR_INSTANCES to instances)
+        return Proxy.newProxyInstance(javaClass.classLoader, arrayOf(DeviceModel::class.java)) { _, method, args ->
+            when (method.name) {
+                "getAddress" -> attributes[Capability.ATTR_ADDRESS]
+                "getCaps" -> attributes[Capability.ATTR_CAPS]
+                "getInstances" -> attributes[Capability.ATTR_INSTANCES]
+                "addPropertyChangeListener" -> {
+                    listeners[address] = args[0] as PropertyChangeListener
+                    Listeners.empty()
+                }
+                else -> throw UnsupportedOperationException(method.name)
+            }
+        } as DeviceModel
+    }
+
+    private fun changed(device: DeviceModel, attribute: String) {
+        listeners.getValue(device.address).propertyChange(PropertyChangeEvent(device, attribute, null, null))
+    }
+
+    companion object {
+        private const val BASE = "base"
+        private const val DEVICE = "dev"
+    }
+}
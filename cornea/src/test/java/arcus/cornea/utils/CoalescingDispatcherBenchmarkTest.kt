@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import arcus.cornea.utils.HubReconnect.Companion.LISTENERS
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertWithMessage
+
+/**
+ * Replays a hub reconnect to a set of dashboard style listeners through a fake main thread, once
+ * with a task per event and once through the coalescing dispatcher, and compares the time each
+ * takes.
+ */
+class CoalescingDispatcherBenchmarkTest {
+    private val reconnect = HubReconnect()
+    private val mainThread = reconnect.mainThread
+    private val dispatcher = reconnect.dispatcher
+
+    @Test
+    fun reconnectBurstIsDeliveredFasterCoalesced() {
+        val burst = reconnect.reconnectBurst()
+
+        repeat(WARM_UP) {
+            reconnect.replay(burst) { Listeners.runOnExecutor(it, mainThread) }
+            reconnect.replay(burst) { dispatcher.wrap(it) }
+        }
+
+        val perEvent = reconnect.replay(burst) { Listeners.runOnExecutor(it, mainThread) }
+        val coalesced = reconnect.replay(burst) { dispatcher.wrap(it) }
+
+        assertWithMessage("${burst.size} events x $LISTENERS listeners, per event: ${perEvent.nanos / 1000}us, coalesced: ${coalesced.nanos / 1000}us")
+                .that(coalesced.nanos).isLessThan(perEvent.nanos)
+    }
+
+    companion object {
+        private const val WARM_UP = 20
+    }
+}
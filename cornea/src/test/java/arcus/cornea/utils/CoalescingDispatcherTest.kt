@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import arcus.cornea.utils.HubReconnect.Companion.LISTENERS
+import arcus.cornea.utils.HubReconnect.Companion.MODELS
+import com.iris.client.event.Listener
+import com.iris.client.model.Model
+import com.iris.client.model.ModelChangedEvent
+import com.iris.client.model.ModelDeletedEvent
+import com.iris.client.model.ModelEvent
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertThat
+import java.util.ArrayDeque
+import java.util.Random
+import java.util.concurrent.Executor
+
+class CoalescingDispatcherTest {
+    private val reconnect = HubReconnect()
+    private val mainThread = reconnect.mainThread
+    private val models = reconnect.models
+    private val dispatcher = reconnect.dispatcher
+
+    @Test
+    fun changesToTheSameModelAreMergedWithLaterValuesWinning() {
+        val received = mutableListOf<ModelEvent>()
+        val listener = dispatcher.wrap(Listener<ModelEvent> { received.add(it) })
+
+        listener.onEvent(ModelChangedEvent(models[0], mapOf("swit:state" to "ON", "devpow:battery" to 90)))
+        listener.onEvent(ModelChangedEvent(models[1], mapOf("swit:state" to "OFF")))
+        listener.onEvent(ModelChangedEvent(models[0], mapOf("swit:state" to "OFF", "dim:brightness" to 40)))
+        mainThread.runFrame()
+
+        assertThat(received).hasSize(2)
+        assertThat(received[0].model).isSameAs(models[0])
+        assertThat((received[0] as ModelChangedEvent).changedAttributes).containsExactly(
+                "swit:state", "OFF",
+                "devpow:battery", 90,
+                "dim:brightness", 40
+        )
+        assertThat(received[1].model).isSameAs(models[1])
+        assertThat(dispatcher.mergedCount).isEqualTo(1)
+    }
+
+    @Test
+    fun changesAreNotMergedAcrossADelete() {
+        val received = mutableListOf<ModelEvent>()
+        val listener = dispatcher.wrap(Listener<ModelEvent> { received.add(it) })
+
+        listener.onEvent(ModelChangedEvent(models[0], mapOf("swit:state" to "ON")))
+        listener.onEvent(ModelDeletedEvent(models[0]))
+        listener.onEvent(ModelChangedEvent(models[0], mapOf("swit:state" to "OFF")))
+        mainThread.runFrame()
+
+        assertThat(received.map { it.javaClass }).containsExactly(
+                ModelChangedEvent::class.java,
+                ModelDeletedEvent::class.java,
+                ModelChangedEvent::class.java
+        ).inOrder()
+    }
+
+    @Test
+    fun eventsQueuedWhileDeliveringGoToTheNextBatch() {
+        val received = mutableListOf<ModelEvent>()
+        lateinit var listener: Listener<ModelEvent>
+        listener = dispatcher.wrap(Listener<ModelEvent> {
+            received.add(it)
+            if (received.size == 1) {
+                listener.onEvent(ModelChangedEvent(models[0], mapOf("swit:state" to "OFF")))
+            }
+        })
+
+        listener.onEvent(ModelChangedEvent(models[0], mapOf("swit:state" to "ON")))
+        mainThread.runFrame()
+        assertThat(received).hasSize(1)
+        assertThat(dispatcher.queueDepth).isEqualTo(1)
+
+        mainThread.runFrame()
+        assertThat(received).hasSize(2)
+        assertThat(dispatcher.queueDepth).isEqualTo(0)
+    }
+
+    @Test
+    fun reconnectBurstCostsOneTaskAndAViewUpdatePerModel() {
+        val burst = reconnect.reconnectBurst()
+
+        val perEvent = reconnect.replay(burst) { Listeners.runOnExecutor(it, mainThread) }
+        val coalesced = reconnect.replay(burst) { dispatcher.wrap(it) }
+
+        assertThat(perEvent.tasks).isEqualTo(burst.size * LISTENERS)
+        assertThat(perEvent.updates).isEqualTo(burst.size * LISTENERS)
+        assertThat(coalesced.tasks).isEqualTo(1)
+        assertThat(coalesced.updates).isEqualTo(MODELS * LISTENERS)
+
+        assertThat(dispatcher.receivedCount).isEqualTo((burst.size * LISTENERS).toLong())
+        assertThat(dispatcher.deliveredCount).isEqualTo((MODELS * LISTENERS).toLong())
+        assertThat(dispatcher.maxQueueDepth).isEqualTo(MODELS * LISTENERS)
+        assertThat(dispatcher.queueDepth).isEqualTo(0)
+        assertThat(dispatcher.batchCount).isEqualTo(1)
+    }
+}
+
+/**
+ * Replays a hub reconnect, a burst of attribute changes across a place's devices, to a set of
+ * dashboard style listeners through a fake main thread.
+ */
+internal class HubReconnect {
+    val mainThread = FakeMainThread()
+    val models = (0 until MODELS).map { model("DRIV:dev:$it") }
+    val dispatcher = CoalescingDispatcher(mainThread)
+
+    class Result(val tasks: Int, val updates: Int, val nanos: Long)
+
+    fun replay(burst: List<ModelChangedEvent>, wrap: (Listener<ModelEvent>) -> Listener<ModelEvent>): Result {
+        val view = FakeDashboardCard()
+        val listeners = (0 until LISTENERS).map { wrap(Listener<ModelEvent> { view.updateView() }) }
+
+        val start = System.nanoTime()
+        for (event in burst) {
+            listeners.forEach { it.onEvent(event) }
+        }
+        val tasks = mainThread.runFrame()
+        return Result(tasks, view.updates, System.nanoTime() - start)
+    }
+
+    fun reconnectBurst(): List<ModelChangedEvent> {
+        val random = Random(7)
+        return (0 until BURST).map {
+            val attribute = ATTRIBUTES[random.nextInt(ATTRIBUTES.size)]
+            ModelChangedEvent(models[random.nextInt(MODELS)], mapOf(attribute to random.nextInt(100)))
+        }.let { burst ->
+            // every model changes at least once
+            models.map { ModelChangedEvent(it, mapOf(ATTRIBUTES[0] to 0)) } + burst
+        }
+    }
+
+    private fun model(address: String): Model {
+        val model = mock(Model::class.java)
+        `when`(model.address).thenReturn(address)
+        return model
+    }
+
+    /**
+     * Stands in for the main looper: tasks queue up until the test runs a frame.
+     */
+    class FakeMainThread : Executor {
+        private val tasks = ArrayDeque<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.add(command)
+        }
+
+        fun runFrame(): Int {
+            var ran = 0
+            val count = tasks.size
+            while (ran < count) {
+                tasks.poll().run()
+                ran++
+            }
+            return ran
+        }
+    }
+
+    /**
+     * What updateView costs on a dashboard card, walking the devices it summarizes.
+     */
+    private class FakeDashboardCard {
+        private val values = IntArray(MODELS * 4) { it }
+        var updates = 0
+        var total = 0L
+
+        fun updateView() {
+            updates++
+            for (value in values) {
+                total += value
+            }
+        }
+    }
+
+    companion object {
+        const val MODELS = 60
+        const val LISTENERS = 8
+        private const val BURST = 600
+        private val ATTRIBUTES = listOf("swit:state", "devpow:battery", "temp:temperature", "devconn:state", "dim:brightness")
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import com.google.common.base.Ticker
+import org.junit.Before
+import org.junit.Test
+
+import com.google.common.truth.Truth.assertThat
+import java.util.PriorityQueue
+import java.util.concurrent.AbstractExecutorService
+import java.util.concurrent.Callable
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+class DebouncingSchedulerTest {
+    private lateinit var executor: ManualExecutor
+    private lateinit var scheduler: DebouncingScheduler
+    private val ran: MutableList<Int> = mutableListOf()
+
+    @Before
+    fun setUp() {
+        executor = ManualExecutor()
+        scheduler = DebouncingScheduler(executor, executor.ticker)
+    }
+
+    @Test
+    fun burstRunsOnlyTheLastAction() {
+        val debouncer = scheduler.newDebouncer(DELAY)
+
+        burst(debouncer, "key", 10, 5)
+        assertThat(ran).isEmpty()
+        executor.advance(DELAY)
+
+        assertThat(ran).containsExactly(9)
+        assertThat(executor.scheduled).isEqualTo(0)
+    }
+
+    @Test
+    fun keysAreDebouncedIndependently() {
+        val debouncer = scheduler.newDebouncer(DELAY)
+
+        debouncer.submit("first", Runnable { ran.add(1) })
+        executor.advance(DELAY / 2)
+        debouncer.submit("second", Runnable { ran.add(2) })
+        executor.advance(DELAY / 2)
+        assertThat(ran).containsExactly(1)
+        executor.advance(DELAY / 2)
+
+        assertThat(ran).containsExactly(1, 2).inOrder()
+    }
+
+    @Test
+    fun leadingRunsTheFirstAndLastAction() {
+        val debouncer = scheduler.newDebouncerBuilder(DELAY).leading(true).build()
+
+        burst(debouncer, "key", 10, 5)
+        assertThat(ran).containsExactly(0)
+        executor.advance(DELAY)
+
+        assertThat(ran).containsExactly(0, 9).inOrder()
+    }
+
+    @Test
+    fun maxWaitRunsDuringALongBurst() {
+        val debouncer = scheduler.newDebouncerBuilder(DELAY).maxWait(DELAY * 2).build()
+
+        burst(debouncer, "key", 40, 10)
+        executor.advance(DELAY)
+
+        assertThat(ran).containsExactly(9, 19, 29, 39).inOrder()
+        assertThat(executor.scheduled).isEqualTo(0)
+    }
+
+    @Test
+    fun coalescerSeesThePendingAction() {
+        val debouncer = scheduler.newDebouncerBuilder(DELAY)
+                .coalesceWith(object : DebouncingScheduler.Coalescer {
+                    override fun coalesce(pending: Runnable, next: Runnable): Runnable = Runnable {
+                        pending.run()
+                        next.run()
+                    }
+                })
+                .build()
+
+        burst(debouncer, "key", 3, 5)
+        executor.advance(DELAY)
+
+        assertThat(ran).containsExactly(0, 1, 2).inOrder()
+    }
+
+    @Test
+    fun cancelDropsThePendingAction() {
+        val debouncer = scheduler.newDebouncer(DELAY)
+
+        debouncer.submit("key", Runnable { ran.add(1) })
+        assertThat(debouncer.isPending("key")).isTrue()
+        debouncer.cancel("key")
+        executor.advance(DELAY)
+
+        assertThat(ran).isEmpty()
+        assertThat(debouncer.isPending("key")).isFalse()
+    }
+
+    private fun burst(debouncer: DebouncingScheduler.Debouncer, key: String, count: Int, spacingMs: Long) {
+        for (i in 0 until count) {
+            debouncer.submit(key, Runnable { ran.add(i) })
+            executor.advance(spacingMs)
+        }
+    }
+
+    /**
+     * Runs everything on the test's thread, timers only fire when the clock is advanced.
+     */
+    class ManualExecutor : AbstractExecutorService(), ScheduledExecutorService {
+        private class Timer(val at: Long, val sequence: Long, val task: Runnable)
+
+        private val timers = PriorityQueue<Timer>(compareBy<Timer>({ it.at }, { it.sequence }))
+        private var nowMs = 0L
+        private var sequence = 0L
+
+        val ticker = object : Ticker() {
+            override fun read(): Long = TimeUnit.MILLISECONDS.toNanos(nowMs)
+        }
+
+        val scheduled: Int get() = timers.size
+
+        fun advance(ms: Long) {
+            val until = nowMs + ms
+            while (timers.isNotEmpty() && timers.peek().at <= until) {
+                val timer = timers.poll()
+                nowMs = timer.at
+                timer.task.run()
+            }
+            nowMs = until
+        }
+
+        override fun execute(command: Runnable) = command.run()
+
+        override fun schedule(command: Runnable, delay: Long, unit: TimeUnit): ScheduledFuture<*>? {
+            timers.add(Timer(nowMs + unit.toMillis(delay), sequence++, command))
+            return null
+        }
+
+        override fun <V> schedule(callable: Callable<V>, delay: Long, unit: TimeUnit): ScheduledFuture<V> =
+                throw UnsupportedOperationException()
+
+        override fun scheduleAtFixedRate(command: Runnable, initialDelay: Long, period: Long, unit: TimeUnit): ScheduledFuture<*> =
+                throw UnsupportedOperationException()
+
+        override fun scheduleWithFixedDelay(command: Runnable, initialDelay: Long, delay: Long, unit: TimeUnit): ScheduledFuture<*> =
+                throw UnsupportedOperationException()
+
+        override fun shutdown() = Unit
+
+        override fun shutdownNow(): List<Runnable> = emptyList()
+
+        override fun isShutdown(): Boolean = false
+
+        override fun isTerminated(): Boolean = false
+
+        override fun awaitTermination(timeout: Long, unit: TimeUnit): Boolean = true
+    }
+
+    companion object {
+        private const val DELAY = 50L
+    }
+}
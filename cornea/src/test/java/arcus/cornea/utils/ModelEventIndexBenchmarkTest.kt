@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import com.iris.client.event.Listener
+import com.iris.client.model.Model
+import com.iris.client.model.ModelAddedEvent
+import com.iris.client.model.ModelEvent
+
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertWithMessage
+
+/**
+ * Delivers an event for one address while more and more other addresses are subscribed, the cost
+ * per event shouldn't grow with them.
+ */
+class ModelEventIndexBenchmarkTest {
+    @Test
+    fun costPerEventStaysFlatAsSourcesGrow() {
+        val event = eventFor("DRIV:dev:0")
+        val fewNs = nanosPerEvent(event, 10)
+        val manyNs = nanosPerEvent(event, 10_000)
+
+        assertWithMessage("per event with 10 sources: ${fewNs}ns, with 10000: ${manyNs}ns")
+                .that(manyNs).isLessThan(fewNs * 4)
+    }
+
+    private fun nanosPerEvent(event: ModelEvent, sources: Int): Long {
+        val index = ModelEventIndex()
+        val listener = Listener<ModelEvent> { }
+        for (i in 0 until sources) {
+            index.subscribe("DRIV:dev:$i", listener)
+        }
+
+        repeat(WARM_UP) { index.onEvent(event) }
+        val start = System.nanoTime()
+        repeat(RUNS) { index.onEvent(event) }
+        return (System.nanoTime() - start) / RUNS
+    }
+
+    private fun eventFor(address: String): ModelEvent {
+        val model = mock(Model::class.java)
+        `when`(model.address).thenReturn(address)
+        return ModelAddedEvent(model)
+    }
+
+    companion object {
+        private const val WARM_UP = 10_000
+        private const val RUNS = 100_000
+    }
+}
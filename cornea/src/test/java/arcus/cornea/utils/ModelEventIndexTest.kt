@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.cornea.utils
+
+import com.iris.client.event.Listener
+import com.iris.client.model.Model
+import com.iris.client.model.ModelAddedEvent
+import com.iris.client.model.ModelEvent
+
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+
+import com.google.common.truth.Truth.assertThat
+
+class ModelEventIndexTest {
+    private lateinit var index: ModelEventIndex
+
+    @Before
+    fun setUp() {
+        index = ModelEventIndex()
+    }
+
+    @Test
+    fun eventsAreOnlyDeliveredToSubscribedAddress() {
+        val first = CountingListener()
+        val second = CountingListener()
+        index.subscribe("DRIV:dev:1", first)
+        index.subscribe("DRIV:dev:2", second)
+
+        index.onEvent(eventFor("DRIV:dev:1"))
+
+        assertThat(first.count).isEqualTo(1)
+        assertThat(second.count).isEqualTo(0)
+    }
+
+    @Test
+    fun removedSubscriptionsStopReceivingEvents() {
+        val listener = CountingListener()
+        val registration = index.subscribe(listOf("DRIV:dev:1", "DRIV:dev:2"), listener)
+
+        assertThat(registration.remove()).isTrue()
+        index.onEvent(eventFor("DRIV:dev:1"))
+        index.onEvent(eventFor("DRIV:dev:2"))
+
+        assertThat(listener.count).isEqualTo(0)
+        assertThat(index.addressCount).isEqualTo(0)
+    }
+
+    @Test
+    fun onlyTheSubscribedListenerRunsHoweverManySourcesThereAre() {
+        val event = eventFor("DRIV:dev:0")
+
+        for (sources in intArrayOf(10, 10_000)) {
+            val index = ModelEventIndex()
+            val target = CountingListener()
+            val others = (1 until sources).map { i -> CountingListener().also { index.subscribe("DRIV:dev:$i", it) } }
+            index.subscribe("DRIV:dev:0", target)
+
+            repeat(EVENTS) { index.onEvent(event) }
+
+            assertThat(target.count).isEqualTo(EVENTS)
+            assertThat(others.sumBy { it.count }).isEqualTo(0)
+        }
+    }
+
+    private fun eventFor(address: String): ModelEvent {
+        val model = mock(Model::class.java)
+        `when`(model.address).thenReturn(address)
+        return ModelAddedEvent(model)
+    }
+
+    private class CountingListener : Listener<ModelEvent> {
+        var count = 0
+
+        override fun onEvent(event: ModelEvent) {
+            count++
+        }
+    }
+
+    companion object {
+        private const val EVENTS = 100
+    }
+}
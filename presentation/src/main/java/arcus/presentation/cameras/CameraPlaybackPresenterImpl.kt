@@ -22,6 +22,7 @@ import arcus.cornea.SessionController
 import arcus.cornea.device.DeviceController
 import arcus.cornea.error.Errors
 import arcus.cornea.helpers.onFailureMain
+import arcus.cornea.network.HttpClientFactory
 import arcus.cornea.provider.DeviceModelProvider
 import arcus.cornea.provider.PagedRecordingModelProvider
 import arcus.cornea.subsystem.SubsystemController
@@ -56,7 +57,7 @@ import java.util.concurrent.atomic.AtomicReference
 class CameraPlaybackPresenterImpl internal constructor(
     private val client: IrisClient,
     source: ModelSource<DeviceModel>,
-    deviceID: String,
+    private val deviceID: String,
     private val cellBackupSubsystem: ModelSource<SubsystemModel>,
     private val videoService: VideoService,
     private val scheduledExecutor: ScheduledExecutor,
@@ -68,9 +69,10 @@ class CameraPlaybackPresenterImpl internal constructor(
 
     private var recordingsListener: ListenerRegistration = Listeners.empty()
     private var changedListener: ListenerRegistration = Listeners.empty()
+    private var previewVisible = false
 
-    private val okHttpClient = OkHttpClient
-            .Builder()
+    private val okHttpClient: OkHttpClient = HttpClientFactory
+            .newBuilder(HttpClientFactory.Purpose.GENERAL)
             .connectTimeout(15, TimeUnit.SECONDS)
             .readTimeout(45, TimeUnit.SECONDS)
             .build()
@@ -142,6 +144,9 @@ class CameraPlaybackPresenterImpl internal constructor(
         CameraPreviewGetter.instance().addCallback(deviceID) {
             this.updateViewOnMain()
         }
+        // Only visible previews are refreshed
+        CameraPreviewGetter.instance().setVisible(deviceID, true)
+        previewVisible = true
     }
 
     override fun setView(callback: PlaybackView) {
@@ -156,6 +161,10 @@ class CameraPlaybackPresenterImpl internal constructor(
             // so this should not continue to hold resources if we don't clear here.
             CameraPreviewGetter.instance().clearCallbacks(device.id)
         }
+        if (previewVisible) {
+            previewVisible = false
+            CameraPreviewGetter.instance().setVisible(deviceID, false)
+        }
         Listeners.clear(changedListener)
         Listeners.clear(recordingsListener)
     }
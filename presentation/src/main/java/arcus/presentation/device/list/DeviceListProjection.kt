@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.presentation.device.list
+
+import arcus.cornea.utils.ListChange
+import com.iris.client.capability.Capability
+import com.iris.client.capability.Device
+import com.iris.client.capability.DeviceConnection
+import com.iris.client.capability.Hub
+import com.iris.client.capability.HubConnection
+
+/**
+ * The device list kept sorted by name with an index by device id, so an add, remove or change to
+ * one device only touches that device's entry and reports the positions that changed instead of
+ * rebuilding, re-sorting and re-diffing the whole list.
+ *
+ * Devices come first, followed by the hub (if there is one).  Not thread safe, only used from
+ * the main thread.
+ */
+class DeviceListProjection {
+    private val devices = ArrayList<DeviceListItem>()
+    private val devicesById = HashMap<String, DeviceListItem>()
+    private var hub: DeviceListItem? = null
+
+    /**
+     * The number of entries, devices and hub.
+     */
+    val size: Int get() = devices.size + if (hub == null) 0 else 1
+
+    /**
+     * A copy of the current entries, devices and then the hub.
+     */
+    fun items(): List<DeviceListItem> = ArrayList<DeviceListItem>(size).apply {
+        addAll(devices)
+        hub?.let { add(it) }
+    }
+
+    /**
+     * Replaces every entry.
+     */
+    fun reset(devices: List<DeviceListItem>, hub: DeviceListItem?) {
+        this.devices.clear()
+        this.devicesById.clear()
+        this.devices.addAll(devices.sortedWith(ORDER))
+        devices.associateByTo(devicesById) { it.id }
+        this.hub = hub
+    }
+
+    /**
+     * Adds or updates a device, returning the positions that changed (if any).
+     */
+    fun put(item: DeviceListItem): List<ListChange<DeviceListItem>> {
+        val existing = devicesById.put(item.id, item)
+        if (existing == null) {
+            val position = insertionPoint(item)
+            devices.add(position, item)
+            return listOf(ListChange.inserted(position, item))
+        }
+
+        val from = indexOf(existing)
+        if (existing.name == item.name) {
+            devices[from] = item
+            return if (existing.areContentsTheSame(item)) emptyList() else listOf(ListChange.changed(from, item))
+        }
+
+        devices.removeAt(from)
+        val to = insertionPoint(item)
+        devices.add(to, item)
+        return if (from == to) {
+            listOf(ListChange.changed(to, item))
+        } else {
+            listOf(ListChange.moved(from, to, item), ListChange.changed(to, item))
+        }
+    }
+
+    /**
+     * Removes a device, returning the positions that changed (if any).
+     */
+    fun remove(id: String): List<ListChange<DeviceListItem>> {
+        val existing = devicesById.remove(id) ?: return emptyList()
+        val position = indexOf(existing)
+        devices.removeAt(position)
+        return listOf(ListChange.removed(position, existing))
+    }
+
+    /**
+     * Sets or clears the hub, returning the positions that changed (if any).
+     */
+    fun putHub(item: DeviceListItem?): List<ListChange<DeviceListItem>> {
+        val existing = hub
+        hub = item
+        val position = devices.size
+        return when {
+            existing == null && item == null -> emptyList()
+            existing == null -> listOf(ListChange.inserted(position, item))
+            item == null -> listOf(ListChange.removed(position, existing))
+            existing.areContentsTheSame(item) -> emptyList()
+            else -> listOf(ListChange.changed(position, item))
+        }
+    }
+
+    private fun indexOf(item: DeviceListItem): Int {
+        val index = devices.binarySearch(item, ORDER)
+        check(index >= 0) { "Device ${item.id} is indexed but not in the list" }
+        return index
+    }
+
+    private fun insertionPoint(item: DeviceListItem): Int {
+        val index = devices.binarySearch(item, ORDER)
+        return if (index < 0) -(index + 1) else index
+    }
+
+    companion object {
+        // Ties on name are broken by id so every entry has exactly one position
+        private val ORDER = compareBy<DeviceListItem>({ it.name }, { it.id })
+
+        private val DEVICE_ATTRIBUTES = setOf(Device.ATTR_NAME, DeviceConnection.ATTR_STATE, Capability.ATTR_CAPS)
+        private val HUB_ATTRIBUTES = setOf(Hub.ATTR_NAME, HubConnection.ATTR_STATE)
+
+        /**
+         * If a change to any of the [changedAttributes] of a device changes its entry.
+         */
+        @JvmStatic
+        fun affectsDevice(changedAttributes: Set<String>) = changedAttributes.any { it in DEVICE_ATTRIBUTES }
+
+        /**
+         * If a change to any of the [changedAttributes] of the hub changes its entry.
+         */
+        @JvmStatic
+        fun affectsHub(changedAttributes: Set<String>) = changedAttributes.any { it in HUB_ATTRIBUTES }
+    }
+}
@@ -4,6 +4,9 @@ import arcus.cornea.dto.HubDeviceModelDTO
 import arcus.cornea.helpers.await
 import arcus.cornea.provider.DeviceModelProvider
 import arcus.cornea.provider.HubModelProvider
+import arcus.cornea.utils.CapabilityIndex
+import arcus.cornea.utils.ListChange
+import arcus.cornea.utils.Listeners
 import arcus.presentation.common.view.ViewState
 import arcus.presentation.common.view.ViewStateViewModel
 import com.iris.client.capability.DeviceConnection
@@ -12,6 +15,9 @@ import com.iris.client.capability.Presence
 import com.iris.client.event.ListenerRegistration
 import com.iris.client.model.DeviceModel
 import com.iris.client.model.HubModel
+import com.iris.client.model.ModelChangedEvent
+import com.iris.client.model.ModelDeletedEvent
+import com.iris.client.model.ModelEvent
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 
@@ -20,24 +26,47 @@ class DeviceListViewModel(
     private val deviceProvider: DeviceModelProvider = DeviceModelProvider.instance(),
     private val hubProvider: HubModelProvider = HubModelProvider.instance()
 ) : ViewStateViewModel<Devices>() {
-    private var deviceListener: ListenerRegistration = deviceProvider.store.addListener { loadData() }
-    private var hubListener: ListenerRegistration = hubProvider.store.addListener { loadData() }
+    private val projection = DeviceListProjection()
+    private var loaded = false
+    private var loading = false
+    private var reloadWhenLoaded = false
+    private var version = 0
+    private var deviceListener: ListenerRegistration = deviceProvider.store.addListener(
+        Listeners.runOnUiThread<ModelEvent> { onDeviceEvent(it) }
+    )
+    private var hubListener: ListenerRegistration = hubProvider.store.addListener(
+        Listeners.runOnUiThread<ModelEvent> { onHubEvent(it) }
+    )
 
     override fun loadData() {
+        if (loading) {
+            return
+        }
+        loading = true
+
         safeLaunch {
-            emitLoading()
-
-            val allDevices = withContext(Dispatchers.Default) {
-                val hub = hubProvider.load().await().firstOrNull().toListItem() ?: emptyList()
-                deviceProvider
-                    .load()
-                    .await()
-                    .map { it.toListItem() }
-                    .sortedBy { it.name }
-                    .plus(hub)
+            // Once there is a list, refresh it in place rather than flashing the loading state
+            if (!loaded) {
+                emitLoading()
+            }
+
+            try {
+                val (hub, devices) = withContext(Dispatchers.Default) {
+                    val hub = hubProvider.load().await().firstOrNull().toListItem()
+                    hub to deviceProvider.load().await().map { it.toListItem() }
+                }
+
+                projection.reset(devices, hub)
+                loaded = true
+                publish(null)
+            } finally {
+                loading = false
             }
 
-            _viewState.value = ViewState.Loaded(Devices(allDevices.size, allDevices + FooterListItem))
+            if (reloadWhenLoaded) {
+                reloadWhenLoaded = false
+                loadData()
+            }
         }
     }
 
@@ -46,23 +75,62 @@ class DeviceListViewModel(
         hubListener.remove()
     }
 
-    private fun HubModel?.toListItem(): List<DeviceListItem>? {
+    private fun onDeviceEvent(event: ModelEvent) {
+        val model = event.model as? DeviceModel ?: return
+        val changes = when (event) {
+            is ModelChangedEvent -> if (DeviceListProjection.affectsDevice(event.changedAttributes.keys)) {
+                projection.put(model.toListItem())
+            } else {
+                return
+            }
+            is ModelDeletedEvent -> projection.remove(model.id)
+            else -> projection.put(model.toListItem())
+        }
+        publishChanges(changes)
+    }
+
+    private fun onHubEvent(event: ModelEvent) {
+        val model = event.model as? HubModel ?: return
+        val changes = when (event) {
+            is ModelChangedEvent -> if (DeviceListProjection.affectsHub(event.changedAttributes.keys)) {
+                projection.putHub(model.toListItem())
+            } else {
+                return
+            }
+            is ModelDeletedEvent -> projection.putHub(null)
+            else -> projection.putHub(model.toListItem())
+        }
+        publishChanges(changes)
+    }
+
+    private fun publishChanges(changes: List<ListChange<DeviceListItem>>) {
+        when {
+            // The load in progress may have read the store before this event, so go again once it's done
+            loading -> reloadWhenLoaded = true
+            loaded && changes.isNotEmpty() -> publish(changes)
+        }
+    }
+
+    private fun publish(changes: List<ListChange<DeviceListItem>>?) {
+        val items = projection.items()
+        _viewState.value = ViewState.Loaded(Devices(items.size, items + FooterListItem, changes, ++version))
+    }
+
+    private fun HubModel?.toListItem(): DeviceListItem? {
         val hub = this ?: return null
 
-        return listOf(
-            DeviceListItem(
-                id = hub.id,
-                name = hub.name.orEmpty(),
-                isCloudConnected = false,
-                isOffline = HubConnection.STATE_OFFLINE == hub.get(HubConnection.ATTR_STATE),
-                device = HubDeviceModelDTO(this)
-            )
+        return DeviceListItem(
+            id = hub.id,
+            name = hub.name.orEmpty(),
+            isCloudConnected = false,
+            isOffline = HubConnection.STATE_OFFLINE == hub.get(HubConnection.ATTR_STATE),
+            device = HubDeviceModelDTO(this)
         )
     }
 
     private fun DeviceModel.toListItem(): DeviceListItem {
         val isOffline = DeviceConnection.STATE_OFFLINE == get(DeviceConnection.ATTR_STATE)
-        val isPresenceDevice = caps.orEmpty().contains(Presence.NAMESPACE)
+        val isPresenceDevice = CapabilityIndex.supports(this, Presence.NAMESPACE)
 
         return DeviceListItem(
             id = id,
@@ -1,13 +1,24 @@
 package arcus.presentation.device.list
 
+import arcus.cornea.utils.ListChange
 import arcus.presentation.common.view.ContentsComparable
 import com.iris.client.model.DeviceModel
 
 /**
  * The current view state with the number of [devices] and the full [deviceList] that can be
  * displayed.
+ *
+ * Each state has a [version] one higher than the last.  When only part of the list changed
+ * [changes] holds what changed, in the order it should be applied to the [deviceList] of the
+ * previous version; when it's null (or the previous version wasn't seen) the whole list should
+ * be diffed.
  */
-data class Devices(val devices: Int, val deviceList: List<ListItem>)
+data class Devices(
+    val devices: Int,
+    val deviceList: List<ListItem>,
+    val changes: List<ListChange<DeviceListItem>>? = null,
+    val version: Int = 0
+)
 
 /**
  * The type of view represented.
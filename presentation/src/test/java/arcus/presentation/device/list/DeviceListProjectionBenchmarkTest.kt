@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.presentation.device.list
+
+import arcus.presentation.device.list.DeviceListTraffic.Companion.DEVICES
+import com.google.common.truth.Truth.assertWithMessage
+import org.junit.Test
+
+/**
+ * Plays bursts of store events for a place with 300 devices through the projection and through
+ * the full rebuild every event used to trigger.
+ */
+class DeviceListProjectionBenchmarkTest {
+    private val traffic = DeviceListTraffic()
+
+    @Test
+    fun incrementalUpdatesAreCheaperThanRebuilding() {
+        val events = traffic.events
+        val projection = DeviceListProjection()
+        projection.reset(traffic.devices.values.toList(), traffic.hub())
+        val snapshot = LinkedHashMap(traffic.devices)
+
+        repeat(WARM_UP) {
+            events.forEach { traffic.rebuildOnEvent(it) }
+            traffic.devices = LinkedHashMap(snapshot)
+            events.forEach { traffic.apply(projection, it) }
+            projection.reset(snapshot.values.toList(), traffic.hub())
+        }
+
+        traffic.devices = LinkedHashMap(snapshot)
+        var start = System.nanoTime()
+        events.forEach { traffic.rebuildOnEvent(it) }
+        val rebuildNs = (System.nanoTime() - start) / events.size
+
+        traffic.devices = LinkedHashMap(snapshot)
+        start = System.nanoTime()
+        events.forEach { traffic.apply(projection, it) }
+        val incrementalNs = (System.nanoTime() - start) / events.size
+
+        assertWithMessage("$DEVICES devices, ${events.size} events, per event rebuild: ${rebuildNs}ns, incremental: ${incrementalNs}ns")
+                .that(incrementalNs).isLessThan(rebuildNs)
+    }
+
+    companion object {
+        private const val WARM_UP = 5
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2019 Arcus Project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package arcus.presentation.device.list
+
+import arcus.cornea.utils.ListChange
+import com.google.common.truth.Truth.assertThat
+import com.iris.client.capability.Device
+import com.iris.client.capability.DeviceConnection
+import com.iris.client.model.DeviceModel
+import java.util.Random
+import org.junit.Test
+import org.mockito.Mockito.mock
+
+class DeviceListProjectionTest {
+    private val traffic = DeviceListTraffic()
+
+    @Test
+    fun positionalChangesReproduceTheList() {
+        val projection = DeviceListProjection()
+        projection.reset(traffic.devices.values.toList(), traffic.hub())
+        val shown = projection.items().toMutableList()
+
+        for (event in traffic.events) {
+            val changes = traffic.apply(projection, event)
+            val current = projection.items()
+            for (change in changes) {
+                when (change.type) {
+                    ListChange.Type.INSERTED -> shown.add(change.position, current[change.position])
+                    ListChange.Type.REMOVED -> shown.removeAt(change.position)
+                    ListChange.Type.MOVED -> shown.add(change.position, shown.removeAt(change.fromPosition))
+                    ListChange.Type.CHANGED -> shown[change.position] = current[change.position]
+                }
+            }
+            assertThat(shown.map { it.id }).isEqualTo(current.map { it.id })
+            assertThat(shown).isEqualTo(current)
+        }
+
+        assertThat(projection.items()).isEqualTo(traffic.rebuild())
+    }
+
+    @Test
+    fun valueChangesDoNotTouchTheList() {
+        val projection = DeviceListProjection()
+        projection.reset(traffic.devices.values.toList(), traffic.hub())
+
+        val id = traffic.devices.keys.first()
+        val event = DeviceListTraffic.Event(id, setOf("swit:state", "devpow:battery"), traffic.devices.getValue(id))
+        val changes = traffic.apply(projection, event)
+
+        assertThat(changes).isEmpty()
+    }
+}
+
+/**
+ * A place with 300 devices and bursts of store events for it, most of them value changes that
+ * don't show in the list (switch state, battery, temperature...) with the odd connection flap or
+ * rename.
+ */
+internal class DeviceListTraffic {
+    private val model = mock(DeviceModel::class.java)
+    private val random = Random(11)
+    var devices: MutableMap<String, DeviceListItem> =
+        (0 until DEVICES).associateTo(LinkedHashMap()) { "device-$it" to item("device-$it", "Device ${random.nextInt(1000)}") }
+    val events: List<Event> = burstyTraffic()
+
+    data class Event(val id: String, val changed: Set<String>, val item: DeviceListItem?)
+
+    // What DeviceListViewModel does with each store event
+    fun apply(projection: DeviceListProjection, event: Event): List<ListChange<DeviceListItem>> {
+        devices.update(event)
+        return when {
+            event.item == null -> projection.remove(event.id)
+            event.changed.isEmpty() || DeviceListProjection.affectsDevice(event.changed) -> projection.put(event.item)
+            else -> emptyList()
+        }
+    }
+
+    // What every store event used to trigger
+    fun rebuildOnEvent(event: Event): List<ListItem> {
+        devices.update(event)
+        return rebuild() + FooterListItem
+    }
+
+    fun rebuild(): List<DeviceListItem> = devices.values
+        .map { it.copy() }
+        .sortedWith(compareBy({ it.name }, { it.id }))
+        .plus(hub())
+
+    fun hub() = DeviceListItem("hub", "My Hub", false, false, model)
+
+    private fun MutableMap<String, DeviceListItem>.update(event: Event) {
+        if (event.item == null) remove(event.id) else put(event.id, event.item)
+    }
+
+    private fun burstyTraffic(): List<Event> {
+        val ids = devices.keys.toMutableList()
+        val current = LinkedHashMap(devices)
+        val events = mutableListOf<Event>()
+        repeat(BURSTS) {
+            repeat(BURST_SIZE) {
+                val id = ids[random.nextInt(ids.size)]
+                val device = current.getValue(id)
+                val roll = random.nextInt(100)
+                val event = when {
+                    roll < 90 -> Event(id, setOf(VALUE_ATTRIBUTES[random.nextInt(VALUE_ATTRIBUTES.size)]), device)
+                    roll < 98 -> Event(id, setOf(DeviceConnection.ATTR_STATE), device.copy(isOffline = !device.isOffline))
+                    else -> Event(id, setOf(Device.ATTR_NAME), device.copy(name = "Renamed ${random.nextInt(1000)}"))
+                }
+                current.update(event)
+                events.add(event)
+            }
+
+            // Now and then a device is paired or removed
+            val removed = ids.removeAt(random.nextInt(ids.size))
+            current.remove(removed)
+            events.add(Event(removed, emptySet(), null))
+            val added = "device-new-${events.size}"
+            ids.add(added)
+            item(added, "Device ${random.nextInt(1000)}").let {
+                current[added] = it
+                events.add(Event(added, emptySet(), it))
+            }
+        }
+        return events
+    }
+
+    private fun item(id: String, name: String) = DeviceListItem(id, name, false, false, model)
+
+    companion object {
+        const val DEVICES = 300
+        private const val BURSTS = 20
+        private const val BURST_SIZE = 250
+        private val VALUE_ATTRIBUTES = listOf("swit:state", "devpow:battery", "temp:temperature", "dim:brightness", "devconn:signal")
+    }
+}